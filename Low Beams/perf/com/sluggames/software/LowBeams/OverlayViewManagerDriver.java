@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import com.sluggames.software.LowBeams.resources.FXML.OverlayView.OverlayViewController;
+import javafx.scene.Parent;
+
+/**
+ * This class gives the performance checks access to the package-private parts
+ * of an {@link OverlayViewManager overlay view manager}, so that they can drive
+ * its pulse without the JavaFX pulse. It is part of the performance checks
+ * rather than the application, and shares the application's package only to
+ * reach those parts.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.38.0
+ */
+public class OverlayViewManagerDriver {
+	/*
+		*************
+		*** PULSE ***
+		*************
+	*/
+	/**
+	 * This method runs the pulse of the overlay view manager, as its pulse
+	 * timer would. It must be called from the JavaFX application thread.
+	 *
+	 *
+	 * @param overlayViewManager	overlay view manager
+	 *
+	 * @param currentPulseTime	time of the pulse in nanoseconds
+	 */
+	public static void pulse(
+	    OverlayViewManager overlayViewManager,
+	    long currentPulseTime
+	) {
+		overlayViewManager.pulse(currentPulseTime);
+	}
+
+
+	/*
+		************
+		*** VIEW ***
+		************
+	*/
+	/**
+	 * @param overlayViewManager	overlay view manager
+	 *
+	 * @return			controller of its overlay view
+	 */
+	public static OverlayViewController getController(
+	    OverlayViewManager overlayViewManager
+	) {
+		return overlayViewManager.getController();
+	}
+
+	/**
+	 * @param overlayViewManager	overlay view manager
+	 *
+	 * @return			root of its overlay view
+	 */
+	public static Parent getRoot(OverlayViewManager overlayViewManager) {
+		return overlayViewManager.getStage().getScene().getRoot();
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private OverlayViewManagerDriver() {}
+}
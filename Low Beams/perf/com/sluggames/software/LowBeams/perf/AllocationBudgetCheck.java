@@ -0,0 +1,349 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.perf;
+
+import com.sluggames.software.LowBeams.OverlayViewManager;
+import com.sluggames.software.LowBeams.resources.FXML.OverlayView.OverlayViewController;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+
+/**
+ * This class checks the steady-state allocation of the overlay's cursor window
+ * tracking loop against a checked-in budget. Each scenario drives a
+ * {@link SimulatedOverlay simulated overlay} through several thousand pulses,
+ * and measures the bytes allocated by the driving thread, which stands in for
+ * the JavaFX application thread, once the loop has warmed up. The check fails
+ * if any scenario allocates more per pulse than its budget.
+ *
+ * The manager scenario drives the pulse of a whole
+ * {@link OverlayViewManager overlay view manager} along with that of its view,
+ * which covers the z-order check, the dimming backend update, the screen bounds
+ * comparison and the periodic latency log. It shows a stage, and therefore
+ * runs in a process of its own, on a display given the same way as for the
+ * display scenarios of the {@link PerformanceCheck performance check}, and is
+ * skipped if there is none.
+ *
+ * The budget file is given as the first argument, and defaults to
+ * perf/allocation-budget.properties.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.30.0
+ */
+public class AllocationBudgetCheck {
+	/*
+		**************
+		*** PULSES ***
+		**************
+	*/
+	private static final int WARM_UP_PULSE_COUNT = 5_000;
+	private static final int MEASURED_PULSE_COUNT = 5_000;
+
+
+	/*
+		*****************
+		*** SCENARIOS ***
+		*****************
+	*/
+	private enum Scenario {
+		UNTILED(false, true, false),
+		TILED(true, true, false),
+		FIXED_FREQUENCY(false, false, false),
+		MANAGER(false, true, true);
+
+		private final boolean tiled;
+		private final boolean velocityAdaptive;
+		private final boolean displayRequired;
+
+		private Scenario(
+		    boolean tiled,
+		    boolean velocityAdaptive,
+		    boolean displayRequired
+		) {
+			this.tiled = tiled;
+			this.velocityAdaptive = velocityAdaptive;
+			this.displayRequired = displayRequired;
+		}
+
+		private String getBudgetKey() {
+			return name().toLowerCase(Locale.ROOT) + ".bytesPerPulse";
+		}
+	}
+
+	/*
+			-------
+			| RUN |
+			-------
+	*/
+	/**
+	 * @param scenario	scenario to run
+	 *
+	 * @return		bytes allocated per measured pulse
+	 *
+	 * @throws IOException	if the overlay view couldn't be loaded
+	 */
+	private static double run(Scenario scenario) throws IOException {
+		return measure(new SimulatedOverlay(), scenario);
+	}
+
+	/*
+			-----------
+			| MEASURE |
+			-----------
+	*/
+	/**
+	 * @param simulatedOverlay	simulated overlay to drive
+	 *
+	 * @param scenario		scenario to run
+	 *
+	 * @return			bytes allocated per measured pulse
+	 */
+	private static double measure(
+	    SimulatedOverlay simulatedOverlay,
+	    Scenario scenario
+	) {
+		OverlayViewController controller =
+		    simulatedOverlay.getController();
+
+		controller.tiledProperty().set(scenario.tiled);
+		controller.cursorWindowTrackingVelocityAdaptiveProperty().set(
+		    scenario.velocityAdaptive
+		);
+
+		com.sun.management.ThreadMXBean threadMXBean =
+		    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		long measurementStartBytes = 0;
+		for (
+		    int pulse = 0;
+		    pulse < WARM_UP_PULSE_COUNT + MEASURED_PULSE_COUNT;
+		    pulse++
+		) {
+			if (pulse == WARM_UP_PULSE_COUNT) {
+				measurementStartBytes =
+				    threadMXBean.getThreadAllocatedBytes(threadId);
+			}
+
+			simulatedOverlay.pulse();
+		}
+
+		long measuredBytes =
+		    threadMXBean.getThreadAllocatedBytes(threadId) -
+		    measurementStartBytes;
+
+		return (double) measuredBytes / MEASURED_PULSE_COUNT;
+	}
+
+
+	/*
+		***************
+		*** MANAGER ***
+		***************
+
+	The manager scenario process reports its result on standard output, so
+	that anything else it prints can be passed through.
+	*/
+	private static final String SCENARIO_ARGUMENT = "--scenario";
+
+	private static final String RESULT_PREFIX = "BYTES_PER_PULSE\t";
+
+	private static final long SCENARIO_TIMEOUT_SECONDS = 180;
+
+	/**
+	 * This class runs the manager scenario on the JavaFX application
+	 * thread, with the enabled overlay view manager showing its stage.
+	 */
+	public static class ManagerScenarioApplication extends Application {
+		@Override
+		public void start(Stage ignoredStage) {
+			OverlayViewManager overlayViewManager =
+			    new OverlayViewManager();
+			overlayViewManager.enabledProperty().set(true);
+
+			try {
+				System.out.println(RESULT_PREFIX + measure(
+				    new SimulatedOverlay(overlayViewManager),
+				    Scenario.MANAGER
+				));
+			} finally {
+				Platform.exit();
+			}
+		}
+	}
+
+	/*
+			-----------
+			| PROCESS |
+			-----------
+	*/
+	/**
+	 * This method runs a display scenario in a fresh virtual machine, with
+	 * the same runtime and class path as this one.
+	 *
+	 *
+	 * @param scenario			scenario to run
+	 *
+	 * @param displayCommandPrefix	command prefix giving the scenario a
+	 *					display
+	 *
+	 * @return				bytes allocated per measured
+	 *					pulse, or NaN if the scenario
+	 *					didn't complete successfully
+	 */
+	private static double runProcess(
+	    Scenario scenario,
+	    List<String> displayCommandPrefix
+	) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<>(displayCommandPrefix);
+		command.add(Paths.get(
+		    System.getProperty("java.home"),
+		    "bin",
+		    "java"
+		).toString());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add("-Dprism.order=sw");
+		command.add(AllocationBudgetCheck.class.getName());
+		command.add(SCENARIO_ARGUMENT);
+		command.add(scenario.name());
+
+		Process process = new ProcessBuilder(command).redirectError(
+		    ProcessBuilder.Redirect.INHERIT
+		).start();
+
+		double bytesPerPulse = Double.NaN;
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+		    process.getInputStream(),
+		    StandardCharsets.UTF_8
+		))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith(RESULT_PREFIX)) {
+					bytesPerPulse = Double.parseDouble(
+					    line.substring(RESULT_PREFIX.length())
+					);
+				} else {
+					System.out.println(line);
+				}
+			}
+		}
+
+		if (!process.waitFor(SCENARIO_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+			process.destroyForcibly();
+			return Double.NaN;
+		}
+		return process.exitValue() == 0 ? bytesPerPulse : Double.NaN;
+	}
+
+
+	/*
+		************
+		*** MAIN ***
+		************
+	*/
+	public static void main(String[] args) throws IOException, InterruptedException {
+		/*
+		Run the manager scenario, if this is its process.
+		*/
+		if (args.length == 2 && args[0].equals(SCENARIO_ARGUMENT)) {
+			Application.launch(ManagerScenarioApplication.class);
+			return;
+		}
+
+		Path budgetPath = Paths.get(
+		    args.length > 0 ? args[0] : "perf/allocation-budget.properties"
+		);
+		Properties budget = new Properties();
+		try (InputStream inputStream = Files.newInputStream(budgetPath)) {
+			budget.load(inputStream);
+		}
+
+		boolean failed = false;
+		List<String> displayCommandPrefix =
+		    PerformanceCheck.getDisplayCommandPrefix();
+		for (Scenario scenario : Scenario.values()) {
+			String budgetValue =
+			    budget.getProperty(scenario.getBudgetKey());
+			if (budgetValue == null) {
+				throw new IllegalArgumentException(
+				    "Missing budget " + scenario.getBudgetKey() +
+				    " in " + budgetPath
+				);
+			}
+			double budgetBytes = Double.parseDouble(budgetValue);
+
+			double bytesPerPulse;
+			if (!scenario.displayRequired) {
+				bytesPerPulse = run(scenario);
+			} else if (displayCommandPrefix != null) {
+				bytesPerPulse = runProcess(
+				    scenario,
+				    displayCommandPrefix
+				);
+			} else {
+				System.out.println(String.format(
+				    Locale.ROOT,
+				    "%-16s SKIPPED (no display)",
+				    scenario
+				));
+				continue;
+			}
+			boolean withinBudget = bytesPerPulse <= budgetBytes;
+			failed |= !withinBudget;
+
+			System.out.println(String.format(
+			    Locale.ROOT,
+			    "%-16s %10.1f bytes/pulse (budget %.1f) %s",
+			    scenario,
+			    bytesPerPulse,
+			    budgetBytes,
+			    withinBudget ? "OK" :
+			    Double.isNaN(bytesPerPulse) ? "FAILED" :
+			    "OVER BUDGET"
+			));
+		}
+
+		if (failed) {
+			System.exit(1);
+		}
+	}
+}
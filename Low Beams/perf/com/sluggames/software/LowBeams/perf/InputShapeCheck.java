@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.perf;
+
+import com.sluggames.software.LowBeams.platform.X11InputShape;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+/**
+ * This class checks that the input transparent mode works on an X server, such
+ * as Xvfb. It shows a transparent stage like an overlay's, sets an empty input
+ * shape on it, and asks the X server for the input shape, which must be empty,
+ * then restores the default input shape, which must not be. The stage is then
+ * shown again, as JavaFX creates a new native window each time, and the empty
+ * input shape is set and checked once more.
+ *
+ * The check fails if input shapes are not supported at all, such as when the
+ * JNA library is missing from the class path, as the input transparent mode
+ * would silently fall back to the cursor window then. It is run by
+ * perf/input-shape-check.sh.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.38.0
+ */
+public class InputShapeCheck {
+	/*
+		*************
+		*** STAGE ***
+		*************
+	*/
+	private static final double STAGE_WIDTH = 320;
+	private static final double STAGE_HEIGHT = 240;
+
+
+	/*
+		*************
+		*** CHECK ***
+		*************
+	*/
+	private static boolean passed = true;
+
+	private static void check(String label, boolean condition) {
+		System.out.println(String.format(
+		    "%-40s %s",
+		    label,
+		    condition ? "OK" : "FAILED"
+		));
+		passed &= condition;
+	}
+
+	/*
+			-------
+			| RUN |
+			-------
+	*/
+	private static void run(Stage stage) {
+		check("Input shapes supported", X11InputShape.isSupported());
+		if (!passed) {
+			return;
+		}
+
+		check(
+		    "Empty input shape set",
+		    X11InputShape.setEmpty(stage)
+		);
+		check(
+		    "Empty input shape reported",
+		    X11InputShape.getInputShapeRectangleCount(stage) == 0
+		);
+
+		check(
+		    "Default input shape set",
+		    X11InputShape.setDefault(stage)
+		);
+		check(
+		    "Default input shape reported",
+		    X11InputShape.getInputShapeRectangleCount(stage) > 0
+		);
+
+		/*
+		Show the stage again, which creates a new native window, whose
+		input shape is the default again.
+		*/
+		stage.hide();
+		stage.show();
+		check(
+		    "Default input shape after showing again",
+		    X11InputShape.getInputShapeRectangleCount(stage) > 0
+		);
+		check(
+		    "Empty input shape set after showing again",
+		    X11InputShape.setEmpty(stage)
+		);
+		check(
+		    "Empty input shape reported after showing",
+		    X11InputShape.getInputShapeRectangleCount(stage) == 0
+		);
+	}
+
+
+	/*
+		*******************
+		*** APPLICATION ***
+		*******************
+	*/
+	/**
+	 * This class shows the stage, and runs the check once it is showing.
+	 */
+	public static class CheckApplication extends Application {
+		@Override
+		public void start(Stage ignoredStage) {
+			Stage stage = new Stage(StageStyle.TRANSPARENT);
+			stage.setAlwaysOnTop(true);
+			stage.setScene(new Scene(
+			    new Pane(),
+			    STAGE_WIDTH,
+			    STAGE_HEIGHT,
+			    Color.TRANSPARENT
+			));
+			stage.show();
+
+			/*
+			Run the check on a later pulse, once the native window
+			exists.
+			*/
+			Platform.runLater(() -> {
+				try {
+					run(stage);
+				} finally {
+					System.exit(passed ? 0 : 1);
+				}
+			});
+		}
+	}
+
+
+	/*
+		************
+		*** MAIN ***
+		************
+	*/
+	public static void main(String[] args) {
+		Application.launch(CheckApplication.class, args);
+	}
+}
@@ -0,0 +1,458 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.perf;
+
+import com.sluggames.software.LowBeams.CursorTrace;
+import com.sluggames.software.LowBeams.OverlayViewManager;
+import com.sluggames.software.LowBeams.OverlayViewManagerPool;
+import com.sluggames.software.LowBeams.platform.ProcFileSystem;
+import java.awt.AWTException;
+import java.awt.Robot;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.paint.Color;
+import javafx.stage.Screen;
+import javafx.stage.Stage;
+
+/**
+ * This class stresses the application with a given number of enabled
+ * overlays, spread across all of the screens. While the cursor is moved across
+ * the screens, either along a recorded {@link CursorTrace cursor trace} or a
+ * synthetic path, the overlays' colors are cycled and overlays are repeatedly
+ * removed and added again, the same way the preferences view does it. The
+ * process CPU usage, the JavaFX application thread CPU usage, the peak
+ * resident set size, and the live thread count are then printed as a single
+ * tab separated result line, for perf/overlay-stress.sh to collect into a
+ * scaling report.
+ *
+ * The cursor is moved through the window system, so that every overlay
+ * receives real mouse events, which needs a display, such as one provided by
+ * Xvfb. The overlays are given distinct cursor window widths, so that overlays
+ * sharing a screen are not merged, and each costs a stage of its own.
+ *
+ * The overlay count is given as the first argument, and an optional cursor
+ * trace file as the second.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.32.0
+ * @since 0.32.0
+ */
+public class OverlayStressTest {
+	/*
+		****************
+		*** DURATION ***
+		****************
+	*/
+	private static final long SETTLE_MILLISECONDS = 3_000;
+	private static final long MEASURE_MILLISECONDS = 30_000;
+
+	/*
+			----------------------
+			| PREFERENCE CHANGES |
+			----------------------
+	*/
+	private static final long COLOR_CHANGE_INTERVAL_NANOSECONDS =
+	    TimeUnit.SECONDS.toNanos(1);
+	private static final long REPLACEMENT_INTERVAL_NANOSECONDS =
+	    TimeUnit.SECONDS.toNanos(3);
+
+	private static final Color[] COLORS = {
+	    Color.rgb(0, 0, 0, 0.5),
+	    Color.rgb(40, 20, 0, 0.4),
+	    Color.rgb(0, 0, 60, 0.3),
+	    Color.rgb(20, 0, 20, 0.6)
+	};
+
+	/*
+			----------
+			| CURSOR |
+			----------
+
+	The synthetic path moves the cursor at a typical mouse report rate.
+	*/
+	private static final long CURSOR_MOVE_INTERVAL_NANOSECONDS =
+	    1_000_000_000L / 125;
+
+
+	/*
+		****************
+		*** OVERLAYS ***
+		****************
+
+	The overlays are only accessed from the JavaFX application thread.
+	*/
+	private static final List<OverlayViewManager> OVERLAY_VIEW_MANAGERS =
+	    new ArrayList<>();
+
+	private static int addedOverlayCount = 0;
+	private static int colorIndex = 0;
+
+	/*
+			-------
+			| ADD |
+			-------
+	*/
+	private static void addOverlay() {
+		List<Screen> screens = Screen.getScreens();
+
+		OverlayViewManager overlayViewManager =
+		    OverlayViewManagerPool.acquire();
+		overlayViewManager.targetScreenProperty().set(
+		    screens.get(addedOverlayCount % screens.size())
+		);
+		overlayViewManager.cursorWindowWidthProperty().set(
+		    overlayViewManager.cursorWindowWidthProperty().get() +
+		    addedOverlayCount
+		);
+		overlayViewManager.colorProperty().set(
+		    COLORS[(colorIndex + addedOverlayCount) % COLORS.length]
+		);
+		overlayViewManager.enabledProperty().set(true);
+
+		OVERLAY_VIEW_MANAGERS.add(overlayViewManager);
+		addedOverlayCount++;
+	}
+
+	/*
+			-----------
+			| REPLACE |
+			-----------
+	*/
+	private static void replaceOverlay() {
+		OverlayViewManager overlayViewManager =
+		    OVERLAY_VIEW_MANAGERS.remove(0);
+		overlayViewManager.enabledProperty().set(false);
+		OverlayViewManagerPool.release(overlayViewManager);
+
+		addOverlay();
+	}
+
+	/*
+			----------------
+			| CHANGE COLOR |
+			----------------
+	*/
+	private static void changeColors() {
+		colorIndex++;
+		for (int index = 0; index < OVERLAY_VIEW_MANAGERS.size(); index++) {
+			OVERLAY_VIEW_MANAGERS.get(index).colorProperty().set(
+			    COLORS[(colorIndex + index) % COLORS.length]
+			);
+		}
+	}
+
+
+	/*
+		*******************
+		*** APPLICATION ***
+		*******************
+	*/
+	/**
+	 * This class adds the overlays, and starts the stress thread.
+	 */
+	public static class StressApplication extends Application {
+		@Override
+		public void start(Stage ignoredStage) throws AWTException {
+			List<String> parameters = getParameters().getRaw();
+			int overlayCount = Integer.parseInt(parameters.get(0));
+			CursorTrace cursorTrace = null;
+			if (parameters.size() > 1) {
+				try {
+					cursorTrace = CursorTrace.load(
+					    Paths.get(parameters.get(1))
+					);
+				} catch (IOException exception) {
+					throw new IllegalArgumentException(
+					    "Failed to load cursor trace " +
+					    parameters.get(1),
+					    exception
+					);
+				}
+			}
+
+			Platform.setImplicitExit(false);
+			for (int index = 0; index < overlayCount; index++) {
+				addOverlay();
+			}
+
+			Thread stressThread = new Thread(
+			    new Stress(
+			    overlayCount,
+			    cursorTrace,
+			    Thread.currentThread().getId()
+			), "Overlay Stress");
+			stressThread.setDaemon(true);
+			stressThread.start();
+		}
+	}
+
+
+	/*
+		**************
+		*** STRESS ***
+		**************
+	*/
+	private static class Stress implements Runnable {
+		private final int overlayCount;
+		private final CursorTrace cursorTrace;
+		private final long applicationThreadId;
+
+		private final Robot robot = new Robot();
+		private final Rectangle2D bounds = getScreenUnionBounds();
+
+		private final ThreadMXBean threadMXBean =
+		    ManagementFactory.getThreadMXBean();
+		private final long processId = getProcessId();
+		private long peakResidentSetSizeBytes = 0;
+
+		private Stress(
+		    int overlayCount,
+		    CursorTrace cursorTrace,
+		    long applicationThreadId
+		) throws AWTException {
+			this.overlayCount = overlayCount;
+			this.cursorTrace = cursorTrace;
+			this.applicationThreadId = applicationThreadId;
+		}
+
+		@Override
+		public void run() {
+			try {
+				Thread.sleep(SETTLE_MILLISECONDS);
+
+				long startTime = System.nanoTime();
+				long startProcessCpuTime = readProcessCpuTime();
+				long startApplicationThreadCpuTime =
+				    threadMXBean.getThreadCpuTime(applicationThreadId);
+
+				stress(startTime);
+
+				long elapsedTime = System.nanoTime() - startTime;
+				double processCpuUsage =
+				    (double) (readProcessCpuTime() - startProcessCpuTime) /
+				    elapsedTime;
+				double applicationThreadCpuUsage =
+				    (double) (
+				    threadMXBean.getThreadCpuTime(applicationThreadId) -
+				    startApplicationThreadCpuTime
+				) / elapsedTime;
+
+				System.out.println(String.format(
+				    Locale.ROOT,
+				    "RESULT\t%d\t%.4f\t%.4f\t%.1f\t%d",
+				    overlayCount,
+				    processCpuUsage,
+				    applicationThreadCpuUsage,
+				    peakResidentSetSizeBytes / (1024.0 * 1024.0),
+				    threadMXBean.getThreadCount()
+				));
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			} finally {
+				System.exit(0);
+			}
+		}
+
+		/*
+				----------
+				| STRESS |
+				----------
+		*/
+		private void stress(long startTime) {
+			long endTime =
+			    startTime +
+			    TimeUnit.MILLISECONDS.toNanos(MEASURE_MILLISECONDS);
+			long nextColorChangeTime =
+			    startTime + COLOR_CHANGE_INTERVAL_NANOSECONDS;
+			long nextReplacementTime =
+			    startTime + REPLACEMENT_INTERVAL_NANOSECONDS;
+			int cursorSampleIndex = 0;
+
+			long time;
+			while ((time = System.nanoTime()) < endTime) {
+				/*
+				Move the cursor to the next position, and wait
+				until it is due to move again.
+				*/
+				long cursorMoveInterval;
+				if (cursorTrace != null && cursorTrace.size() > 1) {
+					robot.mouseMove(
+					    (int) cursorTrace.getSampleX(cursorSampleIndex),
+					    (int) cursorTrace.getSampleY(cursorSampleIndex)
+					);
+					int nextCursorSampleIndex =
+					    (cursorSampleIndex + 1) % cursorTrace.size();
+					cursorMoveInterval = Math.max(
+					    cursorTrace.getSampleTime(nextCursorSampleIndex) -
+					    cursorTrace.getSampleTime(cursorSampleIndex),
+					    0
+					);
+					cursorSampleIndex = nextCursorSampleIndex;
+				} else {
+					long pathTime = time - startTime;
+					robot.mouseMove(
+					    (int) (bounds.getMinX() + SimulatedOverlay.getCursorPathX(
+					    pathTime,
+					    bounds.getWidth()
+					    )),
+					    (int) (bounds.getMinY() + SimulatedOverlay.getCursorPathY(
+					    pathTime,
+					    bounds.getHeight()
+					    ))
+					);
+					cursorMoveInterval = CURSOR_MOVE_INTERVAL_NANOSECONDS;
+				}
+
+				/*
+				Change the preferences when due, on the JavaFX
+				application thread, as the preferences view
+				does.
+				*/
+				if (time >= nextColorChangeTime) {
+					Platform.runLater(OverlayStressTest::changeColors);
+					nextColorChangeTime += COLOR_CHANGE_INTERVAL_NANOSECONDS;
+				}
+				if (time >= nextReplacementTime) {
+					Platform.runLater(OverlayStressTest::replaceOverlay);
+					nextReplacementTime += REPLACEMENT_INTERVAL_NANOSECONDS;
+
+					/*
+					Sample the resident set size along with
+					the replacements, which is often enough
+					to find its peak.
+					*/
+					sampleResidentSetSize();
+				}
+
+				LockSupport.parkNanos(cursorMoveInterval);
+			}
+
+			/*
+			Let the last preference changes complete.
+			*/
+			CountDownLatch completionLatch = new CountDownLatch(1);
+			Platform.runLater(completionLatch::countDown);
+			try {
+				completionLatch.await();
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+			sampleResidentSetSize();
+		}
+
+		/*
+				-----------
+				| SAMPLES |
+				-----------
+		*/
+		private static long readProcessCpuTime() {
+			java.lang.management.OperatingSystemMXBean operatingSystemBean =
+			    ManagementFactory.getOperatingSystemMXBean();
+			if (operatingSystemBean instanceof com.sun.management.OperatingSystemMXBean) {
+				return ((com.sun.management.OperatingSystemMXBean)
+				    operatingSystemBean).getProcessCpuTime();
+			}
+
+			return 0;
+		}
+
+		private void sampleResidentSetSize() {
+			try {
+				peakResidentSetSizeBytes = Math.max(
+				    peakResidentSetSizeBytes,
+				    ProcFileSystem.readResidentSetSizeBytes(processId)
+				);
+			} catch (IOException exception) {
+				/*
+				The resident set size is reported as unknown.
+				*/
+			}
+		}
+	}
+
+	/*
+			----------
+			| BOUNDS |
+			----------
+	*/
+	private static Rectangle2D getScreenUnionBounds() {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (Screen screen : Screen.getScreens()) {
+			Rectangle2D screenBounds = screen.getBounds();
+			minX = Math.min(minX, screenBounds.getMinX());
+			minY = Math.min(minY, screenBounds.getMinY());
+			maxX = Math.max(maxX, screenBounds.getMaxX());
+			maxY = Math.max(maxY, screenBounds.getMaxY());
+		}
+
+		return new Rectangle2D(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	/*
+			--------------
+			| PROCESS ID |
+			--------------
+
+	The runtime name is of the form "process@host" on all mainstream
+	virtual machines.
+	*/
+	private static long getProcessId() {
+		String runtimeName = ManagementFactory.getRuntimeMXBean().getName();
+		return Long.parseLong(
+		    runtimeName.substring(0, runtimeName.indexOf('@'))
+		);
+	}
+
+
+	/*
+		************
+		*** MAIN ***
+		************
+	*/
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			throw new IllegalArgumentException(
+			    "Usage: OverlayStressTest overlayCount [cursorTraceFile]"
+			);
+		}
+
+		Application.launch(StressApplication.class, args);
+	}
+}
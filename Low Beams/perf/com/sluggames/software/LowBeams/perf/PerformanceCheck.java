@@ -0,0 +1,901 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.perf;
+
+import com.sluggames.software.LowBeams.CpuUsageMonitor;
+import com.sluggames.software.LowBeams.OverlayProfile;
+import com.sluggames.software.LowBeams.OverlayViewManager;
+import com.sluggames.software.LowBeams.PreferencesViewManager;
+import com.sluggames.software.LowBeams.StartupPipeline;
+import com.sluggames.software.LowBeams.resources.FXML.OverlayView.OverlayViewController;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.paint.Color;
+import javafx.stage.Screen;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+/**
+ * This class is the performance regression gate. It runs the overlay benchmark
+ * scenarios, each in one or more fresh virtual machines, and compares the
+ * metrics they report against a baseline checked into the repository, failing
+ * if any metric has regressed beyond its tolerance.
+ *
+ * The tracking tick and remote damage scenarios run without a display. The
+ * other scenarios start the JavaFX toolkit, using the software pipeline so that
+ * results don't depend on the graphics hardware, and therefore need a display.
+ * They run on the display given by the DISPLAY environment variable if it is
+ * set, and otherwise under xvfb-run on a virtual Xvfb display of their own. If
+ * neither is available, they are skipped, and reported as such, rather than
+ * failing the check.
+ *
+ * The baseline file is given as the first argument, and defaults to
+ * perf/baseline.json. Any further arguments name the scenarios to run, which
+ * default to all of them. Setting the
+ * {@link #UPDATE_BASELINE_PROPERTY_NAME update baseline system property}
+ * rewrites the baseline with the measured metrics instead of checking them,
+ * keeping the tolerances of existing metrics.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.31.0
+ */
+public class PerformanceCheck {
+	/*
+		*****************
+		*** SCENARIOS ***
+		*****************
+	*/
+	private enum Scenario {
+		TRACKING_TICK(false, 5),
+		REMOTE_DAMAGE(false, 1),
+		STARTUP(true, 1),
+		FRAME_TIME(true, 1, "-Djavafx.animation.fullspeed=true"),
+		IDLE_CPU(true, 1);
+
+		private final boolean displayRequired;
+		private final int processCount;
+		private final List<String> virtualMachineArguments;
+
+		private Scenario(
+		    boolean displayRequired,
+		    int processCount,
+		    String... virtualMachineArguments
+		) {
+			this.displayRequired = displayRequired;
+			this.processCount = processCount;
+			this.virtualMachineArguments =
+			    Arrays.asList(virtualMachineArguments);
+		}
+	}
+
+	private static final String SCENARIO_ARGUMENT = "--scenario";
+
+	private static final long SCENARIO_TIMEOUT_SECONDS = 180;
+
+	/*
+			-----------
+			| METRICS |
+			-----------
+
+	Scenarios report their metrics on standard output, one per line, so that
+	anything else they print can be passed through.
+	*/
+	private static final String METRIC_PREFIX = "METRIC\t";
+
+	private static void reportMetric(String name, double value) {
+		System.out.println(METRIC_PREFIX + name + "\t" + value);
+	}
+
+	private static double getMedian(double[] values) {
+		double[] sortedValues = values.clone();
+		Arrays.sort(sortedValues);
+		return sortedValues[sortedValues.length / 2];
+	}
+
+
+	/*
+		*********************
+		*** TRACKING TICK ***
+		*********************
+	*/
+	private static final int TRACKING_TICK_WARM_UP_BATCH_COUNT = 50;
+	private static final int TRACKING_TICK_MEASURED_BATCH_COUNT = 21;
+	private static final int TRACKING_TICK_BATCH_PULSE_COUNT = 2_000;
+
+	/*
+			---------------
+			| CALIBRATION |
+			---------------
+
+	The tracking tick cost depends as much on the speed of the machine, and
+	on whatever else it is running, as on the overlay code, so it is
+	reported relative to a calibration workload measured in the same
+	process. The calibration sorts a fixed pseudo-random array, which, like
+	the tick, is dominated by branches and memory accesses rather than
+	arithmetic.
+	*/
+	private static final int CALIBRATION_ARRAY_LENGTH = 1_024;
+	private static final int CALIBRATION_BATCH_SORT_COUNT = 400;
+
+	private static final double[] CALIBRATION_SOURCE =
+	    new double[CALIBRATION_ARRAY_LENGTH];
+	private static final double[] CALIBRATION_ARRAY =
+	    new double[CALIBRATION_ARRAY_LENGTH];
+
+	static {
+		long seed = 1;
+		for (int index = 0; index < CALIBRATION_ARRAY_LENGTH; index++) {
+			seed = seed * 6_364_136_223_846_793_005L + 1_442_695_040_888_963_407L;
+			CALIBRATION_SOURCE[index] = (seed >>> 11) / (double) (1L << 53);
+		}
+	}
+
+	/*
+	The sink keeps the sorts from being optimized away.
+	*/
+	private static volatile double calibrationSink;
+
+	/**
+	 * @param sortCount	number of times to sort the calibration array
+	 *
+	 * @return		time taken in nanoseconds
+	 */
+	private static long runCalibration(int sortCount) {
+		long startTime = System.nanoTime();
+		double sum = 0;
+		for (int sort = 0; sort < sortCount; sort++) {
+			System.arraycopy(
+			    CALIBRATION_SOURCE,
+			    0,
+			    CALIBRATION_ARRAY,
+			    0,
+			    CALIBRATION_ARRAY_LENGTH
+			);
+			Arrays.sort(CALIBRATION_ARRAY);
+			sum += CALIBRATION_ARRAY[sort % CALIBRATION_ARRAY_LENGTH];
+		}
+		calibrationSink = sum;
+		return System.nanoTime() - startTime;
+	}
+
+	/*
+			-----------
+			| MEASURE |
+			-----------
+
+	Tick and calibration batches are interleaved, so that both see the same
+	state of the machine, and the median of their ratios is reported, so
+	that a batch disturbed by garbage collection, compilation or another
+	process doesn't decide the result. The median absolute tick time is
+	printed alongside for reference, but isn't gated, as it isn't
+	comparable between machines.
+	*/
+	private static void measureTrackingTick() throws IOException {
+		SimulatedOverlay simulatedOverlay = new SimulatedOverlay();
+		double[] tickTimes = new double[TRACKING_TICK_MEASURED_BATCH_COUNT];
+		double[] relativeCosts = new double[TRACKING_TICK_MEASURED_BATCH_COUNT];
+		for (
+		    int batch = -TRACKING_TICK_WARM_UP_BATCH_COUNT;
+		    batch < TRACKING_TICK_MEASURED_BATCH_COUNT;
+		    batch++
+		) {
+			double calibrationTime =
+			    (double) runCalibration(CALIBRATION_BATCH_SORT_COUNT) /
+			    CALIBRATION_BATCH_SORT_COUNT;
+
+			long startTime = System.nanoTime();
+			for (int pulse = 0; pulse < TRACKING_TICK_BATCH_PULSE_COUNT; pulse++) {
+				simulatedOverlay.pulse();
+			}
+			double tickTime =
+			    (double) (System.nanoTime() - startTime) /
+			    TRACKING_TICK_BATCH_PULSE_COUNT;
+
+			/*
+			Batches before the first are warming up.
+			*/
+			if (batch >= 0) {
+				tickTimes[batch] = tickTime;
+				relativeCosts[batch] = tickTime / calibrationTime;
+			}
+		}
+
+		System.out.println(String.format(
+		    Locale.ROOT,
+		    "Median tracking tick: %.0f ns",
+		    getMedian(tickTimes)
+		));
+		reportMetric("trackingTickRelativeCost", getMedian(relativeCosts));
+	}
+
+
+	/*
+		*********************
+		*** REMOTE DAMAGE ***
+		*********************
+
+	The remote damage scenario replays the cursor path for a simulated
+	minute under the full and bandwidth saving profiles, and reports how
+	many bytes of modeled damage a remote desktop server would have to send,
+	uncompressed at four bytes per pixel. The damage is modeled by the
+	overlay view controller from the rectangles it resizes, not measured on
+	a remote desktop server, which perf/remote-damage.sh does on a local
+	Xvnc instead. The static overlay of the bandwidth saving profile is left
+	out, as it is never damaged at all.
+	*/
+	private static final long REMOTE_DAMAGE_PULSE_COUNT =
+	    TimeUnit.MINUTES.toNanos(1) /
+	    SimulatedOverlay.PULSE_INTERVAL_NANOSECONDS;
+
+	private static final int BYTES_PER_PIXEL = 4;
+
+	/*
+			-----------
+			| MEASURE |
+			-----------
+	*/
+	private static void measureRemoteDamage() throws IOException {
+		for (OverlayProfile profile : Arrays.asList(
+		    OverlayProfile.FULL,
+		    OverlayProfile.BANDWIDTH_SAVING
+		)) {
+			SimulatedOverlay simulatedOverlay = new SimulatedOverlay();
+			simulatedOverlay.getController().setProfile(profile);
+			for (long pulse = 0; pulse < REMOTE_DAMAGE_PULSE_COUNT; pulse++) {
+				simulatedOverlay.pulse();
+			}
+			reportMetric(
+			    "remoteDamage." + profile.name() + ".modeledBytesPerMinute",
+			    (double) simulatedOverlay.getController().getModeledDamagedPixelCount() *
+			    BYTES_PER_PIXEL
+			);
+		}
+	}
+
+
+	/*
+		***************
+		*** STARTUP ***
+		***************
+
+	The startup scenario runs the view loading steps of the application's
+	startup pipeline, under the same step names, while the application is
+	initialized, as the application does. The system tray steps are left
+	out, as they need a desktop with a system tray.
+	*/
+	private static void measureStartup() {
+		long startTime = System.nanoTime();
+
+		StartupPipeline startupPipeline = new StartupPipeline();
+		startupPipeline.submit(
+		    "Preferences View Load",
+		    PreferencesViewManager::loadView
+		);
+		startupPipeline.submit(
+		    "Overlay View Prepare",
+		    () -> {
+			OverlayViewManager.prepareViews(1);
+			return null;
+		    }
+		);
+		startupPipeline.finish().join();
+
+		for (Map.Entry<String, Long> stepDuration : startupPipeline.getStepDurations().entrySet()) {
+			reportMetric(
+			    "startup." + stepDuration.getKey() + " Milliseconds",
+			    stepDuration.getValue() / 1e6
+			);
+		}
+		reportMetric(
+		    "startup.Total Milliseconds",
+		    (System.nanoTime() - startTime) / 1e6
+		);
+	}
+
+
+	/*
+		***************
+		*** DISPLAY ***
+		***************
+	*/
+	/**
+	 * This class runs the scenarios which need the JavaFX toolkit, given by
+	 * name as the only parameter.
+	 */
+	public static class DisplayScenarioApplication extends Application {
+		private Scenario scenario;
+
+		@Override
+		public void init() {
+			scenario = Scenario.valueOf(
+			    getParameters().getRaw().get(0)
+			);
+			if (scenario == Scenario.STARTUP) {
+				measureStartup();
+			}
+		}
+
+		@Override
+		public void start(Stage stage) throws IOException {
+			if (scenario == Scenario.STARTUP) {
+				Platform.exit();
+				return;
+			}
+
+			/*
+			Show an overlay over the whole primary screen.
+			*/
+			FXMLLoader overlayLoader = OverlayViewManager.loadView();
+			OverlayViewController controller =
+			    overlayLoader.getController();
+			Rectangle2D bounds = Screen.getPrimary().getBounds();
+			stage.initStyle(StageStyle.TRANSPARENT);
+			stage.setX(bounds.getMinX());
+			stage.setY(bounds.getMinY());
+			stage.setScene(new Scene(
+			    overlayLoader.<Parent>getRoot(),
+			    bounds.getWidth(),
+			    bounds.getHeight(),
+			    Color.TRANSPARENT
+			));
+			stage.show();
+			controller.start();
+
+			switch (scenario) {
+				case FRAME_TIME:
+					measureFrameTime(controller, bounds);
+					break;
+				case IDLE_CPU:
+					measureIdleCpu();
+					break;
+				default:
+					throw new IllegalArgumentException(
+					    "Scenario doesn't show an overlay: " +
+					    scenario
+					);
+			}
+		}
+	}
+
+	/*
+			--------------
+			| FRAME TIME |
+			--------------
+
+	Pulses run at full speed in this scenario, rather than being capped at
+	the refresh rate, so that the interval between pulses is the time taken
+	to process and render a frame.
+	*/
+	private static final int FRAME_TIME_WARM_UP_FRAME_COUNT = 300;
+	private static final int FRAME_TIME_MEASURED_FRAME_COUNT = 1_200;
+
+	private static void measureFrameTime(
+	    OverlayViewController controller,
+	    Rectangle2D bounds
+	) {
+		new AnimationTimer() {
+			private int frameCount = 0;
+			private long startTime;
+
+			@Override
+			public void handle(long now) {
+				/*
+				Move the cursor along the path on every frame,
+				so that every frame has the cursor window to
+				update.
+				*/
+				double x = SimulatedOverlay.getCursorPathX(
+				    now,
+				    bounds.getWidth()
+				);
+				double y = SimulatedOverlay.getCursorPathY(
+				    now,
+				    bounds.getHeight()
+				);
+				controller.moveCursor(
+				    now,
+				    x,
+				    y,
+				    bounds.getMinX() + x,
+				    bounds.getMinY() + y
+				);
+
+				frameCount++;
+				if (frameCount == FRAME_TIME_WARM_UP_FRAME_COUNT) {
+					startTime = now;
+				} else if (
+				    frameCount ==
+				    FRAME_TIME_WARM_UP_FRAME_COUNT +
+				    FRAME_TIME_MEASURED_FRAME_COUNT
+				) {
+					stop();
+					reportMetric(
+					    "frameTimeMilliseconds",
+					    (now - startTime) / 1e6 /
+					    FRAME_TIME_MEASURED_FRAME_COUNT
+					);
+					Platform.exit();
+				}
+			}
+		}.start();
+	}
+
+	/*
+			------------
+			| IDLE CPU |
+			------------
+
+	The cursor is left still, so that only the overlay's idle work remains,
+	and the process CPU usage is sampled once the overlay has settled.
+	*/
+	private static final long IDLE_CPU_SETTLE_MILLISECONDS = 3_000;
+	private static final long IDLE_CPU_MEASURE_MILLISECONDS = 15_000;
+
+	private static void measureIdleCpu() {
+		Thread measurementThread = new Thread(() -> {
+			try {
+				CpuUsageMonitor cpuUsageMonitor = new CpuUsageMonitor();
+				Thread.sleep(IDLE_CPU_SETTLE_MILLISECONDS);
+				cpuUsageMonitor.sample();
+				Thread.sleep(IDLE_CPU_MEASURE_MILLISECONDS);
+				cpuUsageMonitor.sample();
+
+				reportMetric(
+				    "idleCpuUsage",
+				    cpuUsageMonitor.getProcessCpuUsage()
+				);
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			} finally {
+				Platform.exit();
+			}
+		}, "Idle CPU Measurement");
+		measurementThread.setDaemon(true);
+		measurementThread.start();
+	}
+
+
+	/*
+			------------
+			| XVFB RUN |
+			------------
+
+	The virtual display has a fixed size, so that the display scenarios
+	measure the same amount of work on every machine.
+	*/
+	private static final String DISPLAY_ENVIRONMENT_VARIABLE_NAME = "DISPLAY";
+
+	private static final String XVFB_RUN_COMMAND = "xvfb-run";
+	private static final List<String> XVFB_RUN_ARGUMENTS = Arrays.asList(
+	    "--auto-servernum",
+	    "--server-args=-screen 0 1920x1080x24"
+	);
+
+	/**
+	 * @return	command prefix which gives the display scenarios a
+	 *		display, which is empty if one is set already, or null
+	 *		if there is none and xvfb-run is not installed
+	 */
+	static List<String> getDisplayCommandPrefix() {
+		String display = System.getenv(DISPLAY_ENVIRONMENT_VARIABLE_NAME);
+		if (display != null && !display.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		String path = System.getenv("PATH");
+		if (path != null) {
+			for (String directory : path.split(File.pathSeparator)) {
+				Path commandPath = Paths.get(directory, XVFB_RUN_COMMAND);
+				if (Files.isExecutable(commandPath)) {
+					List<String> displayCommandPrefix =
+					    new ArrayList<>();
+					displayCommandPrefix.add(commandPath.toString());
+					displayCommandPrefix.addAll(XVFB_RUN_ARGUMENTS);
+					return displayCommandPrefix;
+				}
+			}
+		}
+
+		return null;
+	}
+
+
+	/*
+		***************
+		*** PROCESS ***
+		***************
+	*/
+	/**
+	 * This method runs a scenario in a fresh virtual machine, with the same
+	 * runtime and class path as this one.
+	 *
+	 *
+	 * @param scenario			scenario to run
+	 *
+	 * @param displayCommandPrefix	command prefix giving display
+	 *					scenarios a display
+	 *
+	 * @param metrics			map to which the reported
+	 *					metrics are added
+	 *
+	 * @return				whether the scenario completed
+	 *					successfully
+	 */
+	private static boolean runScenarioProcess(
+	    Scenario scenario,
+	    List<String> displayCommandPrefix,
+	    Map<String, Double> metrics
+	) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<>();
+		if (scenario.displayRequired) {
+			command.addAll(displayCommandPrefix);
+		}
+		command.add(Paths.get(
+		    System.getProperty("java.home"),
+		    "bin",
+		    "java"
+		).toString());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		if (scenario.displayRequired) {
+			command.add("-Dprism.order=sw");
+		}
+		command.addAll(scenario.virtualMachineArguments);
+		command.add(PerformanceCheck.class.getName());
+		command.add(SCENARIO_ARGUMENT);
+		command.add(scenario.name());
+
+		Process process = new ProcessBuilder(command).redirectError(
+		    ProcessBuilder.Redirect.INHERIT
+		).start();
+
+		/*
+		Collect the metrics, passing anything else through.
+		*/
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+		    process.getInputStream(),
+		    StandardCharsets.UTF_8
+		))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith(METRIC_PREFIX)) {
+					String[] fields = line.split("\t");
+					metrics.put(
+					    fields[1],
+					    Double.parseDouble(fields[2])
+					);
+				} else {
+					System.out.println(line);
+				}
+			}
+		}
+
+		if (!process.waitFor(SCENARIO_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+			process.destroyForcibly();
+			return false;
+		}
+		return process.exitValue() == 0;
+	}
+
+	/*
+			-------
+			| RUN |
+			-------
+	*/
+	private static void runScenario(Scenario scenario) throws IOException {
+		switch (scenario) {
+			case TRACKING_TICK:
+				measureTrackingTick();
+				break;
+			case REMOTE_DAMAGE:
+				measureRemoteDamage();
+				break;
+			default:
+				Application.launch(
+				    DisplayScenarioApplication.class,
+				    scenario.name()
+				);
+				break;
+		}
+	}
+
+
+	/*
+		****************
+		*** BASELINE ***
+		****************
+
+	The baseline holds, for each metric, its baseline value, and the
+	tolerance beyond which it counts as regressed, both relative to the
+	baseline value and as an absolute allowance, which keeps metrics with
+	small baselines from failing on noise. All of the metrics are costs, so
+	only increases count as regressions.
+	*/
+	public static final String UPDATE_BASELINE_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.perf.updateBaseline";
+
+	private static final String DEFAULT_BASELINE_PATH = "perf/baseline.json";
+
+	private static final double DEFAULT_TOLERANCE = 0.5;
+	private static final double DEFAULT_ALLOWANCE = 0;
+
+	private static final class BaselineMetric {
+		private double baseline;
+		private double tolerance = DEFAULT_TOLERANCE;
+		private double allowance = DEFAULT_ALLOWANCE;
+
+		private double getLimit() {
+			return baseline * (1 + tolerance) + allowance;
+		}
+	}
+
+	/*
+			--------
+			| READ |
+			--------
+
+	The baseline is a flat JSON object of metric objects, which is simple
+	enough to read with patterns rather than a JSON library.
+	*/
+	private static final Pattern BASELINE_METRIC_PATTERN = Pattern.compile(
+	    "\"([^\"]+)\"\\s*:\\s*\\{([^}]*)\\}"
+	);
+	private static final Pattern BASELINE_FIELD_PATTERN = Pattern.compile(
+	    "\"(\\w+)\"\\s*:\\s*([-+0-9.eE]+)"
+	);
+
+	private static Map<String, BaselineMetric> readBaseline(
+	    Path baselinePath
+	) throws IOException {
+		Map<String, BaselineMetric> baseline = new LinkedHashMap<>();
+		if (!Files.exists(baselinePath)) {
+			return baseline;
+		}
+
+		Matcher metricMatcher = BASELINE_METRIC_PATTERN.matcher(
+		    new String(
+		    Files.readAllBytes(baselinePath),
+		    StandardCharsets.UTF_8
+		));
+		while (metricMatcher.find()) {
+			BaselineMetric baselineMetric = new BaselineMetric();
+			Matcher fieldMatcher = BASELINE_FIELD_PATTERN.matcher(
+			    metricMatcher.group(2)
+			);
+			while (fieldMatcher.find()) {
+				double value = Double.parseDouble(
+				    fieldMatcher.group(2)
+				);
+				switch (fieldMatcher.group(1)) {
+					case "baseline":
+						baselineMetric.baseline = value;
+						break;
+					case "tolerance":
+						baselineMetric.tolerance = value;
+						break;
+					case "allowance":
+						baselineMetric.allowance = value;
+						break;
+					default:
+						throw new IllegalArgumentException(
+						    "Unknown field " +
+						    fieldMatcher.group(1) +
+						    " in " + baselinePath
+						);
+				}
+			}
+			baseline.put(metricMatcher.group(1), baselineMetric);
+		}
+		return baseline;
+	}
+
+	/*
+			---------
+			| WRITE |
+			---------
+	*/
+	private static void writeBaseline(
+	    Path baselinePath,
+	    Map<String, BaselineMetric> baseline
+	) throws IOException {
+		StringBuilder json = new StringBuilder("{\n");
+		int metricIndex = 0;
+		for (Map.Entry<String, BaselineMetric> entry : baseline.entrySet()) {
+			json.append(String.format(
+			    Locale.ROOT,
+			    "\t\"%s\": {\"baseline\": %.6g, \"tolerance\": %s, \"allowance\": %s}",
+			    entry.getKey(),
+			    entry.getValue().baseline,
+			    entry.getValue().tolerance,
+			    entry.getValue().allowance
+			));
+			json.append(++metricIndex < baseline.size() ? ",\n" : "\n");
+		}
+		json.append("}\n");
+
+		Files.write(
+		    baselinePath,
+		    json.toString().getBytes(StandardCharsets.UTF_8)
+		);
+	}
+
+
+	/*
+		************
+		*** MAIN ***
+		************
+	*/
+	public static void main(String[] args) throws IOException, InterruptedException {
+		/*
+		Run a single scenario, if this is a scenario process.
+		*/
+		if (args.length == 2 && args[0].equals(SCENARIO_ARGUMENT)) {
+			runScenario(Scenario.valueOf(args[1]));
+			return;
+		}
+
+		Path baselinePath = Paths.get(
+		    args.length > 0 ? args[0] : DEFAULT_BASELINE_PATH
+		);
+		List<Scenario> scenarios = new ArrayList<>();
+		for (int argumentIndex = 1; argumentIndex < args.length; argumentIndex++) {
+			scenarios.add(Scenario.valueOf(
+			    args[argumentIndex].toUpperCase(Locale.ROOT)
+			));
+		}
+		if (scenarios.isEmpty()) {
+			scenarios.addAll(Arrays.asList(Scenario.values()));
+		}
+
+		/*
+		Run the scenarios, taking the median of each metric over the
+		scenario's processes, as compilation decisions, and therefore
+		timings, differ between virtual machines.
+		*/
+		boolean failed = false;
+		Map<String, Double> metrics = new LinkedHashMap<>();
+		List<String> displayCommandPrefix = getDisplayCommandPrefix();
+		for (Scenario scenario : scenarios) {
+			/*
+			Skip the display scenarios if there is no way to give
+			them a display, keeping any baseline of their metrics.
+			*/
+			if (scenario.displayRequired && displayCommandPrefix == null) {
+				System.out.println(
+				    "Scenario " + scenario + " SKIPPED (" +
+				    DISPLAY_ENVIRONMENT_VARIABLE_NAME +
+				    " is not set, and " + XVFB_RUN_COMMAND +
+				    " is not installed)"
+				);
+				continue;
+			}
+
+			Map<String, List<Double>> processMetrics = new LinkedHashMap<>();
+			for (int process = 0; process < scenario.processCount; process++) {
+				Map<String, Double> metricsOfProcess = new LinkedHashMap<>();
+				if (!runScenarioProcess(
+				    scenario,
+				    displayCommandPrefix,
+				    metricsOfProcess
+				)) {
+					System.out.println("Scenario " + scenario + " FAILED");
+					failed = true;
+				}
+				for (Map.Entry<String, Double> metric : metricsOfProcess.entrySet()) {
+					processMetrics.computeIfAbsent(
+					    metric.getKey(),
+					    (String ignoredName) -> new ArrayList<>()
+					).add(metric.getValue());
+				}
+			}
+
+			for (Map.Entry<String, List<Double>> metric : processMetrics.entrySet()) {
+				metrics.put(
+				    metric.getKey(),
+				    getMedian(metric.getValue().stream().mapToDouble(
+					Double::doubleValue
+				    ).toArray())
+				);
+			}
+		}
+
+		Map<String, BaselineMetric> baseline = readBaseline(baselinePath);
+
+		/*
+		Either update the baseline with the measured metrics, or check
+		them against it.
+		*/
+		if (Boolean.getBoolean(UPDATE_BASELINE_PROPERTY_NAME)) {
+			for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+				baseline.computeIfAbsent(
+				    metric.getKey(),
+				    (String ignoredName) -> new BaselineMetric()
+				).baseline = metric.getValue();
+			}
+			writeBaseline(baselinePath, baseline);
+			System.out.println("Updated " + baselinePath);
+		} else {
+			for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+				BaselineMetric baselineMetric =
+				    baseline.get(metric.getKey());
+				String status;
+				if (baselineMetric == null) {
+					status = "NO BASELINE";
+				} else if (metric.getValue() > baselineMetric.getLimit()) {
+					status = String.format(
+					    Locale.ROOT,
+					    "REGRESSED (baseline %.4g, limit %.4g)",
+					    baselineMetric.baseline,
+					    baselineMetric.getLimit()
+					);
+					failed = true;
+				} else {
+					status = String.format(
+					    Locale.ROOT,
+					    "OK (baseline %.4g, limit %.4g)",
+					    baselineMetric.baseline,
+					    baselineMetric.getLimit()
+					);
+				}
+
+				System.out.println(String.format(
+				    Locale.ROOT,
+				    "%-44s %12.4g %s",
+				    metric.getKey(),
+				    metric.getValue(),
+				    status
+				));
+			}
+		}
+
+		if (failed) {
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,652 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.perf;
+
+import com.sluggames.software.LowBeams.OverlayViewManager;
+import com.sluggames.software.LowBeams.OverlayViewManagerPool;
+import com.sluggames.software.LowBeams.PowerProfileService;
+import java.awt.AWTException;
+import java.awt.Robot;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Rectangle2D;
+import javafx.stage.Screen;
+import javafx.stage.Stage;
+
+/**
+ * This class measures the damage an overlay causes on a VNC server, such as a
+ * local Xvnc, while the cursor follows the path of the modeled remote damage
+ * scenario of the {@link PerformanceCheck performance check} for a minute. Two
+ * RFB clients are connected to the server at the same time, and request every
+ * update as soon as the previous one has arrived, as a viewer would. The first
+ * requests the raw encoding at four bytes per pixel, so that its bytes are the
+ * uncompressed damage the model estimates, and the second requests ZRLE, so
+ * that its bytes are close to what a typical viewer receives. A tab separated
+ * result line is printed for each, for perf/remote-damage.sh to collect.
+ *
+ * The mode is given as the first argument. NONE measures the damage of the
+ * cursor alone, which the server draws into the frame buffer, while FULL and
+ * BANDWIDTH_SAVING show one overlay on the first screen under that profile.
+ * The host and port of the server follow. The server must not require any
+ * authentication.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.38.0
+ */
+public class RemoteDamageMeasurement {
+	/*
+		************
+		*** MODE ***
+		************
+	*/
+	private enum Mode {
+		NONE,
+		FULL,
+		BANDWIDTH_SAVING
+	}
+
+
+	/*
+		****************
+		*** DURATION ***
+		****************
+
+	The settle time lets the profile be applied, and the first full frame
+	buffer update arrive, before anything is counted.
+	*/
+	private static final long SETTLE_MILLISECONDS = 5_000;
+	private static final long MEASURE_MILLISECONDS = 60_000;
+
+
+	/*
+		***************
+		*** OVERLAY ***
+		***************
+	*/
+	private static void addOverlay() {
+		OverlayViewManager overlayViewManager =
+		    OverlayViewManagerPool.acquire();
+		overlayViewManager.targetScreenProperty().set(
+		    Screen.getPrimary()
+		);
+		overlayViewManager.enabledProperty().set(true);
+	}
+
+
+	/*
+		*******************
+		*** APPLICATION ***
+		*******************
+	*/
+	/**
+	 * This class shows the overlay, if any, and starts the measurement
+	 * thread.
+	 */
+	public static class MeasurementApplication extends Application {
+		@Override
+		public void start(Stage ignoredStage) throws AWTException {
+			Mode mode = Mode.valueOf(getParameters().getRaw().get(0));
+			String host = getParameters().getRaw().get(1);
+			int port = Integer.parseInt(getParameters().getRaw().get(2));
+
+			Platform.setImplicitExit(false);
+			if (mode != Mode.NONE) {
+				PowerProfileService.start();
+				addOverlay();
+			}
+
+			Thread measurementThread = new Thread(
+			    new Measurement(mode, host, port),
+			    "Remote Damage Measurement"
+			);
+			measurementThread.setDaemon(true);
+			measurementThread.start();
+		}
+	}
+
+
+	/*
+		*******************
+		*** MEASUREMENT ***
+		*******************
+	*/
+	private static class Measurement implements Runnable {
+		private final Mode mode;
+		private final String host;
+		private final int port;
+
+		private final Robot robot = new Robot();
+		private final Rectangle2D bounds =
+		    Screen.getPrimary().getBounds();
+
+		private Measurement(Mode mode, String host, int port)
+		    throws
+		    AWTException
+		{
+			this.mode = mode;
+			this.host = host;
+			this.port = port;
+		}
+
+		@Override
+		public void run() {
+			try {
+				RfbClient[] clients = {
+				    new RfbClient(host, port, RfbClient.RAW_ENCODING),
+				    new RfbClient(host, port, RfbClient.ZRLE_ENCODING)
+				};
+				for (RfbClient client : clients) {
+					Thread clientThread = new Thread(
+					    client,
+					    "RFB Client " + client.getEncodingName()
+					);
+					clientThread.setDaemon(true);
+					clientThread.start();
+				}
+				Thread.sleep(SETTLE_MILLISECONDS);
+
+				long startTime = System.nanoTime();
+				long[] startByteCounts = new long[clients.length];
+				long[] startPixelCounts = new long[clients.length];
+				long[] startUpdateCounts = new long[clients.length];
+				for (int index = 0; index < clients.length; index++) {
+					startByteCounts[index] = clients[index].getReceivedByteCount();
+					startPixelCounts[index] = clients[index].getUpdatedPixelCount();
+					startUpdateCounts[index] = clients[index].getUpdateCount();
+				}
+
+				moveCursor(startTime);
+
+				double minutes =
+				    (System.nanoTime() - startTime) /
+				    (double) TimeUnit.MINUTES.toNanos(1);
+				for (int index = 0; index < clients.length; index++) {
+					RfbClient client = clients[index];
+					if (client.getFailure() != null) {
+						throw client.getFailure();
+					}
+					System.out.println(String.format(
+					    Locale.ROOT,
+					    "RESULT\t%s\t%s\t%.4e\t%.4e\t%.0f",
+					    mode,
+					    client.getEncodingName(),
+					    (client.getReceivedByteCount() - startByteCounts[index]) /
+					    minutes,
+					    (client.getUpdatedPixelCount() - startPixelCounts[index]) *
+					    (double) RfbClient.BYTES_PER_PIXEL /
+					    minutes,
+					    (client.getUpdateCount() - startUpdateCounts[index]) /
+					    minutes
+					));
+				}
+			} catch (IOException exception) {
+				exception.printStackTrace();
+				System.exit(1);
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+			System.exit(0);
+		}
+
+		/*
+				----------
+				| CURSOR |
+				----------
+
+		The cursor follows the path of the simulated overlay, across the
+		first screen.
+		*/
+		private void moveCursor(long startTime) {
+			long endTime =
+			    startTime +
+			    TimeUnit.MILLISECONDS.toNanos(MEASURE_MILLISECONDS);
+
+			long time;
+			while ((time = System.nanoTime()) < endTime) {
+				long pathTime = time - startTime;
+				robot.mouseMove(
+				    (int) (bounds.getMinX() + SimulatedOverlay.getCursorPathX(
+				    pathTime,
+				    bounds.getWidth()
+				    )),
+				    (int) (bounds.getMinY() + SimulatedOverlay.getCursorPathY(
+				    pathTime,
+				    bounds.getHeight()
+				    ))
+				);
+				LockSupport.parkNanos(
+				    SimulatedOverlay.CURSOR_MOVE_INTERVAL_NANOSECONDS
+				);
+			}
+		}
+	}
+
+
+	/*
+		******************
+		*** RFB CLIENT ***
+		******************
+	*/
+	/**
+	 * This class is a minimal RFB client, as specified by RFC 6143, which
+	 * only counts what it receives. It asks for true color pixels of four
+	 * bytes, and skips over the encoded rectangles without decoding them.
+	 */
+	private static class RfbClient implements Runnable {
+		/*
+				-------------
+				| ENCODINGS |
+				-------------
+		*/
+		private static final int RAW_ENCODING = 0;
+		private static final int ZRLE_ENCODING = 16;
+
+		private static final int BYTES_PER_PIXEL = 4;
+
+		/*
+				------------
+				| MESSAGES |
+				------------
+		*/
+		private static final String PROTOCOL_VERSION = "RFB 003.008\n";
+		private static final int NO_SECURITY_TYPE = 1;
+
+		private static final int SET_PIXEL_FORMAT_MESSAGE_TYPE = 0;
+		private static final int SET_ENCODINGS_MESSAGE_TYPE = 2;
+		private static final int FRAMEBUFFER_UPDATE_REQUEST_MESSAGE_TYPE = 3;
+
+		private static final int FRAMEBUFFER_UPDATE_MESSAGE_TYPE = 0;
+		private static final int SET_COLOUR_MAP_ENTRIES_MESSAGE_TYPE = 1;
+		private static final int BELL_MESSAGE_TYPE = 2;
+		private static final int SERVER_CUT_TEXT_MESSAGE_TYPE = 3;
+
+		private static final int COLOUR_MAP_ENTRY_BYTES = 6;
+
+		/*
+				------------
+				| COUNTING |
+				------------
+
+		The counts are written by the client thread as the messages are
+		read, and read by the measurement thread.
+		*/
+		private static class CountingInputStream extends FilterInputStream {
+			private long count = 0;
+
+			CountingInputStream(InputStream inputStream) {
+				super(inputStream);
+			}
+
+			@Override
+			public int read() throws IOException {
+				int value = super.read();
+				if (value >= 0) {
+					count++;
+				}
+				return value;
+			}
+
+			@Override
+			public int read(byte[] buffer, int offset, int length)
+			    throws
+			    IOException
+			{
+				int readCount = super.read(buffer, offset, length);
+				if (readCount > 0) {
+					count += readCount;
+				}
+				return readCount;
+			}
+		}
+
+		private volatile long receivedByteCount = 0;
+		private volatile long updatedPixelCount = 0;
+		private volatile long updateCount = 0;
+		private volatile IOException failure = null;
+
+		/*
+				-------------------
+				| CONNECTION DATA |
+				-------------------
+		*/
+		private final String host;
+		private final int port;
+		private final int encoding;
+
+		private int width;
+		private int height;
+
+		private RfbClient(String host, int port, int encoding) {
+			this.host = host;
+			this.port = port;
+			this.encoding = encoding;
+		}
+
+		/*
+				-------
+				| GET |
+				-------
+		*/
+		String getEncodingName() {
+			return encoding == RAW_ENCODING ? "raw" : "ZRLE";
+		}
+
+		long getReceivedByteCount() {
+			return receivedByteCount;
+		}
+
+		long getUpdatedPixelCount() {
+			return updatedPixelCount;
+		}
+
+		long getUpdateCount() {
+			return updateCount;
+		}
+
+		/**
+		 * @return	failure which stopped the client, or null if it
+		 *		is still running
+		 */
+		IOException getFailure() {
+			return failure;
+		}
+
+		/*
+				-------
+				| RUN |
+				-------
+		*/
+		@Override
+		public void run() {
+			try (Socket socket = new Socket(host, port)) {
+				socket.setTcpNoDelay(true);
+				CountingInputStream countingInputStream =
+				    new CountingInputStream(socket.getInputStream());
+				DataInputStream input = new DataInputStream(
+				    new BufferedInputStream(countingInputStream)
+				);
+				DataOutputStream output = new DataOutputStream(
+				    socket.getOutputStream()
+				);
+
+				initialize(input, output);
+
+				/*
+				Ask for the whole frame buffer first, and then
+				for each incremental update once the previous
+				one has arrived.
+				*/
+				requestUpdate(output, false);
+				while (true) {
+					if (readMessage(input)) {
+						requestUpdate(output, true);
+					}
+					receivedByteCount = countingInputStream.count;
+				}
+			} catch (IOException exception) {
+				failure = exception;
+			}
+		}
+
+		/*
+				------------------
+				| INITIALIZATION |
+				------------------
+		*/
+		private void initialize(DataInputStream input, DataOutputStream output)
+		    throws
+		    IOException
+		{
+			byte[] serverVersion = new byte[PROTOCOL_VERSION.length()];
+			input.readFully(serverVersion);
+			output.write(PROTOCOL_VERSION.getBytes(StandardCharsets.US_ASCII));
+
+			/*
+			Only servers without any authentication are supported.
+			*/
+			int securityTypeCount = input.readUnsignedByte();
+			if (securityTypeCount == 0) {
+				throw new IOException(readReason(input));
+			}
+			boolean noSecurityOffered = false;
+			for (int index = 0; index < securityTypeCount; index++) {
+				noSecurityOffered |=
+				    input.readUnsignedByte() == NO_SECURITY_TYPE;
+			}
+			if (!noSecurityOffered) {
+				throw new IOException(
+				    "The server requires authentication."
+				);
+			}
+			output.writeByte(NO_SECURITY_TYPE);
+			if (input.readInt() != 0) {
+				throw new IOException(readReason(input));
+			}
+
+			/*
+			Share the desktop with the other client, and skip the
+			server's pixel format and desktop name.
+			*/
+			output.writeByte(1);
+			width = input.readUnsignedShort();
+			height = input.readUnsignedShort();
+			input.readFully(new byte[16]);
+			input.readFully(new byte[input.readInt()]);
+
+			/*
+			Ask for 32 bit true color pixels, and for the encoding
+			of this client.
+			*/
+			output.writeByte(SET_PIXEL_FORMAT_MESSAGE_TYPE);
+			output.write(new byte[3]);
+			output.writeByte(BYTES_PER_PIXEL * 8);
+			output.writeByte(24);
+			output.writeByte(0);
+			output.writeByte(1);
+			output.writeShort(255);
+			output.writeShort(255);
+			output.writeShort(255);
+			output.writeByte(16);
+			output.writeByte(8);
+			output.writeByte(0);
+			output.write(new byte[3]);
+
+			output.writeByte(SET_ENCODINGS_MESSAGE_TYPE);
+			output.writeByte(0);
+			output.writeShort(1);
+			output.writeInt(encoding);
+		}
+
+		private static String readReason(DataInputStream input)
+		    throws
+		    IOException
+		{
+			byte[] reason = new byte[input.readInt()];
+			input.readFully(reason);
+
+			return new String(reason, StandardCharsets.US_ASCII);
+		}
+
+		/*
+				-----------
+				| REQUEST |
+				-----------
+		*/
+		private void requestUpdate(DataOutputStream output, boolean incremental)
+		    throws
+		    IOException
+		{
+			output.writeByte(FRAMEBUFFER_UPDATE_REQUEST_MESSAGE_TYPE);
+			output.writeByte(incremental ? 1 : 0);
+			output.writeShort(0);
+			output.writeShort(0);
+			output.writeShort(width);
+			output.writeShort(height);
+			output.flush();
+		}
+
+		/*
+				-----------
+				| MESSAGE |
+				-----------
+		*/
+		/**
+		 * @param input		input from the server
+		 *
+		 * @return		whether the message was a frame buffer
+		 *			update
+		 *
+		 * @throws IOException	Failed to read the message, or it is
+		 *			not supported.
+		 */
+		private boolean readMessage(DataInputStream input)
+		    throws
+		    IOException
+		{
+			int messageType = input.readUnsignedByte();
+			switch (messageType) {
+				case FRAMEBUFFER_UPDATE_MESSAGE_TYPE:
+					input.readUnsignedByte();
+					int rectangleCount = input.readUnsignedShort();
+					for (int index = 0; index < rectangleCount; index++) {
+						readRectangle(input);
+					}
+					updateCount++;
+					return true;
+
+				case SET_COLOUR_MAP_ENTRIES_MESSAGE_TYPE:
+					input.readUnsignedByte();
+					input.readUnsignedShort();
+					skip(
+					    input,
+					    (long) input.readUnsignedShort() *
+					    COLOUR_MAP_ENTRY_BYTES
+					);
+					return false;
+
+				case BELL_MESSAGE_TYPE:
+					return false;
+
+				case SERVER_CUT_TEXT_MESSAGE_TYPE:
+					skip(input, 3);
+					skip(input, input.readInt() & 0xFFFFFFFFL);
+					return false;
+
+				default:
+					throw new IOException(
+					    "Unsupported message type " + messageType
+					);
+			}
+		}
+
+		private void readRectangle(DataInputStream input)
+		    throws
+		    IOException
+		{
+			input.readUnsignedShort();
+			input.readUnsignedShort();
+			int rectangleWidth = input.readUnsignedShort();
+			int rectangleHeight = input.readUnsignedShort();
+			int rectangleEncoding = input.readInt();
+
+			long pixelCount = (long) rectangleWidth * rectangleHeight;
+			switch (rectangleEncoding) {
+				case RAW_ENCODING:
+					skip(input, pixelCount * BYTES_PER_PIXEL);
+					break;
+
+				case ZRLE_ENCODING:
+					skip(input, input.readInt() & 0xFFFFFFFFL);
+					break;
+
+				default:
+					throw new IOException(
+					    "Unsupported encoding " + rectangleEncoding
+					);
+			}
+			updatedPixelCount += pixelCount;
+		}
+
+		private static void skip(DataInputStream input, long byteCount)
+		    throws
+		    IOException
+		{
+			while (byteCount > 0) {
+				int skippedByteCount = input.skipBytes(
+				    (int) Math.min(byteCount, Integer.MAX_VALUE)
+				);
+				if (skippedByteCount <= 0) {
+					input.readByte();
+					skippedByteCount = 1;
+				}
+				byteCount -= skippedByteCount;
+			}
+		}
+	}
+
+
+	/*
+		************
+		*** MAIN ***
+		************
+	*/
+	public static void main(String[] args) {
+		if (args.length != 3) {
+			throw new IllegalArgumentException(
+			    "Usage: RemoteDamageMeasurement " +
+			    "NONE|FULL|BANDWIDTH_SAVING HOST PORT"
+			);
+		}
+
+		/*
+		Force the profile, so that the full profile is measured even on
+		a remote server, and on battery.
+		*/
+		Mode mode = Mode.valueOf(args[0]);
+		System.setProperty(
+		    PowerProfileService.REMOTE_SESSION_PROPERTY_NAME,
+		    Boolean.toString(mode == Mode.BANDWIDTH_SAVING)
+		);
+		System.setProperty(
+		    PowerProfileService.INTERVAL_PROPERTY_NAME,
+		    "0"
+		);
+
+		Application.launch(MeasurementApplication.class, args);
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.perf;
+
+import com.sluggames.software.LowBeams.OverlayViewManager;
+import com.sluggames.software.LowBeams.OverlayViewManagerDriver;
+import com.sluggames.software.LowBeams.resources.FXML.OverlayView.OverlayViewController;
+import java.io.IOException;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.layout.GridPane;
+
+/**
+ * This class drives an overlay view through simulated pulses, replaying a
+ * synthetic cursor path which alternates between slow drifting and fast
+ * sweeps. The pulses are driven directly rather than through the JavaFX pulse,
+ * so that no display is needed, and each consists of the cursor moves since
+ * the previous pulse, the controller's own pulse work, and the layout of the
+ * view, but not the scene graph rendering which would follow it.
+ *
+ * The overlay view is either loaded on its own, or that of an
+ * {@link OverlayViewManager overlay view manager}, whose own pulse work is
+ * then included too. The latter needs the JavaFX toolkit, and therefore a
+ * display, as the overlay view manager shows a stage.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.31.0
+ */
+public class SimulatedOverlay {
+	/*
+		**************
+		*** PULSES ***
+		**************
+	*/
+	public static final long PULSE_INTERVAL_NANOSECONDS =
+	    1_000_000_000L / 60;
+
+	/*
+	The cursor is moved at a typical mouse report rate, so that some pulses
+	see several moves, and some none.
+	*/
+	public static final long CURSOR_MOVE_INTERVAL_NANOSECONDS =
+	    1_000_000_000L / 125;
+
+	public static final double SCENE_WIDTH = 1920;
+	public static final double SCENE_HEIGHT = 1080;
+
+	private long time = 0;
+	private long nextCursorMoveTime = 0;
+
+
+	/*
+		*******************
+		*** CURSOR PATH ***
+		*******************
+
+	The path alternates between slow drifting and fast sweeps across the
+	whole scene.
+	*/
+	private static double getCursorPathSweep(double phase) {
+		return Math.sin(phase * 0.5) > 0 ? 1 : 0.05;
+	}
+
+	/**
+	 * @param time		time along the path in nanoseconds
+	 *
+	 * @param width		width of the scene
+	 *
+	 * @return		horizontal cursor position at the given time
+	 */
+	public static double getCursorPathX(long time, double width) {
+		double phase = time / 1e9;
+		return
+		    width / 2 +
+		    Math.sin(phase * 3 * getCursorPathSweep(phase)) * (width / 2 - 1);
+	}
+
+	/**
+	 * @param time		time along the path in nanoseconds
+	 *
+	 * @param height	height of the scene
+	 *
+	 * @return		vertical cursor position at the given time
+	 */
+	public static double getCursorPathY(long time, double height) {
+		double phase = time / 1e9;
+		return
+		    height / 2 +
+		    Math.cos(phase * 2 * getCursorPathSweep(phase)) * (height / 2 - 1);
+	}
+
+
+	/*
+		************
+		*** VIEW ***
+		************
+	*/
+	private final OverlayViewManager overlayViewManager;
+	private final OverlayViewController controller;
+	private final Parent root;
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	controller of the simulated overlay view
+	 */
+	public OverlayViewController getController() {
+		return controller;
+	}
+
+
+	/*
+		*******************
+		*** CONSTRUCTOR ***
+		*******************
+	*/
+	/**
+	 * @throws IOException	if the overlay view couldn't be loaded
+	 */
+	public SimulatedOverlay() throws IOException {
+		FXMLLoader overlayLoader = OverlayViewManager.loadView();
+		overlayViewManager = null;
+		controller = overlayLoader.getController();
+		GridPane gridPane = overlayLoader.getRoot();
+		gridPane.resize(SCENE_WIDTH, SCENE_HEIGHT);
+		root = gridPane;
+	}
+
+	/**
+	 * This constructor simulates the overlay view of an overlay view
+	 * manager, which must be used from the JavaFX application thread only.
+	 *
+	 *
+	 * @param overlayViewManager	overlay view manager
+	 */
+	public SimulatedOverlay(OverlayViewManager overlayViewManager) {
+		this.overlayViewManager = overlayViewManager;
+		controller = OverlayViewManagerDriver.getController(
+		    overlayViewManager
+		);
+		root = OverlayViewManagerDriver.getRoot(overlayViewManager);
+	}
+
+
+	/*
+		*************
+		*** PULSE ***
+		*************
+	*/
+	/**
+	 * This method advances the simulation by one pulse.
+	 */
+	public void pulse() {
+		/*
+		Deliver the cursor moves which happened since the previous
+		pulse.
+		*/
+		time += PULSE_INTERVAL_NANOSECONDS;
+		while (nextCursorMoveTime <= time) {
+			double x = getCursorPathX(nextCursorMoveTime, SCENE_WIDTH);
+			double y = getCursorPathY(nextCursorMoveTime, SCENE_HEIGHT);
+			controller.moveCursor(nextCursorMoveTime, x, y, x, y);
+			nextCursorMoveTime += CURSOR_MOVE_INTERVAL_NANOSECONDS;
+		}
+
+		controller.pulse(time);
+		if (overlayViewManager != null) {
+			OverlayViewManagerDriver.pulse(overlayViewManager, time);
+		}
+
+		/*
+		Lay out the view as the pulse would, which is where binding
+		recomputation for the cursor window happens.
+		*/
+		root.layout();
+	}
+}
@@ -0,0 +1,27 @@
+#!/bin/sh
+#
+# Checks the input transparent mode on a virtual Xvfb display, failing unless
+# an empty input shape can be set on an overlay stage and is reported back by
+# the X server.
+#
+# Usage: input-shape-check.sh CLASSPATH
+#
+# The classpath must include the JNA library. The screen size and display
+# number can be changed with the SCREEN_SIZE and DISPLAY_NUMBER environment
+# variables.
+
+set -e
+
+CLASSPATH=${1:?classpath required}
+
+SCREEN_SIZE=${SCREEN_SIZE:-1920x1080x24}
+DISPLAY_NUMBER=${DISPLAY_NUMBER:-98}
+
+Xvfb ":$DISPLAY_NUMBER" -nolisten tcp -screen 0 "$SCREEN_SIZE" &
+XVFB_PID=$!
+trap 'kill "$XVFB_PID"' EXIT INT TERM
+sleep 2
+export DISPLAY=":$DISPLAY_NUMBER"
+
+java -cp "$CLASSPATH" -Dprism.order=sw \
+    com.sluggames.software.LowBeams.perf.InputShapeCheck
@@ -0,0 +1,67 @@
+#!/bin/sh
+#
+# Runs the overlay stress test for increasing overlay counts on a virtual Xvfb
+# display of four screens joined with Xinerama, and writes a report of how the
+# cost scales with the number of overlays.
+#
+# Usage: overlay-stress.sh CLASSPATH REPORT_FILE [CURSOR_TRACE_FILE]
+#
+# The overlay counts, screen size and display number can be changed with the
+# OVERLAY_COUNTS, SCREEN_SIZE and DISPLAY_NUMBER environment variables.
+#
+# The scaling exponent of a row is log(cost / cost of one overlay) / log(count),
+# which is 1 where the process CPU usage grows linearly with the overlay count,
+# below 1 where it grows more slowly, and above 1 where it grows faster.
+
+set -e
+
+CLASSPATH=${1:?classpath required}
+REPORT_FILE=${2:?report file required}
+CURSOR_TRACE_FILE=$3
+
+OVERLAY_COUNTS=${OVERLAY_COUNTS:-"1 4 8 16"}
+SCREEN_SIZE=${SCREEN_SIZE:-2560x1440x24}
+DISPLAY_NUMBER=${DISPLAY_NUMBER:-99}
+
+Xvfb ":$DISPLAY_NUMBER" +xinerama -nolisten tcp \
+    -screen 0 "$SCREEN_SIZE" \
+    -screen 1 "$SCREEN_SIZE" \
+    -screen 2 "$SCREEN_SIZE" \
+    -screen 3 "$SCREEN_SIZE" &
+XVFB_PID=$!
+trap 'kill "$XVFB_PID"' EXIT INT TERM
+sleep 2
+export DISPLAY=":$DISPLAY_NUMBER"
+
+RESULTS=$(mktemp)
+for OVERLAY_COUNT in $OVERLAY_COUNTS; do
+	echo "Stressing $OVERLAY_COUNT overlays" >&2
+	java -cp "$CLASSPATH" -Dprism.order=sw \
+	    com.sluggames.software.LowBeams.perf.OverlayStressTest \
+	    "$OVERLAY_COUNT" $CURSOR_TRACE_FILE |
+	    grep '^RESULT' >> "$RESULTS"
+done
+
+mkdir -p "$(dirname "$REPORT_FILE")"
+awk -F '\t' '
+BEGIN {
+	printf "%8s %12s %12s %10s %8s %14s %10s\n", \
+	    "overlays", "process CPU", "FX CPU", "RSS MiB", "threads", \
+	    "CPU / overlay", "exponent"
+}
+{
+	count = $2; cpu = $3
+	if (NR == 1) {
+		baseCount = count; baseCpu = cpu
+	}
+	exponent = "-"
+	if (count != baseCount && baseCpu > 0 && cpu > 0) {
+		exponent = sprintf("%.2f", \
+		    log(cpu / baseCpu) / log(count / baseCount))
+	}
+	printf "%8d %11.1f%% %11.1f%% %10.1f %8d %13.2f%% %10s\n", \
+	    count, cpu * 100, $4 * 100, $5, $6, cpu * 100 / count, exponent
+}' "$RESULTS" > "$REPORT_FILE"
+rm -f "$RESULTS"
+
+cat "$REPORT_FILE"
@@ -0,0 +1,67 @@
+#!/bin/sh
+#
+# Measures the damage bytes per minute which a remote session has to send for
+# each overlay profile, on a local TigerVNC Xvnc server, and writes a report.
+# Unlike the remoteDamage metrics of perf/baseline.json, which are modeled from
+# the rectangles the overlay resizes, these are the bytes the server actually
+# sends to two connected clients, one using the raw encoding, and one ZRLE.
+#
+# Usage: remote-damage.sh CLASSPATH REPORT_FILE
+#
+# The classpath must include the JNA library, so that the bandwidth saving
+# profile can use the input transparent mode. The screen size and display
+# number can be changed with the SCREEN_SIZE and DISPLAY_NUMBER environment
+# variables.
+#
+# The NONE rows measure the cursor alone, which the server draws into the frame
+# buffer, and the overlay column is what each profile adds on top of it, which
+# is comparable to the modeled metrics for the raw encoding. The area column is
+# the updated area at four bytes per pixel, whatever the encoding.
+
+set -e
+
+CLASSPATH=${1:?classpath required}
+REPORT_FILE=${2:?report file required}
+
+SCREEN_SIZE=${SCREEN_SIZE:-1920x1080}
+DISPLAY_NUMBER=${DISPLAY_NUMBER:-97}
+PORT=$((5900 + DISPLAY_NUMBER))
+
+Xvnc ":$DISPLAY_NUMBER" -nolisten tcp -localhost \
+    -geometry "$SCREEN_SIZE" -depth 24 \
+    -rfbport "$PORT" -SecurityTypes None -AlwaysShared &
+XVNC_PID=$!
+trap 'kill "$XVNC_PID"' EXIT INT TERM
+sleep 2
+export DISPLAY=":$DISPLAY_NUMBER"
+
+RESULTS=$(mktemp)
+for MODE in NONE FULL BANDWIDTH_SAVING; do
+	echo "Measuring $MODE" >&2
+	java -cp "$CLASSPATH" -Dprism.order=sw \
+	    com.sluggames.software.LowBeams.perf.RemoteDamageMeasurement \
+	    "$MODE" localhost "$PORT" |
+	    grep '^RESULT' >> "$RESULTS"
+done
+
+mkdir -p "$(dirname "$REPORT_FILE")"
+awk -F '\t' '
+BEGIN {
+	printf "%-16s %8s %14s %14s %14s %12s\n", \
+	    "profile", "encoding", "bytes / min", "overlay / min", \
+	    "area B / min", "updates/min"
+}
+{
+	if ($2 == "NONE") {
+		cursorBytes[$3] = $4
+	}
+	overlay = "-"
+	if ($2 != "NONE" && ($3 in cursorBytes)) {
+		overlay = sprintf("%.3e", $4 - cursorBytes[$3])
+	}
+	printf "%-16s %8s %14.3e %14s %14.3e %12d\n", \
+	    $2, $3, $4, overlay, $5, $6
+}' "$RESULTS" > "$REPORT_FILE"
+rm -f "$RESULTS"
+
+cat "$REPORT_FILE"
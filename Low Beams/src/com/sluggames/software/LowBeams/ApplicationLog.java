@@ -0,0 +1,510 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * This class is the application log. Logging a record only appends it to a
+ * bounded lock-free ring buffer, which is drained by a low priority daemon
+ * thread into a rotating log file and the standard error stream, so logging
+ * never blocks the JavaFX application thread or the AWT event dispatch thread
+ * on I/O. If the buffer is full, the record is dropped and counted instead,
+ * and the number of dropped records is logged once the buffer has room again.
+ *
+ * Records below the configured level are discarded by a single comparison,
+ * before any message is built, so diagnostics on hot paths can stay in place
+ * as long as they check {@link #isLoggable(Level)} first. Records use the
+ * levels of the Java logging framework.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.34.0
+ */
+public class ApplicationLog {
+	/*
+		*************
+		*** LEVEL ***
+		*************
+	*/
+	public static final String LEVEL_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.logLevel";
+
+	public static final Level DEFAULT_LEVEL = Level.INFO;
+
+	/*
+	An invalid level falls back to the default level, rather than failing
+	to initialize this class, and is warned about once the drain thread has
+	started.
+	*/
+	private static final String LEVEL_NAME = System.getProperty(
+	    LEVEL_PROPERTY_NAME,
+	    DEFAULT_LEVEL.getName()
+	);
+
+	private static final boolean LEVEL_VALID = isValidLevel(LEVEL_NAME);
+
+	private static final int LEVEL_VALUE = LEVEL_VALID ?
+	    Level.parse(LEVEL_NAME).intValue() :
+	    DEFAULT_LEVEL.intValue();
+
+	private static boolean isValidLevel(String levelName) {
+		try {
+			Level.parse(levelName);
+			return true;
+		} catch (IllegalArgumentException exception) {
+			return false;
+		}
+	}
+
+	/*
+			------------
+			| LOGGABLE |
+			------------
+	*/
+	/**
+	 * @param level		level of a record
+	 *
+	 * @return		true if records of the given level are logged
+	 */
+	public static boolean isLoggable(Level level) {
+		return level.intValue() >= LEVEL_VALUE;
+	}
+
+
+	/*
+		************
+		*** FILE ***
+		************
+	*/
+	public static final String FILE_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.logFile";
+
+	/*
+	The default file is resolved lazily, on the drain thread, so that
+	logging doesn't initialize the application class.
+	*/
+	private static final String DEFAULT_FILE_NAME = "lowbeams.log";
+
+	/*
+			------------
+			| ROTATION |
+			------------
+	*/
+	private static final long MAXIMUM_FILE_BYTES = 4 * 1024 * 1024;
+	private static final int ROTATED_FILE_COUNT = 3;
+
+
+	/*
+		***************
+		*** RECORDS ***
+		***************
+	*/
+	private static final class Record {
+		private final long time = System.currentTimeMillis();
+		private final Level level;
+		private final String sourceName;
+		private final String message;
+		private final Throwable throwable;
+
+		private Record(
+		    Level level,
+		    String sourceName,
+		    String message,
+		    Throwable throwable
+		) {
+			this.level = level;
+			this.sourceName = sourceName;
+			this.message = message;
+			this.throwable = throwable;
+		}
+	}
+
+	/*
+			-------
+			| LOG |
+			-------
+	*/
+	/**
+	 * @param level		level of the record
+	 *
+	 * @param source	class logging the record
+	 *
+	 * @param message	preformatted message
+	 */
+	public static void log(Level level, Class<?> source, String message) {
+		log(level, source, message, null);
+	}
+
+	/**
+	 * @param level		level of the record
+	 *
+	 * @param source	class logging the record
+	 *
+	 * @param message	preformatted message, or null to use the
+	 *			throwable's description
+	 *
+	 * @param throwable	throwable whose stack trace is logged, or null
+	 */
+	public static void log(
+	    Level level,
+	    Class<?> source,
+	    String message,
+	    Throwable throwable
+	) {
+		if (!isLoggable(level)) {
+			return;
+		}
+
+		if (!offer(new Record(
+		    level,
+		    source.getSimpleName(),
+		    message,
+		    throwable
+		))) {
+			DROPPED_RECORD_COUNT.incrementAndGet();
+		}
+	}
+
+
+	/*
+		*******************
+		*** RING BUFFER ***
+		*******************
+
+	The ring buffer is a bounded queue for many producers and a single
+	consumer. Each slot has a sequence number, which tells producers when
+	the slot is free for the record at a given position, and tells the
+	consumer when the record at its position has been published.
+	*/
+	private static final int CAPACITY = 1024;
+	private static final int MASK = CAPACITY - 1;
+
+	private static final AtomicReferenceArray<Record> SLOTS =
+	    new AtomicReferenceArray<>(CAPACITY);
+	private static final AtomicLongArray SEQUENCES =
+	    new AtomicLongArray(CAPACITY);
+	static {
+		for (int index = 0; index < CAPACITY; index++) {
+			SEQUENCES.set(index, index);
+		}
+	}
+
+	private static final AtomicLong TAIL_POSITION = new AtomicLong();
+
+	/*
+	The head position is only accessed from the drain thread.
+	*/
+	private static long headPosition = 0;
+
+	/*
+			---------
+			| OFFER |
+			---------
+	*/
+	private static boolean offer(Record record) {
+		long position = TAIL_POSITION.get();
+		while (true) {
+			int index = (int) (position & MASK);
+			long difference = SEQUENCES.get(index) - position;
+			if (difference == 0) {
+				/*
+				The slot is free, so claim the position, and
+				publish the record.
+				*/
+				if (TAIL_POSITION.compareAndSet(position, position + 1)) {
+					SLOTS.set(index, record);
+					SEQUENCES.lazySet(index, position + 1);
+					return true;
+				}
+				position = TAIL_POSITION.get();
+			} else if (difference < 0) {
+				/*
+				The slot still holds a record from one lap
+				earlier, so the buffer is full.
+				*/
+				return false;
+			} else {
+				/*
+				Another producer claimed the position first.
+				*/
+				position = TAIL_POSITION.get();
+			}
+		}
+	}
+
+	/*
+			--------
+			| POLL |
+			--------
+	*/
+	private static Record poll() {
+		int index = (int) (headPosition & MASK);
+		if (SEQUENCES.get(index) != headPosition + 1) {
+			return null;
+		}
+
+		Record record = SLOTS.get(index);
+		SLOTS.set(index, null);
+		SEQUENCES.lazySet(index, headPosition + CAPACITY);
+		headPosition++;
+		return record;
+	}
+
+	/*
+			-----------
+			| DROPPED |
+			-----------
+	*/
+	private static final AtomicLong DROPPED_RECORD_COUNT = new AtomicLong();
+
+	/**
+	 * @return	total number of records dropped as the ring buffer was
+	 *		full
+	 */
+	public static long getDroppedRecordCount() {
+		return DROPPED_RECORD_COUNT.get();
+	}
+
+
+	/*
+		*************
+		*** DRAIN ***
+		*************
+
+	The drain thread is started when the log is first used, and wakes up
+	periodically rather than being signalled, so that logging never has to
+	wake up another thread.
+	*/
+	private static final long DRAIN_INTERVAL_NANOSECONDS =
+	    TimeUnit.MILLISECONDS.toNanos(50);
+
+	/*
+	These fields are only accessed while holding the drain lock.
+	*/
+	private static final Object DRAIN_LOCK = new Object();
+	private static Writer fileWriter;
+	private static Path filePath;
+	private static long fileBytes;
+	private static boolean fileFailed = false;
+	private static long reportedDroppedRecordCount = 0;
+
+	private static final Thread DRAIN_THREAD = new Thread(
+	    ApplicationLog::drainContinuously,
+	    LowBeams.APPLICATION_TITLE + " Log"
+	);
+	static {
+		DRAIN_THREAD.setDaemon(true);
+		DRAIN_THREAD.setPriority(Thread.MIN_PRIORITY);
+		DRAIN_THREAD.start();
+
+		if (!LEVEL_VALID) {
+			log(
+			    Level.WARNING,
+			    ApplicationLog.class,
+			    "Invalid log level " + LEVEL_NAME + ", so the" +
+			    " default level " + DEFAULT_LEVEL + " is used."
+			);
+		}
+
+		/*
+		Drain the remaining records as the virtual machine shuts down,
+		including when the application exits abruptly.
+		*/
+		Runtime.getRuntime().addShutdownHook(new Thread(
+		    ApplicationLog::flush,
+		    LowBeams.APPLICATION_TITLE + " Log Flush"
+		));
+	}
+
+	private static void drainContinuously() {
+		while (true) {
+			flush();
+			LockSupport.parkNanos(DRAIN_INTERVAL_NANOSECONDS);
+		}
+	}
+
+	/*
+			---------
+			| FLUSH |
+			---------
+	*/
+	/**
+	 * This method drains every record logged so far, and flushes the log
+	 * file. It blocks on I/O, so it should not be called from the JavaFX
+	 * application thread or the AWT event dispatch thread.
+	 */
+	public static void flush() {
+		synchronized (DRAIN_LOCK) {
+			Record record;
+			while ((record = poll()) != null) {
+				write(format(record));
+			}
+
+			/*
+			Report records which were dropped since the previous
+			report.
+			*/
+			long droppedRecordCount = DROPPED_RECORD_COUNT.get();
+			if (droppedRecordCount != reportedDroppedRecordCount) {
+				write(format(new Record(
+				    Level.WARNING,
+				    ApplicationLog.class.getSimpleName(),
+				    (droppedRecordCount - reportedDroppedRecordCount) +
+				    " records were dropped, as the log was full.",
+				    null
+				)));
+				reportedDroppedRecordCount = droppedRecordCount;
+			}
+
+			if (fileWriter != null) {
+				try {
+					fileWriter.flush();
+				} catch (IOException exception) {
+					closeFile(exception);
+				}
+			}
+		}
+	}
+
+	/*
+			----------
+			| FORMAT |
+			----------
+	*/
+	private static String format(Record record) {
+		StringBuilder text = new StringBuilder(String.format(
+		    Locale.ROOT,
+		    "%tF %<tT.%<tL %s %s: %s%n",
+		    new Date(record.time),
+		    record.level.getName(),
+		    record.sourceName,
+		    record.message != null || record.throwable == null ?
+		    record.message :
+		    record.throwable.toString()
+		));
+
+		if (record.throwable != null) {
+			StringWriter stackTrace = new StringWriter();
+			record.throwable.printStackTrace(new PrintWriter(stackTrace));
+			text.append(stackTrace);
+		}
+
+		return text.toString();
+	}
+
+	/*
+			---------
+			| WRITE |
+			---------
+	*/
+	private static void write(String text) {
+		System.err.print(text);
+
+		/*
+		Open the file on first use, and rotate it once it is full.
+		*/
+		if (fileFailed) {
+			return;
+		}
+		try {
+			if (fileWriter == null) {
+				openFile();
+			} else if (fileBytes >= MAXIMUM_FILE_BYTES) {
+				fileWriter.close();
+				RotatingFile.rotate(filePath, ROTATED_FILE_COUNT);
+				openFile();
+			}
+
+			fileWriter.write(text);
+			fileBytes += text.getBytes(StandardCharsets.UTF_8).length;
+		} catch (IOException exception) {
+			closeFile(exception);
+		}
+	}
+
+	private static void openFile() throws IOException {
+		if (filePath == null) {
+			String filePathName = System.getProperty(FILE_PROPERTY_NAME);
+			filePath = filePathName != null ?
+			    Paths.get(filePathName) :
+			    LowBeamsLauncher.APPLICATION_DATA_DIRECTORY_PATH.resolve(
+			    DEFAULT_FILE_NAME
+			);
+		}
+
+		Files.createDirectories(filePath.toAbsolutePath().getParent());
+		fileBytes = Files.exists(filePath) ? Files.size(filePath) : 0;
+		fileWriter = Files.newBufferedWriter(
+		    filePath,
+		    StandardCharsets.UTF_8,
+		    StandardOpenOption.CREATE,
+		    StandardOpenOption.APPEND
+		);
+	}
+
+	/*
+	Log only to the standard error stream once the file has failed, rather
+	than failing again for every record.
+	*/
+	private static void closeFile(IOException exception) {
+		fileFailed = true;
+		fileWriter = null;
+		System.err.print(format(new Record(
+		    Level.WARNING,
+		    ApplicationLog.class.getSimpleName(),
+		    "Failed to write the log file " + filePath + ".",
+		    exception
+		)));
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private ApplicationLog() {}
+}
@@ -0,0 +1,282 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import com.sluggames.software.LowBeams.platform.ProcFileSystem;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * This class periodically logs the CPU usage of the application process, and of
+ * the compositor process where it can be found, so that the cost of rendering
+ * modes such as window opacity can be compared, including the part of the cost
+ * which is paid by the compositor rather than the application.
+ *
+ * The monitor is disabled by default, and is enabled by setting the
+ * {@link #INTERVAL_PROPERTY_NAME interval system property} to a positive
+ * number of seconds.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.34.0
+ * @since 0.18.0
+ */
+public class CpuUsageMonitor {
+	/*
+		****************
+		*** INTERVAL ***
+		****************
+	*/
+	public static final String INTERVAL_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.cpuUsageLogInterval";
+
+	public static final long DEFAULT_INTERVAL_SECONDS = 0;
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	configured interval in seconds, where zero or less
+	 *		disables the monitor
+	 */
+	public static long getConfiguredIntervalSeconds() {
+		return Long.getLong(
+		    INTERVAL_PROPERTY_NAME,
+		    DEFAULT_INTERVAL_SECONDS
+		);
+	}
+
+
+	/*
+		******************
+		*** COMPOSITOR ***
+		******************
+
+	Known compositing window managers and standalone compositors, in order
+	of preference, as several may be running at once.
+	*/
+	public static final List<String> COMPOSITOR_COMMAND_NAMES = Arrays.asList(
+	    "picom",
+	    "compton",
+	    "kwin_x11",
+	    "kwin_wayland",
+	    "gnome-shell",
+	    "mutter",
+	    "muffin",
+	    "marco",
+	    "xfwm4",
+	    "compiz",
+	    "cinnamon"
+	);
+
+	private long compositorProcessId = -1;
+
+
+	/*
+		***************
+		*** SAMPLES ***
+		***************
+	*/
+	private long previousSampleTime;
+	private long previousProcessCpuTime;
+	private long previousCompositorCpuTime;
+
+	private volatile double processCpuUsage;
+	private volatile double compositorCpuUsage = Double.NaN;
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	CPU usage of the application during the latest interval,
+	 *		as a fraction of one core
+	 */
+	public double getProcessCpuUsage() {
+		return processCpuUsage;
+	}
+
+	/**
+	 * @return	CPU usage of the compositor during the latest interval,
+	 *		as a fraction of one core, or NaN if unknown
+	 */
+	public double getCompositorCpuUsage() {
+		return compositorCpuUsage;
+	}
+
+	/*
+			----------
+			| SAMPLE |
+			----------
+	*/
+	/**
+	 * This method samples the CPU time of both processes, and updates the
+	 * CPU usage over the time elapsed since the previous sample.
+	 */
+	public synchronized void sample() {
+		long sampleTime = System.nanoTime();
+		long processCpuTime = readProcessCpuTime();
+		long compositorCpuTime = readCompositorCpuTime();
+
+		/*
+		Update the usage, unless this is the first sample.
+		*/
+		long elapsedTime = sampleTime - previousSampleTime;
+		if (previousSampleTime != 0 && elapsedTime > 0) {
+			processCpuUsage =
+			    (double) (processCpuTime - previousProcessCpuTime) /
+			    elapsedTime;
+			compositorCpuUsage =
+			    compositorCpuTime < 0 || previousCompositorCpuTime < 0 ?
+			    Double.NaN :
+			    (double) (compositorCpuTime - previousCompositorCpuTime) /
+			    elapsedTime;
+		}
+
+		previousSampleTime = sampleTime;
+		previousProcessCpuTime = processCpuTime;
+		previousCompositorCpuTime = compositorCpuTime;
+	}
+
+	/*
+				\\\\\\\\\\\
+				\ PROCESS \
+				\\\\\\\\\\\
+	*/
+	private static long readProcessCpuTime() {
+		/*
+		The process CPU time is only exposed by the platform specific
+		extension of the operating system bean, which is available on
+		all mainstream virtual machines.
+		*/
+		java.lang.management.OperatingSystemMXBean operatingSystemBean =
+		    ManagementFactory.getOperatingSystemMXBean();
+		if (operatingSystemBean instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean)
+			    operatingSystemBean).getProcessCpuTime();
+		}
+
+		return 0;
+	}
+
+	/*
+				\\\\\\\\\\\\\\
+				\ COMPOSITOR \
+				\\\\\\\\\\\\\\
+	*/
+	private long readCompositorCpuTime() {
+		if (!ProcFileSystem.isAvailable()) {
+			return -1;
+		}
+
+		try {
+			/*
+			Find the compositor again if it was never found, or has
+			exited since.
+			*/
+			if (compositorProcessId < 0) {
+				compositorProcessId = ProcFileSystem.findProcessId(
+				    COMPOSITOR_COMMAND_NAMES
+				);
+			}
+			if (compositorProcessId < 0) {
+				return -1;
+			}
+
+			return ProcFileSystem.readCpuTimeNanoseconds(
+			    compositorProcessId
+			);
+		} catch (IOException exception) {
+			compositorProcessId = -1;
+			return -1;
+		}
+	}
+
+
+	/*
+		***********
+		*** LOG ***
+		***********
+	*/
+	public static final String THREAD_NAME = "Low Beams CPU Usage Monitor";
+
+	/**
+	 * This method starts logging the CPU usage at the given interval on a
+	 * daemon thread.
+	 *
+	 *
+	 * @param intervalSeconds	interval in seconds
+	 */
+	public void start(long intervalSeconds) {
+		/*
+		Validate arguments.
+		*/
+		if (intervalSeconds <= 0) {
+			throw new IllegalArgumentException(
+			    "intervalSeconds (" + intervalSeconds + ") <= 0"
+			);
+		}
+
+		ScheduledExecutorService executor =
+		    Executors.newSingleThreadScheduledExecutor((
+		    Runnable runnable
+		) -> {
+			Thread thread = new Thread(runnable, THREAD_NAME);
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+
+		sample();
+		executor.scheduleAtFixedRate(() -> {
+			sample();
+			ApplicationLog.log(
+			    Level.INFO,
+			    CpuUsageMonitor.class,
+			    String.format(
+			    Locale.ROOT,
+			    "CPU usage: process %.1f%%, compositor %s",
+			    processCpuUsage * 100,
+			    Double.isNaN(compositorCpuUsage) ?
+			    "unknown" :
+			    String.format(
+			    Locale.ROOT,
+			    "%.1f%% (pid %d)",
+			    compositorCpuUsage * 100,
+			    compositorProcessId
+			)));
+		}, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+	}
+}
@@ -0,0 +1,259 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * This class holds a recorded trace of mouse cursor samples, each consisting
+ * of a time in nanoseconds and screen coordinates. Traces allow cursor window
+ * tracking strategies to be compared offline against the same real movement.
+ *
+ * Recording is enabled by setting the recording path system property, in which
+ * case the samples of all overlays are recorded into a single trace, which is
+ * saved as the application stops. Traces are stored as plain text, with one
+ * sample per line.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.25.0
+ * @since 0.25.0
+ */
+public class CursorTrace {
+	/*
+		*****************
+		*** RECORDING ***
+		*****************
+	*/
+	public static final String RECORDING_PATH_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.cursorTraceFile";
+
+	private static final CursorTrace RECORDING =
+	    System.getProperty(RECORDING_PATH_PROPERTY_NAME) != null ?
+	    new CursorTrace() :
+	    null;
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	trace being recorded, or null if recording wasn't
+	 *		requested
+	 */
+	public static CursorTrace getRecording() {
+		return RECORDING;
+	}
+
+	/*
+			--------
+			| SAVE |
+			--------
+	*/
+	/**
+	 * This method saves the recording, if any, to the recording path.
+	 *
+	 *
+	 * @throws IOException	if the recording couldn't be written
+	 */
+	public static void saveRecording() throws IOException {
+		if (RECORDING != null) {
+			RECORDING.save(Paths.get(
+			    System.getProperty(RECORDING_PATH_PROPERTY_NAME)
+			));
+		}
+	}
+
+
+	/*
+		***************
+		*** SAMPLES ***
+		***************
+
+	Samples are kept in parallel primitive arrays, so that recording doesn't
+	allocate, except when the arrays grow.
+	*/
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private long[] sampleTimes = new long[INITIAL_CAPACITY];
+	private double[] sampleXs = new double[INITIAL_CAPACITY];
+	private double[] sampleYs = new double[INITIAL_CAPACITY];
+
+	private int size = 0;
+
+	/*
+			----------
+			| RECORD |
+			----------
+	*/
+	/**
+	 * @param sampleTime	time of the sample, in nanoseconds
+	 * @param sampleX	screen x coordinate of the sample
+	 * @param sampleY	screen y coordinate of the sample
+	 */
+	public synchronized void record(
+	    long sampleTime,
+	    double sampleX,
+	    double sampleY
+	) {
+		if (size == sampleTimes.length) {
+			sampleTimes = Arrays.copyOf(sampleTimes, size * 2);
+			sampleXs = Arrays.copyOf(sampleXs, size * 2);
+			sampleYs = Arrays.copyOf(sampleYs, size * 2);
+		}
+
+		sampleTimes[size] = sampleTime;
+		sampleXs[size] = sampleX;
+		sampleYs[size] = sampleY;
+		size++;
+	}
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	public synchronized int size() {
+		return size;
+	}
+
+	public synchronized long getSampleTime(int index) {
+		checkIndex(index);
+		return sampleTimes[index];
+	}
+
+	public synchronized double getSampleX(int index) {
+		checkIndex(index);
+		return sampleXs[index];
+	}
+
+	public synchronized double getSampleY(int index) {
+		checkIndex(index);
+		return sampleYs[index];
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(
+			    "index (" + index + ")" +
+			    " not in " +
+			    "[0, size (" + size + "))"
+			);
+		}
+	}
+
+
+	/*
+		***************
+		*** STORAGE ***
+		***************
+	*/
+	/*
+			--------
+			| SAVE |
+			--------
+	*/
+	/**
+	 * @param path		path of the file to write the trace to
+	 *
+	 * @throws IOException	if the file couldn't be written
+	 */
+	public synchronized void save(Path path) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(
+		    path,
+		    StandardCharsets.UTF_8
+		)) {
+			for (int index = 0; index < size; index++) {
+				writer.write(
+				    sampleTimes[index] + " " +
+				    sampleXs[index] + " " +
+				    sampleYs[index]
+				);
+				writer.newLine();
+			}
+		}
+	}
+
+	/*
+			--------
+			| LOAD |
+			--------
+	*/
+	/**
+	 * @param path		path of the file to read the trace from
+	 *
+	 * @return		trace read from the file
+	 *
+	 * @throws IOException	if the file couldn't be read, or is malformed
+	 */
+	public static CursorTrace load(Path path) throws IOException {
+		CursorTrace cursorTrace = new CursorTrace();
+
+		try (BufferedReader reader = Files.newBufferedReader(
+		    path,
+		    StandardCharsets.UTF_8
+		)) {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+
+				String[] fields = line.trim().split("\\s+");
+				if (fields.length != 3) {
+					throw new IOException(
+					    "Malformed cursor trace sample at " +
+					    path + ":" + lineNumber
+					);
+				}
+				try {
+					cursorTrace.record(
+					    Long.parseLong(fields[0]),
+					    Double.parseDouble(fields[1]),
+					    Double.parseDouble(fields[2])
+					);
+				} catch (NumberFormatException numberFormatException) {
+					throw new IOException(
+					    "Malformed cursor trace sample at " +
+					    path + ":" + lineNumber,
+					    numberFormatException
+					);
+				}
+			}
+		}
+
+		return cursorTrace;
+	}
+}
@@ -0,0 +1,279 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import com.sluggames.software.LowBeams.resources.FXML.OverlayView.OverlayViewController;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.layout.GridPane;
+
+/**
+ * This class replays a cursor trace against the cursor window tracking of an
+ * overlay view, once at a fixed tracking frequency and once at the velocity
+ * adaptive tracking frequency, and reports the tracking ticks per second, as a
+ * proxy for CPU usage, alongside the distance by which the cursor window lags
+ * behind the cursor during fast movement, as a proxy for perceived latency.
+ * The view is driven directly through simulated pulses, as the allocation
+ * budget check does, so that no display is needed, and the tracking loop which
+ * is measured is the real one.
+ *
+ * A recorded trace may be given as the first argument, and a fixed tracking
+ * frequency as the second. Without arguments, a synthetic trace mixing reading,
+ * moderate movement and fast flicks across a three monitor span is replayed.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.25.0
+ */
+public class CursorTraceReplay {
+	/*
+		******************
+		*** SIMULATION ***
+		******************
+	*/
+	private static final long PULSE_INTERVAL_NANOSECONDS =
+	    1_000_000_000L / 60;
+	private static final double NANOSECONDS_PER_SECOND = 1_000_000_000;
+
+	/*
+			-------
+			| RUN |
+			-------
+	*/
+	private static void replay(
+	    CursorTrace cursorTrace,
+	    String label,
+	    double frequency,
+	    boolean velocityAdaptive
+	) throws IOException {
+		/*
+		Find the extent of the trace, which becomes the scene, so that
+		screen coordinates only need to be translated.
+		*/
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int index = 0; index < cursorTrace.size(); index++) {
+			minX = Math.min(minX, cursorTrace.getSampleX(index));
+			minY = Math.min(minY, cursorTrace.getSampleY(index));
+			maxX = Math.max(maxX, cursorTrace.getSampleX(index));
+			maxY = Math.max(maxY, cursorTrace.getSampleY(index));
+		}
+
+		/*
+		Load an overlay view covering the scene, tracking at the given
+		frequency.
+		*/
+		FXMLLoader overlayLoader = OverlayViewManager.loadView();
+		OverlayViewController controller = overlayLoader.getController();
+		GridPane root = overlayLoader.getRoot();
+		root.resize(maxX - minX + 1, maxY - minY + 1);
+		controller.cursorWindowTrackingFrequencyProperty().set(frequency);
+		controller.cursorWindowTrackingVelocityAdaptiveProperty().set(
+		    velocityAdaptive
+		);
+
+		/*
+		The speed is estimated separately, only to tell which pulses
+		fall into fast movement.
+		*/
+		CursorVelocityEstimator cursorVelocityEstimator =
+		    new CursorVelocityEstimator();
+
+		long startTime = cursorTrace.getSampleTime(0);
+		long endTime =
+		    cursorTrace.getSampleTime(cursorTrace.size() - 1) +
+		    (long) NANOSECONDS_PER_SECOND;
+
+		int sampleIndex = 0;
+		double latestX = cursorTrace.getSampleX(0) - minX;
+		double latestY = cursorTrace.getSampleY(0) - minY;
+
+		long fastPulseCount = 0;
+		double totalFastLag = 0;
+		double maximumLag = 0;
+
+		for (
+		    long pulseTime = startTime;
+		    pulseTime <= endTime;
+		    pulseTime += PULSE_INTERVAL_NANOSECONDS
+		) {
+			/*
+			Deliver the mouse events which arrived before the pulse.
+			*/
+			while (
+			    sampleIndex < cursorTrace.size() &&
+			    cursorTrace.getSampleTime(sampleIndex) <= pulseTime
+			) {
+				latestX = cursorTrace.getSampleX(sampleIndex) - minX;
+				latestY = cursorTrace.getSampleY(sampleIndex) - minY;
+				controller.moveCursor(
+				    cursorTrace.getSampleTime(sampleIndex),
+				    latestX,
+				    latestY,
+				    cursorTrace.getSampleX(sampleIndex),
+				    cursorTrace.getSampleY(sampleIndex)
+				);
+				cursorVelocityEstimator.record(
+				    cursorTrace.getSampleTime(sampleIndex),
+				    latestX,
+				    latestY
+				);
+				sampleIndex++;
+			}
+
+			controller.pulse(pulseTime);
+
+			/*
+			Measure the lag of the cursor window.
+			*/
+			double lag = Math.hypot(
+			    latestX - controller.getTrackedCursorX(),
+			    latestY - controller.getTrackedCursorY()
+			);
+			maximumLag = Math.max(maximumLag, lag);
+			if (
+			    cursorVelocityEstimator.getSpeed(pulseTime) >=
+			    CursorVelocityEstimator.FAST_SPEED
+			) {
+				fastPulseCount++;
+				totalFastLag += lag;
+			}
+		}
+
+		double duration = (endTime - startTime) / NANOSECONDS_PER_SECOND;
+		System.out.println(String.format(
+		    Locale.ROOT,
+		    "%-28s %8.2f ticks/s %10.1f px mean fast lag %10.1f px max lag",
+		    label,
+		    controller.getTrackingTickCount() / duration,
+		    fastPulseCount > 0 ? totalFastLag / fastPulseCount : 0,
+		    maximumLag
+		));
+	}
+
+
+	/*
+		*****************
+		*** SYNTHETIC ***
+		*****************
+
+	The synthetic trace samples a 125 Hz mouse, and is seeded, so that
+	results are reproducible.
+	*/
+	private static final long SAMPLE_INTERVAL_NANOSECONDS =
+	    1_000_000_000L / 125;
+
+	private static CursorTrace createSyntheticTrace() {
+		CursorTrace cursorTrace = new CursorTrace();
+		Random random = new Random(0);
+
+		long time = 0;
+		double x = 960;
+		double y = 540;
+
+		/*
+		Reading, with hand tremor and the occasional nudge.
+		*/
+		for (int index = 0; index < 20 * 125; index++) {
+			time += SAMPLE_INTERVAL_NANOSECONDS;
+			x += random.nextGaussian() * 0.5;
+			y += random.nextGaussian() * 0.5;
+			if (index % 250 == 0) {
+				x += 24;
+			}
+			cursorTrace.record(time, x, y);
+		}
+
+		/*
+		Moderate movement.
+		*/
+		for (int index = 0; index < 5 * 125; index++) {
+			time += SAMPLE_INTERVAL_NANOSECONDS;
+			x += 400.0 / 125;
+			y += Math.sin(index / 20.0) * 2;
+			cursorTrace.record(time, x, y);
+		}
+
+		/*
+		Fast flicks across a three monitor span, with pauses in between.
+		*/
+		for (int flick = 0; flick < 6; flick++) {
+			double targetX = flick % 2 == 0 ? 5_600 : 160;
+			double startX = x;
+			for (int index = 1; index <= 40; index++) {
+				time += SAMPLE_INTERVAL_NANOSECONDS;
+				x = startX + (targetX - startX) * index / 40;
+				cursorTrace.record(time, x, y);
+			}
+			for (int index = 0; index < 125; index++) {
+				time += SAMPLE_INTERVAL_NANOSECONDS;
+				x += random.nextGaussian() * 0.5;
+				cursorTrace.record(time, x, y);
+			}
+		}
+
+		return cursorTrace;
+	}
+
+
+	/*
+		************
+		*** MAIN ***
+		************
+	*/
+	public static void main(String[] args) throws IOException {
+		CursorTrace cursorTrace = args.length > 0 ?
+		    CursorTrace.load(Paths.get(args[0])) :
+		    createSyntheticTrace();
+		if (cursorTrace.size() == 0) {
+			throw new IllegalArgumentException(
+			    "The cursor trace is empty."
+			);
+		}
+
+		double fixedFrequency = args.length > 1 ?
+		    Double.parseDouble(args[1]) :
+		    OverlayViewController.DEFAULT_CURSOR_WINDOW_TRACKING_FREQUENCY;
+
+		replay(
+		    cursorTrace,
+		    "Fixed (" + fixedFrequency + " Hz)",
+		    fixedFrequency,
+		    false
+		);
+		replay(
+		    cursorTrace,
+		    "Velocity adaptive (" + fixedFrequency + " Hz)",
+		    fixedFrequency,
+		    true
+		);
+	}
+}
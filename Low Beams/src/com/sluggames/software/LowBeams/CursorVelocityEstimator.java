@@ -0,0 +1,190 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+/**
+ * This class estimates the recent speed of the mouse cursor, and derives a
+ * tracking frequency from it. Slow movement, such as while reading or nudging
+ * the pointer, maps to the minimum frequency, and fast flicks map to the
+ * maximum frequency, so that the cursor window keeps up where it matters, and
+ * idles where it doesn't.
+ *
+ * The speed is an exponentially weighted moving average, which decays towards
+ * zero once the cursor stops moving. This class is not thread safe, and is
+ * intended to be used from the JavaFX application thread only.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.25.0
+ */
+public class CursorVelocityEstimator {
+	/*
+		*************
+		*** SPEED ***
+		*************
+	*/
+	/*
+	The time constant of the moving average, which is short enough to pick
+	up the start of a flick within a few frames.
+	*/
+	public static final long TIME_CONSTANT_NANOSECONDS = 100_000_000;
+
+	/*
+	Speeds at or below the slow speed map to the minimum frequency, and
+	speeds at or above the fast speed map to the maximum frequency, both
+	in scene pixels per second.
+	*/
+	public static final double SLOW_SPEED = 200;
+	public static final double FAST_SPEED = 2_000;
+
+	/*
+	The share of a faster sample which the speed jumps to at once.
+	*/
+	public static final double ATTACK_WEIGHT = 0.5;
+
+	private static final long NO_SAMPLE_TIME = Long.MIN_VALUE;
+
+	private long previousSampleTime = NO_SAMPLE_TIME;
+	private double previousSampleX;
+	private double previousSampleY;
+
+	private double speed = 0;
+
+	/*
+			----------
+			| RECORD |
+			----------
+	*/
+	/**
+	 * @param sampleTime	time of the cursor sample, in nanoseconds
+	 * @param sampleX	x coordinate of the cursor sample
+	 * @param sampleY	y coordinate of the cursor sample
+	 */
+	public void record(long sampleTime, double sampleX, double sampleY) {
+		if (previousSampleTime != NO_SAMPLE_TIME) {
+			long elapsedTime = sampleTime - previousSampleTime;
+			if (elapsedTime <= 0) {
+				/*
+				Samples sharing a timestamp can't yield a speed,
+				so only the position is kept.
+				*/
+				previousSampleX = sampleX;
+				previousSampleY = sampleY;
+				return;
+			}
+
+			double sampleSpeed =
+			    Math.hypot(
+			    sampleX - previousSampleX,
+			    sampleY - previousSampleY
+			) * 1_000_000_000 / elapsedTime;
+
+			/*
+			Weigh the sample according to the time elapsed since
+			the previous one, so that the average doesn't depend on
+			the rate of mouse events.
+			*/
+			double weight = 1 - Math.exp(
+			    -(double) elapsedTime / TIME_CONSTANT_NANOSECONDS
+			);
+			speed += (sampleSpeed - speed) * weight;
+
+			/*
+			Pick up the start of a flick at once, rather than
+			within the time constant, which would track its first
+			frames at the minimum frequency. A single fast sample
+			only raises the frequency briefly, as the speed decays
+			again right away.
+			*/
+			speed = Math.max(speed, sampleSpeed * ATTACK_WEIGHT);
+		}
+
+		previousSampleTime = sampleTime;
+		previousSampleX = sampleX;
+		previousSampleY = sampleY;
+	}
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @param time	current time, in nanoseconds
+	 *
+	 * @return	estimated cursor speed, in scene pixels per second,
+	 *		decayed for the time since the latest sample
+	 */
+	public double getSpeed(long time) {
+		if (previousSampleTime == NO_SAMPLE_TIME) {
+			return 0;
+		}
+
+		long elapsedTime = Math.max(0, time - previousSampleTime);
+		return speed * Math.exp(
+		    -(double) elapsedTime / TIME_CONSTANT_NANOSECONDS
+		);
+	}
+
+	/*
+			---------
+			| RESET |
+			---------
+	*/
+	public void reset() {
+		previousSampleTime = NO_SAMPLE_TIME;
+		speed = 0;
+	}
+
+
+	/*
+		*****************
+		*** FREQUENCY ***
+		*****************
+	*/
+	/**
+	 * @param time			current time, in nanoseconds
+	 * @param minimumFrequency	frequency for slow movement
+	 * @param maximumFrequency	frequency for fast movement
+	 *
+	 * @return			tracking frequency for the estimated
+	 *				cursor speed, interpolated linearly
+	 *				between the given bounds
+	 */
+	public double getFrequency(
+	    long time,
+	    double minimumFrequency,
+	    double maximumFrequency
+	) {
+		double fraction =
+		    (getSpeed(time) - SLOW_SPEED) / (FAST_SPEED - SLOW_SPEED);
+		fraction = Math.max(0, Math.min(1, fraction));
+
+		return
+		    minimumFrequency +
+		    (maximumFrequency - minimumFrequency) * fraction;
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+/**
+ * This class computes the geometry of the dimmed area around a cursor window,
+ * as four strips which together cover an area except for the cursor window.
+ * The top and bottom strips span the full width of the area, while the left
+ * and right strips only span the height of the cursor window.
+ *
+ * Strips are written into a caller supplied array, as consecutive groups of
+ * minimum x, minimum y, width and height, in the order of the strip indices,
+ * so that the geometry can be recomputed on every tracking tick without
+ * allocating.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.21.0
+ * @since 0.20.0
+ */
+public class CursorWindowGeometry {
+	/*
+		**************
+		*** STRIPS ***
+		**************
+	*/
+	public static final int TOP_STRIP = 0;
+	public static final int BOTTOM_STRIP = 1;
+	public static final int LEFT_STRIP = 2;
+	public static final int RIGHT_STRIP = 3;
+
+	public static final int STRIP_COUNT = 4;
+
+	/*
+			----------
+			| VALUES |
+			----------
+	*/
+	public static final int MIN_X = 0;
+	public static final int MIN_Y = 1;
+	public static final int WIDTH = 2;
+	public static final int HEIGHT = 3;
+
+	public static final int VALUES_PER_STRIP = 4;
+
+	/**
+	 * @return	new array large enough to hold all strips
+	 */
+	public static double[] newStripArray() {
+		return new double[STRIP_COUNT * VALUES_PER_STRIP];
+	}
+
+	/**
+	 * @param strips	strip array
+	 * @param strip		strip index
+	 * @param value		value index
+	 *
+	 * @return		value of the strip
+	 */
+	public static double get(double[] strips, int strip, int value) {
+		return strips[strip * VALUES_PER_STRIP + value];
+	}
+
+
+	/*
+		***************
+		*** COMPUTE ***
+		***************
+	*/
+	/**
+	 * This method computes the strips surrounding a cursor window centered
+	 * on the cursor. The cursor window is clamped to the area, and its
+	 * edges are snapped to multiples of the inverse snap scale.
+	 *
+	 *
+	 * @param areaMinX		minimum x of the area
+	 * @param areaMinY		minimum y of the area
+	 * @param areaWidth		width of the area
+	 * @param areaHeight		height of the area
+	 * @param cursorX		x of the cursor
+	 * @param cursorY		y of the cursor
+	 * @param cursorWindowWidth	width of the cursor window
+	 * @param cursorWindowHeight	height of the cursor window
+	 * @param snapScale		snap scale
+	 * @param strips		strip array to write to
+	 */
+	public static void computeStrips(
+	    double areaMinX,
+	    double areaMinY,
+	    double areaWidth,
+	    double areaHeight,
+	    double cursorX,
+	    double cursorY,
+	    double cursorWindowWidth,
+	    double cursorWindowHeight,
+	    double snapScale,
+	    double[] strips
+	) {
+		/*
+		Determine the snapped edges of the cursor window, clamped to the
+		area.
+		*/
+		double areaMaxX = areaMinX + areaWidth;
+		double areaMaxY = areaMinY + areaHeight;
+		double unclampedHoleMinX =
+		    snap(cursorX - cursorWindowWidth / 2, snapScale);
+		double unclampedHoleMinY =
+		    snap(cursorY - cursorWindowHeight / 2, snapScale);
+		double holeMinX = clamp(unclampedHoleMinX, areaMinX, areaMaxX);
+		double holeMinY = clamp(unclampedHoleMinY, areaMinY, areaMaxY);
+		double holeMaxX = clamp(
+		    unclampedHoleMinX + snap(cursorWindowWidth, snapScale),
+		    areaMinX,
+		    areaMaxX
+		);
+		double holeMaxY = clamp(
+		    unclampedHoleMinY + snap(cursorWindowHeight, snapScale),
+		    areaMinY,
+		    areaMaxY
+		);
+
+		/*
+		Write the strips.
+		*/
+		set(strips, TOP_STRIP,
+		    areaMinX, areaMinY, areaWidth, holeMinY - areaMinY);
+		set(strips, BOTTOM_STRIP,
+		    areaMinX, holeMaxY, areaWidth, areaMaxY - holeMaxY);
+		set(strips, LEFT_STRIP,
+		    areaMinX, holeMinY, holeMinX - areaMinX, holeMaxY - holeMinY);
+		set(strips, RIGHT_STRIP,
+		    holeMaxX, holeMinY, areaMaxX - holeMaxX, holeMaxY - holeMinY);
+	}
+
+	/*
+			-----------
+			| HELPERS |
+			-----------
+	*/
+	private static void set(
+	    double[] strips,
+	    int strip,
+	    double minX,
+	    double minY,
+	    double width,
+	    double height
+	) {
+		int offset = strip * VALUES_PER_STRIP;
+		strips[offset + MIN_X] = minX;
+		strips[offset + MIN_Y] = minY;
+		strips[offset + WIDTH] = width;
+		strips[offset + HEIGHT] = height;
+	}
+
+	private static double snap(double value, double snapScale) {
+		return Math.round(value * snapScale) / snapScale;
+	}
+
+	private static double clamp(double value, double minimum, double maximum) {
+		return Math.max(minimum, Math.min(maximum, value));
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private CursorWindowGeometry() {}
+}
@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+/**
+ * This interface describes a way of dimming the target screen of an overlay
+ * view manager. The overlay window is always supported, so it serves as the
+ * fallback for every other backend, which may only be supported on some
+ * platforms, screens or colors.
+ *
+ * All methods are called from the JavaFX application thread, and all except
+ * {@link #release(OverlayViewManager)} are called once per JavaFX pulse, so
+ * implementations must return quickly, and should do nothing at all if nothing
+ * has changed since the previous call. Implementations describe
+ * themselves through {@link Object#toString()}, which is shown to the user.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.17.0
+ */
+public interface DimmingBackend {
+	/**
+	 * @param overlayViewManager	overlay view manager
+	 *
+	 * @return			true if this backend can currently dim
+	 *				the target screen of the overlay view
+	 *				manager with its color
+	 */
+	boolean isSupported(OverlayViewManager overlayViewManager);
+
+	/**
+	 * This method dims the target screen of the overlay view manager, which
+	 * is enabled.
+	 *
+	 *
+	 * @param overlayViewManager	overlay view manager
+	 */
+	void dim(OverlayViewManager overlayViewManager);
+
+	/**
+	 * This method undoes any dimming of the target screen of the overlay
+	 * view manager, which is either disabled, or has switched to another
+	 * backend.
+	 *
+	 *
+	 * @param overlayViewManager	overlay view manager
+	 */
+	void undim(OverlayViewManager overlayViewManager);
+
+	/**
+	 * This method releases anything kept for the overlay view manager,
+	 * which has been undimmed, and is being disposed of, such as stages
+	 * created for it.
+	 *
+	 *
+	 * @param overlayViewManager	overlay view manager
+	 */
+	void release(OverlayViewManager overlayViewManager);
+}
@@ -0,0 +1,446 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import com.sluggames.software.LowBeams.platform.CommandLine;
+import com.sluggames.software.LowBeams.platform.LoginSession;
+import com.sluggames.software.LowBeams.platform.X11;
+import com.sluggames.software.LowBeams.platform.XSet;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.geometry.Rectangle2D;
+import javafx.stage.Screen;
+
+/**
+ * This class tracks whether the display can be seen at all, so that overlays
+ * can stop all of their work while it can't, rather than pulsing against a
+ * desktop which nobody is looking at. The display is considered unavailable
+ * while display power management has put the monitors to sleep, while the
+ * login session is locked or switched away from, or while no screen has any
+ * area.
+ *
+ * The monitor and session states are polled from a low priority daemon
+ * thread, as they can only be queried through command line utilities. Each
+ * poll starts a process per probe, so the display is only polled at the
+ * configured interval while it is unavailable, and waking up is noticed
+ * quickly, and a number of times less often while it is available. A long gap
+ * between JavaFX pulses, which happens as the system resumes from sleep,
+ * triggers an immediate poll.
+ *
+ * A probe whose utility is not installed is not polled again. A probe which
+ * fails otherwise, such as by timing out, backs off exponentially, and
+ * resumes normal polling once it succeeds again.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.35.0
+ */
+public class DisplayStateMonitor {
+	/*
+		****************
+		*** INTERVAL ***
+		****************
+	*/
+	public static final String INTERVAL_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.displayStatePollInterval";
+
+	public static final long DEFAULT_INTERVAL_SECONDS = 5;
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	configured interval in seconds, which is used while the
+	 *		display is unavailable, where zero or less disables
+	 *		polling
+	 */
+	public static long getConfiguredIntervalSeconds() {
+		return Long.getLong(
+		    INTERVAL_PROPERTY_NAME,
+		    DEFAULT_INTERVAL_SECONDS
+		);
+	}
+
+	/*
+			-------------
+			| AVAILABLE |
+			-------------
+
+	While the display is available, it is polled this many times less often,
+	which only delays suspending the overlays, rather than resuming them.
+	*/
+	public static final long AVAILABLE_INTERVAL_FACTOR = 12;
+
+	/*
+			-------------
+			| PULSE GAP |
+			-------------
+
+	JavaFX pulses at the refresh rate while anything is animating, so a gap
+	of this length means the process was not running at all.
+	*/
+	public static final long PULSE_GAP_NANOSECONDS =
+	    TimeUnit.SECONDS.toNanos(2);
+
+
+	/*
+		*************************
+		*** DISPLAY AVAILABLE ***
+		*************************
+	*/
+	private static final ReadOnlyBooleanWrapper DISPLAY_AVAILABLE_PROPERTY =
+	    new ReadOnlyBooleanWrapper(true);
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	display available property, which is only updated on
+	 *		the JavaFX application thread
+	 */
+	public static ReadOnlyBooleanProperty displayAvailableProperty() {
+		return DISPLAY_AVAILABLE_PROPERTY.getReadOnlyProperty();
+	}
+
+
+	/*
+		**************
+		*** PROBES ***
+		**************
+
+	These fields are written by the polling thread, and read on the JavaFX
+	application thread.
+	*/
+	private static volatile boolean monitorAsleep = false;
+	private static volatile boolean sessionLocked = false;
+	private static volatile boolean sessionInactive = false;
+
+	/*
+			---------
+			| PROBE |
+			---------
+
+	A probe is only accessed from the polling thread. After a failure, it
+	skips polls for twice as long as after the previous one, up to the
+	maximum backoff. The doubling itself is capped, so that the backoff
+	can't overflow.
+	*/
+	private static final long MAXIMUM_BACKOFF_NANOSECONDS =
+	    TimeUnit.MINUTES.toNanos(15);
+
+	private static final int MAXIMUM_BACKOFF_DOUBLING_COUNT = 16;
+
+	private static final class Probe {
+		private final String commandName;
+
+		private boolean enabled = X11.isDisplayAvailable();
+		private int failureCount = 0;
+		private long retryTime;
+
+		private Probe(String commandName) {
+			this.commandName = commandName;
+		}
+
+		/**
+		 * @param currentTime	current time in nanoseconds
+		 *
+		 * @return		true if the probe should be polled now
+		 */
+		private boolean isDue(long currentTime) {
+			return
+			    enabled &&
+			    (failureCount == 0 || currentTime - retryTime >= 0);
+		}
+
+		private void succeed() {
+			if (failureCount > 0) {
+				ApplicationLog.log(
+				    Level.INFO,
+				    DisplayStateMonitor.class,
+				    commandName + " succeeded again after " +
+				    failureCount + " failures."
+				);
+				failureCount = 0;
+			}
+		}
+
+		/**
+		 * @param currentTime	current time in nanoseconds
+		 *
+		 * @param exception	exception thrown by the probe
+		 */
+		private void fail(long currentTime, IOException exception) {
+			/*
+			Stop polling a utility which is not installed, as it
+			will not be installed while the application runs.
+			*/
+			if (exception instanceof CommandLine.CommandNotFoundException) {
+				enabled = false;
+				ApplicationLog.log(
+				    Level.INFO,
+				    DisplayStateMonitor.class,
+				    commandName + " is not available, so its" +
+				    " state is no longer polled: " +
+				    exception.getMessage()
+				);
+				return;
+			}
+
+			retryTime = currentTime + Math.min(
+			    TimeUnit.SECONDS.toNanos(getConfiguredIntervalSeconds()) <<
+			    Math.min(failureCount, MAXIMUM_BACKOFF_DOUBLING_COUNT),
+			    MAXIMUM_BACKOFF_NANOSECONDS
+			);
+			failureCount++;
+
+			/*
+			Only log the first failure of a run, rather than every
+			retry.
+			*/
+			if (failureCount == 1) {
+				ApplicationLog.log(
+				    Level.INFO,
+				    DisplayStateMonitor.class,
+				    "Failed to run " + commandName + ", so it is" +
+				    " polled less often until it succeeds: " +
+				    exception.getMessage()
+				);
+			}
+		}
+	}
+
+	private static final Probe MONITOR_PROBE = new Probe(XSet.COMMAND_NAME);
+	private static final Probe SESSION_PROBE =
+	    new Probe(LoginSession.COMMAND_NAME);
+
+	/*
+			--------
+			| POLL |
+			--------
+	*/
+	/*
+	While the display is unavailable, only the probe keeping it so is
+	polled, preferring the session, which stays locked for as long as the
+	monitor sleeps, if not longer. The other probe is polled again once it
+	has become available by that probe.
+	*/
+	private static void poll() {
+		long currentTime = System.nanoTime();
+		boolean sessionUnavailable = sessionLocked || sessionInactive;
+
+		if (!sessionUnavailable && MONITOR_PROBE.isDue(currentTime)) {
+			try {
+				monitorAsleep = XSet.queryMonitorAsleep();
+				MONITOR_PROBE.succeed();
+			} catch (IOException exception) {
+				MONITOR_PROBE.fail(currentTime, exception);
+			}
+		}
+
+		if (
+		    (sessionUnavailable || !monitorAsleep) &&
+		    SESSION_PROBE.isDue(currentTime)
+		) {
+			try {
+				LoginSession.State state = LoginSession.queryState();
+				sessionLocked = state.isLocked();
+				sessionInactive = !state.isActive();
+				SESSION_PROBE.succeed();
+			} catch (IOException exception) {
+				SESSION_PROBE.fail(currentTime, exception);
+			}
+		}
+
+		Platform.runLater(DisplayStateMonitor::update);
+
+		schedulePoll();
+	}
+
+
+	/*
+		**************
+		*** UPDATE ***
+		**************
+	*/
+	private static void update() {
+		boolean displayAvailable =
+		    !monitorAsleep &&
+		    !sessionLocked &&
+		    !sessionInactive &&
+		    hasScreenArea();
+		if (displayAvailable == DISPLAY_AVAILABLE_PROPERTY.get()) {
+			return;
+		}
+
+		ApplicationLog.log(
+		    Level.INFO,
+		    DisplayStateMonitor.class,
+		    displayAvailable ?
+		    "Display available, resuming overlays." :
+		    String.format(
+		    Locale.ROOT,
+		    "Display unavailable (monitor asleep %b, session locked" +
+		    " %b, session inactive %b), suspending overlays.",
+		    monitorAsleep,
+		    sessionLocked,
+		    sessionInactive
+		));
+		DISPLAY_AVAILABLE_PROPERTY.set(displayAvailable);
+	}
+
+	/*
+			---------------
+			| SCREEN AREA |
+			---------------
+
+	Some drivers report the screens of sleeping or disconnected monitors
+	with no area, rather than removing them.
+	*/
+	private static boolean hasScreenArea() {
+		for (Screen screen : Screen.getScreens()) {
+			Rectangle2D bounds = screen.getBounds();
+			if (bounds.getWidth() > 0 && bounds.getHeight() > 0) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+
+	/*
+		*************
+		*** START ***
+		*************
+	*/
+	private static final String THREAD_NAME =
+	    LowBeams.APPLICATION_TITLE + " Display State Monitor";
+
+	private static ScheduledExecutorService executor;
+
+	/*
+	The next scheduled poll is only accessed from the polling thread.
+	*/
+	private static ScheduledFuture<?> scheduledPoll;
+
+	/**
+	 * This method starts polling the display state on a low priority
+	 * daemon thread, at the configured interval while the display is
+	 * unavailable, and less often otherwise. It must be called from the
+	 * JavaFX application thread.
+	 */
+	public static void start() {
+		long intervalSeconds = getConfiguredIntervalSeconds();
+		if (intervalSeconds <= 0) {
+			throw new IllegalStateException(
+			    "Display state polling is disabled."
+			);
+		}
+
+		executor = Executors.newSingleThreadScheduledExecutor((
+		    Runnable runnable
+		) -> {
+			Thread thread = new Thread(runnable, THREAD_NAME);
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		executor.execute(DisplayStateMonitor::poll);
+	}
+
+	/*
+			-----------------
+			| SCHEDULE POLL |
+			-----------------
+
+	Each poll schedules the next one, replacing any still pending, such as
+	when a pulse gap triggers a poll early. Once no probe is left, nothing
+	is scheduled, while pulse gaps still update the display state. The
+	display counts as available by the probes alone here, as the screens
+	can only be read on the JavaFX application thread.
+	*/
+	private static void schedulePoll() {
+		if (scheduledPoll != null) {
+			scheduledPoll.cancel(false);
+		}
+		if (!MONITOR_PROBE.enabled && !SESSION_PROBE.enabled) {
+			scheduledPoll = null;
+			return;
+		}
+
+		long intervalSeconds = getConfiguredIntervalSeconds();
+		if (!monitorAsleep && !sessionLocked && !sessionInactive) {
+			intervalSeconds *= AVAILABLE_INTERVAL_FACTOR;
+		}
+		scheduledPoll = executor.schedule(
+		    DisplayStateMonitor::poll,
+		    intervalSeconds,
+		    TimeUnit.SECONDS
+		);
+	}
+
+	/*
+			--------------------
+			| REPORT PULSE GAP |
+			--------------------
+	*/
+	/**
+	 * This method should be called from the JavaFX application thread
+	 * whenever the time between two pulses exceeds the
+	 * {@link #PULSE_GAP_NANOSECONDS pulse gap}, so that the display state
+	 * is checked again right away.
+	 */
+	public static void reportPulseGap() {
+		if (executor != null) {
+			executor.execute(DisplayStateMonitor::poll);
+		} else {
+			update();
+		}
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private DisplayStateMonitor() {}
+}
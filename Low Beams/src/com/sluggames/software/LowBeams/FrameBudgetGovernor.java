@@ -0,0 +1,227 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+/**
+ * This class governs an effective frequency, such as the cursor window tracking
+ * frequency, according to the frame budget of the JavaFX application thread.
+ * It measures the gaps between pulses, which grow whenever the thread can't
+ * keep up with the pulse rate, and the work performed by the governed task in
+ * each pulse. Whenever either exceeds its budget, the effective frequency is
+ * lowered, and whenever both leave ample headroom, it is raised again, but
+ * never beyond the given maximum frequency.
+ *
+ * Measurements are aggregated over an evaluation interval, so the effective
+ * frequency changes at most once per interval. This class is not thread safe,
+ * and is intended to be used from the JavaFX application thread only.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.24.0
+ */
+public class FrameBudgetGovernor {
+	/*
+		***************
+		*** BUDGETS ***
+		***************
+	*/
+	public static final long NOMINAL_PULSE_INTERVAL_NANOSECONDS =
+	    1_000_000_000L / 60;
+
+	/*
+	Pulses arriving this much later than nominal on average indicate that
+	the JavaFX application thread is overloaded.
+	*/
+	public static final double PULSE_GAP_BUDGET_RATIO = 1.25;
+	public static final double PULSE_GAP_HEADROOM_RATIO = 1.1;
+
+	/*
+	The governed task should use no more than this much of each pulse.
+	*/
+	public static final long WORK_BUDGET_NANOSECONDS = 1_000_000;
+
+
+	/*
+		*******************
+		*** ADJUSTMENTS ***
+		*******************
+	*/
+	public static final long EVALUATION_INTERVAL_NANOSECONDS =
+	    1_000_000_000L;
+
+	public static final double DECREASE_FACTOR = 0.75;
+	public static final double INCREASE_FACTOR = 1.1;
+
+
+	/*
+		********************
+		*** MEASUREMENTS ***
+		********************
+	*/
+	private static final long NO_PULSE_TIME = Long.MIN_VALUE;
+
+	private long previousPulseTime = NO_PULSE_TIME;
+	private long evaluationStartTime = NO_PULSE_TIME;
+
+	private long pulseCount = 0;
+	private long totalPulseGap = 0;
+	private long totalWork = 0;
+
+	/*
+			---------
+			| PULSE |
+			---------
+	*/
+	/**
+	 * @param pulseTime	time of the pulse, in nanoseconds
+	 */
+	public void recordPulse(long pulseTime) {
+		if (previousPulseTime != NO_PULSE_TIME) {
+			pulseCount++;
+			totalPulseGap += pulseTime - previousPulseTime;
+		} else {
+			evaluationStartTime = pulseTime;
+		}
+		previousPulseTime = pulseTime;
+	}
+
+	/*
+			--------
+			| WORK |
+			--------
+	*/
+	/**
+	 * @param work		time spent on the governed task, in nanoseconds
+	 */
+	public void recordWork(long work) {
+		totalWork += work;
+	}
+
+	/*
+			---------
+			| RESET |
+			---------
+	*/
+	/**
+	 * This method discards all measurements, such as after the pulses have
+	 * been paused, so that the pause isn't mistaken for a stall.
+	 */
+	public void reset() {
+		previousPulseTime = NO_PULSE_TIME;
+		evaluationStartTime = NO_PULSE_TIME;
+		pulseCount = 0;
+		totalPulseGap = 0;
+		totalWork = 0;
+	}
+
+
+	/*
+		***************************
+		*** EFFECTIVE FREQUENCY ***
+		***************************
+	*/
+	private double effectiveFrequency = Double.NaN;
+
+	/*
+			----------
+			| UPDATE |
+			----------
+	*/
+	/**
+	 * This method adjusts the effective frequency once per evaluation
+	 * interval, and keeps it within the given bounds at all times.
+	 *
+	 *
+	 * @param pulseTime		time of the current pulse, in
+	 *				nanoseconds
+	 * @param minimumFrequency	minimum effective frequency
+	 * @param maximumFrequency	maximum effective frequency, as chosen
+	 *				by the user
+	 *
+	 * @return			effective frequency
+	 */
+	public double update(
+	    long pulseTime,
+	    double minimumFrequency,
+	    double maximumFrequency
+	) {
+		/*
+		Start at the maximum frequency.
+		*/
+		if (Double.isNaN(effectiveFrequency)) {
+			effectiveFrequency = maximumFrequency;
+		}
+
+		/*
+		Evaluate the measurements once per evaluation interval.
+		*/
+		if (
+		    evaluationStartTime != NO_PULSE_TIME &&
+		    pulseCount > 0 &&
+		    pulseTime - evaluationStartTime >= EVALUATION_INTERVAL_NANOSECONDS
+		) {
+			double meanPulseGap = (double) totalPulseGap / pulseCount;
+			double meanWork = (double) totalWork / pulseCount;
+
+			if (
+			    meanPulseGap > NOMINAL_PULSE_INTERVAL_NANOSECONDS * PULSE_GAP_BUDGET_RATIO ||
+			    meanWork > WORK_BUDGET_NANOSECONDS
+			) {
+				/*
+				Over budget, so back off quickly.
+				*/
+				effectiveFrequency *= DECREASE_FACTOR;
+			} else if (
+			    meanPulseGap < NOMINAL_PULSE_INTERVAL_NANOSECONDS * PULSE_GAP_HEADROOM_RATIO &&
+			    meanWork < WORK_BUDGET_NANOSECONDS / 2
+			) {
+				/*
+				Ample headroom, so recover slowly.
+				*/
+				effectiveFrequency *= INCREASE_FACTOR;
+			}
+
+			/*
+			Start a new evaluation interval.
+			*/
+			evaluationStartTime = pulseTime;
+			pulseCount = 0;
+			totalPulseGap = 0;
+			totalWork = 0;
+		}
+
+		/*
+		Keep the effective frequency within bounds, which also applies
+		any change of the maximum frequency immediately.
+		*/
+		effectiveFrequency = Math.max(
+		    minimumFrequency,
+		    Math.min(maximumFrequency, effectiveFrequency)
+		);
+
+		return effectiveFrequency;
+	}
+}
@@ -0,0 +1,476 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import com.sluggames.software.LowBeams.platform.CommandLine;
+import com.sluggames.software.LowBeams.platform.WindowScale;
+import com.sluggames.software.LowBeams.platform.X11;
+import com.sluggames.software.LowBeams.platform.XProp;
+import com.sluggames.software.LowBeams.platform.XWinInfo;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.geometry.Rectangle2D;
+import javafx.stage.Screen;
+
+/**
+ * This class tracks which screen, if any, is taken over by a full screen
+ * application, such as a game, video player or presentation, so that overlays
+ * on that screen can be suspended rather than costing it frame rate and
+ * fighting it for the front. Overlays on every other screen keep running.
+ *
+ * The active window, and whether it is in full screen mode, are followed
+ * through the extended window manager hints on X11, by two xprop processes in
+ * spy mode, which only print when either changes, so nothing is polled. They
+ * are read on low priority daemon threads. Full screen windows whose instance
+ * or class name is listed as an exception don't suspend any overlays.
+ *
+ * If xprop is not installed, full screen windows are not watched at all. If it
+ * exits otherwise, such as when the X server restarts, it is started again
+ * after the configured interval, which doubles with every failure in a row.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.37.0
+ */
+public class FullscreenWatcher {
+	/*
+		****************
+		*** INTERVAL ***
+		****************
+	*/
+	public static final String INTERVAL_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.fullscreenPollInterval";
+
+	public static final long DEFAULT_INTERVAL_SECONDS = 2;
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	configured interval in seconds, after which xprop is
+	 *		started again if it exits, where zero or less disables
+	 *		watching
+	 */
+	public static long getConfiguredIntervalSeconds() {
+		return Long.getLong(
+		    INTERVAL_PROPERTY_NAME,
+		    DEFAULT_INTERVAL_SECONDS
+		);
+	}
+
+
+	/*
+		******************
+		*** EXCEPTIONS ***
+		******************
+
+	The exceptions are given as a comma separated list of window instance or
+	class names, as printed by xprop for WM_CLASS, and are matched ignoring
+	case.
+	*/
+	public static final String EXCEPTIONS_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.fullscreenExceptions";
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	configured exceptions, in lower case
+	 */
+	public static List<String> getConfiguredExceptions() {
+		ArrayList<String> exceptions = new ArrayList<>();
+		for (String exception : System.getProperty(
+		    EXCEPTIONS_PROPERTY_NAME,
+		    ""
+		).split(",")) {
+			if (!exception.trim().isEmpty()) {
+				exceptions.add(
+				    exception.trim().toLowerCase(Locale.ROOT)
+				);
+			}
+		}
+
+		return Collections.unmodifiableList(exceptions);
+	}
+
+	/*
+			---------
+			| MATCH |
+			---------
+	*/
+	private static List<String> exceptions = Collections.emptyList();
+
+	private static boolean isException(List<String> classNames) {
+		for (String className : classNames) {
+			if (exceptions.contains(className.toLowerCase(Locale.ROOT))) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+
+	/*
+		*************************
+		*** FULLSCREEN SCREEN ***
+		*************************
+	*/
+	private static final ReadOnlyObjectWrapper<Screen> FULLSCREEN_SCREEN_PROPERTY =
+	    new ReadOnlyObjectWrapper<>();
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	fullscreen screen property, which holds the screen
+	 *		hosting the active full screen window, or null if there
+	 *		is none, and is only updated on the JavaFX application
+	 *		thread
+	 */
+	public static ReadOnlyObjectProperty<Screen> fullscreenScreenProperty() {
+		return FULLSCREEN_SCREEN_PROPERTY.getReadOnlyProperty();
+	}
+
+
+	/*
+		*********************
+		*** ACTIVE WINDOW ***
+		*********************
+
+	This field is written by the watching threads, and read on the JavaFX
+	application thread. It holds the bounds of the active full screen
+	window in device pixels, or null if there is none.
+	*/
+	private static volatile Rectangle2D fullscreenWindowBounds = null;
+
+	/*
+	The spy following the active window's full screen mode is replaced
+	whenever another window becomes active, and guarded by the lock, so that
+	the spy of a previously active window can't publish its bounds.
+	*/
+	private static final Object WINDOW_SPY_LOCK = new Object();
+
+	private static XProp.Spy windowSpy = null;
+
+	/*
+			---------
+			| WATCH |
+			---------
+
+	The active window is watched for as long as the application runs,
+	restarting xprop with a backoff whenever it exits. The backoff is reset
+	whenever xprop has reported anything, so that it only grows while xprop
+	keeps failing right away.
+	*/
+	private static final long MAXIMUM_RESTART_DELAY_SECONDS =
+	    TimeUnit.MINUTES.toSeconds(5);
+
+	/*
+	No window identifier is ever this, so that the first window reported
+	by a newly started xprop is always activated.
+	*/
+	private static final long NO_ACTIVE_WINDOW_ID = -1;
+
+	private static void watchActiveWindow() {
+		long restartDelaySeconds = getConfiguredIntervalSeconds();
+		while (true) {
+			try (XProp.Spy activeWindowSpy = XProp.spyActiveWindow()) {
+				long activeWindowId = NO_ACTIVE_WINDOW_ID;
+				while (true) {
+					long windowId = XProp.readActiveWindowId(
+					    activeWindowSpy
+					);
+					restartDelaySeconds =
+					    getConfiguredIntervalSeconds();
+					if (windowId != activeWindowId) {
+						activeWindowId = windowId;
+						activateWindow(windowId);
+					}
+				}
+			} catch (CommandLine.CommandNotFoundException exception) {
+				ApplicationLog.log(
+				    Level.INFO,
+				    FullscreenWatcher.class,
+				    XProp.COMMAND_NAME + " is not available, so" +
+				    " full screen windows are not watched: " +
+				    exception.getMessage()
+				);
+				activateWindow(XProp.NO_WINDOW_ID);
+				return;
+			} catch (IOException exception) {
+				ApplicationLog.log(
+				    Level.INFO,
+				    FullscreenWatcher.class,
+				    "Failed to watch the active window, retrying" +
+				    " in " + restartDelaySeconds + " s: " +
+				    exception.getMessage()
+				);
+			}
+
+			/*
+			Resume the overlays while nothing is watched.
+			*/
+			activateWindow(XProp.NO_WINDOW_ID);
+			try {
+				Thread.sleep(
+				    TimeUnit.SECONDS.toMillis(restartDelaySeconds)
+				);
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			restartDelaySeconds = Math.min(
+			    restartDelaySeconds * 2,
+			    MAXIMUM_RESTART_DELAY_SECONDS
+			);
+		}
+	}
+
+	/*
+			------------
+			| ACTIVATE |
+			------------
+	*/
+	private static void activateWindow(long windowId) {
+		XProp.Spy spy = null;
+		if (windowId != XProp.NO_WINDOW_ID) {
+			try {
+				spy = XProp.spyWindowFullscreen(windowId);
+			} catch (IOException exception) {
+				ApplicationLog.log(
+				    Level.FINE,
+				    FullscreenWatcher.class,
+				    "Failed to watch the active window: " +
+				    exception.getMessage()
+				);
+			}
+		}
+
+		synchronized (WINDOW_SPY_LOCK) {
+			if (windowSpy != null) {
+				windowSpy.close();
+			}
+			windowSpy = spy;
+			fullscreenWindowBounds = null;
+		}
+		Platform.runLater(FullscreenWatcher::update);
+
+		if (spy != null) {
+			XProp.Spy activatedSpy = spy;
+			executor.execute(() -> {
+				watchWindow(windowId, activatedSpy);
+			});
+		}
+	}
+
+	/*
+			----------------
+			| WATCH WINDOW |
+			----------------
+
+	The instance and class names are only queried once the window is in
+	full screen mode, and kept for as long as it stays active, as they
+	don't change.
+	*/
+	private static void watchWindow(long windowId, XProp.Spy spy) {
+		List<String> classNames = null;
+		try {
+			while (true) {
+				boolean fullscreen = XProp.readFullscreen(spy);
+
+				Rectangle2D bounds = null;
+				if (fullscreen) {
+					if (classNames == null) {
+						classNames = XProp.queryWindowState(
+						    windowId
+						).getClassNames();
+					}
+					if (!isException(classNames)) {
+						bounds = XWinInfo.queryWindowBounds(
+						    windowId
+						);
+					}
+				}
+
+				synchronized (WINDOW_SPY_LOCK) {
+					if (spy != windowSpy) {
+						return;
+					}
+					fullscreenWindowBounds = bounds;
+				}
+				Platform.runLater(FullscreenWatcher::update);
+			}
+		} catch (IOException exception) {
+			/*
+			The window is most likely gone already, or another
+			window has become active.
+			*/
+			ApplicationLog.log(
+			    Level.FINE,
+			    FullscreenWatcher.class,
+			    "Stopped watching the active window: " +
+			    exception.getMessage()
+			);
+		} finally {
+			spy.close();
+		}
+
+		/*
+		Resume the overlays if the window is gone while still active.
+		*/
+		synchronized (WINDOW_SPY_LOCK) {
+			if (spy != windowSpy) {
+				return;
+			}
+			fullscreenWindowBounds = null;
+		}
+		Platform.runLater(FullscreenWatcher::update);
+	}
+
+
+	/*
+		**************
+		*** UPDATE ***
+		**************
+	*/
+	private static void update() {
+		Screen screen = findScreen(fullscreenWindowBounds);
+		if (screen == FULLSCREEN_SCREEN_PROPERTY.get()) {
+			return;
+		}
+
+		ApplicationLog.log(
+		    Level.INFO,
+		    FullscreenWatcher.class,
+		    screen != null ?
+		    "Full screen window on screen " + screen.getBounds() +
+		    ", suspending its overlays." :
+		    "No full screen window, resuming overlays."
+		);
+		FULLSCREEN_SCREEN_PROPERTY.set(screen);
+	}
+
+	/*
+			---------------
+			| FIND SCREEN |
+			---------------
+
+	A full screen window covers exactly one screen, so the screen containing
+	its center is the one it has taken over. The window bounds are in device
+	pixels, so they are scaled to screen coordinates first.
+	*/
+	private static Screen findScreen(Rectangle2D windowBounds) {
+		if (windowBounds == null) {
+			return null;
+		}
+
+		double centerX = windowBounds.getMinX() + windowBounds.getWidth() / 2;
+		double centerY = windowBounds.getMinY() + windowBounds.getHeight() / 2;
+		for (Screen screen : Screen.getScreens()) {
+			if (screen.getBounds().contains(
+			    centerX / WindowScale.getOutputScaleX(screen),
+			    centerY / WindowScale.getOutputScaleY(screen)
+			)) {
+				return screen;
+			}
+		}
+
+		return null;
+	}
+
+
+	/*
+		*************
+		*** START ***
+		*************
+	*/
+	private static final String THREAD_NAME =
+	    LowBeams.APPLICATION_TITLE + " Fullscreen Watcher";
+
+	/*
+	One thread watches the active window, and the other the full screen
+	mode of the window which is active, one after another.
+	*/
+	private static final int THREAD_COUNT = 2;
+
+	private static ExecutorService executor;
+
+	/**
+	 * This method starts watching the active window on low priority daemon
+	 * threads, unless there is no X display. It must be called from the
+	 * JavaFX application thread.
+	 */
+	public static void start() {
+		if (getConfiguredIntervalSeconds() <= 0) {
+			throw new IllegalStateException(
+			    "Fullscreen watching is disabled."
+			);
+		}
+
+		if (!X11.isDisplayAvailable()) {
+			return;
+		}
+		exceptions = getConfiguredExceptions();
+
+		executor = Executors.newFixedThreadPool(THREAD_COUNT, (
+		    Runnable runnable
+		) -> {
+			Thread thread = new Thread(runnable, THREAD_NAME);
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		executor.execute(FullscreenWatcher::watchActiveWindow);
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private FullscreenWatcher() {}
+}
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+/**
+ * This enumeration contains the requests which can be made of the application
+ * from the command line. Whenever the application is launched while another
+ * instance is already running, the new launch forwards its request to the
+ * running instance through the {@link SingleInstanceManager} and exits, rather
+ * than starting a second instance of its own.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @see SingleInstanceManager
+ *
+ * @version 0.14.0
+ * @since 0.14.0
+ */
+public enum InstanceRequest {
+	/*
+		**************
+		*** VALUES ***
+		**************
+	*/
+	DISPLAY_PREFERENCES	("preferences"),
+	TOGGLE_OVERLAYS		("toggle");
+
+
+	/*
+		****************
+		*** ARGUMENT ***
+		****************
+	*/
+	private final String argument;
+
+	/*
+			\\\\\\\
+			\ GET \
+			\\\\\\\
+	*/
+	public String getArgument() {
+		return argument;
+	}
+
+	/*
+			\\\\\\\\\\\\\
+			\ TO STRING \
+			\\\\\\\\\\\\\
+	*/
+	@Override
+	public String toString() {
+		return argument;
+	}
+
+
+	/*
+		*************
+		*** PARSE ***
+		*************
+	*/
+	/*
+			------------
+			| ARGUMENT |
+			------------
+	*/
+	/**
+	 * @param argument	command line argument, with or without a
+	 *			leading {@code "--"}
+	 *
+	 * @return		matching request
+	 *
+	 * @throws IllegalArgumentException	Unknown request argument.
+	 */
+	public static InstanceRequest fromArgument(String argument) {
+		/*
+		Validate arguments.
+		*/
+		if (argument == null) {
+			throw new NullPointerException(
+			    "argument == null"
+			);
+		}
+
+		/*
+		Strip the optional option prefix, so that both the plain and
+		option forms of each request are accepted.
+		*/
+		String strippedArgument = argument.startsWith("--") ?
+		    argument.substring(2) :
+		    argument;
+
+		/*
+		Search for the request matching the stripped argument.
+		*/
+		for (InstanceRequest instanceRequest : values()) {
+			if (instanceRequest.argument.equalsIgnoreCase(strippedArgument)) {
+				return instanceRequest;
+			}
+		}
+
+		throw new IllegalArgumentException(
+		    "Unknown request argument: " + argument
+		);
+	}
+
+	/*
+			-------------
+			| ARGUMENTS |
+			-------------
+	*/
+	/**
+	 * @param arguments	command line arguments
+	 *
+	 * @return		request named by the first argument, or null if
+	 *			there are no arguments
+	 *
+	 * @throws IllegalArgumentException	Unknown request argument.
+	 */
+	public static InstanceRequest fromArguments(String[] arguments) {
+		/*
+		Validate arguments.
+		*/
+		if (arguments == null) {
+			throw new NullPointerException(
+			    "arguments == null"
+			);
+		}
+
+		/*
+		An empty command line carries no request.
+		*/
+		if (arguments.length == 0) {
+			return null;
+		}
+
+		return fromArgument(arguments[0]);
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+	*/
+	InstanceRequest(String argument) {
+		/*
+		Validate arguments.
+		*/
+		if (argument == null) {
+			throw new NullPointerException(
+			    "argument == null"
+			);
+		}
+
+		this.argument = argument;
+	}
+}
\ No newline at end of file
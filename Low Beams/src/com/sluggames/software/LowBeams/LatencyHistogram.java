@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+/**
+ * This class records latencies into a fixed set of log-linear buckets, so that
+ * percentiles can be estimated without keeping individual samples. Each power
+ * of two is split into eight linear buckets, which bounds the relative error
+ * of an estimate to an eighth, across a range from a microsecond to several
+ * seconds. Recording never allocates, so it is safe to use on every pulse.
+ *
+ * This class is not thread safe, and is intended to be used from the JavaFX
+ * application thread only.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.29.0
+ * @since 0.29.0
+ */
+public class LatencyHistogram {
+	/*
+		***************
+		*** BUCKETS ***
+		***************
+
+	Latencies are bucketed in microseconds. Values below the linear bucket
+	count each have their own bucket, and each power of two above is split
+	into the same number of linear buckets.
+	*/
+	private static final long NANOSECONDS_PER_MICROSECOND = 1_000;
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/*
+	Latencies of this many microseconds or more share the last bucket.
+	*/
+	private static final int MAXIMUM_BITS = 24;
+	public static final long MAXIMUM_TRACKABLE_NANOSECONDS =
+	    ((1L << MAXIMUM_BITS) - 1) * NANOSECONDS_PER_MICROSECOND;
+
+	private static final int BUCKET_COUNT =
+	    (MAXIMUM_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+	private final long[] bucketCounts = new long[BUCKET_COUNT];
+
+	/*
+			---------
+			| INDEX |
+			---------
+	*/
+	private static int getBucketIndex(long microseconds) {
+		if (microseconds < SUB_BUCKET_COUNT) {
+			return (int) microseconds;
+		}
+
+		int shift =
+		    63 - Long.numberOfLeadingZeros(microseconds) - SUB_BUCKET_BITS;
+
+		return
+		    (shift + 1) * SUB_BUCKET_COUNT +
+		    (int) ((microseconds >>> shift) & (SUB_BUCKET_COUNT - 1));
+	}
+
+	/*
+			---------
+			| BOUND |
+			---------
+	*/
+	/**
+	 * @param bucketIndex	bucket index
+	 *
+	 * @return		greatest latency of the bucket, in microseconds
+	 */
+	private static long getBucketUpperBound(int bucketIndex) {
+		if (bucketIndex < SUB_BUCKET_COUNT) {
+			return bucketIndex;
+		}
+
+		int shift = bucketIndex / SUB_BUCKET_COUNT - 1;
+		long lowerBound =
+		    (long) (SUB_BUCKET_COUNT + bucketIndex % SUB_BUCKET_COUNT) <<
+		    shift;
+
+		return lowerBound + (1L << shift) - 1;
+	}
+
+
+	/*
+		**************
+		*** RECORD ***
+		**************
+	*/
+	private long count = 0;
+	private long maximum = 0;
+
+	/**
+	 * @param nanoseconds	latency, in nanoseconds, where negative
+	 *			latencies are recorded as zero
+	 */
+	public void record(long nanoseconds) {
+		nanoseconds = Math.max(0, nanoseconds);
+
+		long microseconds = Math.min(
+		    nanoseconds / NANOSECONDS_PER_MICROSECOND,
+		    (1L << MAXIMUM_BITS) - 1
+		);
+		bucketCounts[getBucketIndex(microseconds)]++;
+
+		count++;
+		maximum = Math.max(maximum, nanoseconds);
+	}
+
+	/*
+			---------
+			| RESET |
+			---------
+	*/
+	public void reset() {
+		for (int index = 0; index < bucketCounts.length; index++) {
+			bucketCounts[index] = 0;
+		}
+		count = 0;
+		maximum = 0;
+	}
+
+
+	/*
+		******************
+		*** STATISTICS ***
+		******************
+	*/
+	/**
+	 * @return	number of recorded latencies
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return	greatest recorded latency, in nanoseconds, which is
+	 *		exact
+	 */
+	public long getMaximum() {
+		return maximum;
+	}
+
+	/**
+	 * @param percentile	percentile, in (0, 100]
+	 *
+	 * @return		estimated latency at the percentile, in
+	 *			nanoseconds, as the upper bound of its bucket,
+	 *			or zero if nothing has been recorded
+	 */
+	public long getPercentile(double percentile) {
+		if (!(percentile > 0 && percentile <= 100)) {
+			throw new IllegalArgumentException(
+			    "percentile (" + percentile + ")" +
+			    " not in " +
+			    "(0, 100]"
+			);
+		}
+		if (count == 0) {
+			return 0;
+		}
+
+		long rank = (long) Math.ceil(count * percentile / 100);
+		long cumulativeCount = 0;
+		for (int index = 0; index < bucketCounts.length; index++) {
+			cumulativeCount += bucketCounts[index];
+			if (cumulativeCount >= rank) {
+				/*
+				The estimate never exceeds the exact maximum.
+				*/
+				return Math.min(
+				    maximum,
+				    (getBucketUpperBound(index) + 1) *
+				    NANOSECONDS_PER_MICROSECOND - 1
+				);
+			}
+		}
+
+		return maximum;
+	}
+}
@@ -24,23 +24,29 @@
 package com.sluggames.software.LowBeams;
 
 import java.awt.AWTException;
+import java.awt.Toolkit;
 import java.io.IOException;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.beans.value.ObservableValue;
+import javafx.fxml.FXMLLoader;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
 /**
- * This is the main application class. In addition to serving as the application
- * entry point, it contains basic application information, such as
- * {@link #APPLICATION_TITLE title} and
+ * This is the main application class, which is launched by the
+ * {@link LowBeamsLauncher launcher}. In addition, it contains basic application
+ * information, such as {@link #APPLICATION_TITLE title} and
  * {@link #APPLICATION_VERSION_STRING version}.
  *
  *
  * @author david.boeger@sluggames.com
  *
- * @version 0.13.0
+ * @version 0.38.0
  * @since 0.0.0
  */
 public class LowBeams extends Application {
@@ -115,7 +121,7 @@ public class LowBeams extends Application {
 	Upon incrementing the minor version number, the revision version number
 	should be reset to 0.
 	*/
-	public static final int MINOR_VERSION_NUMBER = 13;
+	public static final int MINOR_VERSION_NUMBER = 38;
 
 	/*
 				\\\\\\\\\\\\\\\\\\\
@@ -245,24 +251,36 @@ public class LowBeams extends Application {
 	private final SystemTrayMenuManager systemTrayMenuManager =
 	    new SystemTrayMenuManager();
 
+	/*
+			--------------------
+			| STARTUP PIPELINE |
+			--------------------
+
+	Startup steps which do not depend on each other are run concurrently by
+	the startup pipeline. Components which have to be attached on the
+	JavaFX application thread are prepared during the init method, and
+	attached during the start method.
+	*/
+	private final StartupPipeline startupPipeline = new StartupPipeline();
+
+	private CompletableFuture<FXMLLoader> preferencesViewFuture;
+	private CompletableFuture<Object> overlayViewPreparationFuture;
+
+	/*
+	The overlay view manager pool is filled with this many overlays during
+	startup, so that the first overlays added are already built.
+	*/
+	private static final int OVERLAY_VIEW_MANAGER_POOL_FILL_COUNT = 1;
+
 
 	/*
 		**************
 		*** LAUNCH ***
 		**************
-	*/
-	/*
-			--------
-			| MAIN |
-			--------
-	*/
-	public static void main(String[] args) {
-		/*
-		Launch the JavaFX platform.
-		*/
-		launch(args);
-	}
 
+	The application is launched by the {@link LowBeamsLauncher launcher},
+	once it has become the single running instance.
+	*/
 	/*
 			--------
 			| INIT |
@@ -271,7 +289,9 @@ public class LowBeams extends Application {
 	This method is executed by the JavaFX platform prior to starting the
 	JavaFX application thread. It provides the opportunity to initialize
 	components which require running on the main thread, such as AWT
-	components.
+	components. The remaining startup steps are submitted to the startup
+	pipeline, so that they run concurrently with each other and with the
+	start of the JavaFX application thread.
 	*/
 	@Override
 	public void init()
@@ -280,9 +300,123 @@ public class LowBeams extends Application {
 	    IOException
 	{
 		/*
-		Initialize AWT components.
+		Initialize the AWT framework on the main thread, prior to
+		starting the JavaFX application thread.
+		*/
+		Toolkit.getDefaultToolkit();
+
+		/*
+		Decode the system tray icon image, which the system tray menu
+		manager is initialized with on the main thread, once the other
+		startup steps have been submitted.
+		*/
+		CompletableFuture<java.awt.Image> systemTrayIconImageFuture =
+		    startupPipeline.submit(
+		    "System Tray Icon Decode",
+		    SystemTrayMenuManager::loadSystemTrayIconImage
+		);
+
+		/*
+		Load the preferences view, which is attached once the JavaFX
+		application thread has started.
+		*/
+		preferencesViewFuture = startupPipeline.submit(
+		    "Preferences View Load",
+		    PreferencesViewManager::loadView
+		);
+
+		/*
+		Prepare the overlay views for the overlay view manager pool, so
+		that the pooled overlays do not have to be loaded on the JavaFX
+		application thread. Failure is not fatal, as the overlay views
+		are simply loaded on demand instead.
 		*/
-		systemTrayMenuManager.initialize();
+		overlayViewPreparationFuture = startupPipeline.submit(
+		    "Overlay View Prepare",
+		    () -> {
+			OverlayViewManager.prepareViews(
+			    OVERLAY_VIEW_MANAGER_POOL_FILL_COUNT
+			);
+			return null;
+		    }
+		).exceptionally((
+		    Throwable throwable
+		) -> {
+			ApplicationLog.log(
+			    Level.WARNING,
+			    LowBeams.class,
+			    "Failed to prepare overlay view.",
+			    throwable
+			);
+			return null;
+		});
+
+		/*
+		Initialize AWT components on the main thread, while the other
+		startup steps keep running.
+		*/
+		systemTrayMenuManager.initialize(
+		    joinStartupStep(systemTrayIconImageFuture)
+		);
+	}
+
+	/*
+				\\\\\\\\\\				\ JOIN STARTUP STEP 				\\\\\\\\\\	*/
+	/**
+	 * @param stepFuture	future result of a startup step
+	 *
+	 * @return		result of the startup step
+	 *
+	 * @throws IOException	The startup step failed with an I/O error.
+	 */
+	private static <T> T joinStartupStep(
+	    CompletableFuture<T> stepFuture
+	)
+	    throws
+	    IOException
+	{
+		try {
+			return stepFuture.join();
+		} catch (CompletionException exception) {
+			/*
+			Rethrow I/O errors unwrapped, just as if the step had
+			been run on this thread.
+			*/
+			if (exception.getCause() instanceof IOException) {
+				throw (IOException) exception.getCause();
+			}
+
+			throw exception;
+		}
+	}
+
+	/*
+				\\\\\\\\\\\\\\\\\\\
+				\ STARTUP FAILURE \
+				\\\\\\\\\\\\\\\\\\\
+
+	Startup steps which the application cannot do without exit the JavaFX
+	platform on failure, just as an exception thrown from the init method
+	would.
+	*/
+	private static Void handleStartupFailure(
+	    Throwable throwable
+	) {
+		/*
+		Log the exception trace.
+		*/
+		ApplicationLog.log(
+		    Level.SEVERE,
+		    LowBeams.class,
+		    "Startup failed.",
+		    throwable
+		);
+
+		/*
+		Exit the JavaFX platform.
+		*/
+		Platform.exit();
+		return null;
 	}
 
 	/*
@@ -299,6 +433,128 @@ public class LowBeams extends Application {
 		JavaFX stage is closed.
 		*/
 		Platform.setImplicitExit(false);
+
+		/*
+		Attach the preferences view loaded by the startup pipeline, and
+		finish the pipeline, as no further steps remain to be submitted.
+		*/
+		startupPipeline.attach(
+		    "Preferences View Attach",
+		    preferencesViewFuture,
+		    (FXMLLoader preferencesViewLoader) -> {
+			systemTrayMenuManager.setPreferencesViewManager(
+			    new PreferencesViewManager(preferencesViewLoader)
+			);
+		    }
+		).exceptionally(LowBeams::handleStartupFailure);
+
+		/*
+		Fill the overlay view manager pool with the prepared overlay
+		views.
+		*/
+		startupPipeline.attach(
+		    "Overlay View Manager Pool Fill",
+		    overlayViewPreparationFuture,
+		    (Object ignoredValue) -> {
+			OverlayViewManagerPool.fill(
+			    OVERLAY_VIEW_MANAGER_POOL_FILL_COUNT
+			);
+		    }
+		);
+		startupPipeline.finish();
+
+		/*
+		Handle the launch request, followed by any requests forwarded by
+		later launches.
+		*/
+		InstanceRequest launchRequest = LowBeamsLauncher.getLaunchRequest();
+		if (launchRequest != null) {
+			handleInstanceRequest(launchRequest);
+		}
+		LowBeamsLauncher.getSingleInstanceManager().listen(
+		    this::handleInstanceRequest
+		);
+
+		/*
+		Start logging CPU usage if it was requested, so that rendering
+		modes can be compared.
+		*/
+		if (CpuUsageMonitor.getConfiguredIntervalSeconds() > 0) {
+			new CpuUsageMonitor().start(
+			    CpuUsageMonitor.getConfiguredIntervalSeconds()
+			);
+		}
+
+		/*
+		Start watching for stalls of the JavaFX application thread,
+		unless it was disabled.
+		*/
+		if (StallWatchdog.getConfiguredTimeoutSeconds() > 0) {
+			StallWatchdog.start();
+		}
+
+		/*
+		Start polling the display state, so that overlays are suspended
+		while the display sleeps or the session is locked, unless it was
+		disabled.
+		*/
+		if (DisplayStateMonitor.getConfiguredIntervalSeconds() > 0) {
+			DisplayStateMonitor.start();
+		}
+
+		/*
+		Show the overlay profile in the system tray icon tool tip, and
+		start choosing it, so that overlays run under the bandwidth
+		saving profile in remote sessions, and under the low power
+		profile while on battery, unless power polling was disabled.
+		*/
+		PowerProfileService.profileProperty().addListener((
+		    ObservableValue<? extends OverlayProfile> observableValue,
+		    OverlayProfile oldValue,
+		    OverlayProfile newValue
+		) -> {
+			systemTrayMenuManager.queueSetToolTip(
+			    newValue == OverlayProfile.FULL ?
+			    APPLICATION_TITLE :
+			    APPLICATION_TITLE + " (" + newValue + " profile)"
+			);
+		});
+		PowerProfileService.start();
+
+		/*
+		Start watching for full screen windows, so that overlays on a
+		screen taken over by one are suspended, unless it was disabled.
+		*/
+		if (FullscreenWatcher.getConfiguredIntervalSeconds() > 0) {
+			FullscreenWatcher.start();
+		}
+	}
+
+	/*
+			--------------------
+			| INSTANCE REQUEST |
+			--------------------
+
+	This method may be called from any thread, as the system tray menu
+	manager queues the corresponding operations on the JavaFX application
+	thread.
+	*/
+	private void handleInstanceRequest(
+	    InstanceRequest instanceRequest
+	) {
+		switch (instanceRequest) {
+			case DISPLAY_PREFERENCES:
+				systemTrayMenuManager.queueDisplayPreferencesView();
+				break;
+			case TOGGLE_OVERLAYS:
+				systemTrayMenuManager.queueToggleOverlays();
+				break;
+			default:
+				throw new IllegalArgumentException(
+				    "Unhandled instance request: " +
+				    instanceRequest
+				);
+		}
 	}
 
 
@@ -322,5 +578,25 @@ public class LowBeams extends Application {
 		Terminate AWT components.
 		*/
 		systemTrayMenuManager.quit();
+
+		/*
+		Release the single instance lock, allowing a new instance to
+		launch.
+		*/
+		LowBeamsLauncher.getSingleInstanceManager().release();
+
+		/*
+		Save the cursor trace, if one was recorded.
+		*/
+		try {
+			CursorTrace.saveRecording();
+		} catch (IOException ioException) {
+			ApplicationLog.log(
+			    Level.WARNING,
+			    LowBeams.class,
+			    "Failed to save the cursor trace.",
+			    ioException
+			);
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javafx.application.Application;
+
+/**
+ * This class is the application entry point. It does not extend
+ * {@link Application}, so the Java launcher runs its main method without
+ * starting the JavaFX toolkit first, and it doesn't load the
+ * {@link LowBeams application class} either. A later launch therefore forwards
+ * its request to the running instance and exits within milliseconds, and only
+ * the launch which becomes the single running instance goes on to launch the
+ * JavaFX platform.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.38.0
+ */
+public class LowBeamsLauncher {
+	/*
+		**********************
+		*** DATA DIRECTORY ***
+		**********************
+
+	The application data directory holds any files which the application
+	needs to share between launches, such as the single instance lock. It
+	is located in the user's home directory, so that each user runs their
+	own instance. It is held here rather than by the application class, so
+	that the single instance lock can be found without loading the latter.
+	*/
+	public static final Path APPLICATION_DATA_DIRECTORY_PATH = Paths.get(
+	    System.getProperty("user.home"),
+	    ".lowbeams"
+	);
+
+
+	/*
+		***********************
+		*** SINGLE INSTANCE ***
+		***********************
+
+	The single instance manager is created by the main method, before the
+	JavaFX platform constructs the application, so it must be held
+	statically. Launch requests are likewise parsed before the platform
+	starts, and handled by the application once it has.
+	*/
+	private static final SingleInstanceManager SINGLE_INSTANCE_MANAGER =
+	    new SingleInstanceManager();
+
+	private static InstanceRequest launchRequest;
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	static SingleInstanceManager getSingleInstanceManager() {
+		return SINGLE_INSTANCE_MANAGER;
+	}
+
+	/**
+	 * @return	request given on the command line of this launch, or
+	 *		null if there was none
+	 */
+	static InstanceRequest getLaunchRequest() {
+		return launchRequest;
+	}
+
+
+	/*
+		**************
+		*** LAUNCH ***
+		**************
+	*/
+	/*
+			--------
+			| MAIN |
+			--------
+	*/
+	public static void main(String[] args) {
+		/*
+		Parse the launch request, if any.
+		*/
+		try {
+			launchRequest = InstanceRequest.fromArguments(args);
+		} catch (IllegalArgumentException exception) {
+			System.err.println(exception.getMessage());
+			System.exit(1);
+			return;
+		}
+
+		/*
+		Attempt to become the single running instance, prior to
+		initializing either AWT or JavaFX, or even loading the
+		application class.
+		*/
+		boolean instanceLockAcquired;
+		try {
+			instanceLockAcquired = SINGLE_INSTANCE_MANAGER.acquire();
+		} catch (IOException exception) {
+			/*
+			Without access to the lock file, there is no way to
+			tell whether another instance is running. Launching
+			anyway is preferable to not launching at all.
+			*/
+			System.err.println(
+			    "Failed to acquire single instance lock:\n" +
+			    exception.getMessage()
+			);
+			instanceLockAcquired = true;
+		}
+
+		/*
+		Check if another instance is already running.
+		*/
+		if (!instanceLockAcquired) {
+			/*
+			If so, forward the launch request to the running
+			instance and exit. A launch without an explicit request
+			most likely means the user is looking for the running
+			instance, so the preferences view is displayed.
+			*/
+			boolean forwarded = SINGLE_INSTANCE_MANAGER.forward(
+			    launchRequest == null ?
+			    InstanceRequest.DISPLAY_PREFERENCES :
+			    launchRequest
+			);
+			if (!forwarded) {
+				System.err.println(
+				    "Failed to reach the running instance."
+				);
+			}
+			System.exit(forwarded ? 0 : 1);
+			return;
+		}
+
+		/*
+		Only now launch the JavaFX platform.
+		*/
+		Application.launch(LowBeams.class, args);
+	}
+
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private LowBeamsLauncher() {}
+}
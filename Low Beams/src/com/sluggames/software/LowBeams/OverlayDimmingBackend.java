@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+/**
+ * This class dims the target screen of an overlay view manager by showing its
+ * overlay stage, which is supported everywhere, and undims it by parking the
+ * stage.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.17.0
+ */
+public class OverlayDimmingBackend implements DimmingBackend {
+	/*
+		****************
+		*** INSTANCE ***
+		****************
+
+	This class has no state, so a single instance is shared by all overlay
+	view managers.
+	*/
+	public static final OverlayDimmingBackend INSTANCE =
+	    new OverlayDimmingBackend();
+
+
+	/*
+		*****************
+		*** SUPPORTED ***
+		*****************
+	*/
+	@Override
+	public boolean isSupported(OverlayViewManager overlayViewManager) {
+		return true;
+	}
+
+
+	/*
+		***********
+		*** DIM ***
+		***********
+	*/
+	@Override
+	public void dim(OverlayViewManager overlayViewManager) {
+		/*
+		Move the stage to the front whenever the z-order check is due,
+		in case the request to always be in front is not honored by the
+		OS due to platform restrictions or insufficient permissions.
+		*/
+		overlayViewManager.unparkStage();
+		overlayViewManager.getStage().show();
+		if (overlayViewManager.isZOrderCheckDue()) {
+			overlayViewManager.getStage().toFront();
+		}
+	}
+
+	/*
+			---------
+			| UNDIM |
+			---------
+	*/
+	/*
+	The stage is parked rather than hidden, so that its native window can
+	be reused as soon as it is dimmed again.
+	*/
+	@Override
+	public void undim(OverlayViewManager overlayViewManager) {
+		overlayViewManager.parkStage();
+	}
+
+	/*
+			-----------
+			| RELEASE |
+			-----------
+
+	The overlay stage belongs to the overlay view manager, which closes it
+	itself.
+	*/
+	@Override
+	public void release(OverlayViewManager overlayViewManager) {}
+
+
+	/*
+		*****************
+		*** TO STRING ***
+		*****************
+	*/
+	@Override
+	public String toString() {
+		return "Overlay";
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+	*/
+	private OverlayDimmingBackend() {}
+}
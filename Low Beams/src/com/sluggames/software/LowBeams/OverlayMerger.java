@@ -0,0 +1,352 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.paint.Color;
+
+/**
+ * This class collapses enabled overlays which share a target screen and cursor
+ * window into a single stage, so that the compositor only blends one
+ * full-screen surface instead of several. The first such overlay, in order of
+ * construction, becomes the primary overlay, and paints the precomputed
+ * "over" composite of all their colors, with later overlays on top. The other
+ * overlays are merged into it, and hide their own stages.
+ *
+ * The primary overlay and the composite color of each overlay are cached, and
+ * only recomputed after a property deciding the merge or the color of any
+ * registered overlay changes, rather than on every pulse.
+ *
+ * The overlay view managers remain separate entries everywhere else, such as
+ * in the preferences table. This class is intended to be used from the JavaFX
+ * application thread only.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.26.0
+ */
+public class OverlayMerger {
+	/*
+		****************
+		*** REGISTRY ***
+		****************
+
+	Overlay view managers stay registered while they are pooled, as they
+	are disabled then, and disabled managers simply never take part in
+	merging. They are only unregistered when they are disposed of.
+	*/
+	private static final List<OverlayViewManager> OVERLAY_VIEW_MANAGERS =
+	    new ArrayList<>();
+
+	/*
+			------------
+			| REGISTER |
+			------------
+	*/
+	static void register(OverlayViewManager overlayViewManager) {
+		OVERLAY_VIEW_MANAGERS.add(overlayViewManager);
+		for (ObservableValue<?> property : getWatchedProperties(
+		    overlayViewManager
+		)) {
+			property.addListener(INVALIDATING_CHANGE_LISTENER);
+		}
+		invalidate();
+	}
+
+	/*
+			--------------
+			| UNREGISTER |
+			--------------
+	*/
+	static void unregister(OverlayViewManager overlayViewManager) {
+		if (!OVERLAY_VIEW_MANAGERS.remove(overlayViewManager)) {
+			return;
+		}
+		for (ObservableValue<?> property : getWatchedProperties(
+		    overlayViewManager
+		)) {
+			property.removeListener(INVALIDATING_CHANGE_LISTENER);
+		}
+		invalidate();
+	}
+
+
+	/*
+		*************
+		*** CACHE ***
+		*************
+
+	The cached primary overlays and composite colors are keyed by overlay
+	view manager, where a composite color may be null, and are cleared
+	whenever any watched property of a registered overlay changes. A change
+	listener is used rather than an invalidation listener, as the latter
+	would stay silent after a change until the property is read again.
+	*/
+	private static final Map<OverlayViewManager, OverlayViewManager> PRIMARIES =
+	    new IdentityHashMap<>();
+	private static final Map<OverlayViewManager, Color> COMPOSITE_COLORS =
+	    new IdentityHashMap<>();
+
+	private static final ChangeListener<Object> INVALIDATING_CHANGE_LISTENER = (
+	    ObservableValue<?> observableValue,
+	    Object oldValue,
+	    Object newValue
+	) -> {
+		invalidate();
+	};
+
+	/*
+			-----------
+			| WATCHED |
+			-----------
+	*/
+	/*
+	These are the properties compared by the mergeable check, along with the
+	color, which only affects the composite. The dimming backend in effect
+	is not a property, as it also depends on whether the selected backend
+	is supported, so the overlay view manager invalidates the cache itself
+	whenever it switches backends.
+	*/
+	private static List<ObservableValue<?>> getWatchedProperties(
+	    OverlayViewManager overlayViewManager
+	) {
+		return Arrays.asList(
+		    overlayViewManager.enabledProperty(),
+		    overlayViewManager.targetScreenProperty(),
+		    overlayViewManager.inputTransparentProperty(),
+		    overlayViewManager.windowOpacityProperty(),
+		    overlayViewManager.renderScaleFactorProperty(),
+		    overlayViewManager.tiledProperty(),
+		    overlayViewManager.cursorWindowTrackingFrequencyProperty(),
+		    overlayViewManager.cursorWindowTrackingVelocityAdaptiveProperty(),
+		    overlayViewManager.cursorWindowWidthProperty(),
+		    overlayViewManager.cursorWindowHeightProperty(),
+		    overlayViewManager.cursorWindowDeadZoneProperty(),
+		    overlayViewManager.colorProperty()
+		);
+	}
+
+	/*
+			--------------
+			| INVALIDATE |
+			--------------
+	*/
+	static void invalidate() {
+		PRIMARIES.clear();
+		COMPOSITE_COLORS.clear();
+	}
+
+
+	/*
+		*****************
+		*** MERGEABLE ***
+		*****************
+
+	Merged overlays are displayed by the controller of the primary overlay,
+	so they must agree on everything the controller renders or tracks, other
+	than the color, which is composited instead.
+	*/
+	private static boolean isMergeable(
+	    OverlayViewManager overlayViewManager,
+	    OverlayViewManager otherOverlayViewManager
+	) {
+		return
+		    otherOverlayViewManager.enabledProperty().get() &&
+		    otherOverlayViewManager.getActiveDimmingBackend() ==
+		    OverlayDimmingBackend.INSTANCE &&
+		    otherOverlayViewManager.targetScreenProperty().get().equals(
+		    overlayViewManager.targetScreenProperty().get()
+		    ) &&
+		    otherOverlayViewManager.inputTransparentProperty().get() ==
+		    overlayViewManager.inputTransparentProperty().get() &&
+		    otherOverlayViewManager.windowOpacityProperty().get() ==
+		    overlayViewManager.windowOpacityProperty().get() &&
+		    otherOverlayViewManager.renderScaleFactorProperty().get() ==
+		    overlayViewManager.renderScaleFactorProperty().get() &&
+		    otherOverlayViewManager.tiledProperty().get() ==
+		    overlayViewManager.tiledProperty().get() &&
+		    otherOverlayViewManager.cursorWindowTrackingFrequencyProperty().get() ==
+		    overlayViewManager.cursorWindowTrackingFrequencyProperty().get() &&
+		    otherOverlayViewManager.cursorWindowTrackingVelocityAdaptiveProperty().get() ==
+		    overlayViewManager.cursorWindowTrackingVelocityAdaptiveProperty().get() &&
+		    otherOverlayViewManager.cursorWindowWidthProperty().get() ==
+		    overlayViewManager.cursorWindowWidthProperty().get() &&
+		    otherOverlayViewManager.cursorWindowHeightProperty().get() ==
+		    overlayViewManager.cursorWindowHeightProperty().get() &&
+		    otherOverlayViewManager.cursorWindowDeadZoneProperty().get() ==
+		    overlayViewManager.cursorWindowDeadZoneProperty().get();
+	}
+
+
+	/*
+		***************
+		*** PRIMARY ***
+		***************
+	*/
+	/**
+	 * @param overlayViewManager	enabled overlay view manager using the
+	 *				overlay dimming backend
+	 *
+	 * @return			overlay view manager which the given
+	 *				one is merged into, which is the given
+	 *				one itself if it is the primary overlay
+	 */
+	static OverlayViewManager getPrimary(
+	    OverlayViewManager overlayViewManager
+	) {
+		OverlayViewManager primaryOverlayViewManager =
+		    PRIMARIES.get(overlayViewManager);
+		if (primaryOverlayViewManager == null) {
+			primaryOverlayViewManager = findPrimary(overlayViewManager);
+			PRIMARIES.put(overlayViewManager, primaryOverlayViewManager);
+		}
+
+		return primaryOverlayViewManager;
+	}
+
+	private static OverlayViewManager findPrimary(
+	    OverlayViewManager overlayViewManager
+	) {
+		for (int index = 0; index < OVERLAY_VIEW_MANAGERS.size(); index++) {
+			OverlayViewManager otherOverlayViewManager =
+			    OVERLAY_VIEW_MANAGERS.get(index);
+			if (otherOverlayViewManager == overlayViewManager) {
+				break;
+			}
+			if (isMergeable(overlayViewManager, otherOverlayViewManager)) {
+				return otherOverlayViewManager;
+			}
+		}
+
+		return overlayViewManager;
+	}
+
+
+	/*
+		*****************
+		*** COMPOSITE ***
+		*****************
+	*/
+	/**
+	 * @param primaryOverlayViewManager	primary overlay view manager
+	 *
+	 * @return				"over" composite of the colors
+	 *					of the primary overlay and every
+	 *					overlay merged into it, or null
+	 *					if no overlay is merged into it
+	 */
+	static Color getCompositeColor(
+	    OverlayViewManager primaryOverlayViewManager
+	) {
+		if (COMPOSITE_COLORS.containsKey(primaryOverlayViewManager)) {
+			return COMPOSITE_COLORS.get(primaryOverlayViewManager);
+		}
+
+		Color compositeColor = computeCompositeColor(
+		    primaryOverlayViewManager
+		);
+		COMPOSITE_COLORS.put(primaryOverlayViewManager, compositeColor);
+
+		return compositeColor;
+	}
+
+	private static Color computeCompositeColor(
+	    OverlayViewManager primaryOverlayViewManager
+	) {
+		Color compositeColor = null;
+
+		boolean primaryFound = false;
+		for (int index = 0; index < OVERLAY_VIEW_MANAGERS.size(); index++) {
+			OverlayViewManager otherOverlayViewManager =
+			    OVERLAY_VIEW_MANAGERS.get(index);
+			if (otherOverlayViewManager == primaryOverlayViewManager) {
+				primaryFound = true;
+				continue;
+			}
+			if (
+			    !primaryFound ||
+			    !isMergeable(primaryOverlayViewManager, otherOverlayViewManager)
+			) {
+				continue;
+			}
+
+			compositeColor = composite(
+			    otherOverlayViewManager.colorProperty().get(),
+			    compositeColor != null ?
+			    compositeColor :
+			    primaryOverlayViewManager.colorProperty().get()
+			);
+		}
+
+		return compositeColor;
+	}
+
+	/*
+			--------
+			| OVER |
+			--------
+	*/
+	/**
+	 * @param sourceColor		color on top
+	 * @param destinationColor	color underneath
+	 *
+	 * @return			source color composited over the
+	 *				destination color, with straight alpha
+	 */
+	public static Color composite(
+	    Color sourceColor,
+	    Color destinationColor
+	) {
+		double sourceOpacity = sourceColor.getOpacity();
+		double destinationOpacity =
+		    destinationColor.getOpacity() * (1 - sourceOpacity);
+		double opacity = sourceOpacity + destinationOpacity;
+		if (opacity == 0) {
+			return Color.TRANSPARENT;
+		}
+
+		return Color.color(
+		    (sourceColor.getRed() * sourceOpacity + destinationColor.getRed() * destinationOpacity) / opacity,
+		    (sourceColor.getGreen() * sourceOpacity + destinationColor.getGreen() * destinationOpacity) / opacity,
+		    (sourceColor.getBlue() * sourceOpacity + destinationColor.getBlue() * destinationOpacity) / opacity,
+		    opacity
+		);
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+	*/
+	private OverlayMerger() {}
+}
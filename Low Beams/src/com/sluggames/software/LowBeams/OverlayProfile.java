@@ -0,0 +1,273 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import com.sluggames.software.LowBeams.resources.FXML.OverlayView.OverlayViewController;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This enumeration contains the profiles which overlays can run under, each of
+ * which trades some responsiveness of the overlay for less work per pulse. The
+ * active profile is chosen for all overlays at once by the
+ * {@link PowerProfileService}.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @see PowerProfileService
+ *
+ * @version 0.38.0
+ * @since 0.36.0
+ */
+public enum OverlayProfile {
+	/*
+		**************
+		*** VALUES ***
+		**************
+
+	The low power profile tracks the cursor window at no more than 20 Hz,
+	stops tracking it altogether once the cursor has been idle for two
+	seconds, and moves overlay windows to the front only once per second.
+
+	The bandwidth saving profile is meant for remote sessions, where every
+	repainted pixel is sent over the network. It renders a static overlay
+	wherever input transparency is supported. Otherwise, it tracks the
+	cursor window at the minimum frequency, with the maximum dead zone, in
+	tiled mode, and never moves overlay windows to the front after showing
+	them.
+	*/
+	FULL			(
+	    "Full",
+	    OverlayViewController.MAXIMUM_CURSOR_WINDOW_TRACKING_FREQUENCY,
+	    0,
+	    0,
+	    OverlayViewController.MINIMUM_CURSOR_WINDOW_DEAD_ZONE,
+	    false,
+	    false
+	),
+	LOW_POWER		(
+	    "Low power",
+	    20,
+	    TimeUnit.SECONDS.toNanos(2),
+	    TimeUnit.SECONDS.toNanos(1),
+	    OverlayViewController.MINIMUM_CURSOR_WINDOW_DEAD_ZONE,
+	    false,
+	    false
+	),
+	BANDWIDTH_SAVING	(
+	    "Bandwidth saving",
+	    OverlayViewController.MINIMUM_CURSOR_WINDOW_TRACKING_FREQUENCY,
+	    TimeUnit.SECONDS.toNanos(2),
+	    Long.MAX_VALUE,
+	    OverlayViewController.MAXIMUM_CURSOR_WINDOW_DEAD_ZONE,
+	    true,
+	    true
+	);
+
+
+	/*
+		************
+		*** NAME ***
+		************
+	*/
+	private final String name;
+
+	/*
+			\\\\\\\
+			\ GET \
+			\\\\\\\
+	*/
+	public String getName() {
+		return name;
+	}
+
+	/*
+			\\\\\\\\\\\\\
+			\ TO STRING \
+			\\\\\\\\\\\\\
+	*/
+	@Override
+	public String toString() {
+		return name;
+	}
+
+
+	/*
+		**************************
+		*** TRACKING FREQUENCY ***
+		**************************
+
+	The cursor window is never tracked faster than this, regardless of the
+	frequency chosen by the user, or derived from the cursor speed.
+	*/
+	private final double maximumCursorWindowTrackingFrequency;
+
+	/*
+			\\\\\\\
+			\ GET \
+			\\\\\\\
+	*/
+	public double getMaximumCursorWindowTrackingFrequency() {
+		return maximumCursorWindowTrackingFrequency;
+	}
+
+
+	/*
+		********************
+		*** IDLE TIMEOUT ***
+		********************
+
+	Once the cursor hasn't moved for this long, the cursor window tracking
+	timer is stopped until it moves again. It must exceed the cursor
+	settling time, so that the cursor window has come to rest on the cursor
+	by then. Zero keeps the timer running.
+	*/
+	private final long cursorIdleTimeoutNanoseconds;
+
+	/*
+			\\\\\\\
+			\ GET \
+			\\\\\\\
+	*/
+	public long getCursorIdleTimeoutNanoseconds() {
+		return cursorIdleTimeoutNanoseconds;
+	}
+
+
+	/*
+		************************
+		*** Z-ORDER INTERVAL ***
+		************************
+
+	Overlay windows are moved to the front at most this often, in case the
+	request to always be in front is not honored. Zero moves them to the
+	front on every pulse, and the maximum value only as they are shown.
+	*/
+	private final long zOrderIntervalNanoseconds;
+
+	/*
+			\\\\\\\
+			\ GET \
+			\\\\\\\
+	*/
+	public long getZOrderIntervalNanoseconds() {
+		return zOrderIntervalNanoseconds;
+	}
+
+
+	/*
+		*****************
+		*** DEAD ZONE ***
+		*****************
+
+	The cursor window dead zone is never smaller than this, regardless of
+	the dead zone chosen by the user.
+	*/
+	private final double minimumCursorWindowDeadZone;
+
+	/*
+			\\\\\\\
+			\ GET \
+			\\\\\\\
+	*/
+	public double getMinimumCursorWindowDeadZone() {
+		return minimumCursorWindowDeadZone;
+	}
+
+
+	/*
+		*************
+		*** TILED ***
+		*************
+
+	Tiled mode limits the area repainted when the cursor window moves to a
+	small patch around it. When the profile is tiled, overlays use tiled
+	mode regardless of whether the user chose it.
+	*/
+	private final boolean tiled;
+
+	/*
+			\\\\\\\
+			\ GET \
+			\\\\\\\
+	*/
+	public boolean isTiled() {
+		return tiled;
+	}
+
+
+	/*
+		**********************
+		*** STATIC OVERLAY ***
+		**********************
+
+	A static overlay is rendered input transparent, as a single fill which
+	never changes, wherever input transparency is supported, regardless of
+	whether the user chose it.
+	*/
+	private final boolean staticOverlay;
+
+	/*
+			\\\\\\\
+			\ GET \
+			\\\\\\\
+	*/
+	public boolean isStaticOverlay() {
+		return staticOverlay;
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+	*/
+	OverlayProfile(
+	    String name,
+	    double maximumCursorWindowTrackingFrequency,
+	    long cursorIdleTimeoutNanoseconds,
+	    long zOrderIntervalNanoseconds,
+	    double minimumCursorWindowDeadZone,
+	    boolean tiled,
+	    boolean staticOverlay
+	) {
+		/*
+		Validate arguments.
+		*/
+		if (name == null) {
+			throw new NullPointerException(
+			    "name == null"
+			);
+		}
+
+		this.name = name;
+		this.maximumCursorWindowTrackingFrequency =
+		    maximumCursorWindowTrackingFrequency;
+		this.cursorIdleTimeoutNanoseconds = cursorIdleTimeoutNanoseconds;
+		this.zOrderIntervalNanoseconds = zOrderIntervalNanoseconds;
+		this.minimumCursorWindowDeadZone = minimumCursorWindowDeadZone;
+		this.tiled = tiled;
+		this.staticOverlay = staticOverlay;
+	}
+}
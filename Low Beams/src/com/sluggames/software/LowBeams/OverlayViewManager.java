@@ -23,15 +23,32 @@
  */
 package com.sluggames.software.LowBeams;
 
+import com.sluggames.software.LowBeams.platform.WindowScale;
+import com.sluggames.software.LowBeams.platform.X11InputShape;
 import com.sluggames.software.LowBeams.resources.FXML.OverlayView.OverlayViewController;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
 import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.BooleanBinding;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Rectangle2D;
@@ -39,6 +56,7 @@ import javafx.scene.Scene;
 import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.GridPane;
 import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
@@ -50,7 +68,7 @@ import javafx.stage.WindowEvent;
  *
  * @author david.boeger@sluggames.com
  *
- * @version 0.12.0
+ * @version 0.38.0
  * @since 0.1.0
  */
 public class OverlayViewManager {
@@ -126,50 +144,89 @@ public class OverlayViewManager {
 		    Rectangle2D targetScreenBoundsOldValue,
 		    Rectangle2D targetScreenBoundsNewValue
 		) -> {
+			fitStage();
+		});
+
+		/*
+		Set the default value of the target screen property to the
+		primary screen. Because both change listeners were added above,
+		this will propagate to the target screen bounds property and the
+		stage.
+		*/
+		targetScreenProperty.set(Screen.getPrimary());
+	}
+
+	/*
+				\\\\\\\\\\\\\
+				\ FIT STAGE \
+				\\\\\\\\\\\\\
+	*/
+	private void fitStage() {
+		/*
+		Check if the new value is null.
+		*/
+		if (targetScreenBoundsProperty.get() == null) {
 			/*
-			Check if the new value is null.
+			If so, reset the stage back to the origin with
+			no area.
 			*/
-			if (targetScreenBoundsNewValue == null) {
-				/*
-				If so, reset the stage back to the origin with
-				no area.
-				*/
-				stage.setX(0);
-				stage.setY(0);
-				stage.setWidth(0);
-				stage.setHeight(0);
-			} else {
-				/*
-				Otherwise, set the stage's position to match the
-				new bounds.
-				*/
+			stage.setX(0);
+			stage.setY(0);
+			stage.setWidth(0);
+			stage.setHeight(0);
+		} else {
+			/*
+			Otherwise, set the stage's position to match the
+			new bounds, unless it is parked, in which case
+			it is positioned as it is unparked.
+			*/
+			if (!parked) {
 				stage.setX(
 				    targetScreenBoundsProperty.get().getMinX()
 				);
 				stage.setY(
 				    targetScreenBoundsProperty.get().getMinY()
 				);
-
-				/*
-				Set the stage's dimensions to match the new
-				bounds.
-				*/
-				stage.setWidth(
-				    targetScreenBoundsProperty.get().getWidth()
-				);
-				stage.setHeight(
-				    targetScreenBoundsProperty.get().getHeight()
-				);
 			}
-		});
+
+			/*
+			Set the stage's dimensions to match the new
+			bounds.
+			*/
+			stage.setWidth(
+			    targetScreenBoundsProperty.get().getWidth()
+			);
+			stage.setHeight(
+			    targetScreenBoundsProperty.get().getHeight()
+			);
+		}
 
 		/*
-		Set the default value of the target screen property to the
-		primary screen. Because both change listeners were added above,
-		this will propagate to the target screen bounds property and the
-		stage.
+		Update the render scale, as the output scale may have
+		changed along with the bounds. It is updated as soon as
+		the stage is shown otherwise.
 		*/
-		targetScreenProperty.set(Screen.getPrimary());
+		if (stage.isShowing()) {
+			updateRenderScale();
+		}
+	}
+
+	/*
+				\\\\\\\\\\\\\\\\\\
+				\ REFRESH BOUNDS \
+				\\\\\\\\\\\\\\\\\\
+	*/
+	/*
+	This method takes the target screen's bounds afresh, and fits the stage
+	to them even if they haven't changed, as the window manager may have
+	moved the stage while the display was away.
+	*/
+	private void refreshBounds() {
+		Screen targetScreen = targetScreenProperty.get();
+		targetScreenBoundsProperty.set(
+		    targetScreen != null ? targetScreen.getBounds() : null
+		);
+		fitStage();
 	}
 
 	/*
@@ -217,6 +274,14 @@ public class OverlayViewManager {
 				    "enabledNewValue == null"
 				);
 			}
+
+			/*
+			Report the tracking statistics whenever the overlay is
+			disabled.
+			*/
+			if (!enabledNewValue) {
+				logTrackingStatistics();
+			}
 		});
 	}
 
@@ -233,211 +298,1093 @@ public class OverlayViewManager {
 	}
 
 	/*
-			----------------------
-			| GRID LINES VISIBLE |
-			----------------------
+			-------------------
+			| DIMMING BACKEND |
+			-------------------
+
+	The dimming backend is selected per overlay, and therefore per screen.
+	Whenever the selected backend doesn't support the target screen or
+	color, the overlay window is used instead.
 	*/
+	public static final DimmingBackend DEFAULT_DIMMING_BACKEND =
+	    OverlayDimmingBackend.INSTANCE;
+
+	private final SimpleObjectProperty<DimmingBackend> dimmingBackendProperty =
+	    new SimpleObjectProperty<>(DEFAULT_DIMMING_BACKEND);
+
+	private DimmingBackend activeDimmingBackend = DEFAULT_DIMMING_BACKEND;
+
 	/*
-				\\\\\\\
-				\ GET \
-				\\\\\\\
+	Every backend which has ever been active is remembered, so that all of
+	them can release what they keep for the overlay when it is disposed of.
 	*/
-	public BooleanProperty gridLinesVisibleProperty() {
-		return controller.gridLinesVisibleProperty();
-	}
+	private final List<DimmingBackend> usedDimmingBackends =
+	    new ArrayList<>(Collections.singletonList(DEFAULT_DIMMING_BACKEND));
 
 	/*
-			---------
-			| COLOR |
-			---------
+				\\\\\\\\\\\\\\
+				\ INITIALIZE \
+				\\\\\\\\\\\\\\
 	*/
+	private void initializeDimmingBackendProperty() {
+		/*
+		Add a change listener to the dimming backend property to verify
+		that new values are valid.
+		*/
+		dimmingBackendProperty.addListener((
+		    ObservableValue<? extends DimmingBackend> dimmingBackendObservableValue,
+		    DimmingBackend dimmingBackendOldValue,
+		    DimmingBackend dimmingBackendNewValue
+		) -> {
+			/*
+			Validate the new value.
+			*/
+			if (dimmingBackendNewValue == null) {
+				throw new NullPointerException(
+				    "dimmingBackendNewValue == null"
+				);
+			}
+		});
+	}
+
 	/*
 				\\\\\\\
 				\ GET \
 				\\\\\\\
 	*/
-	public ObjectProperty<Color> colorProperty() {
-		return controller.colorProperty();
+	/**
+	 * @return	dimming backend property
+	 */
+	public ObjectProperty<DimmingBackend> dimmingBackendProperty() {
+		return dimmingBackendProperty;
 	}
 
-	/*
-			-----------------
-			| CURSOR WINDOW |
-			-----------------
-	*/
-	/*
-				\\\\\\\\\\\\\\\\\\\\\\
-				\ TRACKING FREQUENCY \
-				\\\\\\\\\\\\\\\\\\\\\\
-	*/
-	/*
-					///////
-					/ GET /
-					///////
-	*/
-	public DoubleProperty cursorWindowTrackingFrequencyProperty() {
-		return controller.cursorWindowTrackingFrequencyProperty();
+	/**
+	 * @return	dimming backend in effect, which is the overlay window
+	 *		whenever the selected backend is not supported
+	 */
+	DimmingBackend getActiveDimmingBackend() {
+		return activeDimmingBackend;
 	}
 
 	/*
-				\\\\\\\\\
-				\ WIDTH \
-				\\\\\\\\\
-	*/
-	/*
-					///////
-					/ GET /
-					///////
+				\\\\\\\\\\
+				\ UPDATE \
+				\\\\\\\\\\
 	*/
-	public DoubleProperty cursorWindowWidthProperty() {
-		return controller.cursorWindowWidthProperty();
+	private void updateDimmingBackend() {
+		/*
+		Fall back to the overlay window if the selected backend is not
+		supported.
+		*/
+		DimmingBackend dimmingBackend = dimmingBackendProperty.get();
+		if (!dimmingBackend.isSupported(this)) {
+			dimmingBackend = OverlayDimmingBackend.INSTANCE;
+		}
+
+		/*
+		Undo any dimming by the previous backend when switching. The
+		merger compares the backends in effect, so its cache is
+		invalidated too.
+		*/
+		if (dimmingBackend != activeDimmingBackend) {
+			activeDimmingBackend.undim(this);
+			activeDimmingBackend = dimmingBackend;
+			if (!usedDimmingBackends.contains(dimmingBackend)) {
+				usedDimmingBackends.add(dimmingBackend);
+			}
+			OverlayMerger.invalidate();
+
+			/*
+			Release the native window of the overlay stage, which
+			may have been kept parked by the overlay backend, and
+			only track the cursor window of the overlay view while
+			the overlay backend is active.
+			*/
+			hideStage();
+			updateTracking();
+		}
+
+		/*
+		Merge the overlay into another one sharing its target screen and
+		cursor window, if there is one, or display the composite color
+		of the overlays merged into it otherwise. Only overlays actually
+		displayed by the overlay window take part, rather than all those
+		which have it selected.
+		*/
+		boolean merged = false;
+		Color mergedColor = null;
+		if (
+		    enabledProperty.get() &&
+		    dimmingBackend == OverlayDimmingBackend.INSTANCE
+		) {
+			merged = OverlayMerger.getPrimary(this) != this;
+			if (!merged) {
+				mergedColor = OverlayMerger.getCompositeColor(this);
+			}
+		}
+		if (merged != mergedProperty.get()) {
+			mergedProperty.set(merged);
+		}
+		if (!Objects.equals(mergedColor, controller.mergedColorProperty().get())) {
+			controller.mergedColorProperty().set(mergedColor);
+		}
+
+		/*
+		Dim or undim through the active backend, where a merged overlay
+		is displayed by the overlay it is merged into.
+		*/
+		if (enabledProperty.get() && !merged) {
+			activeDimmingBackend.dim(this);
+		} else {
+			activeDimmingBackend.undim(this);
+		}
 	}
 
 	/*
 				\\\\\\\\\\
-				\ HEIGHT \
+				\ MERGED \
 				\\\\\\\\\\
+
+	An overlay is merged when another enabled overlay shares its target
+	screen and cursor window, in which case only one of them shows a stage.
 	*/
-	/*
-					///////
-					/ GET /
-					///////
-	*/
-	public DoubleProperty cursorWindowHeightProperty() {
-		return controller.cursorWindowHeightProperty();
-	}
+	private final ReadOnlyBooleanWrapper mergedProperty =
+	    new ReadOnlyBooleanWrapper(false);
 
+	/**
+	 * @return	merged property, which is true while the overlay is
+	 *		displayed by another overlay's stage
+	 */
+	public ReadOnlyBooleanProperty mergedProperty() {
+		return mergedProperty.getReadOnlyProperty();
+	}
 
 	/*
-		******************
-		*** COMPONENTS ***
-		******************
-	*/
-	/*
-			---------
-			| STAGE |
-			---------
+			---------------------
+			| INPUT TRANSPARENT |
+			---------------------
+
+	An input transparent overlay lets every click pass through to the
+	windows underneath natively, so it is rendered as a single static fill,
+	with no cursor window tracking at all. This is currently only supported
+	on X11, and the cursor window is used as a fallback everywhere else.
 	*/
-	private final Stage stage = new Stage(
-	    StageStyle.TRANSPARENT
-	);
+	public static final boolean DEFAULT_INPUT_TRANSPARENT = false;
+
+	private final SimpleBooleanProperty inputTransparentProperty =
+	    new SimpleBooleanProperty(DEFAULT_INPUT_TRANSPARENT);
 
 	/*
 				\\\\\\\\\\\\\\
 				\ INITIALIZE \
 				\\\\\\\\\\\\\\
 	*/
-	private void initializeStage() {
+	private void initializeInputTransparentProperty() {
 		/*
-		Set a window event handler to ignore close requests on the
-		overlay stage. This prevents the user from directly closing
-		overlay stages, allowing them to be managed by the application
-		logic.
+		Add a change listener to the input transparent property which
+		updates the input shape of the stage.
 		*/
-		stage.setOnCloseRequest((
-		    WindowEvent windowEvent
+		inputTransparentProperty.addListener((
+		    ObservableValue<? extends Boolean> inputTransparentObservableValue,
+		    Boolean inputTransparentOldValue,
+		    Boolean inputTransparentNewValue
 		) -> {
 			/*
-			Ignoring window events is achieved by consuming them in
-			the event handler.
+			Validate the new value.
 			*/
-			windowEvent.consume();
+			if (inputTransparentNewValue == null) {
+				throw new NullPointerException(
+				    "inputTransparentNewValue == null"
+				);
+			}
+
+			updateInputTransparency();
 		});
+	}
+
+	/*
+				\\\\\\\
+				\ GET \
+				\\\\\\\
+	*/
+	/**
+	 * @return	input transparent property
+	 */
+	public BooleanProperty inputTransparentProperty() {
+		return inputTransparentProperty;
+	}
 
+	/*
+				\\\\\\\\\\
+				\ UPDATE \
+				\\\\\\\\\\
+	*/
+	private void updateInputTransparency() {
 		/*
-		Set the stage title and icon to match the application.
+		Determine whether the stage can actually be input transparent,
+		which it is either by choice, or to render a static overlay for
+		the profile.
 		*/
-		stage.setTitle(LowBeams.APPLICATION_TITLE);
-		stage.getIcons().add(LowBeams.APPLICATION_LOGO_ICON_IMAGE);
+		boolean inputTransparent =
+		    (inputTransparentProperty.get() || profile.isStaticOverlay()) &&
+		    X11InputShape.isSupported();
 
 		/*
-		Set the stage to always be in front. This setting doesn't always
-		work, depending on the platform and application permissions, so
-		the stage shoudld be repeatedly moved to the front as a backup.
+		Update the input shape of the stage if it is showing. Otherwise,
+		it is updated as soon as the stage is shown, as the native window
+		is recreated each time. If the input shape can't be set, fall
+		back to the cursor window.
 		*/
-		stage.setAlwaysOnTop(true);
-		stage.toFront();
+		if (stage.isShowing()) {
+			if (inputTransparent) {
+				inputTransparent = X11InputShape.setEmpty(stage);
+			} else if (X11InputShape.isSupported()) {
+				X11InputShape.setDefault(stage);
+			}
+		}
 
 		/*
-		Set the stage's full screen properties in such a way that it
-		minimizes unwanted visual distractions. This is not necessary,
-		as the stage should never be set to full screen, but if for
-		whatever reason it is, it would be annoying for users to have to
-		see exit hints or other unexpected intrusions.
+		Only use the cursor window if the stage is not input transparent.
 		*/
-		stage.setFullScreenExitHint("");
-		stage.setFullScreenExitKeyCombination(
-		    KeyCombination.NO_MATCH
+		controller.cursorWindowEnabledProperty().set(
+		    !inputTransparent
 		);
 	}
 
 	/*
-			--------------
-			| CONTROLLER |
-			--------------
+			------------------
+			| WINDOW OPACITY |
+			------------------
+
+	In window opacity mode, the overlay and the scene are painted with an
+	opaque color, and the opacity of the color is applied once through the
+	stage opacity, which many compositors handle far more cheaply than a
+	semi-transparent full-screen surface.
+
+	The mode only takes effect while the cursor window is disabled, such as
+	when the overlay is input transparent, as the stage opacity would also
+	apply to the cursor window, which has to stay fully transparent.
+	Otherwise, the overlay is painted as if the mode were off.
 	*/
-	private final OverlayViewController controller =
-	    new OverlayViewController();
+	public static final boolean DEFAULT_WINDOW_OPACITY = false;
+
+	private final SimpleBooleanProperty windowOpacityProperty =
+	    new SimpleBooleanProperty(DEFAULT_WINDOW_OPACITY);
+
+	private BooleanBinding effectiveWindowOpacityBinding;
 
 	/*
 				\\\\\\\\\\\\\\
 				\ INITIALIZE \
 				\\\\\\\\\\\\\\
 	*/
-	private void initializeController() {
-		/*
-		Load the controller's FXML file.
-		*/
-		FXMLLoader overlayLoader = new FXMLLoader(
-		    OverlayViewController.FXML_FILE_URL
+	private void initializeWindowOpacityProperty() {
+		effectiveWindowOpacityBinding = windowOpacityProperty.and(
+		    controller.cursorWindowEnabledProperty().not()
 		);
-		overlayLoader.setRoot(new GridPane());
-		overlayLoader.setController(controller);
-
-		try {
-			overlayLoader.load();
-		} catch (IOException exception) {
-			/*
-			Print a descriptive error message. Eventually, the
-			application should append to a log of some sort to aid
-			in debugging outside of the IDE. For now, a simple error
-			message on the console is enough.
-			*/
-			System.err.println(
-			    "Failed to load controller FXML:\n" +
-			    exception.getMessage()
-			);
-
-			/*
-			Exit the JavaFX platform and return.
-			*/
-			Platform.exit();
-			return;
-		}
 
 		/*
-		Create a transparent scene containing the root.
+		Paint the overlay opaque in effective window opacity mode.
 		*/
-		Scene scene = new Scene(
-		    overlayLoader.getRoot()
-		);
-		scene.setFill(Color.TRANSPARENT);
+		controller.opaqueProperty().bind(effectiveWindowOpacityBinding);
 
 		/*
-		............................
-		... BIND ROOT DIMENSIONS ...
-		............................
+		Fill the scene with the opaque color in effective window opacity
+		mode, so that no pixel of the surface is left transparent, and
+		leave it transparent otherwise.
 		*/
-		GridPane root = overlayLoader.getRoot();
+		stage.getScene().fillProperty().bind(
+		    Bindings.createObjectBinding(() -> {
+			if (!effectiveWindowOpacityBinding.get()) {
+				return (Paint) Color.TRANSPARENT;
+			}
+
+			Color color = controller.displayColorBinding().get();
+			return Color.color(
+			    color.getRed(),
+			    color.getGreen(),
+			    color.getBlue()
+			);
+		    }, effectiveWindowOpacityBinding, controller.displayColorBinding())
+		);
 
 		/*
-			.............
-			... WIDTH ...
-			.............
+		Bind the stage opacity to the opacity of the color in effective
+		window opacity mode, and leave the stage fully opaque otherwise.
 		*/
-		root.minWidthProperty().bind(scene.widthProperty());
-		root.prefWidthProperty().bind(scene.widthProperty());
-		root.maxWidthProperty().bind(scene.widthProperty());
+		stage.opacityProperty().bind(
+		    Bindings.when(effectiveWindowOpacityBinding).then(
+		    Bindings.createDoubleBinding(() -> {
+			return controller.displayColorBinding().get().getOpacity();
+		    }, controller.displayColorBinding())
+		).otherwise(
+		    1.0
+		));
+	}
+
+	/*
+				\\\\\\\
+				\ GET \
+				\\\\\\\
+	*/
+	/**
+	 * @return	window opacity property
+	 */
+	public BooleanProperty windowOpacityProperty() {
+		return windowOpacityProperty;
+	}
+
+	/*
+			-----------------------
+			| RENDER SCALE FACTOR |
+			-----------------------
+
+	The overlay is a flat color with an axis-aligned hole, so rendering it
+	at the full output scale of the screen wastes fill rate and memory. The
+	render scale factor reduces the scale at which the overlay is rendered,
+	relative to the output scale, where the runtime supports it. The edges
+	of the cursor window are snapped to the reduced resolution, so they stay
+	crisp when scaled back up.
+	*/
+	public static final double MINIMUM_RENDER_SCALE_FACTOR = 0.25;
+	public static final double MAXIMUM_RENDER_SCALE_FACTOR = 1;
+	public static final double DEFAULT_RENDER_SCALE_FACTOR = 1;
+
+	public static final List<Double> RENDER_SCALE_FACTORS =
+	    Collections.unmodifiableList(Arrays.asList(
+	    1.0,
+	    0.5,
+	    0.25
+	));
+
+	private final SimpleDoubleProperty renderScaleFactorProperty =
+	    new SimpleDoubleProperty(DEFAULT_RENDER_SCALE_FACTOR);
+
+	/*
+				\\\\\\\\\\\\\\
+				\ INITIALIZE \
+				\\\\\\\\\\\\\\
+	*/
+	private void initializeRenderScaleFactorProperty() {
+		/*
+		Add a change listener to the render scale factor property which
+		enforces the acceptable range, and updates the render scale.
+		*/
+		renderScaleFactorProperty.addListener((
+		    ObservableValue<? extends Number> renderScaleFactorObservableValue,
+		    Number renderScaleFactorOldValue,
+		    Number renderScaleFactorNewValue
+		) -> {
+			/*
+			Validate the new value.
+			*/
+			if (renderScaleFactorNewValue == null) {
+				throw new NullPointerException(
+				    "renderScaleFactorNewValue == null"
+				);
+			}
+			if (renderScaleFactorNewValue.doubleValue() < MINIMUM_RENDER_SCALE_FACTOR) {
+				throw new IllegalArgumentException(
+				    "renderScaleFactorNewValue.doubleValue() (" + renderScaleFactorNewValue.doubleValue() + ")" +
+				    " < " +
+				    "MINIMUM_RENDER_SCALE_FACTOR (" + MINIMUM_RENDER_SCALE_FACTOR + ")"
+				);
+			}
+			if (renderScaleFactorNewValue.doubleValue() > MAXIMUM_RENDER_SCALE_FACTOR) {
+				throw new IllegalArgumentException(
+				    "renderScaleFactorNewValue.doubleValue() (" + renderScaleFactorNewValue.doubleValue() + ")" +
+				    " > " +
+				    "MAXIMUM_RENDER_SCALE_FACTOR (" + MAXIMUM_RENDER_SCALE_FACTOR + ")"
+				);
+			}
+
+			updateRenderScale();
+		});
+	}
+
+	/*
+				\\\\\\\
+				\ GET \
+				\\\\\\\
+	*/
+	/**
+	 * @return	render scale factor property
+	 */
+	public DoubleProperty renderScaleFactorProperty() {
+		return renderScaleFactorProperty;
+	}
+
+	/*
+				\\\\\\\\\\
+				\ UPDATE \
+				\\\\\\\\\\
+	*/
+	private void updateRenderScale() {
+		Screen targetScreen = targetScreenProperty.get();
+		if (targetScreen == null) {
+			return;
+		}
+
+		/*
+		Derive the render scale from the output scale of the target
+		screen.
+		*/
+		double renderScaleX =
+		    WindowScale.getOutputScaleX(targetScreen) *
+		    renderScaleFactorProperty.get();
+		double renderScaleY =
+		    WindowScale.getOutputScaleY(targetScreen) *
+		    renderScaleFactorProperty.get();
+
+		/*
+		Snap the cursor window to the render scale if it could be set,
+		and to whole scene pixels otherwise.
+		*/
+		if (WindowScale.setRenderScale(stage, renderScaleX, renderScaleY)) {
+			controller.snapScaleProperty().set(
+			    Math.min(renderScaleX, renderScaleY)
+			);
+		} else {
+			renderScaleX = WindowScale.DEFAULT_OUTPUT_SCALE;
+			renderScaleY = WindowScale.DEFAULT_OUTPUT_SCALE;
+			controller.snapScaleProperty().set(
+			    WindowScale.DEFAULT_OUTPUT_SCALE
+			);
+		}
+
+		/*
+		Report the estimated size of the rendered surface, which is four
+		bytes per pixel.
+		*/
+		Rectangle2D bounds = targetScreen.getBounds();
+		estimatedSurfaceBytes =
+		    Math.round(bounds.getWidth() * renderScaleX) *
+		    Math.round(bounds.getHeight() * renderScaleY) *
+		    4;
+		ApplicationLog.log(
+		    Level.INFO,
+		    OverlayViewManager.class,
+		    String.format(
+		    Locale.ROOT,
+		    "Overlay render scale %.2f x %.2f: estimated surface %.1f MiB",
+		    renderScaleX,
+		    renderScaleY,
+		    estimatedSurfaceBytes / (1024.0 * 1024.0)
+		));
+	}
+
+	/*
+				\\\\\\\\\\\\\\\\\\\\\\\\\\\
+				\ ESTIMATED SURFACE BYTES \
+				\\\\\\\\\\\\\\\\\\\\\\\\\\\
+	*/
+	private long estimatedSurfaceBytes;
+
+	/**
+	 * @return	estimated size of the surface the overlay is rendered
+	 *		to, in bytes
+	 */
+	public long getEstimatedSurfaceBytes() {
+		return estimatedSurfaceBytes;
+	}
+
+	/*
+			----------------------
+			| GRID LINES VISIBLE |
+			----------------------
+	*/
+	/*
+				\\\\\\\
+				\ GET \
+				\\\\\\\
+	*/
+	public BooleanProperty gridLinesVisibleProperty() {
+		return controller.gridLinesVisibleProperty();
+	}
+
+	/*
+			---------
+			| TILED |
+			---------
+	*/
+	/*
+				\\\\\\\
+				\ GET \
+				\\\\\\\
+	*/
+	public BooleanProperty tiledProperty() {
+		return controller.tiledProperty();
+	}
+
+	/*
+				\\\\\\\\\\
+				\ DAMAGE \
+				\\\\\\\\\\
+	*/
+	/**
+	 * @return	total modeled area damaged by cursor window updates, in
+	 *		scene pixels
+	 */
+	public long getModeledDamagedPixelCount() {
+		return controller.getModeledDamagedPixelCount();
+	}
+
+	/**
+	 * @return	total number of cursor window updates
+	 */
+	public long getDamageUpdateCount() {
+		return controller.getDamageUpdateCount();
+	}
+
+	/*
+				\\\\\\\\\\\\\\\\\\\\\\\
+				\ TRACKING STATISTICS \
+				\\\\\\\\\\\\\\\\\\\\\\\
+	*/
+	/**
+	 * @return	fraction of cursor window tracking ticks which were
+	 *		skipped, as the cursor hadn't moved by a whole pixel
+	 */
+	public double getTrackingTickSkipRate() {
+		long trackingTickCount = controller.getTrackingTickCount();
+		if (trackingTickCount == 0) {
+			return 0;
+		}
+
+		return
+		    (double) controller.getSkippedTrackingTickCount() /
+		    trackingTickCount;
+	}
+
+	/*
+				\\\\\\\\\\\\\\\\\\
+				\ CURSOR LATENCY \
+				\\\\\\\\\\\\\\\\\\
+
+	The cursor latency is logged periodically while the overlay is enabled,
+	at the interval given by the system property, in seconds, where zero or
+	less disables logging. Each log line only covers the latencies recorded
+	since the previous one, so that it reflects recent lag however long the
+	overlay has been running. The cumulative histogram is available through
+	the getters at any time.
+	*/
+	public static final String CURSOR_LATENCY_LOG_INTERVAL_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.cursorLatencyLogInterval";
+
+	public static final long DEFAULT_CURSOR_LATENCY_LOG_INTERVAL_SECONDS = 60;
+
+	private static final long CURSOR_LATENCY_LOG_INTERVAL_NANOSECONDS =
+	    Long.getLong(
+	    CURSOR_LATENCY_LOG_INTERVAL_PROPERTY_NAME,
+	    DEFAULT_CURSOR_LATENCY_LOG_INTERVAL_SECONDS
+	) * 1_000_000_000L;
+
+	private long previousCursorLatencyLogTime = 0;
+
+	/**
+	 * @param percentile	percentile, in (0, 100]
+	 *
+	 * @return		estimated cursor latency at the percentile, in
+	 *			nanoseconds
+	 */
+	public long getCursorLatencyPercentile(double percentile) {
+		return controller.getCursorLatencyHistogram().getPercentile(
+		    percentile
+		);
+	}
+
+	/**
+	 * @return	greatest cursor latency, in nanoseconds
+	 */
+	public long getMaximumCursorLatency() {
+		return controller.getCursorLatencyHistogram().getMaximum();
+	}
+
+	/**
+	 * @return	number of recorded cursor latencies
+	 */
+	public long getCursorLatencyCount() {
+		return controller.getCursorLatencyHistogram().getCount();
+	}
+
+	private void logCursorLatencyPeriodically(long currentPulseTime) {
+		if (
+		    CURSOR_LATENCY_LOG_INTERVAL_NANOSECONDS <= 0 ||
+		    !ApplicationLog.isLoggable(Level.INFO)
+		) {
+			return;
+		}
+		LatencyHistogram intervalHistogram =
+		    controller.getIntervalCursorLatencyHistogram();
+		if (previousCursorLatencyLogTime == 0) {
+			/*
+			Start the first interval now, rather than when the
+			controller was created.
+			*/
+			previousCursorLatencyLogTime = currentPulseTime;
+			intervalHistogram.reset();
+			return;
+		}
+		long interval = currentPulseTime - previousCursorLatencyLogTime;
+		if (interval < CURSOR_LATENCY_LOG_INTERVAL_NANOSECONDS) {
+			return;
+		}
+		previousCursorLatencyLogTime = currentPulseTime;
+
+		/*
+		Only log if anything was recorded since the previous log.
+		*/
+		if (intervalHistogram.getCount() == 0) {
+			return;
+		}
+
+		ApplicationLog.log(
+		    Level.INFO,
+		    OverlayViewManager.class,
+		    String.format(
+		    Locale.ROOT,
+		    "Overlay cursor latency over the last %.0f s: %d updates, " +
+		    "p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms",
+		    interval / 1e9,
+		    intervalHistogram.getCount(),
+		    intervalHistogram.getPercentile(50) / 1e6,
+		    intervalHistogram.getPercentile(90) / 1e6,
+		    intervalHistogram.getPercentile(99) / 1e6,
+		    intervalHistogram.getMaximum() / 1e6
+		));
+		intervalHistogram.reset();
+	}
+
+	private void logTrackingStatistics() {
+		if (!ApplicationLog.isLoggable(Level.INFO)) {
+			return;
+		}
+
+		long damageUpdateCount = controller.getDamageUpdateCount();
+		ApplicationLog.log(
+		    Level.INFO,
+		    OverlayViewManager.class,
+		    String.format(
+		    Locale.ROOT,
+		    "Overlay tracking: %d ticks, %.1f%% skipped, " +
+		    "%.0f px modeled damage per update",
+		    controller.getTrackingTickCount(),
+		    getTrackingTickSkipRate() * 100,
+		    damageUpdateCount == 0 ?
+		    0.0 :
+		    (double) controller.getModeledDamagedPixelCount() /
+		    damageUpdateCount
+		));
+	}
+
+	/*
+			---------
+			| COLOR |
+			---------
+	*/
+	/*
+				\\\\\\\
+				\ GET \
+				\\\\\\\
+	*/
+	public ObjectProperty<Color> colorProperty() {
+		return controller.colorProperty();
+	}
+
+	/*
+			-----------------
+			| CURSOR WINDOW |
+			-----------------
+	*/
+	/*
+				\\\\\\\\\\\\\\\\\\\\\\
+				\ TRACKING FREQUENCY \
+				\\\\\\\\\\\\\\\\\\\\\\
+	*/
+	/*
+					///////
+					/ GET /
+					///////
+	*/
+	public DoubleProperty cursorWindowTrackingFrequencyProperty() {
+		return controller.cursorWindowTrackingFrequencyProperty();
+	}
+
+	/**
+	 * @return	effective cursor window tracking frequency property,
+	 *		which is governed by the frame budget, and bounded by
+	 *		the cursor window tracking frequency unless tracking is
+	 *		velocity adaptive
+	 */
+	public ReadOnlyDoubleProperty effectiveCursorWindowTrackingFrequencyProperty() {
+		return controller.effectiveCursorWindowTrackingFrequencyProperty();
+	}
+
+	/**
+	 * @return	cursor window tracking velocity adaptive property, which
+	 *		derives the tracking frequency from the cursor speed,
+	 *		up to the maximum frequency of the overlay profile,
+	 *		in place of the cursor window tracking frequency
+	 */
+	public BooleanProperty cursorWindowTrackingVelocityAdaptiveProperty() {
+		return controller.cursorWindowTrackingVelocityAdaptiveProperty();
+	}
+
+	/*
+				\\\\\\\\\
+				\ WIDTH \
+				\\\\\\\\\
+	*/
+	/*
+					///////
+					/ GET /
+					///////
+	*/
+	public DoubleProperty cursorWindowWidthProperty() {
+		return controller.cursorWindowWidthProperty();
+	}
+
+	/*
+				\\\\\\\\\\
+				\ HEIGHT \
+				\\\\\\\\\\
+	*/
+	/*
+					///////
+					/ GET /
+					///////
+	*/
+	public DoubleProperty cursorWindowHeightProperty() {
+		return controller.cursorWindowHeightProperty();
+	}
+
+	/*
+				\\\\\\\\\\\\\
+				\ DEAD ZONE \
+				\\\\\\\\\\\\\
+	*/
+	/*
+					///////
+					/ GET /
+					///////
+	*/
+	public DoubleProperty cursorWindowDeadZoneProperty() {
+		return controller.cursorWindowDeadZoneProperty();
+	}
+
+
+	/*
+		******************
+		*** COMPONENTS ***
+		******************
+	*/
+	/*
+			---------
+			| STAGE |
+			---------
+	*/
+	private final Stage stage = new Stage(
+	    StageStyle.TRANSPARENT
+	);
+
+	/*
+				\\\\\\\\\\\\\\
+				\ INITIALIZE \
+				\\\\\\\\\\\\\\
+	*/
+	private void initializeStage() {
+		/*
+		Set a window event handler to ignore close requests on the
+		overlay stage. This prevents the user from directly closing
+		overlay stages, allowing them to be managed by the application
+		logic.
+		*/
+		stage.setOnCloseRequest((
+		    WindowEvent windowEvent
+		) -> {
+			/*
+			Ignoring window events is achieved by consuming them in
+			the event handler.
+			*/
+			windowEvent.consume();
+		});
+
+		/*
+		Set the stage title and icon to match the application.
+		*/
+		stage.setTitle(LowBeams.APPLICATION_TITLE);
+		stage.getIcons().add(LowBeams.APPLICATION_LOGO_ICON_IMAGE);
+
+		/*
+		Set the stage to always be in front. This setting doesn't always
+		work, depending on the platform and application permissions, so
+		the stage shoudld be repeatedly moved to the front as a backup.
+		*/
+		stage.setAlwaysOnTop(true);
+		stage.toFront();
+
+		/*
+		Set the stage's full screen properties in such a way that it
+		minimizes unwanted visual distractions. This is not necessary,
+		as the stage should never be set to full screen, but if for
+		whatever reason it is, it would be annoying for users to have to
+		see exit hints or other unexpected intrusions.
+		*/
+		stage.setFullScreenExitHint("");
+		stage.setFullScreenExitKeyCombination(
+		    KeyCombination.NO_MATCH
+		);
+
+		/*
+		Add a window event handler which updates the input shape each
+		time the stage is shown, as hiding the stage destroys its native
+		window.
+		*/
+		stage.addEventHandler(WindowEvent.WINDOW_SHOWN, (
+		    WindowEvent windowEvent
+		) -> {
+			updateInputTransparency();
+			updateRenderScale();
+		});
+	}
+
+	/*
+				\\\\\\\
+				\ GET \
+				\\\\\\\
+	*/
+	/**
+	 * @return	overlay stage, which is shown by the overlay dimming
+	 *		backend
+	 */
+	Stage getStage() {
+		return stage;
+	}
+
+	/*
+				\\\\\\\\\\\
+				\ PARKING \
+				\\\\\\\\\\\
+
+	An undimmed overlay stage is {@link StageParking parked} rather than
+	hidden, so that dimming it again only takes a move. It is hidden after
+	all if it doesn't land off screen, or is moved back onto a screen while
+	parked.
+	*/
+	private boolean parked = false;
+
+	/*
+					////////
+					/ PARK /
+					////////
+	*/
+	void parkStage() {
+		if (!stage.isShowing()) {
+			return;
+		}
+		if (parked) {
+			if (!StageParking.isOffScreen(stage)) {
+				hideStage();
+			}
+			return;
+		}
+		if (!StageParking.isSupported()) {
+			stage.hide();
+			return;
+		}
+		parked = true;
+		if (!StageParking.park(stage)) {
+			hideStage();
+		}
+	}
+
+	/*
+					//////////
+					/ UNPARK /
+					//////////
+	*/
+	void unparkStage() {
+		if (!parked) {
+			return;
+		}
+		parked = false;
+
+		/*
+		Move the stage back onto the target screen.
+		*/
+		Rectangle2D targetScreenBounds = targetScreenBoundsProperty.get();
+		if (targetScreenBounds != null) {
+			stage.setX(targetScreenBounds.getMinX());
+			stage.setY(targetScreenBounds.getMinY());
+		}
+	}
+
+	/*
+					////////
+					/ HIDE /
+					////////
+	*/
+	private void hideStage() {
+		unparkStage();
+		stage.hide();
+	}
+
+	/*
+			--------------
+			| CONTROLLER |
+			--------------
+	*/
+	private OverlayViewController controller;
+
+	/*
+				\\\\\\\
+				\ GET \
+				\\\\\\\
+	*/
+	/**
+	 * @return	controller of the overlay view
+	 */
+	OverlayViewController getController() {
+		return controller;
+	}
+
+	/*
+				\\\\\\\\
+				\ VIEW \
+				\\\\\\\\
+	*/
+	/**
+	 * This method loads a new overlay view from the controller's FXML
+	 * file. The loaded view is not attached to any scene, so this method is
+	 * safe to call from any thread, which allows the FXML parsing and node
+	 * construction to be performed off the JavaFX application thread.
+	 *
+	 *
+	 * @return		loader containing the loaded root and controller
+	 *
+	 * @throws IOException		Failed to load controller FXML.
+	 */
+	public static FXMLLoader loadView()
+	    throws
+	    IOException
+	{
+		/*
+		Load the controller's FXML file.
+		*/
+		FXMLLoader overlayLoader = new FXMLLoader(
+		    OverlayViewController.FXML_FILE_URL
+		);
+		overlayLoader.setRoot(new GridPane());
+		overlayLoader.setController(new OverlayViewController());
+		overlayLoader.load();
+
+		return overlayLoader;
+	}
+
+	/*
+					///////////
+					/ PREPARE /
+					///////////
+
+	Views can be prepared in advance, such as by the startup pipeline, so
+	that the next overlay view managers to be constructed only have to
+	attach them, rather than load them on the JavaFX application thread.
+	*/
+	private static final ConcurrentLinkedQueue<FXMLLoader> PREPARED_VIEW_LOADERS =
+	    new ConcurrentLinkedQueue<>();
+
+	/**
+	 * This method loads a view for the next overlay view manager to be
+	 * constructed, unless one has already been prepared. It is safe to call
+	 * from any thread.
+	 *
+	 *
+	 * @throws IOException		Failed to load controller FXML.
+	 */
+	public static void prepareView()
+	    throws
+	    IOException
+	{
+		prepareViews(1);
+	}
+
+	/**
+	 * This method loads views until the given number of views is prepared.
+	 * It is safe to call from any thread, although concurrent calls may
+	 * prepare a few more views than requested.
+	 *
+	 *
+	 * @param count			number of views to keep prepared
+	 *
+	 * @throws IOException		Failed to load controller FXML.
+	 */
+	public static void prepareViews(int count)
+	    throws
+	    IOException
+	{
+		while (PREPARED_VIEW_LOADERS.size() < count) {
+			PREPARED_VIEW_LOADERS.add(loadView());
+		}
+	}
+
+	/*
+				\\\\\\\\\\\\\\
+				\ INITIALIZE \
+				\\\\\\\\\\\\\\
+	*/
+	private void initializeController() {
+		/*
+		Take the prepared view if there is one, and otherwise load a new
+		view.
+		*/
+		FXMLLoader overlayLoader = PREPARED_VIEW_LOADERS.poll();
+		if (overlayLoader == null) {
+			try {
+				overlayLoader = loadView();
+			} catch (IOException exception) {
+				/*
+				Log a descriptive error message.
+				*/
+				ApplicationLog.log(
+				    Level.SEVERE,
+				    OverlayViewManager.class,
+				    "Failed to load controller FXML.",
+				    exception
+				);
+
+				/*
+				Exit the JavaFX platform and return.
+				*/
+				Platform.exit();
+				return;
+			}
+		}
+		controller = overlayLoader.getController();
+
+		/*
+		Create a transparent scene containing the root.
+		*/
+		Scene scene = new Scene(
+		    overlayLoader.getRoot()
+		);
+		scene.setFill(Color.TRANSPARENT);
+
+		/*
+		............................
+		... BIND ROOT DIMENSIONS ...
+		............................
+		*/
+		GridPane root = overlayLoader.getRoot();
+
+		/*
+			.............
+			... WIDTH ...
+			.............
+		*/
+		root.minWidthProperty().bind(scene.widthProperty());
+		root.prefWidthProperty().bind(scene.widthProperty());
+		root.maxWidthProperty().bind(scene.widthProperty());
 
 		/*
 			..............
@@ -466,6 +1413,9 @@ public class OverlayViewManager {
 		*/
 		initializeTargetScreenProperty();
 		initializeEnabledProperty();
+		initializeDimmingBackendProperty();
+		initializeInputTransparentProperty();
+		initializeRenderScaleFactorProperty();
 
 		/*
 		Initialize components.
@@ -474,50 +1424,453 @@ public class OverlayViewManager {
 		initializeController();
 
 		/*
-		Start a new animation timer, which fires once per JavaFX pulse.
+		Return without starting any timers if the controller failed to
+		load, as the JavaFX platform is already exiting.
 		*/
-		new AnimationTimer() {
-			@Override
-			public void handle(long ignoredTime) {
-				/*
-				Check if the target screen's bounds have
-				changed.
-				*/
-				if (
-				    targetScreenProperty.get().getBounds() !=
-				    targetScreenBoundsProperty.get()
-				) {
-					/*
-					If so, update the target screen bounds
-					property to the new bounds, which should
-					automatically propagate the new bounds
-					to the stage.
-					*/
-					targetScreenBoundsProperty.set(
-					    targetScreenProperty.get().getBounds()
-					);
-				}
+		if (controller == null) {
+			return;
+		}
 
-				/*
-				Check if the enabled property is set to true.
-				*/
-				if (enabledProperty.get()) {
-					/*
-					If so, move the stage to the front, in
-					case the request to always be in front
-					is not honored by the OS due to platform
-					restrictions or insufficient
-					permissions.
-					*/
-					stage.show();
-					stage.toFront();
-				} else {
-					/*
-					Otherwise, hide the stage.
-					*/
-					stage.hide();
-				}
+		/*
+		Initialize the properties which depend on the controller.
+		*/
+		initializeWindowOpacityProperty();
+
+		/*
+		Register the overlay view manager, so that its counters are
+		included in stall reports.
+		*/
+		StallWatchdog.register(this);
+
+		/*
+		Register the overlay view manager, so that it can be merged
+		with others.
+		*/
+		OverlayMerger.register(this);
+
+		/*
+		Create a new animation timer, which fires once per JavaFX pulse.
+		*/
+		pulseTimer = new AnimationTimer() {
+			@Override
+			public void handle(long currentPulseTime) {
+				pulse(currentPulseTime);
 			}
-		}.start();
+		};
+
+		/*
+		Apply the overlay profile chosen for all overlays, whenever it
+		changes.
+		*/
+		PowerProfileService.profileProperty().addListener(
+		    profileChangeListener
+		);
+		applyProfile(PowerProfileService.profileProperty().get());
+
+		/*
+		Run the timers whenever the display is available, and the target
+		screen isn't taken over by a full screen window, which must be
+		done on the JavaFX application thread, and therefore separately
+		from loading the view.
+		*/
+		DisplayStateMonitor.displayAvailableProperty().addListener(
+		    displayAvailableChangeListener
+		);
+		FullscreenWatcher.fullscreenScreenProperty().addListener(
+		    fullscreenScreenChangeListener
+		);
+		targetScreenProperty.addListener((
+		    ObservableValue<? extends Screen> observableValue,
+		    Screen oldValue,
+		    Screen newValue
+		) -> {
+			updateRunning();
+		});
+		updateRunning();
+	}
+
+	private AnimationTimer pulseTimer;
+	private long previousPulseTime = 0;
+
+	/*
+			---------
+			| PULSE |
+			---------
+
+	The pulse is package-private, rather than being inlined in the pulse
+	timer, so that the performance checks can drive it without the JavaFX
+	pulse.
+	*/
+	void pulse(long currentPulseTime) {
+		/*
+		Publish a heartbeat, which shows the stall watchdog that the
+		JavaFX application thread is still pulsing.
+		*/
+		StallWatchdog.heartbeat();
+
+		/*
+		Check if the previous pulse was too long ago, which happens when
+		the display sleeps or the session is switched away, and if so,
+		have the display state polled at once and refresh the bounds,
+		which may have changed meanwhile.
+		*/
+		if (
+		    previousPulseTime != 0 &&
+		    currentPulseTime - previousPulseTime >
+		    DisplayStateMonitor.PULSE_GAP_NANOSECONDS
+		) {
+			DisplayStateMonitor.reportPulseGap();
+			refreshBounds();
+		}
+		previousPulseTime = currentPulseTime;
+
+		/*
+		Check if the target screen's bounds have changed.
+		*/
+		if (
+		    targetScreenProperty.get().getBounds() !=
+		    targetScreenBoundsProperty.get()
+		) {
+			/*
+			If so, update the target screen bounds property to the
+			new bounds, which should automatically propagate the new
+			bounds to the stage.
+			*/
+			targetScreenBoundsProperty.set(
+			    targetScreenProperty.get().getBounds()
+			);
+		}
+
+		/*
+		Dim or undim the target screen through the dimming backend,
+		which moves the stage to the front only when the z-order check
+		is due.
+		*/
+		updateZOrderCheckDue(currentPulseTime);
+		updateDimmingBackend();
+
+		/*
+		Log the cursor latency periodically while the overlay is
+		enabled.
+		*/
+		if (enabledProperty.get()) {
+			logCursorLatencyPeriodically(currentPulseTime);
+		}
+	}
+
+	/*
+			--------------------
+			| SHARED LISTENERS |
+			--------------------
+
+	The listeners added to properties shared by all overlays are kept, so
+	that they can be removed when the overlay view manager is disposed of.
+	*/
+	private final ChangeListener<OverlayProfile> profileChangeListener = (
+	    ObservableValue<? extends OverlayProfile> observableValue,
+	    OverlayProfile oldValue,
+	    OverlayProfile newValue
+	) -> {
+		applyProfile(newValue);
+	};
+
+	private final ChangeListener<Boolean> displayAvailableChangeListener = (
+	    ObservableValue<? extends Boolean> observableValue,
+	    Boolean oldValue,
+	    Boolean newValue
+	) -> {
+		updateRunning();
+	};
+
+	private final ChangeListener<Screen> fullscreenScreenChangeListener = (
+	    ObservableValue<? extends Screen> observableValue,
+	    Screen oldValue,
+	    Screen newValue
+	) -> {
+		updateRunning();
+	};
+
+
+	/*
+		***************
+		*** RUNNING ***
+		***************
+
+	The timers of an overlay view manager run only while it is not pooled,
+	the display is available, and no full screen window has taken over the
+	target screen. While they are parked, the overlay view manager costs
+	nothing per pulse, and renders nothing.
+	*/
+	private boolean pooled = false;
+	private boolean running = false;
+
+	/*
+			----------
+			| UPDATE |
+			----------
+	*/
+	private void updateRunning() {
+		boolean shouldRun =
+		    !pooled &&
+		    DisplayStateMonitor.displayAvailableProperty().get() &&
+		    !isTargetScreenFullscreen();
+		if (shouldRun == running) {
+			return;
+		}
+		running = shouldRun;
+
+		if (running) {
+			/*
+			Start tracking the cursor window and pulsing, and fit
+			the stage to the target screen once, as its bounds may
+			have changed while the timers were parked.
+			*/
+			updateTracking();
+			pulseTimer.start();
+			StallWatchdog.addHeartbeatSource();
+			previousZOrderCheckTime = NO_Z_ORDER_CHECK_TIME;
+			refreshBounds();
+		} else {
+			/*
+			Park the timers, and drop the rendering. The heartbeat
+			source is removed, so that the missing pulses aren't
+			reported as a stall.
+			*/
+			pulseTimer.stop();
+			StallWatchdog.removeHeartbeatSource();
+			updateTracking();
+			activeDimmingBackend.undim(this);
+			hideStage();
+			previousPulseTime = 0;
+		}
+	}
+
+	/*
+			------------
+			| TRACKING |
+			------------
+
+	The cursor window of the overlay view is only tracked while the overlay
+	backend is active, as other backends track the cursor themselves, and
+	the overlay stage isn't shown meanwhile.
+	*/
+	private boolean tracking = false;
+
+	private void updateTracking() {
+		boolean shouldTrack =
+		    running &&
+		    activeDimmingBackend == OverlayDimmingBackend.INSTANCE;
+		if (shouldTrack == tracking) {
+			return;
+		}
+		tracking = shouldTrack;
+
+		if (tracking) {
+			controller.start();
+		} else {
+			controller.stop();
+		}
+	}
+
+	/*
+			--------------
+			| FULLSCREEN |
+			--------------
+	*/
+	private boolean isTargetScreenFullscreen() {
+		Screen fullscreenScreen =
+		    FullscreenWatcher.fullscreenScreenProperty().get();
+
+		return
+		    fullscreenScreen != null &&
+		    fullscreenScreen.equals(targetScreenProperty.get());
+	}
+
+
+	/*
+		***************
+		*** PROFILE ***
+		***************
+	*/
+	private OverlayProfile profile = OverlayProfile.FULL;
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	overlay profile, which also caps the tracking
+	 *		frequency of dimming backends which track the cursor
+	 *		themselves
+	 */
+	OverlayProfile getProfile() {
+		return profile;
+	}
+
+	/*
+			---------
+			| APPLY |
+			---------
+	*/
+	private void applyProfile(OverlayProfile profile) {
+		this.profile = profile;
+		controller.setProfile(profile);
+		previousZOrderCheckTime = NO_Z_ORDER_CHECK_TIME;
+		updateInputTransparency();
+	}
+
+	/*
+			-----------
+			| Z-ORDER |
+			-----------
+
+	Moving the stage to the front is a round trip to the window system, so
+	dimming backends only do it on pulses where the z-order check is due,
+	which is every pulse unless the profile relaxes it.
+	*/
+	private static final long NO_Z_ORDER_CHECK_TIME = Long.MIN_VALUE;
+
+	private long previousZOrderCheckTime = NO_Z_ORDER_CHECK_TIME;
+	private boolean zOrderCheckDue = true;
+
+	private void updateZOrderCheckDue(long currentPulseTime) {
+		zOrderCheckDue =
+		    previousZOrderCheckTime == NO_Z_ORDER_CHECK_TIME ||
+		    currentPulseTime - previousZOrderCheckTime >=
+		    profile.getZOrderIntervalNanoseconds();
+		if (zOrderCheckDue) {
+			previousZOrderCheckTime = currentPulseTime;
+		}
+	}
+
+	/**
+	 * @return	true if the stage should be moved to the front during
+	 *		the current pulse, in case the request to always be in
+	 *		front is not honored
+	 */
+	boolean isZOrderCheckDue() {
+		return zOrderCheckDue;
+	}
+
+
+	/*
+		************
+		*** POOL ***
+		************
+
+	Overlay view managers are pooled by the overlay view manager pool, which
+	suspends them while they are not in use, so that pooled managers cost
+	nothing per pulse, and resets them before they are reused, or disposes
+	of them if the pool is full.
+	*/
+	/*
+			-----------
+			| SUSPEND |
+			-----------
+	*/
+	void suspend() {
+		if (controller == null) {
+			return;
+		}
+
+		pooled = true;
+		updateRunning();
+	}
+
+	/*
+			----------
+			| RESUME |
+			----------
+	*/
+	void resume() {
+		if (controller == null) {
+			return;
+		}
+
+		pooled = false;
+		updateRunning();
+	}
+
+	/*
+			---------
+			| RESET |
+			---------
+	*/
+	/**
+	 * This method resets every property to its default value, and clears
+	 * the cursor window tracking state and statistics. The properties must
+	 * not be bound.
+	 */
+	void resetProperties() {
+		enabledProperty.set(DEFAULT_ENABLED);
+		targetScreenProperty.set(Screen.getPrimary());
+		dimmingBackendProperty.set(DEFAULT_DIMMING_BACKEND);
+		inputTransparentProperty.set(DEFAULT_INPUT_TRANSPARENT);
+		windowOpacityProperty.set(DEFAULT_WINDOW_OPACITY);
+		renderScaleFactorProperty.set(DEFAULT_RENDER_SCALE_FACTOR);
+		gridLinesVisibleProperty().set(
+		    OverlayViewController.DEFAULT_GRID_LINES_VISIBLE
+		);
+		tiledProperty().set(OverlayViewController.DEFAULT_TILED);
+		colorProperty().set(OverlayViewController.DEFAULT_COLOR);
+		cursorWindowTrackingFrequencyProperty().set(
+		    OverlayViewController.DEFAULT_CURSOR_WINDOW_TRACKING_FREQUENCY
+		);
+		cursorWindowTrackingVelocityAdaptiveProperty().set(
+		    OverlayViewController.DEFAULT_CURSOR_WINDOW_TRACKING_VELOCITY_ADAPTIVE
+		);
+		cursorWindowWidthProperty().set(
+		    OverlayViewController.DEFAULT_CURSOR_WINDOW_WIDTH
+		);
+		cursorWindowHeightProperty().set(
+		    OverlayViewController.DEFAULT_CURSOR_WINDOW_HEIGHT
+		);
+		cursorWindowDeadZoneProperty().set(
+		    OverlayViewController.DEFAULT_CURSOR_WINDOW_DEAD_ZONE
+		);
+
+		/*
+		Clear the tracking state and statistics after the properties, as
+		resetting them may still move the cursor window.
+		*/
+		controller.resetTracking();
+		previousCursorLatencyLogTime = 0;
+	}
+
+	/*
+			-----------
+			| DISPOSE |
+			-----------
+	*/
+	/**
+	 * This method permanently disposes of the overlay view manager, which
+	 * must be reset and suspended, and must not be used afterwards. It
+	 * removes the listeners on properties shared by all overlays, removes
+	 * the overlay view manager from every registry and dimming backend, and
+	 * closes its stage, so that nothing keeps it reachable.
+	 */
+	void dispose() {
+		if (controller != null) {
+			OverlayMerger.unregister(this);
+			StallWatchdog.unregister(this);
+			PowerProfileService.profileProperty().removeListener(
+			    profileChangeListener
+			);
+			DisplayStateMonitor.displayAvailableProperty().removeListener(
+			    displayAvailableChangeListener
+			);
+			FullscreenWatcher.fullscreenScreenProperty().removeListener(
+			    fullscreenScreenChangeListener
+			);
+		}
+
+		for (int index = 0; index < usedDimmingBackends.size(); index++) {
+			usedDimmingBackends.get(index).release(this);
+		}
+		usedDimmingBackends.clear();
+
+		hideStage();
+		stage.close();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import java.util.ArrayDeque;
+
+/**
+ * This class keeps a small pool of pre-built, suspended overlay view managers,
+ * so that adding an overlay doesn't have to construct a new stage, parse the
+ * overlay view FXML and create a new scene, and removing one doesn't throw
+ * them away. Pooled managers have their timers stopped and their stages
+ * hidden, so they cost nothing per pulse. Managers released while the pool is
+ * full are disposed of.
+ *
+ * This class is intended to be used from the JavaFX application thread only.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.28.0
+ */
+public class OverlayViewManagerPool {
+	/*
+		****************
+		*** CAPACITY ***
+		****************
+	*/
+	public static final int CAPACITY = 4;
+
+	private static final ArrayDeque<OverlayViewManager> POOLED_OVERLAY_VIEW_MANAGERS =
+	    new ArrayDeque<>(CAPACITY);
+
+
+	/*
+		***************
+		*** ACQUIRE ***
+		***************
+	*/
+	/**
+	 * @return	overlay view manager with default properties, taken from
+	 *		the pool if possible, and constructed otherwise
+	 */
+	public static OverlayViewManager acquire() {
+		OverlayViewManager overlayViewManager =
+		    POOLED_OVERLAY_VIEW_MANAGERS.poll();
+		if (overlayViewManager == null) {
+			return new OverlayViewManager();
+		}
+
+		overlayViewManager.resume();
+		return overlayViewManager;
+	}
+
+	/*
+			-----------
+			| RELEASE |
+			-----------
+	*/
+	/**
+	 * This method disables the given overlay view manager, and returns it
+	 * to the pool, unless the pool is full, in which case it is disposed
+	 * of. Its properties must not be bound.
+	 *
+	 *
+	 * @param overlayViewManager	overlay view manager which is no longer
+	 *				used
+	 */
+	public static void release(OverlayViewManager overlayViewManager) {
+		if (overlayViewManager == null) {
+			throw new NullPointerException(
+			    "overlayViewManager == null"
+			);
+		}
+
+		overlayViewManager.resetProperties();
+		overlayViewManager.suspend();
+
+		if (POOLED_OVERLAY_VIEW_MANAGERS.size() < CAPACITY) {
+			POOLED_OVERLAY_VIEW_MANAGERS.add(overlayViewManager);
+		} else {
+			overlayViewManager.dispose();
+		}
+	}
+
+
+	/*
+		************
+		*** FILL ***
+		************
+	*/
+	/**
+	 * This method constructs suspended overlay view managers until the pool
+	 * holds the given number of them, using any views prepared in advance.
+	 *
+	 *
+	 * @param count		number of pooled overlay view managers
+	 */
+	public static void fill(int count) {
+		if (count > CAPACITY) {
+			throw new IllegalArgumentException(
+			    "count (" + count + ")" +
+			    " > " +
+			    "CAPACITY (" + CAPACITY + ")"
+			);
+		}
+
+		while (POOLED_OVERLAY_VIEW_MANAGERS.size() < count) {
+			OverlayViewManager overlayViewManager =
+			    new OverlayViewManager();
+			overlayViewManager.suspend();
+			POOLED_OVERLAY_VIEW_MANAGERS.add(overlayViewManager);
+		}
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private OverlayViewManagerPool() {}
+}
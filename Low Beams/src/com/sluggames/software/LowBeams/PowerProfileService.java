@@ -0,0 +1,313 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import com.sluggames.software.LowBeams.platform.PowerSupply;
+import com.sluggames.software.LowBeams.platform.RemoteSession;
+import com.sluggames.software.LowBeams.platform.X11;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+/**
+ * This class chooses the {@link OverlayProfile} which all overlays run under,
+ * switching them to the low power profile while the system runs on battery,
+ * and back to the full profile once it is connected to power again. In remote
+ * sessions, overlays run under the bandwidth saving profile instead, whatever
+ * the power supply.
+ *
+ * The remote session is detected once, and the power supplies are polled, from
+ * a low priority daemon thread. The chosen profile is published through a
+ * single property on the JavaFX application thread. Every overlay applies a
+ * change of profile from the same event, so no pulse ever runs with some
+ * overlays on one profile and the rest on the other.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.36.0
+ */
+public class PowerProfileService {
+	/*
+		*****************
+		*** DIRECTORY ***
+		*****************
+
+	The power supply directory can be pointed at a fake set of supplies, so
+	that the profiles can be tested on any machine.
+	*/
+	public static final String DIRECTORY_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.powerSupplyDirectory";
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	configured power supply class directory
+	 */
+	public static Path getConfiguredDirectoryPath() {
+		String directory = System.getProperty(DIRECTORY_PROPERTY_NAME);
+
+		return directory != null ?
+		    Paths.get(directory) :
+		    PowerSupply.DEFAULT_DIRECTORY_PATH;
+	}
+
+
+	/*
+		****************
+		*** INTERVAL ***
+		****************
+	*/
+	public static final String INTERVAL_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.powerProfilePollInterval";
+
+	public static final long DEFAULT_INTERVAL_SECONDS = 10;
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	configured interval in seconds, where zero or less
+	 *		disables polling
+	 */
+	public static long getConfiguredIntervalSeconds() {
+		return Long.getLong(
+		    INTERVAL_PROPERTY_NAME,
+		    DEFAULT_INTERVAL_SECONDS
+		);
+	}
+
+
+	/*
+		***************
+		*** PROFILE ***
+		***************
+	*/
+	private static final ReadOnlyObjectWrapper<OverlayProfile> PROFILE_PROPERTY =
+	    new ReadOnlyObjectWrapper<>(OverlayProfile.FULL);
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	profile property, which is never null, and is only
+	 *		updated on the JavaFX application thread
+	 */
+	public static ReadOnlyObjectProperty<OverlayProfile> profileProperty() {
+		return PROFILE_PROPERTY.getReadOnlyProperty();
+	}
+
+
+	/*
+		**********************
+		*** REMOTE SESSION ***
+		**********************
+
+	Remote session detection can be overridden, so that the bandwidth
+	saving profile can be forced on or off, such as to compare both
+	profiles on a local VNC server.
+	*/
+	public static final String REMOTE_SESSION_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.remoteSession";
+
+	/*
+	This field is written by the polling thread, and read on the JavaFX
+	application thread. It describes the evidence of a remote session, or is
+	null if there is none.
+	*/
+	private static volatile String remoteSessionEvidence = null;
+
+	/*
+			----------
+			| DETECT |
+			----------
+	*/
+	private static void detectRemoteSession() {
+		String forced = System.getProperty(REMOTE_SESSION_PROPERTY_NAME);
+		if (forced != null) {
+			remoteSessionEvidence = Boolean.parseBoolean(forced) ?
+			    REMOTE_SESSION_PROPERTY_NAME + " property" :
+			    null;
+		} else {
+			remoteSessionEvidence = RemoteSession.detectFromEnvironment(
+			    System.getenv()
+			);
+			if (remoteSessionEvidence == null && X11.isDisplayAvailable()) {
+				try {
+					String vendor = RemoteSession.queryVendor();
+					if (vendor != null && RemoteSession.isRemoteVendor(vendor)) {
+						remoteSessionEvidence =
+						    "X server vendor " + vendor;
+					}
+				} catch (IOException exception) {
+					ApplicationLog.log(
+					    Level.INFO,
+					    PowerProfileService.class,
+					    "Failed to run " +
+					    RemoteSession.COMMAND_NAME + ", so the" +
+					    " X server vendor is unknown: " +
+					    exception.getMessage()
+					);
+				}
+			}
+		}
+
+		Platform.runLater(PowerProfileService::update);
+	}
+
+
+	/*
+		************
+		*** POLL ***
+		************
+
+	This field is written by the polling thread, and read on the JavaFX
+	application thread.
+	*/
+	private static volatile boolean onBattery = false;
+
+	private static void poll() {
+		try {
+			onBattery = PowerSupply.isOnBattery(directoryPath);
+		} catch (IOException exception) {
+			/*
+			Stop polling, as the power supplies are unlikely to
+			become readable later.
+			*/
+			executor.shutdown();
+			ApplicationLog.log(
+			    Level.INFO,
+			    PowerProfileService.class,
+			    "Failed to read the power supplies, so they are no" +
+			    " longer polled: " + exception.getMessage()
+			);
+			return;
+		}
+
+		Platform.runLater(PowerProfileService::update);
+	}
+
+
+	/*
+		**************
+		*** UPDATE ***
+		**************
+	*/
+	private static void update() {
+		String reason;
+		OverlayProfile profile;
+		if (remoteSessionEvidence != null) {
+			reason = "Remote session (" + remoteSessionEvidence + ")";
+			profile = OverlayProfile.BANDWIDTH_SAVING;
+		} else if (onBattery) {
+			reason = "Running on battery";
+			profile = OverlayProfile.LOW_POWER;
+		} else {
+			reason = "Running on power";
+			profile = OverlayProfile.FULL;
+		}
+		if (profile == PROFILE_PROPERTY.get()) {
+			return;
+		}
+
+		ApplicationLog.log(
+		    Level.INFO,
+		    PowerProfileService.class,
+		    reason + ", switching overlays to the " + profile +
+		    " profile."
+		);
+		PROFILE_PROPERTY.set(profile);
+	}
+
+
+	/*
+		*************
+		*** START ***
+		*************
+	*/
+	private static final String THREAD_NAME =
+	    LowBeams.APPLICATION_TITLE + " Power Profile Service";
+
+	private static Path directoryPath;
+	private static ScheduledExecutorService executor;
+
+	/**
+	 * This method detects a remote session, and then starts polling the
+	 * power supplies at the configured interval, on a low priority daemon
+	 * thread. The power supplies aren't polled if polling is disabled, or
+	 * the configured power supply directory doesn't exist, such as on
+	 * platforms other than Linux. It must be called from the JavaFX
+	 * application thread.
+	 */
+	public static void start() {
+		executor = Executors.newSingleThreadScheduledExecutor((
+		    Runnable runnable
+		) -> {
+			Thread thread = new Thread(runnable, THREAD_NAME);
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		executor.execute(PowerProfileService::detectRemoteSession);
+
+		long intervalSeconds = getConfiguredIntervalSeconds();
+		directoryPath = getConfiguredDirectoryPath();
+		if (intervalSeconds <= 0 || !Files.isDirectory(directoryPath)) {
+			return;
+		}
+		executor.scheduleWithFixedDelay(
+		    PowerProfileService::poll,
+		    0,
+		    intervalSeconds,
+		    TimeUnit.SECONDS
+		);
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private PowerProfileService() {}
+}
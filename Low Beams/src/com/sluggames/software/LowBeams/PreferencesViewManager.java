@@ -36,7 +36,7 @@ import javafx.stage.Stage;
  *
  * @author david.boeger@sluggames.com
  *
- * @version 0.12.0
+ * @version 0.15.0
  * @since 0.2.0
  */
 public class PreferencesViewManager {
@@ -75,18 +75,25 @@ public class PreferencesViewManager {
 			| CONTROLLER |
 			--------------
 	*/
-	private final PreferencesViewController controller =
-	    new PreferencesViewController();
+	private PreferencesViewController controller;
 
 	/*
-				\\\\\\\\\\\\\\
-				\ INITIALIZE \
-				\\\\\\\\\\\\\\
+				\\\\\\\\
+				\ VIEW \
+				\\\\\\\\
 	*/
 	/**
+	 * This method loads a new preferences view from the controller's FXML
+	 * file. The loaded view is not attached to any scene, so this method is
+	 * safe to call from any thread, which allows the FXML parsing and node
+	 * construction to be performed off the JavaFX application thread.
+	 *
+	 *
+	 * @return		loader containing the loaded root and controller
+	 *
 	 * @throws IOException		Failed to load controller FXML.
 	 */
-	private void initializeController()
+	public static FXMLLoader loadView()
 	    throws
 	    IOException
 	{
@@ -97,9 +104,24 @@ public class PreferencesViewManager {
 		    PreferencesViewController.FXML_FILE_URL
 		);
 		preferencesMenuLoader.setRoot(new ScrollPane());
-		preferencesMenuLoader.setController(controller);
+		preferencesMenuLoader.setController(
+		    new PreferencesViewController()
+		);
 		preferencesMenuLoader.load();
 
+		return preferencesMenuLoader;
+	}
+
+	/*
+				\\\\\\\\\\\\\\
+				\ INITIALIZE \
+				\\\\\\\\\\\\\\
+	*/
+	private void initializeController(
+	    FXMLLoader preferencesMenuLoader
+	) {
+		controller = preferencesMenuLoader.getController();
+
 		/*
 		Set the stage to display a scene with the loaded FXML content.
 		*/
@@ -121,11 +143,35 @@ public class PreferencesViewManager {
 	    throws
 	    IOException
 	{
+		this(loadView());
+	}
+
+	/**
+	 * This constructor attaches a view which has already been loaded, such
+	 * as by the startup pipeline. It must be called from the JavaFX
+	 * application thread.
+	 *
+	 *
+	 * @param preferencesMenuLoader	loader returned by
+	 *				{@link #loadView()}
+	 */
+	public PreferencesViewManager(
+	    FXMLLoader preferencesMenuLoader
+	) {
+		/*
+		Validate arguments.
+		*/
+		if (preferencesMenuLoader == null) {
+			throw new NullPointerException(
+			    "preferencesMenuLoader == null"
+			);
+		}
+
 		/*
 		Initialize components.
 		*/
 		initializeStage();
-		initializeController();
+		initializeController(preferencesMenuLoader);
 	}
 
 
@@ -141,4 +187,17 @@ public class PreferencesViewManager {
 		stage.show();
 		stage.toFront();
 	}
+
+
+	/*
+		***********************
+		*** TOGGLE OVERLAYS ***
+		***********************
+	*/
+	public void toggleOverlays() {
+		/*
+		Delegate to the controller, which owns the overlays.
+		*/
+		controller.toggleOverlays();
+	}
 }
\ No newline at end of file
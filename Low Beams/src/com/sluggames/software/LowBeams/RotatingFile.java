@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * This class rotates diagnostic files, such as the application log, which
+ * would otherwise grow without bound. Rotating a file renames it with the
+ * suffix ".1", after shifting any previously rotated files along by one, and
+ * dropping the oldest.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.34.0
+ * @since 0.34.0
+ */
+public class RotatingFile {
+	/*
+		**************
+		*** ROTATE ***
+		**************
+	*/
+	/**
+	 * @param filePath		path of the file to rotate, which need
+	 *				not exist
+	 *
+	 * @param rotatedFileCount	number of rotated files to keep
+	 *
+	 * @throws IOException		Failed to rename one of the files.
+	 */
+	public static void rotate(
+	    Path filePath,
+	    int rotatedFileCount
+	) throws IOException {
+		/*
+		Validate arguments.
+		*/
+		if (rotatedFileCount < 1) {
+			throw new IllegalArgumentException(
+			    "rotatedFileCount (" + rotatedFileCount + ") < 1"
+			);
+		}
+
+		for (int index = rotatedFileCount - 1; index > 0; index--) {
+			Path rotatedFilePath = getRotatedFilePath(filePath, index);
+			if (Files.exists(rotatedFilePath)) {
+				Files.move(
+				    rotatedFilePath,
+				    getRotatedFilePath(filePath, index + 1),
+				    StandardCopyOption.REPLACE_EXISTING
+				);
+			}
+		}
+		if (Files.exists(filePath)) {
+			Files.move(
+			    filePath,
+			    getRotatedFilePath(filePath, 1),
+			    StandardCopyOption.REPLACE_EXISTING
+			);
+		}
+	}
+
+	/*
+			---------------------
+			| ROTATED FILE PATH |
+			---------------------
+	*/
+	/**
+	 * @param filePath	path of the rotated file
+	 *
+	 * @param index		index of the rotated file, starting at one for
+	 *			the most recent
+	 *
+	 * @return		path of the rotated file with the given index
+	 */
+	public static Path getRotatedFilePath(Path filePath, int index) {
+		return filePath.resolveSibling(
+		    filePath.getFileName() + "." + index
+		);
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private RotatingFile() {}
+}
@@ -0,0 +1,571 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This class ensures that only a single instance of the application runs for
+ * each user. Every additional instance would otherwise carry its own JVM,
+ * system tray icon and overlays, doubling the compositing cost on every screen.
+ *
+ * The first instance to launch acquires an exclusive lock on the
+ * {@link #LOCK_FILE_PATH lock file}, and listens for requests on a loopback
+ * socket whose port is published in the
+ * {@link #ENDPOINT_FILE_PATH endpoint file}. Any later instance fails to
+ * acquire the lock, forwards its {@link InstanceRequest request} to the running
+ * instance, and exits. Because the lock is held by the operating system, it is
+ * released automatically if the running instance crashes, so stale lock files
+ * never prevent the application from starting.
+ *
+ * To keep forwarding fast, none of the methods of this class depend on AWT or
+ * JavaFX, and the following guidelines should be followed:
+ *
+ *	1)	The {@link #acquire()} method should be called from the
+ *		{@link LowBeamsLauncher launcher's} main method, prior to
+ *		launching the JavaFX platform, or even loading the application
+ *		class. If it fails, {@link #forward(InstanceRequest)} should be
+ *		called instead of launching.
+ *
+ *	2)	The {@link #listen(Consumer)} method should be called once the
+ *		JavaFX platform has started, so that forwarded requests can be
+ *		queued on the JavaFX application thread.
+ *
+ *	3)	The {@link #release()} method should be called from the JavaFX
+ *		application's {@link javafx.application.Application#stop()}
+ *		method.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @see InstanceRequest
+ *
+ * @version 0.38.0
+ * @since 0.14.0
+ */
+public class SingleInstanceManager {
+	/*
+		*************
+		*** FILES ***
+		*************
+	*/
+	/*
+			--------
+			| LOCK |
+			--------
+	*/
+	public static final Path LOCK_FILE_PATH =
+	    LowBeamsLauncher.APPLICATION_DATA_DIRECTORY_PATH.resolve(
+	    "instance.lock"
+	);
+
+	private FileChannel lockFileChannel;
+	private FileLock lockFileLock;
+
+	/*
+			------------
+			| ENDPOINT |
+			------------
+
+	The endpoint file contains two lines: the port of the loopback socket,
+	followed by a random token which must prefix every forwarded request.
+	The token prevents other local users, who can connect to the loopback
+	socket but cannot read the endpoint file in this user's home directory,
+	from issuing requests.
+	*/
+	public static final Path ENDPOINT_FILE_PATH =
+	    LowBeamsLauncher.APPLICATION_DATA_DIRECTORY_PATH.resolve(
+	    "instance.endpoint"
+	);
+
+	public static final int TOKEN_BIT_COUNT = 130;
+	public static final int TOKEN_RADIX = 32;
+
+
+	/*
+		**************
+		*** SOCKET ***
+		**************
+	*/
+	/*
+			------------
+			| TIMEOUTS |
+			------------
+
+	Both ends of the connection are on the local machine, so any request
+	which takes longer than these timeouts belongs to an unresponsive
+	instance, and should not hold up the launch.
+	*/
+	public static final int CONNECT_TIMEOUT_MILLISECONDS = 250;
+	public static final int READ_TIMEOUT_MILLISECONDS = 1000;
+
+	/*
+			-----------
+			| RETRIES |
+			-----------
+
+	The running instance acquires the lock slightly before it publishes
+	its endpoint, so a launch in between the two finds no endpoint, or a
+	stale one, and has to retry.
+	*/
+	public static final int FORWARD_ATTEMPT_COUNT = 10;
+	public static final long FORWARD_RETRY_INTERVAL_MILLISECONDS = 50;
+
+	/*
+			---------------
+			| ACKNOWLEDGE |
+			---------------
+	*/
+	public static final String ACKNOWLEDGE_RESPONSE = "OK";
+	public static final String REJECT_RESPONSE = "REJECTED";
+
+	/*
+			-----------------
+			| SERVER SOCKET |
+			-----------------
+	*/
+	public static final int SERVER_SOCKET_BACKLOG = 8;
+
+	private ServerSocket serverSocket;
+	private String token;
+
+
+	/*
+		***************
+		*** ACQUIRE ***
+		***************
+	*/
+	/**
+	 * This method attempts to make the calling process the single running
+	 * instance. If successful, the loopback socket is bound and its
+	 * endpoint published, but requests are not accepted until
+	 * {@link #listen(Consumer)} is called. Connections made in between are
+	 * held in the socket backlog.
+	 *
+	 *
+	 * @return		true if the lock was acquired, or false if
+	 *			another instance is already running
+	 *
+	 * @throws IOException		Failed to access the lock file, bind
+	 *				the socket, or publish the endpoint.
+	 */
+	public boolean acquire()
+	    throws
+	    IOException
+	{
+		/*
+		Verify that the lock has not already been acquired.
+		*/
+		if (lockFileLock != null) {
+			throw new IllegalStateException(
+			    "The instance lock has already been acquired."
+			);
+		}
+
+		/*
+		Open the lock file, creating it and the application data
+		directory as necessary.
+		*/
+		Files.createDirectories(
+		    LowBeamsLauncher.APPLICATION_DATA_DIRECTORY_PATH
+		);
+		lockFileChannel = FileChannel.open(
+		    LOCK_FILE_PATH,
+		    StandardOpenOption.CREATE,
+		    StandardOpenOption.WRITE
+		);
+
+		/*
+		Attempt to acquire the lock without blocking. An overlapping
+		lock exception means that the lock is held within this very
+		process, which counts as another instance all the same.
+		*/
+		try {
+			lockFileLock = lockFileChannel.tryLock();
+		} catch (OverlappingFileLockException exception) {
+			lockFileLock = null;
+		}
+
+		/*
+		Check if the lock is held by another instance.
+		*/
+		if (lockFileLock == null) {
+			/*
+			If so, close the lock file and report the failure.
+			*/
+			lockFileChannel.close();
+			lockFileChannel = null;
+			return false;
+		}
+
+		/*
+		Bind the server socket to an ephemeral loopback port.
+		*/
+		serverSocket = new ServerSocket(
+		    0,
+		    SERVER_SOCKET_BACKLOG,
+		    InetAddress.getLoopbackAddress()
+		);
+
+		/*
+		Generate a new token, and publish the endpoint. The endpoint
+		file is written under a temporary name and then moved into
+		place, so that other instances never read a partial endpoint.
+		*/
+		token = new BigInteger(
+		    TOKEN_BIT_COUNT,
+		    new SecureRandom()
+		).toString(TOKEN_RADIX);
+
+		Path temporaryEndpointFilePath = Files.createTempFile(
+		    LowBeamsLauncher.APPLICATION_DATA_DIRECTORY_PATH,
+		    "instance",
+		    ".endpoint"
+		);
+		Files.write(
+		    temporaryEndpointFilePath,
+		    Arrays.asList(
+		    Integer.toString(serverSocket.getLocalPort()),
+		    token
+		    ),
+		    StandardCharsets.UTF_8
+		);
+		Files.move(
+		    temporaryEndpointFilePath,
+		    ENDPOINT_FILE_PATH,
+		    StandardCopyOption.REPLACE_EXISTING,
+		    StandardCopyOption.ATOMIC_MOVE
+		);
+
+		return true;
+	}
+
+
+	/*
+		***************
+		*** FORWARD ***
+		***************
+	*/
+	/**
+	 * This method forwards a request to the running instance. It should
+	 * only be called after {@link #acquire()} has reported that another
+	 * instance is already running.
+	 *
+	 *
+	 * @param request	request to forward
+	 *
+	 * @return		true if the running instance acknowledged the
+	 *			request, or false if it could not be reached
+	 */
+	public boolean forward(InstanceRequest request) {
+		/*
+		Validate arguments.
+		*/
+		if (request == null) {
+			throw new NullPointerException(
+			    "request == null"
+			);
+		}
+
+		/*
+		Attempt to forward the request, retrying in case the running
+		instance has yet to publish its endpoint.
+		*/
+		for (int attempt = 0; attempt < FORWARD_ATTEMPT_COUNT; attempt++) {
+			try {
+				return forwardOnce(request);
+			} catch (IOException | RuntimeException exception) {
+				/*
+				Wait briefly before the next attempt.
+				*/
+				try {
+					Thread.sleep(
+					    FORWARD_RETRY_INTERVAL_MILLISECONDS
+					);
+				} catch (InterruptedException interruptedException) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/*
+			--------
+			| ONCE |
+			--------
+	*/
+	/**
+	 * @throws IOException		Failed to read the endpoint, or to
+	 *				communicate with the running
+	 *				instance.
+	 */
+	private boolean forwardOnce(InstanceRequest request)
+	    throws
+	    IOException
+	{
+		/*
+		Read the published endpoint.
+		*/
+		List<String> endpointLines = Files.readAllLines(
+		    ENDPOINT_FILE_PATH,
+		    StandardCharsets.UTF_8
+		);
+		if (endpointLines.size() < 2) {
+			throw new IOException(
+			    "Incomplete endpoint file."
+			);
+		}
+		int port = Integer.parseInt(endpointLines.get(0).trim());
+		String endpointToken = endpointLines.get(1).trim();
+
+		/*
+		Connect to the running instance, send the request, and wait for
+		the acknowledgement.
+		*/
+		try (Socket socket = new Socket()) {
+			socket.connect(
+			    new InetSocketAddress(
+			    InetAddress.getLoopbackAddress(),
+			    port
+			    ),
+			    CONNECT_TIMEOUT_MILLISECONDS
+			);
+			socket.setSoTimeout(READ_TIMEOUT_MILLISECONDS);
+
+			Writer writer = new OutputStreamWriter(
+			    socket.getOutputStream(),
+			    StandardCharsets.UTF_8
+			);
+			writer.write(
+			    endpointToken + " " + request.getArgument() + "\n"
+			);
+			writer.flush();
+
+			BufferedReader reader = new BufferedReader(
+			    new InputStreamReader(
+			    socket.getInputStream(),
+			    StandardCharsets.UTF_8
+			));
+			return ACKNOWLEDGE_RESPONSE.equals(reader.readLine());
+		}
+	}
+
+
+	/*
+		**************
+		*** LISTEN ***
+		**************
+	*/
+	/**
+	 * This method starts a daemon thread which accepts forwarded requests
+	 * and passes them to the given handler. The handler is called from the
+	 * listening thread, so it must queue any work on the appropriate GUI
+	 * thread itself.
+	 *
+	 *
+	 * @param requestHandler	handler for forwarded requests
+	 *
+	 * @throws IllegalStateException	The instance lock has not
+	 *					been acquired.
+	 */
+	public void listen(Consumer<InstanceRequest> requestHandler) {
+		/*
+		Validate arguments.
+		*/
+		if (requestHandler == null) {
+			throw new NullPointerException(
+			    "requestHandler == null"
+			);
+		}
+
+		/*
+		Verify that the instance lock has been acquired.
+		*/
+		if (serverSocket == null) {
+			throw new IllegalStateException(
+			    "The instance lock has not been acquired."
+			);
+		}
+
+		/*
+		Start a daemon thread which accepts connections until the server
+		socket is closed.
+		*/
+		Thread listenerThread = new Thread(() -> {
+			while (!serverSocket.isClosed()) {
+				try (Socket socket = serverSocket.accept()) {
+					handleConnection(socket, requestHandler);
+				} catch (IOException exception) {
+					/*
+					Failed connections only affect the
+					instance which made them, so they are
+					simply dropped. Closing the server
+					socket ends the loop.
+					*/
+				}
+			}
+		}, LowBeams.APPLICATION_TITLE + " Instance Listener");
+		listenerThread.setDaemon(true);
+		listenerThread.start();
+	}
+
+	/*
+			--------------
+			| CONNECTION |
+			--------------
+	*/
+	/**
+	 * @throws IOException		Failed to communicate with the
+	 *				forwarding instance.
+	 */
+	private void handleConnection(
+	    Socket socket,
+	    Consumer<InstanceRequest> requestHandler
+	)
+	    throws
+	    IOException
+	{
+		socket.setSoTimeout(READ_TIMEOUT_MILLISECONDS);
+
+		/*
+		Read the request line, which consists of the token followed by
+		the request argument.
+		*/
+		BufferedReader reader = new BufferedReader(
+		    new InputStreamReader(
+		    socket.getInputStream(),
+		    StandardCharsets.UTF_8
+		));
+		String requestLine = reader.readLine();
+
+		/*
+		Parse the request, rejecting it unless the token matches and the
+		argument is known.
+		*/
+		InstanceRequest request = null;
+		if (requestLine != null) {
+			String[] requestFields = requestLine.trim().split(" ", 2);
+			if (
+			    requestFields.length == 2 &&
+			    token.equals(requestFields[0])
+			) {
+				try {
+					request = InstanceRequest.fromArgument(
+					    requestFields[1]
+					);
+				} catch (IllegalArgumentException exception) {
+					request = null;
+				}
+			}
+		}
+
+		/*
+		Respond to the forwarding instance before handling the request,
+		so that it can exit as soon as possible.
+		*/
+		Writer writer = new OutputStreamWriter(
+		    socket.getOutputStream(),
+		    StandardCharsets.UTF_8
+		);
+		writer.write(
+		    (request == null ? REJECT_RESPONSE : ACKNOWLEDGE_RESPONSE) +
+		    "\n"
+		);
+		writer.flush();
+
+		if (request != null) {
+			requestHandler.accept(request);
+		}
+	}
+
+
+	/*
+		***************
+		*** RELEASE ***
+		***************
+	*/
+	/**
+	 * This method stops listening for requests, withdraws the published
+	 * endpoint, and releases the instance lock. It is safe to call multiple
+	 * times, and from any thread.
+	 */
+	public synchronized void release() {
+		/*
+		Close the server socket, which also ends the listening thread.
+		*/
+		if (serverSocket != null) {
+			try {
+				serverSocket.close();
+			} catch (IOException exception) {
+				/*
+				The socket is being discarded regardless.
+				*/
+			}
+		}
+
+		/*
+		Withdraw the endpoint and release the lock, in that order, so
+		that the endpoint never outlives the lock.
+		*/
+		if (lockFileLock != null) {
+			try {
+				Files.deleteIfExists(ENDPOINT_FILE_PATH);
+				lockFileLock.release();
+				lockFileChannel.close();
+			} catch (IOException exception) {
+				/*
+				The operating system releases the lock once
+				the process exits regardless.
+				*/
+			}
+
+			lockFileLock = null;
+			lockFileChannel = null;
+		}
+	}
+}
\ No newline at end of file
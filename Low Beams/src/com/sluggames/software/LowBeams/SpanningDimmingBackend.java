@@ -0,0 +1,520 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import com.sluggames.software.LowBeams.platform.WindowScale;
+import java.awt.MouseInfo;
+import java.awt.PointerInfo;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.Screen;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import javafx.stage.WindowEvent;
+
+/**
+ * This class dims the target screens of all overlay view managers using it
+ * through a single transparent stage spanning the union of all screen bounds.
+ * Each overlay paints its own region of the spanning stage, covering its target
+ * screen except for the cursor window, and a single tracking loop moves the
+ * cursor window in every region at once. This avoids carrying one stage, scene
+ * and render target per screen, and the lag of handing the cursor window off
+ * between overlays whose tracking is out of phase as the cursor crosses screen
+ * edges.
+ *
+ * The spanning stage doesn't receive mouse events outside the dimmed regions,
+ * so the cursor is polled through AWT instead, at the highest cursor window
+ * tracking frequency of the overlays using it. As a single stage only has a
+ * single render scale, screens with differing output scales are rendered at
+ * the scale the platform picks for the stage.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.27.0
+ */
+public class SpanningDimmingBackend implements DimmingBackend {
+	/*
+		****************
+		*** INSTANCE ***
+		****************
+
+	There is only ever a single spanning stage, so a single instance is
+	shared by all overlay view managers.
+	*/
+	public static final SpanningDimmingBackend INSTANCE =
+	    new SpanningDimmingBackend();
+
+
+	/*
+		*****************
+		*** SUPPORTED ***
+		*****************
+	*/
+	@Override
+	public boolean isSupported(OverlayViewManager overlayViewManager) {
+		return overlayViewManager.targetScreenProperty().get() != null;
+	}
+
+
+	/*
+		*************
+		*** STAGE ***
+		*************
+
+	The stage and its scene are created the first time any overlay is
+	dimmed, and kept while every overlay is undimmed.
+	*/
+	private Stage stage;
+	private Pane root;
+
+	private void initializeStage() {
+		root = new Pane();
+		root.setMouseTransparent(true);
+
+		Scene scene = new Scene(root);
+		scene.setFill(Color.TRANSPARENT);
+
+		stage = new Stage(StageStyle.TRANSPARENT);
+		stage.setOnCloseRequest((
+		    WindowEvent windowEvent
+		) -> {
+			windowEvent.consume();
+		});
+		stage.setTitle(LowBeams.APPLICATION_TITLE);
+		stage.getIcons().add(LowBeams.APPLICATION_LOGO_ICON_IMAGE);
+		stage.setAlwaysOnTop(true);
+		stage.setFullScreenExitHint("");
+		stage.setFullScreenExitKeyCombination(
+		    KeyCombination.NO_MATCH
+		);
+		stage.setScene(scene);
+	}
+
+	/*
+			----------
+			| BOUNDS |
+			----------
+
+	The stage is fit to the union of all screen bounds, which is recomputed
+	on every tracking tick, as screens may be added, removed or rearranged
+	at any time.
+	*/
+	private double minX;
+	private double minY;
+
+	private void fitStage() {
+		double unionMinX = Double.POSITIVE_INFINITY;
+		double unionMinY = Double.POSITIVE_INFINITY;
+		double unionMaxX = Double.NEGATIVE_INFINITY;
+		double unionMaxY = Double.NEGATIVE_INFINITY;
+
+		List<Screen> screens = Screen.getScreens();
+		for (int index = 0; index < screens.size(); index++) {
+			Rectangle2D bounds = screens.get(index).getBounds();
+			unionMinX = Math.min(unionMinX, bounds.getMinX());
+			unionMinY = Math.min(unionMinY, bounds.getMinY());
+			unionMaxX = Math.max(unionMaxX, bounds.getMaxX());
+			unionMaxY = Math.max(unionMaxY, bounds.getMaxY());
+		}
+		if (screens.isEmpty()) {
+			return;
+		}
+
+		minX = unionMinX;
+		minY = unionMinY;
+
+		/*
+		Only move or resize the native window if necessary.
+		*/
+		if (stage.getX() != unionMinX) {
+			stage.setX(unionMinX);
+		}
+		if (stage.getY() != unionMinY) {
+			stage.setY(unionMinY);
+		}
+		if (stage.getWidth() != unionMaxX - unionMinX) {
+			stage.setWidth(unionMaxX - unionMinX);
+		}
+		if (stage.getHeight() != unionMaxY - unionMinY) {
+			stage.setHeight(unionMaxY - unionMinY);
+		}
+	}
+
+
+	/*
+		***************
+		*** REGIONS ***
+		***************
+
+	Each overlay view manager has its own region, consisting of four strips
+	surrounding the cursor window within its target screen, which is created
+	the first time it is dimmed, hidden while it is undimmed, and removed
+	when it is released.
+	*/
+	private final List<Region> regions = new ArrayList<>();
+
+	private static final class Region {
+		/*
+			.............
+			... OWNER ...
+			.............
+		*/
+		private final OverlayViewManager overlayViewManager;
+
+		/*
+			..............
+			... STRIPS ...
+			..............
+		*/
+		private final Group group = new Group();
+		private final Rectangle[] rectangles =
+		    new Rectangle[CursorWindowGeometry.STRIP_COUNT];
+		private final double[] strips =
+		    CursorWindowGeometry.newStripArray();
+
+		private Region(OverlayViewManager overlayViewManager) {
+			this.overlayViewManager = overlayViewManager;
+			for (int strip = 0; strip < rectangles.length; strip++) {
+				rectangles[strip] = new Rectangle();
+				group.getChildren().add(rectangles[strip]);
+			}
+		}
+
+		/*
+			..............
+			... DIMMED ...
+			..............
+		*/
+		private boolean dimmed = false;
+
+		/*
+			.............
+			... COLOR ...
+			.............
+		*/
+		private Color color;
+
+		private void setColor(Color newColor) {
+			if (newColor.equals(color)) {
+				return;
+			}
+			color = newColor;
+
+			for (Rectangle rectangle : rectangles) {
+				rectangle.setFill(color);
+			}
+		}
+
+		/*
+			.............
+			... TRACK ...
+			.............
+		*/
+		private void track(
+		    double stageMinX,
+		    double stageMinY,
+		    double cursorX,
+		    double cursorY
+		) {
+			Rectangle2D bounds =
+			    overlayViewManager.targetScreenProperty().get().getBounds();
+			CursorWindowGeometry.computeStrips(
+			    bounds.getMinX() - stageMinX,
+			    bounds.getMinY() - stageMinY,
+			    bounds.getWidth(),
+			    bounds.getHeight(),
+			    cursorX - stageMinX,
+			    cursorY - stageMinY,
+			    overlayViewManager.cursorWindowWidthProperty().get(),
+			    overlayViewManager.cursorWindowHeightProperty().get(),
+			    1,
+			    strips
+			);
+			for (int strip = 0; strip < rectangles.length; strip++) {
+				fit(rectangles[strip], strip);
+			}
+		}
+
+		private void fit(Rectangle rectangle, int strip) {
+			double x = CursorWindowGeometry.get(
+			    strips, strip, CursorWindowGeometry.MIN_X
+			);
+			double y = CursorWindowGeometry.get(
+			    strips, strip, CursorWindowGeometry.MIN_Y
+			);
+			double width = Math.max(0, CursorWindowGeometry.get(
+			    strips, strip, CursorWindowGeometry.WIDTH
+			));
+			double height = Math.max(0, CursorWindowGeometry.get(
+			    strips, strip, CursorWindowGeometry.HEIGHT
+			));
+
+			/*
+			Only change the rectangle if necessary, so that
+			unchanged strips don't cause any repaint.
+			*/
+			if (rectangle.getX() != x) {
+				rectangle.setX(x);
+			}
+			if (rectangle.getY() != y) {
+				rectangle.setY(y);
+			}
+			if (rectangle.getWidth() != width) {
+				rectangle.setWidth(width);
+			}
+			if (rectangle.getHeight() != height) {
+				rectangle.setHeight(height);
+			}
+		}
+	}
+
+	private Region getRegion(OverlayViewManager overlayViewManager) {
+		for (int index = 0; index < regions.size(); index++) {
+			Region region = regions.get(index);
+			if (region.overlayViewManager == overlayViewManager) {
+				return region;
+			}
+		}
+
+		return null;
+	}
+
+
+	/*
+		****************
+		*** TRACKING ***
+		****************
+
+	A single tracking loop serves every region, so the cursor window moves
+	in all of them during the same pulse.
+	*/
+	private final AnimationTimer trackingTimer = new AnimationTimer() {
+		private long previousPulseTime = 0;
+		private long accumulatedTime = 0;
+
+		@Override
+		public void handle(long currentPulseTime) {
+			/*
+			Accumulate the time elapsed since the previous pulse,
+			and only track the cursor once per tracking time step of
+			the fastest region.
+			*/
+			if (previousPulseTime != 0) {
+				accumulatedTime += currentPulseTime - previousPulseTime;
+			}
+			previousPulseTime = currentPulseTime;
+
+			double trackingFrequency = 0;
+			for (int index = 0; index < regions.size(); index++) {
+				Region region = regions.get(index);
+				if (region.dimmed) {
+					trackingFrequency = Math.max(
+					    trackingFrequency,
+					    Math.min(
+					    region.overlayViewManager.cursorWindowTrackingFrequencyProperty().get(),
+					    region.overlayViewManager.getProfile().getMaximumCursorWindowTrackingFrequency()
+					));
+				}
+			}
+			if (trackingFrequency <= 0) {
+				return;
+			}
+
+			long trackingTimeStep =
+			    (long) (1_000_000_000L / trackingFrequency);
+			if (accumulatedTime < trackingTimeStep) {
+				return;
+			}
+			accumulatedTime %= trackingTimeStep;
+
+			track();
+		}
+
+		@Override
+		public void stop() {
+			super.stop();
+			previousPulseTime = 0;
+			accumulatedTime = 0;
+		}
+	};
+
+	private boolean tracking = false;
+
+	private final double[] cursorPosition =
+	    new double[WindowScale.COORDINATE_COUNT];
+
+	/*
+			---------
+			| TRACK |
+			---------
+	*/
+	private void track() {
+		/*
+		Poll the cursor position, which is in device pixels, and convert
+		it to the scene coordinates of the screen bounds.
+		*/
+		PointerInfo pointerInfo = MouseInfo.getPointerInfo();
+		if (pointerInfo == null) {
+			return;
+		}
+		WindowScale.toSceneCoordinates(
+		    pointerInfo.getLocation().getX(),
+		    pointerInfo.getLocation().getY(),
+		    cursorPosition
+		);
+
+		fitStage();
+
+		for (int index = 0; index < regions.size(); index++) {
+			Region region = regions.get(index);
+			if (region.dimmed) {
+				region.track(
+				    minX,
+				    minY,
+				    cursorPosition[WindowScale.X],
+				    cursorPosition[WindowScale.Y]
+				);
+			}
+		}
+	}
+
+
+	/*
+		***********
+		*** DIM ***
+		***********
+	*/
+	@Override
+	public void dim(OverlayViewManager overlayViewManager) {
+		if (stage == null) {
+			initializeStage();
+		}
+
+		Region region = getRegion(overlayViewManager);
+		if (region == null) {
+			region = new Region(overlayViewManager);
+			regions.add(region);
+			root.getChildren().add(region.group);
+		}
+		region.setColor(overlayViewManager.colorProperty().get());
+
+		/*
+		Show the region, and track the cursor immediately, so that it
+		never appears without a cursor window.
+		*/
+		if (!region.dimmed) {
+			region.dimmed = true;
+			region.group.setVisible(true);
+			track();
+		}
+
+		if (!tracking) {
+			tracking = true;
+			fitStage();
+			trackingTimer.start();
+		}
+
+		/*
+		Move the stage to the front whenever the z-order check is due,
+		in case the request to always be in front is not honored by the
+		OS due to platform restrictions or insufficient permissions.
+		*/
+		stage.show();
+		if (overlayViewManager.isZOrderCheckDue()) {
+			stage.toFront();
+		}
+	}
+
+	/*
+			---------
+			| UNDIM |
+			---------
+	*/
+	@Override
+	public void undim(OverlayViewManager overlayViewManager) {
+		Region region = getRegion(overlayViewManager);
+		if (region == null || !region.dimmed) {
+			return;
+		}
+		region.dimmed = false;
+		region.group.setVisible(false);
+
+		/*
+		Hide the stage and stop tracking once no region is dimmed.
+		*/
+		for (int index = 0; index < regions.size(); index++) {
+			if (regions.get(index).dimmed) {
+				return;
+			}
+		}
+		tracking = false;
+		trackingTimer.stop();
+		stage.hide();
+	}
+
+	/*
+			-----------
+			| RELEASE |
+			-----------
+	*/
+	@Override
+	public void release(OverlayViewManager overlayViewManager) {
+		undim(overlayViewManager);
+
+		Region region = getRegion(overlayViewManager);
+		if (region != null) {
+			regions.remove(region);
+			root.getChildren().remove(region.group);
+		}
+	}
+
+
+	/*
+		*****************
+		*** TO STRING ***
+		*****************
+	*/
+	@Override
+	public String toString() {
+		return "Spanning";
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+	*/
+	private SpanningDimmingBackend() {}
+}
@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import java.util.List;
+import javafx.geometry.Rectangle2D;
+import javafx.stage.Screen;
+import javafx.stage.Stage;
+
+/**
+ * This class parks stages which are not needed for the moment. Hiding a stage
+ * destroys its native window, and showing it again creates a new one, which
+ * takes several frames and churns native resources when stages are toggled
+ * frequently. Instead, a parked stage is moved beyond the left edge of every
+ * screen while it stays showing, so that using it again only takes a move.
+ * Platforms which constrain windows to the visible screens, such as macOS,
+ * don't support parking, so stages are hidden there instead.
+ *
+ * Window managers may also move a parked stage back onto a screen, either
+ * at once or later, in which case it would cover part of the screen. Parked
+ * stages should therefore be checked to still be off screen, and be hidden
+ * otherwise.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.38.0
+ */
+public class StageParking {
+	/*
+		*****************
+		*** SUPPORTED ***
+		*****************
+	*/
+	private static final boolean SUPPORTED =
+	    !System.getProperty("os.name", "").startsWith("Mac");
+
+	/**
+	 * @return	true if stages can be parked on this platform
+	 */
+	public static boolean isSupported() {
+		return SUPPORTED;
+	}
+
+
+	/*
+		************
+		*** PARK ***
+		************
+	*/
+	private static final double MARGIN = 1;
+
+	/**
+	 * This method moves a showing stage beyond the left edge of every
+	 * screen. It must be called from the JavaFX application thread, and
+	 * only if parking is {@link #isSupported() supported}.
+	 *
+	 *
+	 * @param stage		stage to park
+	 *
+	 * @return		true if the stage landed off screen, or false if
+	 *			it should be hidden instead
+	 */
+	public static boolean park(Stage stage) {
+		/*
+		Validate arguments.
+		*/
+		if (stage == null) {
+			throw new NullPointerException(
+			    "stage == null"
+			);
+		}
+
+		/*
+		Move the stage beyond the left edge of every screen.
+		*/
+		double minX = 0;
+		double minY = 0;
+		List<Screen> screens = Screen.getScreens();
+		for (int index = 0; index < screens.size(); index++) {
+			Rectangle2D bounds = screens.get(index).getBounds();
+			minX = Math.min(minX, bounds.getMinX());
+			minY = Math.min(minY, bounds.getMinY());
+		}
+		stage.setX(minX - stage.getWidth() - MARGIN);
+		stage.setY(minY);
+
+		return isOffScreen(stage);
+	}
+
+	/*
+			---------
+			| CHECK |
+			---------
+	*/
+	/**
+	 * @param stage		parked stage
+	 *
+	 * @return		true if the stage doesn't overlap any screen
+	 */
+	public static boolean isOffScreen(Stage stage) {
+		List<Screen> screens = Screen.getScreens();
+		for (int index = 0; index < screens.size(); index++) {
+			if (screens.get(index).getBounds().intersects(
+			    stage.getX(),
+			    stage.getY(),
+			    stage.getWidth(),
+			    stage.getHeight()
+			)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private StageParking() {}
+}
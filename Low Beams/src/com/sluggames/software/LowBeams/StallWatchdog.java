@@ -0,0 +1,473 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import javafx.application.Platform;
+
+/**
+ * This class watches for stalls of the JavaFX application thread, during which
+ * the cursor window stops following the cursor, and the user can't click
+ * anything in the dimmed area. The overlay view managers publish a heartbeat
+ * on every JavaFX pulse, and a low priority daemon thread checks that the
+ * heartbeats keep coming while any overlay view manager is active.
+ *
+ * Once the heartbeats have stopped for the configured timeout, the stack
+ * traces of the JavaFX application thread and of the AWT event dispatch
+ * threads are written to a rotating stall file, along with the counters of
+ * every overlay. Optionally, all of the overlays are then disabled, and if the
+ * JavaFX application thread doesn't recover within another timeout, the
+ * application exits, as only the process which owns the overlay windows can
+ * remove them.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.33.0
+ */
+public class StallWatchdog {
+	/*
+		***************
+		*** TIMEOUT ***
+		***************
+	*/
+	public static final String TIMEOUT_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.stallWatchdogTimeout";
+
+	public static final long DEFAULT_TIMEOUT_SECONDS = 5;
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	configured timeout in seconds, where zero or less
+	 *		disables the watchdog
+	 */
+	public static long getConfiguredTimeoutSeconds() {
+		return Long.getLong(
+		    TIMEOUT_PROPERTY_NAME,
+		    DEFAULT_TIMEOUT_SECONDS
+		);
+	}
+
+	/*
+			------------------
+			| CHECK INTERVAL |
+			------------------
+
+	The heartbeats are checked several times per timeout, so that stalls are
+	reported soon after they reach the timeout.
+	*/
+	private static final int CHECKS_PER_TIMEOUT = 4;
+
+
+	/*
+		******************
+		*** STALL FILE ***
+		******************
+	*/
+	public static final String FILE_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.stallWatchdogFile";
+
+	public static final Path DEFAULT_FILE_PATH =
+	    LowBeamsLauncher.APPLICATION_DATA_DIRECTORY_PATH.resolve("stalls.log");
+
+	/*
+			------------
+			| ROTATION |
+			------------
+
+	The stall file is rotated once it reaches its maximum size, keeping a
+	few of the previous files, so that a recurring stall can't fill the
+	disk.
+	*/
+	private static final long MAXIMUM_FILE_BYTES = 1024 * 1024;
+	private static final int ROTATED_FILE_COUNT = 3;
+
+
+	/*
+		************************
+		*** DISABLE OVERLAYS ***
+		************************
+	*/
+	public static final String DISABLE_OVERLAYS_PROPERTY_NAME =
+	    "com.sluggames.software.LowBeams.stallWatchdogDisableOverlays";
+
+
+	/*
+		******************
+		*** HEARTBEATS ***
+		******************
+	*/
+	private static volatile long latestHeartbeatTime = System.nanoTime();
+
+	private static final AtomicInteger HEARTBEAT_SOURCE_COUNT =
+	    new AtomicInteger();
+
+	/*
+			-------------
+			| HEARTBEAT |
+			-------------
+	*/
+	/**
+	 * This method publishes a heartbeat, and must be called on every pulse
+	 * by each heartbeat source.
+	 */
+	static void heartbeat() {
+		latestHeartbeatTime = System.nanoTime();
+	}
+
+	/*
+			-----------
+			| SOURCES |
+			-----------
+
+	Heartbeats are only expected while there is at least one heartbeat
+	source, as the JavaFX platform doesn't pulse while there is nothing to
+	animate. Adding a source counts as a heartbeat, so that a source which
+	is added after a long pause isn't taken for a stall.
+	*/
+	static void addHeartbeatSource() {
+		heartbeat();
+		HEARTBEAT_SOURCE_COUNT.incrementAndGet();
+	}
+
+	static void removeHeartbeatSource() {
+		HEARTBEAT_SOURCE_COUNT.decrementAndGet();
+	}
+
+
+	/*
+		****************
+		*** REGISTRY ***
+		****************
+
+	The registry is read from the watchdog thread, while the JavaFX
+	application thread may be stalled half way through changing it.
+	*/
+	private static final List<OverlayViewManager> OVERLAY_VIEW_MANAGERS =
+	    new CopyOnWriteArrayList<>();
+
+	/*
+			------------
+			| REGISTER |
+			------------
+	*/
+	static void register(OverlayViewManager overlayViewManager) {
+		OVERLAY_VIEW_MANAGERS.add(overlayViewManager);
+	}
+
+	/*
+			--------------
+			| UNREGISTER |
+			--------------
+	*/
+	static void unregister(OverlayViewManager overlayViewManager) {
+		OVERLAY_VIEW_MANAGERS.remove(overlayViewManager);
+	}
+
+
+	/*
+		*************
+		*** START ***
+		*************
+	*/
+	private static final String THREAD_NAME =
+	    LowBeams.APPLICATION_TITLE + " Stall Watchdog";
+
+	/**
+	 * This method starts watching for stalls on a low priority daemon
+	 * thread, using the configured timeout.
+	 */
+	public static void start() {
+		long timeoutNanoseconds = TimeUnit.SECONDS.toNanos(
+		    getConfiguredTimeoutSeconds()
+		);
+		if (timeoutNanoseconds <= 0) {
+			throw new IllegalStateException(
+			    "The stall watchdog is disabled."
+			);
+		}
+
+		ScheduledExecutorService executor =
+		    Executors.newSingleThreadScheduledExecutor((
+		    Runnable runnable
+		) -> {
+			Thread thread = new Thread(runnable, THREAD_NAME);
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+
+		long checkInterval = timeoutNanoseconds / CHECKS_PER_TIMEOUT;
+		executor.scheduleWithFixedDelay(
+		    () -> check(timeoutNanoseconds),
+		    checkInterval,
+		    checkInterval,
+		    TimeUnit.NANOSECONDS
+		);
+	}
+
+
+	/*
+		*************
+		*** CHECK ***
+		*************
+
+	These fields are only accessed from the watchdog thread.
+	*/
+	private static long reportedHeartbeatTime = 0;
+	private static boolean overlaysDisabled = false;
+
+	private static void check(long timeoutNanoseconds) {
+		long heartbeatTime = latestHeartbeatTime;
+		long stallDuration = System.nanoTime() - heartbeatTime;
+		if (
+		    HEARTBEAT_SOURCE_COUNT.get() <= 0 ||
+		    stallDuration < timeoutNanoseconds
+		) {
+			return;
+		}
+
+		/*
+		Report each stall once.
+		*/
+		if (heartbeatTime != reportedHeartbeatTime) {
+			reportedHeartbeatTime = heartbeatTime;
+			report(stallDuration);
+
+			if (Boolean.getBoolean(DISABLE_OVERLAYS_PROPERTY_NAME)) {
+				disableOverlays();
+			}
+			return;
+		}
+
+		/*
+		Exit if the overlays couldn't be disabled in time, as they will
+		otherwise stay over the desktop for as long as the stall lasts.
+		*/
+		if (
+		    overlaysDisabled &&
+		    stallDuration >= 2 * timeoutNanoseconds
+		) {
+			ApplicationLog.log(
+			    Level.SEVERE,
+			    StallWatchdog.class,
+			    "The JavaFX application thread hasn't recovered from" +
+			    " a stall, so the application is exiting."
+			);
+			System.exit(1);
+		}
+	}
+
+	/*
+			--------------------
+			| DISABLE OVERLAYS |
+			--------------------
+
+	The overlays can only be disabled on the JavaFX application thread, so
+	this only takes effect once it recovers.
+	*/
+	private static void disableOverlays() {
+		overlaysDisabled = true;
+		Platform.runLater(() -> {
+			for (OverlayViewManager overlayViewManager : OVERLAY_VIEW_MANAGERS) {
+				overlayViewManager.enabledProperty().set(false);
+			}
+		});
+	}
+
+
+	/*
+		**************
+		*** REPORT ***
+		**************
+	*/
+	private static final String APPLICATION_THREAD_NAME =
+	    "JavaFX Application Thread";
+	private static final String EVENT_DISPATCH_THREAD_NAME_PREFIX =
+	    "AWT-EventQueue";
+
+	private static void report(long stallDuration) {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format(
+		    Locale.ROOT,
+		    "%tF %<tT: no JavaFX pulse for %d ms%n",
+		    new Date(),
+		    TimeUnit.NANOSECONDS.toMillis(stallDuration)
+		));
+
+		/*
+		Append the stack traces of the GUI threads.
+		*/
+		for (Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces().entrySet()) {
+			Thread thread = entry.getKey();
+			if (
+			    !thread.getName().equals(APPLICATION_THREAD_NAME) &&
+			    !thread.getName().startsWith(
+			    EVENT_DISPATCH_THREAD_NAME_PREFIX
+			    )
+			) {
+				continue;
+			}
+
+			report.append(String.format(
+			    "%n\"%s\" %s%n",
+			    thread.getName(),
+			    thread.getState()
+			));
+			for (StackTraceElement stackTraceElement : entry.getValue()) {
+				report.append("\tat ").append(
+				    stackTraceElement
+				).append(System.lineSeparator());
+			}
+		}
+
+		/*
+		Append the counters of each overlay. They are read while the
+		JavaFX application thread is stalled, so they are consistent
+		enough for diagnostics.
+		*/
+		report.append(System.lineSeparator());
+		for (int index = 0; index < OVERLAY_VIEW_MANAGERS.size(); index++) {
+			OverlayViewManager overlayViewManager =
+			    OVERLAY_VIEW_MANAGERS.get(index);
+			report.append(String.format(
+			    Locale.ROOT,
+			    "Overlay %d: enabled %b, effective tracking frequency" +
+			    " %.1f Hz, updates %d, skip rate %.2f, latency" +
+			    " p50 %d us, p99 %d us, max %d us%n",
+			    index,
+			    overlayViewManager.enabledProperty().get(),
+			    overlayViewManager.effectiveCursorWindowTrackingFrequencyProperty().get(),
+			    overlayViewManager.getDamageUpdateCount(),
+			    overlayViewManager.getTrackingTickSkipRate(),
+			    TimeUnit.NANOSECONDS.toMicros(
+			    overlayViewManager.getCursorLatencyPercentile(50)
+			    ),
+			    TimeUnit.NANOSECONDS.toMicros(
+			    overlayViewManager.getCursorLatencyPercentile(99)
+			    ),
+			    TimeUnit.NANOSECONDS.toMicros(
+			    overlayViewManager.getMaximumCursorLatency()
+			    )
+			));
+		}
+		report.append(System.lineSeparator());
+
+		Path filePath = getFilePath();
+		try {
+			write(filePath, report.toString());
+		} catch (IOException exception) {
+			ApplicationLog.log(
+			    Level.WARNING,
+			    StallWatchdog.class,
+			    "Failed to write the stall file " + filePath + ".",
+			    exception
+			);
+		}
+
+		ApplicationLog.log(
+		    Level.WARNING,
+		    StallWatchdog.class,
+		    String.format(
+		    Locale.ROOT,
+		    "The JavaFX application thread has stalled for %d ms." +
+		    " Stack traces were written to %s.",
+		    TimeUnit.NANOSECONDS.toMillis(stallDuration),
+		    filePath
+		));
+	}
+
+	/*
+			---------
+			| WRITE |
+			---------
+	*/
+	private static Path getFilePath() {
+		String filePathName = System.getProperty(FILE_PROPERTY_NAME);
+		if (filePathName == null) {
+			return DEFAULT_FILE_PATH;
+		}
+
+		return LowBeamsLauncher.APPLICATION_DATA_DIRECTORY_PATH.resolve(
+		    filePathName
+		);
+	}
+
+	private static void write(
+	    Path filePath,
+	    String report
+	) throws IOException {
+		Files.createDirectories(filePath.toAbsolutePath().getParent());
+
+		/*
+		Rotate the file first if it is full.
+		*/
+		if (
+		    Files.exists(filePath) &&
+		    Files.size(filePath) >= MAXIMUM_FILE_BYTES
+		) {
+			RotatingFile.rotate(filePath, ROTATED_FILE_COUNT);
+		}
+
+		try (Writer writer = Files.newBufferedWriter(
+		    filePath,
+		    StandardCharsets.UTF_8,
+		    StandardOpenOption.CREATE,
+		    StandardOpenOption.APPEND
+		)) {
+			writer.write(report);
+		}
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private StallWatchdog() {}
+}
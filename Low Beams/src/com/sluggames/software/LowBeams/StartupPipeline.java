@@ -0,0 +1,358 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import javafx.application.Platform;
+
+/**
+ * This class runs the independent steps of application startup concurrently on
+ * a small pool of daemon threads, rather than one after another on the main
+ * thread and the JavaFX application thread. Only the final step of attaching
+ * prepared components to the scene graph, which JavaFX requires to happen on
+ * the JavaFX application thread, is queued there.
+ *
+ * Steps are submitted as {@link java.util.concurrent.Callable} instances, and
+ * their results are returned as
+ * {@link java.util.concurrent.CompletableFuture} instances, so that dependent
+ * steps can be chained on them. The duration of each step is recorded, and a
+ * summary is logged once every submitted step has completed.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.34.0
+ * @since 0.15.0
+ */
+public class StartupPipeline {
+	/*
+		***************
+		*** THREADS ***
+		***************
+
+	Startup consists of only a handful of steps, most of which are bound by
+	I/O or by a single GUI framework, so a few threads are enough to run
+	them all at once.
+	*/
+	public static final int THREAD_COUNT = 3;
+
+	private final AtomicInteger threadCount = new AtomicInteger();
+
+	private final ExecutorService executorService =
+	    Executors.newFixedThreadPool(THREAD_COUNT, (
+	    Runnable runnable
+	) -> {
+		Thread thread = new Thread(
+		    runnable,
+		    LowBeams.APPLICATION_TITLE + " Startup " +
+		    threadCount.incrementAndGet()
+		);
+		thread.setDaemon(true);
+		return thread;
+	});
+
+
+	/*
+		*************
+		*** STEPS ***
+		*************
+	*/
+	private final List<CompletableFuture<?>> stepFutures =
+	    Collections.synchronizedList(new ArrayList<>());
+
+	/*
+			-------------
+			| DURATIONS |
+			-------------
+	*/
+	private final Map<String, Long> stepDurations =
+	    Collections.synchronizedMap(new LinkedHashMap<>());
+
+	/*
+				\\\\\\\
+				\ GET \
+				\\\\\\\
+	*/
+	/**
+	 * @return	durations of the completed steps in nanoseconds, keyed by
+	 *		step name in order of completion
+	 */
+	public Map<String, Long> getStepDurations() {
+		synchronized (stepDurations) {
+			return new LinkedHashMap<>(stepDurations);
+		}
+	}
+
+	/*
+			-------
+			| RUN |
+			-------
+	*/
+	private <T> T runStep(String stepName, Callable<T> step) {
+		long stepStartTime = System.nanoTime();
+
+		try {
+			return step.call();
+		} catch (RuntimeException exception) {
+			throw exception;
+		} catch (Exception exception) {
+			/*
+			Wrap checked exceptions, so that they complete the step
+			future exceptionally.
+			*/
+			throw new CompletionException(exception);
+		} finally {
+			stepDurations.put(
+			    stepName,
+			    System.nanoTime() - stepStartTime
+			);
+		}
+	}
+
+
+	/*
+		**************
+		*** SUBMIT ***
+		**************
+	*/
+	/**
+	 * This method submits a step to be run on the pipeline's threads.
+	 *
+	 *
+	 * @param stepName	name identifying the step in the summary
+	 *
+	 * @param step		step to run
+	 *
+	 * @return		future result of the step
+	 */
+	public <T> CompletableFuture<T> submit(
+	    String stepName,
+	    Callable<T> step
+	) {
+		/*
+		Validate arguments.
+		*/
+		if (stepName == null) {
+			throw new NullPointerException(
+			    "stepName == null"
+			);
+		}
+		if (step == null) {
+			throw new NullPointerException(
+			    "step == null"
+			);
+		}
+
+		CompletableFuture<T> stepFuture = CompletableFuture.supplyAsync(
+		    () -> runStep(stepName, step),
+		    executorService
+		);
+		stepFutures.add(stepFuture);
+
+		return stepFuture;
+	}
+
+
+	/*
+			---------
+			| AFTER |
+			---------
+	*/
+	/**
+	 * This method submits a step to be run on the pipeline's threads once
+	 * another step has completed successfully. The step may obtain the
+	 * result of the other step by joining its future, which never blocks at
+	 * that point. If the other step failed, this step is skipped, and the
+	 * returned future completes exceptionally with the same cause.
+	 *
+	 *
+	 * @param stepName	name identifying the step in the summary
+	 *
+	 * @param dependency	future result of the step to wait for
+	 *
+	 * @param step		step to run
+	 *
+	 * @return		future result of the step
+	 */
+	public <T> CompletableFuture<T> submitAfter(
+	    String stepName,
+	    CompletableFuture<?> dependency,
+	    Callable<T> step
+	) {
+		/*
+		Validate arguments.
+		*/
+		if (stepName == null) {
+			throw new NullPointerException(
+			    "stepName == null"
+			);
+		}
+		if (dependency == null) {
+			throw new NullPointerException(
+			    "dependency == null"
+			);
+		}
+		if (step == null) {
+			throw new NullPointerException(
+			    "step == null"
+			);
+		}
+
+		CompletableFuture<T> stepFuture = dependency.thenApplyAsync(
+		    (Object ignoredDependencyResult) -> runStep(stepName, step),
+		    executorService
+		);
+		stepFutures.add(stepFuture);
+
+		return stepFuture;
+	}
+
+
+	/*
+		**************
+		*** ATTACH ***
+		**************
+	*/
+	/**
+	 * This method queues a step on the JavaFX application thread, which
+	 * consumes the result of a previous step once it has completed. It is
+	 * intended for attaching components which were prepared off the JavaFX
+	 * application thread. If the previous step failed, the attaching step is
+	 * skipped, and the returned future completes exceptionally with the
+	 * same cause.
+	 *
+	 *
+	 * @param stepName	name identifying the step in the summary
+	 *
+	 * @param preparation	future result of the preparing step
+	 *
+	 * @param step		step to run on the JavaFX application thread
+	 *
+	 * @return		future completion of the attaching step
+	 */
+	public <T> CompletableFuture<Void> attach(
+	    String stepName,
+	    CompletableFuture<T> preparation,
+	    Consumer<T> step
+	) {
+		/*
+		Validate arguments.
+		*/
+		if (stepName == null) {
+			throw new NullPointerException(
+			    "stepName == null"
+			);
+		}
+		if (preparation == null) {
+			throw new NullPointerException(
+			    "preparation == null"
+			);
+		}
+		if (step == null) {
+			throw new NullPointerException(
+			    "step == null"
+			);
+		}
+
+		CompletableFuture<Void> stepFuture = preparation.thenAcceptAsync(
+		    (T preparedValue) -> runStep(stepName, () -> {
+			step.accept(preparedValue);
+			return null;
+		    }),
+		    Platform::runLater
+		);
+		stepFutures.add(stepFuture);
+
+		return stepFuture;
+	}
+
+
+	/*
+		**************
+		*** FINISH ***
+		**************
+	*/
+	/**
+	 * This method should be called once every step has been submitted. It
+	 * releases the pipeline's threads and logs a summary of the step
+	 * durations as soon as all of the steps have completed, whether
+	 * successfully or not.
+	 *
+	 *
+	 * @return	future completion of all submitted steps
+	 */
+	public CompletableFuture<Void> finish() {
+		/*
+		Take a snapshot of the submitted steps.
+		*/
+		CompletableFuture<?>[] submittedStepFutures;
+		synchronized (stepFutures) {
+			submittedStepFutures = stepFutures.toArray(
+			    new CompletableFuture<?>[stepFutures.size()]
+			);
+		}
+
+		/*
+		Once all of the steps have completed, shut down the executor
+		service and log the summary. Failures are reported by the steps'
+		own handlers, so they are not repeated here.
+		*/
+		return CompletableFuture.allOf(submittedStepFutures).whenComplete((
+		    Void ignoredResult,
+		    Throwable ignoredThrowable
+		) -> {
+			executorService.shutdown();
+
+			StringBuilder summary = new StringBuilder(
+			    "Startup steps completed:"
+			);
+			for (Map.Entry<String, Long> stepDuration : getStepDurations().entrySet()) {
+				summary.append("\n\t").append(
+				    stepDuration.getKey()
+				).append(": ").append(
+				    TimeUnit.NANOSECONDS.toMillis(stepDuration.getValue())
+				).append(" ms");
+			}
+
+			ApplicationLog.log(
+			    Level.INFO,
+			    StartupPipeline.class,
+			    summary.toString()
+			);
+		});
+	}
+}
\ No newline at end of file
@@ -0,0 +1,386 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import com.sluggames.software.LowBeams.platform.WindowScale;
+import java.awt.MouseInfo;
+import java.awt.PointerInfo;
+import java.util.HashMap;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import javafx.stage.WindowEvent;
+
+/**
+ * This class dims the target screen of an overlay view manager with four
+ * borderless stages surrounding the cursor window, rather than one full-screen
+ * transparent stage. Each strip is painted with the opaque color, and the
+ * opacity of the color is applied through the stage opacity, so no full-screen
+ * surface with per-pixel alpha has to be composited, and tracking the cursor
+ * only moves and resizes native windows.
+ *
+ * The strips don't receive mouse events outside themselves, so the cursor is
+ * polled through AWT at the cursor window tracking frequency instead. Strips
+ * which are not needed, such as while the overlay is undimmed, are
+ * {@link StageParking parked} rather than hidden.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.20.0
+ */
+public class StripDimmingBackend implements DimmingBackend {
+	/*
+		****************
+		*** INSTANCE ***
+		****************
+	*/
+	public static final StripDimmingBackend INSTANCE =
+	    new StripDimmingBackend();
+
+
+	/*
+		*****************
+		*** SUPPORTED ***
+		*****************
+	*/
+	@Override
+	public boolean isSupported(OverlayViewManager overlayViewManager) {
+		return overlayViewManager.targetScreenProperty().get() != null;
+	}
+
+
+	/*
+		*****************
+		*** STRIP SET ***
+		*****************
+
+	Each overlay view manager has its own set of strip stages, which are
+	created the first time it is dimmed, parked while it is undimmed, and
+	closed when it is released.
+	*/
+	private final HashMap<OverlayViewManager, StripSet> stripSets =
+	    new HashMap<>();
+
+	private static final class StripSet {
+		/*
+			..............
+			... STAGES ...
+			..............
+		*/
+		private final Stage[] stages =
+		    new Stage[CursorWindowGeometry.STRIP_COUNT];
+		private final boolean[] parked =
+		    new boolean[CursorWindowGeometry.STRIP_COUNT];
+
+		private StripSet() {
+			for (int strip = 0; strip < stages.length; strip++) {
+				Stage stage = new Stage(StageStyle.UNDECORATED);
+				stage.setOnCloseRequest((
+				    WindowEvent windowEvent
+				) -> {
+					windowEvent.consume();
+				});
+				stage.setTitle(LowBeams.APPLICATION_TITLE);
+				stage.getIcons().add(
+				    LowBeams.APPLICATION_LOGO_ICON_IMAGE
+				);
+				stage.setAlwaysOnTop(true);
+				stage.setFullScreenExitHint("");
+				stage.setFullScreenExitKeyCombination(
+				    KeyCombination.NO_MATCH
+				);
+				stage.setScene(new Scene(new Pane()));
+				stages[strip] = stage;
+			}
+		}
+
+		/*
+			.............
+			... COLOR ...
+			.............
+		*/
+		private Color color;
+
+		private void setColor(Color newColor) {
+			if (newColor.equals(color)) {
+				return;
+			}
+			color = newColor;
+
+			Color opaqueColor = Color.color(
+			    color.getRed(),
+			    color.getGreen(),
+			    color.getBlue()
+			);
+			for (Stage stage : stages) {
+				stage.getScene().setFill(opaqueColor);
+				stage.setOpacity(color.getOpacity());
+			}
+		}
+
+		/*
+			................
+			... TRACKING ...
+			................
+		*/
+		private final double[] strips =
+		    CursorWindowGeometry.newStripArray();
+		private final double[] cursorPosition =
+		    new double[WindowScale.COORDINATE_COUNT];
+
+		private long previousPulseTime = 0;
+		private long accumulatedTime = 0;
+		private boolean tracked = false;
+
+		private void track(OverlayViewManager overlayViewManager) {
+			/*
+			Accumulate the time elapsed since the previous pulse,
+			and only track the cursor once per tracking time step.
+			*/
+			long currentPulseTime = System.nanoTime();
+			if (previousPulseTime != 0) {
+				accumulatedTime += currentPulseTime - previousPulseTime;
+			}
+			previousPulseTime = currentPulseTime;
+
+			long trackingTimeStep = (long) (
+			    1_000_000_000L /
+			    Math.min(
+			    overlayViewManager.cursorWindowTrackingFrequencyProperty().get(),
+			    overlayViewManager.getProfile().getMaximumCursorWindowTrackingFrequency()
+			));
+			if (tracked && accumulatedTime < trackingTimeStep) {
+				return;
+			}
+			accumulatedTime %= trackingTimeStep;
+			tracked = true;
+
+			/*
+			Poll the cursor position, which is in device pixels, and
+			convert it to the scene coordinates of the screen
+			bounds.
+			*/
+			PointerInfo pointerInfo = MouseInfo.getPointerInfo();
+			if (pointerInfo == null) {
+				return;
+			}
+			WindowScale.toSceneCoordinates(
+			    pointerInfo.getLocation().getX(),
+			    pointerInfo.getLocation().getY(),
+			    cursorPosition
+			);
+
+			/*
+			Compute the strips around the cursor window, and fit the
+			stages to them.
+			*/
+			Rectangle2D bounds =
+			    overlayViewManager.targetScreenProperty().get().getBounds();
+			CursorWindowGeometry.computeStrips(
+			    bounds.getMinX(),
+			    bounds.getMinY(),
+			    bounds.getWidth(),
+			    bounds.getHeight(),
+			    cursorPosition[WindowScale.X],
+			    cursorPosition[WindowScale.Y],
+			    overlayViewManager.cursorWindowWidthProperty().get(),
+			    overlayViewManager.cursorWindowHeightProperty().get(),
+			    1,
+			    strips
+			);
+			for (int strip = 0; strip < stages.length; strip++) {
+				fit(overlayViewManager, stages[strip], strip);
+			}
+		}
+
+		private void fit(
+		    OverlayViewManager overlayViewManager,
+		    Stage stage,
+		    int strip
+		) {
+			double width = CursorWindowGeometry.get(
+			    strips, strip, CursorWindowGeometry.WIDTH
+			);
+			double height = CursorWindowGeometry.get(
+			    strips, strip, CursorWindowGeometry.HEIGHT
+			);
+
+			/*
+			Park strips without any area, such as when the cursor
+			window touches an edge of the screen.
+			*/
+			if (width <= 0 || height <= 0) {
+				park(strip);
+				return;
+			}
+
+			/*
+			Only move or resize the native window if necessary.
+			*/
+			double minX = CursorWindowGeometry.get(
+			    strips, strip, CursorWindowGeometry.MIN_X
+			);
+			double minY = CursorWindowGeometry.get(
+			    strips, strip, CursorWindowGeometry.MIN_Y
+			);
+			if (stage.getX() != minX) {
+				stage.setX(minX);
+			}
+			if (stage.getY() != minY) {
+				stage.setY(minY);
+			}
+			if (stage.getWidth() != width) {
+				stage.setWidth(width);
+			}
+			if (stage.getHeight() != height) {
+				stage.setHeight(height);
+			}
+			parked[strip] = false;
+			stage.show();
+			if (overlayViewManager.isZOrderCheckDue()) {
+				stage.toFront();
+			}
+		}
+
+		/*
+			............
+			... PARK ...
+			............
+		*/
+		private void park() {
+			for (int strip = 0; strip < stages.length; strip++) {
+				park(strip);
+			}
+			previousPulseTime = 0;
+			tracked = false;
+		}
+
+		private void park(int strip) {
+			Stage stage = stages[strip];
+			if (!stage.isShowing()) {
+				return;
+			}
+
+			/*
+			Hide the strip if it didn't land off screen, or has been
+			moved back onto a screen since it was parked.
+			*/
+			if (parked[strip]) {
+				if (!StageParking.isOffScreen(stage)) {
+					parked[strip] = false;
+					stage.hide();
+				}
+				return;
+			}
+			if (
+			    !StageParking.isSupported() ||
+			    !StageParking.park(stage)
+			) {
+				stage.hide();
+				return;
+			}
+			parked[strip] = true;
+		}
+
+		/*
+			.............
+			... CLOSE ...
+			.............
+		*/
+		private void close() {
+			for (Stage stage : stages) {
+				stage.close();
+			}
+		}
+	}
+
+
+	/*
+		***********
+		*** DIM ***
+		***********
+	*/
+	@Override
+	public void dim(OverlayViewManager overlayViewManager) {
+		StripSet stripSet = stripSets.get(overlayViewManager);
+		if (stripSet == null) {
+			stripSet = new StripSet();
+			stripSets.put(overlayViewManager, stripSet);
+		}
+
+		stripSet.setColor(overlayViewManager.colorProperty().get());
+		stripSet.track(overlayViewManager);
+	}
+
+	/*
+			---------
+			| UNDIM |
+			---------
+	*/
+	@Override
+	public void undim(OverlayViewManager overlayViewManager) {
+		StripSet stripSet = stripSets.get(overlayViewManager);
+		if (stripSet != null) {
+			stripSet.park();
+		}
+	}
+
+	/*
+			-----------
+			| RELEASE |
+			-----------
+	*/
+	@Override
+	public void release(OverlayViewManager overlayViewManager) {
+		StripSet stripSet = stripSets.remove(overlayViewManager);
+		if (stripSet != null) {
+			stripSet.close();
+		}
+	}
+
+
+	/*
+		*****************
+		*** TO STRING ***
+		*****************
+	*/
+	@Override
+	public String toString() {
+		return "Strips";
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+	*/
+	private StripDimmingBackend() {}
+}
@@ -25,6 +25,7 @@ package com.sluggames.software.LowBeams;
 
 import static com.sluggames.software.LowBeams.LowBeams.APPLICATION_LOGO_ICON_URL;
 import java.awt.AWTException;
+import java.awt.Image;
 import java.awt.MenuItem;
 import java.awt.PopupMenu;
 import java.awt.SystemTray;
@@ -35,7 +36,6 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.io.IOException;
 import java.util.logging.Level;
-import java.util.logging.Logger;
 import javafx.application.Platform;
 import javax.imageio.ImageIO;
 import javax.swing.SwingUtilities;
@@ -83,7 +83,7 @@ import javax.swing.SwingUtilities;
  * @see javafx.application.Platform#runLater(java.lang.Runnable)
  * @see javax.swing.SwingUtilities#invokeLater(java.lang.Runnable)
  *
- * @version 0.12.0
+ * @version 0.38.0
  * @since 0.10.0
  */
 public class SystemTrayMenuManager {
@@ -97,7 +97,14 @@ public class SystemTrayMenuManager {
 			| SYSTEM TRAY ICON |
 			--------------------
 	*/
-	private TrayIcon systemTrayIcon;
+	/*
+	The system tray icon is created on the main Java application thread, and
+	read from the AWT event dispatch thread, so it is published through a
+	volatile field.
+	*/
+	private volatile TrayIcon systemTrayIcon;
+	private volatile String systemTrayIconToolTip =
+	    LowBeams.APPLICATION_TITLE;
 
 	/*
 				\\\\\\\\\\\\\\
@@ -106,22 +113,21 @@ public class SystemTrayMenuManager {
 	*/
 	/**
 	 * @throws AWTException		Failed to add icon to system tray.
-	 *
-	 * @throws IOException		Failed to read system tray icon image.
 	 */
-	private void initializeSystemTrayIcon()
+	private void initializeSystemTrayIcon(
+	    Image systemTrayIconImage
+	)
 	    throws
-	    AWTException,
-	    IOException
+	    AWTException
 	{
 		/*
 		Create a system tray icon displaying the application logo.
 		*/
 		systemTrayIcon = new TrayIcon(
-		    ImageIO.read(
-		    APPLICATION_LOGO_ICON_URL
-		));
+		    systemTrayIconImage
+		);
 		systemTrayIcon.setImageAutoSize(true);
+		systemTrayIcon.setToolTip(systemTrayIconToolTip);
 
 		/*
 		Add an action event listener to the system tray icon which
@@ -189,6 +195,66 @@ public class SystemTrayMenuManager {
 		SystemTray.getSystemTray().add(systemTrayIcon);
 	}
 
+	/*
+				\\\\\\\\\\\\\\\\\\\\\\
+				\ QUEUE SET TOOL TIP \
+				\\\\\\\\\\\\\\\\\\\\\\
+	*/
+	/**
+	 * This method is safe to call from any thread, including before the
+	 * system tray icon has been added, in which case the tool tip is set
+	 * as it is added.
+	 *
+	 *
+	 * @param toolTip	system tray icon tool tip
+	 */
+	void queueSetToolTip(String toolTip) {
+		/*
+		Validate arguments.
+		*/
+		if (toolTip == null) {
+			throw new NullPointerException(
+			    "toolTip == null"
+			);
+		}
+
+		/*
+		Queue the operations to be run asynchronously from the AWT event
+		dispatch thread.
+		*/
+		systemTrayIconToolTip = toolTip;
+		SwingUtilities.invokeLater(() -> {
+			if (systemTrayIcon != null) {
+				systemTrayIcon.setToolTip(systemTrayIconToolTip);
+			}
+		});
+	}
+
+	/*
+				\\\\\\\\\\\\\\
+				\ LOAD IMAGE \
+				\\\\\\\\\\\\\\
+	*/
+	/**
+	 * This method decodes the application logo for use as the system tray
+	 * icon image. It does not depend on the AWT framework having been
+	 * initialized, so it is safe to call from any thread, including startup
+	 * pipeline threads.
+	 *
+	 *
+	 * @return		decoded system tray icon image
+	 *
+	 * @throws IOException		Failed to read system tray icon image.
+	 */
+	public static Image loadSystemTrayIconImage()
+	    throws
+	    IOException
+	{
+		return ImageIO.read(
+		    APPLICATION_LOGO_ICON_URL
+		);
+	}
+
 	/*
 			--------------
 			| POPUP MENU |
@@ -233,63 +299,145 @@ public class SystemTrayMenuManager {
 	the JavaFX platform has started, and must be performed on the JavaFX
 	application thread. To satisfy these requirements, the preferences menu
 	item lazily queues construction with the JavaFX platform whenever the
-	user first selects the menu item. As a result, this field is not safe to
-	set from any other thread, including the AWT event dispatch thread.
+	user first selects the menu item, unless the startup pipeline has
+	already handed over a prepared one. As a result, this field is not safe
+	to set from any other thread, including the AWT event dispatch thread.
 	*/
 	private PreferencesViewManager preferencesViewManager;
 
+	/*
+						\\\\\\\\\\\\\\\\\\\\\\
+						\ ENSURE INITIALIZED \
+						\\\\\\\\\\\\\\\\\\\\\\
+	*/
+	/**
+	 * This method must be called from the JavaFX application thread.
+	 *
+	 *
+	 * @return	true if the preferences view manager is available, or
+	 *		false if it could not be created, in which case the
+	 *		application is already quitting
+	 */
+	private boolean ensurePreferencesViewManagerInitialized() {
+		/*
+		Check if the preferences view manager has yet to be
+		instantiated. This check does not require synchronization, as
+		queued operations are run sequentially on the JavaFX application
+		thread.
+		*/
+		if (preferencesViewManager == null) {
+			/*
+			If so, attempt to create the preferences view manager.
+			This is safe as long as no other thread attempts to set
+			the field asynchronously, as described above.
+			*/
+			try {
+				preferencesViewManager =
+					new PreferencesViewManager();
+			} catch (IOException exception) {
+				/*
+				Log the exception trace.
+				*/
+				ApplicationLog.log(
+				    Level.SEVERE,
+				    SystemTrayMenuManager.class,
+				    null,
+				    exception
+				);
+
+				/*
+				Exit the JavaFX platform, quit the AWT framework,
+				and return.
+				*/
+				Platform.exit();
+				quit();
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/*
+						\\\\\\\
+						\ SET \
+						\\\\\\\
+	*/
+	/**
+	 * This method hands over a preferences view manager which was prepared
+	 * in advance, such as by the startup pipeline. If the preferences view
+	 * manager has already been created on demand in the meantime, the
+	 * prepared one is discarded. It must be called from the JavaFX
+	 * application thread, as described above.
+	 *
+	 *
+	 * @param preparedPreferencesViewManager	prepared preferences
+	 *						view manager
+	 */
+	void setPreferencesViewManager(
+	    PreferencesViewManager preparedPreferencesViewManager
+	) {
+		/*
+		Validate arguments.
+		*/
+		if (preparedPreferencesViewManager == null) {
+			throw new NullPointerException(
+			    "preparedPreferencesViewManager == null"
+			);
+		}
+
+		if (preferencesViewManager == null) {
+			preferencesViewManager = preparedPreferencesViewManager;
+		}
+	}
+
 	/*
 						\\\\\\\\\\\\\\\\\
 						\ QUEUE DISPLAY \
 						\\\\\\\\\\\\\\\\\
 	*/
-	private void queueDisplayPreferencesView() {
+	/**
+	 * This method is safe to call from any thread.
+	 */
+	void queueDisplayPreferencesView() {
 		/*
 		Queue the operations to be run asynchronously from the JavaFX
 		thread.
 		*/
 		Platform.runLater(() -> {
 			/*
-			Check if the preferences view manager has yet to be
-			instantiated. This check does not require
-			synchronization, as queued operations are run
-			sequentially on the JavaFX application thread.
+			Display the preferences view, provided that the
+			preferences view manager is available.
 			*/
-			if (preferencesViewManager == null) {
-				/*
-				If so, attempt to create the preferences view
-				manager. This is safe as long as no other thread
-				attempts to set the field asynchronously, as
-				described above.
-				*/
-				try {
-					preferencesViewManager =
-						new PreferencesViewManager();
-				} catch (IOException exception) {
-					/*
-					Log the exception trace.
-					*/
-					Logger.getLogger(
-					    SystemTrayMenuManager.class.getName()).log(
-					    Level.SEVERE,
-					    null,
-					    exception
-					);
-
-					/*
-					Exit the JavaFX platform, quit the AWT
-					framework, and return.
-					*/
-					Platform.exit();
-					quit();
-					return;
-				}
+			if (ensurePreferencesViewManagerInitialized()) {
+				preferencesViewManager.display();
 			}
+		});
+	}
 
+	/*
+						\\\\\\\\\\\\\\\\\\\\\\\\\
+						\ QUEUE TOGGLE OVERLAYS \
+						\\\\\\\\\\\\\\\\\\\\\\\\\
+	*/
+	/**
+	 * This method is safe to call from any thread.
+	 */
+	void queueToggleOverlays() {
+		/*
+		Queue the operations to be run asynchronously from the JavaFX
+		thread.
+		*/
+		Platform.runLater(() -> {
 			/*
-			Display the preferences view.
+			Toggle the overlays, provided that the preferences view
+			manager is available. The overlays are owned by the
+			preferences view, so it is created without being
+			displayed if necessary.
 			*/
-			preferencesViewManager.display();
+			if (ensurePreferencesViewManagerInitialized()) {
+				preferencesViewManager.toggleOverlays();
+			}
 		});
 	}
 
@@ -367,9 +515,9 @@ public class SystemTrayMenuManager {
 					/*
 					Log the exception trace.
 					*/
-					Logger.getLogger(
-					    SystemTrayMenuManager.class.getName()).log(
+					ApplicationLog.log(
 					    Level.SEVERE,
+					    SystemTrayMenuManager.class,
 					    null,
 					    exception
 					);
@@ -479,12 +627,51 @@ public class SystemTrayMenuManager {
 	 *
 	 * @throws UnsupportedOperationException	The system tray is not
 	 *						supported.
+	 *
+	 * @see #initialize(java.awt.Image)
 	 */
 	public void initialize()
 	    throws
 	    AWTException,
 	    IOException
 	{
+		initialize(loadSystemTrayIconImage());
+	}
+
+	/**
+	 * This method performs the same initialization as {@link #initialize()},
+	 * using a system tray icon image which has already been decoded by
+	 * {@link #loadSystemTrayIconImage()}. This allows the startup pipeline to
+	 * decode the image concurrently with other startup steps, while the
+	 * system tray icon is still created on the main Java application
+	 * thread.
+	 *
+	 *
+	 * @param systemTrayIconImage	decoded system tray icon image
+	 *
+	 * @throws AWTException		Failed to add icon to system tray.
+	 *
+	 * @throws IllegalStateException	On AWT event dispatch thread or
+	 *					JavaFX application thread.
+	 *
+	 * @throws UnsupportedOperationException	The system tray is not
+	 *						supported.
+	 */
+	public void initialize(
+	    Image systemTrayIconImage
+	)
+	    throws
+	    AWTException
+	{
+		/*
+		Validate arguments.
+		*/
+		if (systemTrayIconImage == null) {
+			throw new NullPointerException(
+			    "systemTrayIconImage == null"
+			);
+		}
+
 		/*
 		Verify that the method is not being called from either the AWT
 		event dispatch thread or the JavaFX application thread.
@@ -515,7 +702,7 @@ public class SystemTrayMenuManager {
 		/*
 		Initialize components.
 		*/
-		initializeSystemTrayIcon();
+		initializeSystemTrayIcon(systemTrayIconImage);
 		initializePopupMenu();
 		initializePreferencesMenuItem();
 		initializeAboutMenuItem();
@@ -0,0 +1,601 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams;
+
+import com.sluggames.software.LowBeams.platform.X11;
+import com.sluggames.software.LowBeams.platform.XRandR;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import javafx.collections.ListChangeListener;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.paint.Color;
+import javafx.stage.Screen;
+
+/**
+ * This class dims the target screen of an overlay view manager by lowering the
+ * brightness of the matching X11 output through XRandR, which scales the gamma
+ * ramp of the output, and costs nothing per frame.
+ *
+ * Scaling the gamma ramp is only equivalent to an overlay for colors without
+ * any hue, so only black overlays are supported, and any other color falls
+ * back to the overlay window. Screens are matched to outputs by their bounds,
+ * so screens whose bounds are scaled by the platform also fall back.
+ *
+ * The xrandr utility is run on a background thread, so the pulse only records
+ * the brightness each overlay wants. Overlays dimming the same output stack, as
+ * overlay windows would, so the output is set to the product of their
+ * brightnesses. The original brightness of each output is restored when its
+ * last overlay is disabled, and by a shutdown hook when the application quits
+ * or is terminated. The original brightnesses are also kept in a file, which
+ * the next start restores, so that a killed process doesn't leave the outputs
+ * dimmed, and their dimmed brightness is never mistaken for the original one.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.17.0
+ */
+public class XRandRDimmingBackend implements DimmingBackend {
+	/*
+		****************
+		*** INSTANCE ***
+		****************
+
+	The brightness of an output is global state, so a single instance is
+	shared by all overlay view managers.
+	*/
+	public static final XRandRDimmingBackend INSTANCE =
+	    new XRandRDimmingBackend();
+
+
+	/*
+		****************
+		*** EXECUTOR ***
+		****************
+	*/
+	public static final String THREAD_NAME = "Low Beams XRandR";
+
+	private final ExecutorService executor =
+	    Executors.newSingleThreadExecutor((
+	    Runnable runnable
+	) -> {
+		Thread thread = new Thread(runnable, THREAD_NAME);
+		thread.setDaemon(true);
+		return thread;
+	});
+
+
+	/*
+		*****************
+		*** SUPPORTED ***
+		*****************
+
+	Support is revoked for the remainder of the session after any failure,
+	so that overlays fall back to the overlay window.
+	*/
+	private volatile boolean failed = !X11.isDisplayAvailable();
+
+	@Override
+	public boolean isSupported(OverlayViewManager overlayViewManager) {
+		/*
+		Only colors without any hue can be reproduced by scaling the
+		gamma ramp.
+		*/
+		Color color = overlayViewManager.colorProperty().get();
+
+		return
+		    !failed &&
+		    color.getRed() == 0 &&
+		    color.getGreen() == 0 &&
+		    color.getBlue() == 0 &&
+		    getOutputName(overlayViewManager) != null;
+	}
+
+	/*
+			-----------
+			| FAILURE |
+			-----------
+	*/
+	private void fail(IOException exception) {
+		failed = true;
+		ApplicationLog.log(
+		    Level.WARNING,
+		    XRandRDimmingBackend.class,
+		    "Failed to run " + XRandR.COMMAND_NAME + ", falling back " +
+		    "to the overlay.",
+		    exception
+		);
+	}
+
+
+	/*
+		***************
+		*** OUTPUTS ***
+		***************
+
+	Outputs are queried in the background, and queried again whenever the
+	screens change. Until the query completes, no screen is supported.
+	*/
+	private volatile List<XRandR.Output> outputs = Collections.emptyList();
+
+	private boolean outputsQueried = false;
+
+	/*
+			---------
+			| QUERY |
+			---------
+	*/
+	private void queryOutputs() {
+		executor.execute(() -> {
+			try {
+				outputs = XRandR.queryOutputs();
+			} catch (IOException exception) {
+				fail(exception);
+			}
+		});
+	}
+
+	/*
+			--------
+			| NAME |
+			--------
+	*/
+	/**
+	 * @param overlayViewManager	overlay view manager
+	 *
+	 * @return			name of the output matching the target
+	 *				screen, or null if there is none
+	 */
+	private String getOutputName(OverlayViewManager overlayViewManager) {
+		/*
+		Query the outputs on first use, which happens on the JavaFX
+		application thread, as is required to observe the screens.
+		*/
+		if (!outputsQueried) {
+			outputsQueried = true;
+			Screen.getScreens().addListener((
+			    ListChangeListener.Change<? extends Screen> change
+			) -> {
+				queryOutputs();
+			});
+			queryOutputs();
+		}
+
+		/*
+		Find the output whose bounds match the target screen.
+		*/
+		Screen targetScreen =
+		    overlayViewManager.targetScreenProperty().get();
+		if (targetScreen == null) {
+			return null;
+		}
+		Rectangle2D targetScreenBounds = targetScreen.getBounds();
+		for (XRandR.Output output : outputs) {
+			if (output.getBounds().equals(targetScreenBounds)) {
+				return output.getName();
+			}
+		}
+
+		return null;
+	}
+
+
+	/*
+		******************
+		*** BRIGHTNESS ***
+		******************
+
+	The pulse only records the output and brightness each overlay view
+	manager wants, and requests an update of the output. The updates of each
+	output are coalesced, and apply the combined brightness of its overlays
+	at the time they run.
+	*/
+	private static class Dimming {
+		private final String outputName;
+		private final double brightness;
+
+		Dimming(String outputName, double brightness) {
+			this.outputName = outputName;
+			this.brightness = brightness;
+		}
+	}
+
+	/*
+	The output dimmed by each overlay view manager is remembered, so that it
+	can be restored even after the target screen changes.
+	*/
+	private final Map<OverlayViewManager, Dimming> dimmings =
+	    new ConcurrentHashMap<>();
+	private final Map<String, Double> originalBrightness =
+	    new ConcurrentHashMap<>();
+	private final Set<String> pendingOutputNames =
+	    ConcurrentHashMap.newKeySet();
+
+	/*
+	Updates and the restoration on shutdown are serialized by this lock, so
+	that an update still running can't dim an output again once it has been
+	restored.
+	*/
+	private final Object updateLock = new Object();
+	private boolean restored = false;
+
+	/*
+			----------
+			| UPDATE |
+			----------
+	*/
+	private void requestUpdate(String outputName) {
+		if (pendingOutputNames.add(outputName)) {
+			executor.execute(() -> {
+				pendingOutputNames.remove(outputName);
+				update(outputName);
+			});
+		}
+	}
+
+	private void update(String outputName) {
+		synchronized (updateLock) {
+			if (!restored) {
+				apply(outputName, getCombinedBrightness(outputName));
+			}
+		}
+	}
+
+	/**
+	 * @param outputName	name of an output
+	 *
+	 * @return		product of the brightnesses wanted for the
+	 *			output by every overlay view manager dimming it,
+	 *			or null if none is
+	 */
+	private Double getCombinedBrightness(String outputName) {
+		boolean dimmed = false;
+		double combinedBrightness = 1;
+		for (Dimming dimming : dimmings.values()) {
+			if (dimming.outputName.equals(outputName)) {
+				dimmed = true;
+				combinedBrightness *= dimming.brightness;
+			}
+		}
+
+		return dimmed ? combinedBrightness : null;
+	}
+
+	private void apply(String outputName, Double brightness) {
+		try {
+			if (brightness == null) {
+				/*
+				Restore the original brightness, if it was ever
+				changed, and forget it only once it has been
+				restored.
+				*/
+				Double original = originalBrightness.get(
+				    outputName
+				);
+				if (original != null) {
+					XRandR.setBrightness(outputName, original);
+					originalBrightness.remove(outputName);
+					writeOriginalBrightnessFile();
+				}
+			} else {
+				/*
+				Remember the original brightness before changing
+				it for the first time, and persist it before the
+				output is dimmed.
+				*/
+				if (!originalBrightness.containsKey(outputName)) {
+					originalBrightness.put(
+					    outputName,
+					    XRandR.queryBrightness(outputName)
+					);
+					writeOriginalBrightnessFile();
+				}
+
+				/*
+				Dim relative to the original brightness.
+				*/
+				XRandR.setBrightness(
+				    outputName,
+				    originalBrightness.get(outputName) * brightness
+				);
+			}
+		} catch (IOException exception) {
+			fail(exception);
+		}
+	}
+
+	/*
+			-----------
+			| RESTORE |
+			-----------
+	*/
+	/**
+	 * This method synchronously restores the original brightness of every
+	 * output which was dimmed, and is run by the shutdown hook. The wanted
+	 * brightnesses are left as they are, while any later update is skipped.
+	 */
+	private void restoreAll() {
+		synchronized (updateLock) {
+			restored = true;
+			for (String outputName : originalBrightness.keySet()) {
+				apply(outputName, null);
+			}
+		}
+	}
+
+	/*
+			---------------
+			| PERSISTENCE |
+			---------------
+
+	The original brightness file contains a line for each dimmed output,
+	with its name followed by its original brightness. It is rewritten
+	whenever an original brightness is remembered or forgotten, and deleted
+	once none is left, so that it only exists while outputs are dimmed.
+	*/
+	public static final Path ORIGINAL_BRIGHTNESS_FILE_PATH =
+	    LowBeamsLauncher.APPLICATION_DATA_DIRECTORY_PATH.resolve(
+	    "xrandr.brightness"
+	);
+
+	private static final String ORIGINAL_BRIGHTNESS_SEPARATOR = " ";
+
+	/**
+	 * This method writes the original brightness file under a temporary
+	 * name and moves it into place, so that a process killed while writing
+	 * never leaves a partial file behind. A failure is only logged, as
+	 * dimming still works without the file.
+	 */
+	private void writeOriginalBrightnessFile() {
+		try {
+			if (originalBrightness.isEmpty()) {
+				Files.deleteIfExists(ORIGINAL_BRIGHTNESS_FILE_PATH);
+				return;
+			}
+
+			List<String> lines = new ArrayList<>();
+			for (
+			    Map.Entry<String, Double> entry :
+			    originalBrightness.entrySet()
+			) {
+				lines.add(
+				    entry.getKey() +
+				    ORIGINAL_BRIGHTNESS_SEPARATOR +
+				    entry.getValue()
+				);
+			}
+
+			Files.createDirectories(
+			    LowBeamsLauncher.APPLICATION_DATA_DIRECTORY_PATH
+			);
+			Path temporaryFilePath = Files.createTempFile(
+			    LowBeamsLauncher.APPLICATION_DATA_DIRECTORY_PATH,
+			    "xrandr",
+			    ".brightness"
+			);
+			Files.write(
+			    temporaryFilePath,
+			    lines,
+			    StandardCharsets.UTF_8
+			);
+			Files.move(
+			    temporaryFilePath,
+			    ORIGINAL_BRIGHTNESS_FILE_PATH,
+			    StandardCopyOption.REPLACE_EXISTING,
+			    StandardCopyOption.ATOMIC_MOVE
+			);
+		} catch (IOException exception) {
+			ApplicationLog.log(
+			    Level.WARNING,
+			    XRandRDimmingBackend.class,
+			    "Failed to write the original brightness file.",
+			    exception
+			);
+		}
+	}
+
+	/**
+	 * This method restores the original brightnesses left in the file by a
+	 * process which couldn't restore them itself, and is run before any
+	 * update. An output which can't be restored, such as one which is no
+	 * longer connected, keeps its original brightness, which is then used
+	 * instead of its current one if it is dimmed again.
+	 */
+	private void restoreOriginalBrightnessFile() {
+		synchronized (updateLock) {
+			if (!Files.exists(ORIGINAL_BRIGHTNESS_FILE_PATH)) {
+				return;
+			}
+
+			try {
+				for (String line : Files.readAllLines(
+				    ORIGINAL_BRIGHTNESS_FILE_PATH,
+				    StandardCharsets.UTF_8
+				)) {
+					int separatorIndex = line.lastIndexOf(
+					    ORIGINAL_BRIGHTNESS_SEPARATOR
+					);
+					if (separatorIndex <= 0) {
+						continue;
+					}
+					try {
+						originalBrightness.put(
+						    line.substring(
+						    0,
+						    separatorIndex
+						    ),
+						    Double.parseDouble(
+						    line.substring(
+						    separatorIndex + 1
+						    )
+						    )
+						);
+					} catch (NumberFormatException exception) {
+						/*
+						Skip malformed lines.
+						*/
+					}
+				}
+			} catch (IOException exception) {
+				ApplicationLog.log(
+				    Level.WARNING,
+				    XRandRDimmingBackend.class,
+				    "Failed to read the original brightness file.",
+				    exception
+				);
+				return;
+			}
+
+			for (String outputName : originalBrightness.keySet()) {
+				try {
+					XRandR.setBrightness(
+					    outputName,
+					    originalBrightness.get(outputName)
+					);
+					originalBrightness.remove(outputName);
+				} catch (IOException exception) {
+					ApplicationLog.log(
+					    Level.WARNING,
+					    XRandRDimmingBackend.class,
+					    "Failed to restore the original " +
+					    "brightness of " + outputName + ".",
+					    exception
+					);
+				}
+			}
+			writeOriginalBrightnessFile();
+		}
+	}
+
+
+	/*
+		***********
+		*** DIM ***
+		***********
+	*/
+	@Override
+	public void dim(OverlayViewManager overlayViewManager) {
+		String outputName = getOutputName(overlayViewManager);
+
+		/*
+		Release the previously dimmed output if the target screen has
+		changed.
+		*/
+		Dimming dimming = dimmings.get(overlayViewManager);
+		if (dimming != null && !dimming.outputName.equals(outputName)) {
+			undim(overlayViewManager);
+			dimming = null;
+		}
+		if (outputName == null) {
+			return;
+		}
+
+		/*
+		Request an update only if the wanted brightness has changed.
+		*/
+		double brightness =
+		    1 - overlayViewManager.colorProperty().get().getOpacity();
+		if (dimming == null || dimming.brightness != brightness) {
+			dimmings.put(
+			    overlayViewManager,
+			    new Dimming(outputName, brightness)
+			);
+			requestUpdate(outputName);
+		}
+	}
+
+	/*
+			---------
+			| UNDIM |
+			---------
+	*/
+	@Override
+	public void undim(OverlayViewManager overlayViewManager) {
+		Dimming dimming = dimmings.remove(overlayViewManager);
+		if (dimming != null) {
+			requestUpdate(dimming.outputName);
+		}
+	}
+
+	/*
+			-----------
+			| RELEASE |
+			-----------
+
+	Nothing is kept for an overlay view manager once it is undimmed.
+	*/
+	@Override
+	public void release(OverlayViewManager overlayViewManager) {
+		undim(overlayViewManager);
+	}
+
+
+	/*
+		*****************
+		*** TO STRING ***
+		*****************
+	*/
+	@Override
+	public String toString() {
+		return "XRandR";
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+	*/
+	private XRandRDimmingBackend() {
+		/*
+		Restore any output left dimmed by a previous process, before the
+		first update runs on the same thread.
+		*/
+		if (!failed) {
+			executor.execute(this::restoreOriginalBrightnessFile);
+		}
+
+		/*
+		Restore every dimmed output when the virtual machine shuts down,
+		including on termination by a signal.
+		*/
+		Runtime.getRuntime().addShutdownHook(new Thread(
+		    this::restoreAll,
+		    THREAD_NAME + " Restore"
+		));
+	}
+}
@@ -0,0 +1,265 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.platform;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class runs the command line utilities through which the platform
+ * specific features observe and control the desktop, where no programming
+ * interface is available from Java.
+ *
+ * The run methods of this class block until the process exits, so they should
+ * not be called from the JavaFX application thread. A command which could not be
+ * started at all, such as one which is not installed, fails with a
+ * {@link CommandNotFoundException}, so that callers can tell it apart from one
+ * which failed or timed out, and might succeed when run again.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.35.0
+ */
+public class CommandLine {
+	/*
+		***************
+		*** TIMEOUT ***
+		***************
+	*/
+	public static final long DEFAULT_TIMEOUT_MILLISECONDS = 2000;
+
+
+	/*
+		*************************
+		*** COMMAND NOT FOUND ***
+		*************************
+	*/
+	/**
+	 * This exception is thrown when a command could not be started, most
+	 * likely as it is not installed.
+	 */
+	public static class CommandNotFoundException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		CommandNotFoundException(String commandName, IOException cause) {
+			super(
+			    "Failed to start " + commandName + ": " +
+			    cause.getMessage(),
+			    cause
+			);
+		}
+	}
+
+
+	/*
+		**************
+		*** OUTPUT ***
+		**************
+
+	The output of the command is read on a separate thread, as reading it to
+	the end would otherwise block until the command exits, however long it
+	hangs, before the timeout is even considered.
+	*/
+	public static final String OUTPUT_THREAD_NAME = "Command Line Output";
+
+	private static class OutputReader extends Thread {
+		private final Process process;
+
+		private final ArrayList<String> lines = new ArrayList<>();
+		private IOException exception;
+
+		OutputReader(Process process) {
+			super(OUTPUT_THREAD_NAME);
+			setDaemon(true);
+			this.process = process;
+		}
+
+		@Override
+		public void run() {
+			try (BufferedReader reader = new BufferedReader(
+			    new InputStreamReader(
+			    process.getInputStream(),
+			    StandardCharsets.UTF_8
+			))) {
+				for (
+				    String line = reader.readLine();
+				    line != null;
+				    line = reader.readLine()
+				) {
+					lines.add(line);
+				}
+			} catch (IOException exception) {
+				this.exception = exception;
+			}
+		}
+	}
+
+
+	/*
+		***********
+		*** RUN ***
+		***********
+	*/
+	/**
+	 * @param command	command name and arguments
+	 *
+	 * @return		lines printed by the command
+	 *
+	 * @throws IOException		The command did not exit successfully in
+	 *				time, or could not be started, in which
+	 *				case a {@link CommandNotFoundException}
+	 *				is thrown.
+	 */
+	public static List<String> run(String... command)
+	    throws
+	    IOException
+	{
+		return run(DEFAULT_TIMEOUT_MILLISECONDS, command);
+	}
+
+	/**
+	 * @param timeoutMilliseconds	time to wait for the command to exit
+	 *
+	 * @param command		command name and arguments
+	 *
+	 * @return			lines printed by the command
+	 *
+	 * @throws IOException		The command did not exit successfully in
+	 *				time, or could not be started, in which
+	 *				case a {@link CommandNotFoundException}
+	 *				is thrown.
+	 */
+	public static List<String> run(
+	    long timeoutMilliseconds,
+	    String... command
+	) throws IOException {
+		Process process = start(command);
+
+		/*
+		Drain the command output while waiting for the command to exit,
+		then wait for the rest of the output, which may still be held
+		open by a process the command left behind.
+		*/
+		OutputReader outputReader = new OutputReader(process);
+		outputReader.start();
+		try {
+			long deadline = System.nanoTime() +
+			    TimeUnit.MILLISECONDS.toNanos(timeoutMilliseconds);
+			if (!process.waitFor(
+			    timeoutMilliseconds,
+			    TimeUnit.MILLISECONDS
+			)) {
+				process.destroyForcibly();
+				throw new IOException(
+				    command[0] + " timed out."
+				);
+			}
+			outputReader.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(
+			    deadline - System.nanoTime()
+			)));
+			if (outputReader.isAlive()) {
+				throw new IOException(
+				    command[0] + " output timed out."
+				);
+			}
+		} catch (InterruptedException exception) {
+			process.destroyForcibly();
+			Thread.currentThread().interrupt();
+			throw new IOException(exception);
+		}
+		if (outputReader.exception != null) {
+			throw outputReader.exception;
+		}
+		List<String> lines = outputReader.lines;
+		if (process.exitValue() != 0) {
+			throw new IOException(
+			    command[0] + " exited with status " +
+			    process.exitValue() + ":\n" +
+			    String.join("\n", lines)
+			);
+		}
+
+		return lines;
+	}
+
+
+	/*
+		*************
+		*** START ***
+		*************
+	*/
+	/**
+	 * This method starts a command without waiting for it, such as one
+	 * which keeps running and printing. Its error output is merged into its
+	 * output, so that a full pipe can't block it.
+	 *
+	 *
+	 * @param command	command name and arguments
+	 *
+	 * @return		started process
+	 *
+	 * @throws CommandNotFoundException	The command could not be
+	 *					started.
+	 */
+	public static Process start(String... command)
+	    throws
+	    CommandNotFoundException
+	{
+		/*
+		Validate arguments.
+		*/
+		if (command.length == 0) {
+			throw new IllegalArgumentException(
+			    "command.length == 0"
+			);
+		}
+
+		try {
+			return new ProcessBuilder(
+			    Arrays.asList(command)
+			).redirectErrorStream(true).start();
+		} catch (IOException exception) {
+			throw new CommandNotFoundException(command[0], exception);
+		}
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private CommandLine() {}
+}
@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.platform;
+
+import java.io.IOException;
+
+/**
+ * This class queries the state of the user's login session through the
+ * loginctl command line utility of systemd, which tracks whether the session
+ * is locked by a screen locker, and whether it is the active session of its
+ * seat, rather than one switched away from.
+ *
+ * All methods of this class block until the loginctl process exits, so they
+ * should not be called from the JavaFX application thread.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.35.0
+ * @since 0.35.0
+ */
+public class LoginSession {
+	/*
+		***************
+		*** COMMAND ***
+		***************
+	*/
+	public static final String COMMAND_NAME = "loginctl";
+
+	/*
+			--------------
+			| SESSION ID |
+			--------------
+
+	The session is identified by the environment variable set by the login
+	manager, and otherwise by the session of the calling process.
+	*/
+	public static final String SESSION_ID_ENVIRONMENT_VARIABLE_NAME =
+	    "XDG_SESSION_ID";
+
+	private static final String OWN_SESSION_ID = "self";
+
+
+	/*
+		*************
+		*** STATE ***
+		*************
+	*/
+	/**
+	 * This class describes the state of a login session.
+	 */
+	public static final class State {
+		private final boolean locked;
+		private final boolean active;
+
+		private State(boolean locked, boolean active) {
+			this.locked = locked;
+			this.active = active;
+		}
+
+		/**
+		 * @return	true if the session is locked
+		 */
+		public boolean isLocked() {
+			return locked;
+		}
+
+		/**
+		 * @return	true if the session is the active session of its
+		 *		seat
+		 */
+		public boolean isActive() {
+			return active;
+		}
+	}
+
+	/*
+			---------
+			| QUERY |
+			---------
+	*/
+	private static final String LOCKED_PROPERTY_NAME = "LockedHint";
+	private static final String ACTIVE_PROPERTY_NAME = "Active";
+
+	private static final String TRUE_PROPERTY_VALUE = "yes";
+
+	/**
+	 * @return	state of the user's login session
+	 *
+	 * @throws IOException		Failed to run loginctl, such as on a
+	 *				system without systemd.
+	 */
+	public static State queryState()
+	    throws
+	    IOException
+	{
+		String sessionId = System.getenv(
+		    SESSION_ID_ENVIRONMENT_VARIABLE_NAME
+		);
+
+		/*
+		Parse the requested properties, which are printed as one
+		"name=value" line each. Sessions are assumed to be unlocked and
+		active unless stated otherwise.
+		*/
+		boolean locked = false;
+		boolean active = true;
+		for (String line : CommandLine.run(
+		    COMMAND_NAME,
+		    "show-session",
+		    sessionId != null ? sessionId : OWN_SESSION_ID,
+		    "--property=" + LOCKED_PROPERTY_NAME,
+		    "--property=" + ACTIVE_PROPERTY_NAME
+		)) {
+			int separatorIndex = line.indexOf('=');
+			if (separatorIndex < 0) {
+				continue;
+			}
+
+			String name = line.substring(0, separatorIndex);
+			boolean value = line.substring(separatorIndex + 1).equals(
+			    TRUE_PROPERTY_VALUE
+			);
+			if (name.equals(LOCKED_PROPERTY_NAME)) {
+				locked = value;
+			} else if (name.equals(ACTIVE_PROPERTY_NAME)) {
+				active = value;
+			}
+		}
+
+		return new State(locked, active);
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private LoginSession() {}
+}
@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.platform;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * This class reads the state of the power supplies from the Linux sysfs power
+ * supply class, which has one directory per supply, holding one attribute per
+ * file. The directory can be replaced, so that a fake set of supplies can be
+ * used for testing.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.36.0
+ * @since 0.36.0
+ */
+public class PowerSupply {
+	/*
+		*****************
+		*** DIRECTORY ***
+		*****************
+	*/
+	public static final Path DEFAULT_DIRECTORY_PATH =
+	    Paths.get("/sys/class/power_supply");
+
+
+	/*
+		******************
+		*** ON BATTERY ***
+		******************
+
+	The system runs on battery when it has a system battery, and no adapter
+	is online. Where the adapters aren't exported, a discharging battery
+	gives it away instead. Batteries of peripherals, such as wireless mice,
+	are scoped to their device, and are ignored.
+	*/
+	private static final String BATTERY_TYPE = "Battery";
+	private static final String DEVICE_SCOPE = "Device";
+	private static final String DISCHARGING_STATUS = "Discharging";
+	private static final String ONLINE = "1";
+
+	/**
+	 * @param directoryPath		power supply class directory
+	 *
+	 * @return			true if the system is running on
+	 *				battery, or false if it isn't, or has no
+	 *				power supplies at all
+	 *
+	 * @throws IOException		Failed to read the power supplies.
+	 */
+	public static boolean isOnBattery(Path directoryPath)
+	    throws
+	    IOException
+	{
+		/*
+		Validate arguments.
+		*/
+		if (directoryPath == null) {
+			throw new NullPointerException(
+			    "directoryPath == null"
+			);
+		}
+
+		boolean systemBatteryFound = false;
+		boolean batteryDischarging = false;
+		boolean adapterFound = false;
+		boolean adapterOnline = false;
+
+		/*
+		Read the type of every power supply, along with the attributes
+		which matter for that type.
+		*/
+		try (DirectoryStream<Path> supplyPaths =
+		    Files.newDirectoryStream(directoryPath)) {
+			for (Path supplyPath : supplyPaths) {
+				String type = readAttribute(supplyPath, "type");
+				if (type == null) {
+					continue;
+				}
+
+				if (type.equals(BATTERY_TYPE)) {
+					if (DEVICE_SCOPE.equals(
+					    readAttribute(supplyPath, "scope")
+					)) {
+						continue;
+					}
+					systemBatteryFound = true;
+					if (DISCHARGING_STATUS.equals(
+					    readAttribute(supplyPath, "status")
+					)) {
+						batteryDischarging = true;
+					}
+				} else {
+					String online = readAttribute(
+					    supplyPath,
+					    "online"
+					);
+					if (online != null) {
+						adapterFound = true;
+						if (online.equals(ONLINE)) {
+							adapterOnline = true;
+						}
+					}
+				}
+			}
+		}
+
+		if (!systemBatteryFound || adapterOnline) {
+			return false;
+		}
+
+		return adapterFound || batteryDischarging;
+	}
+
+	/*
+			-------------
+			| ATTRIBUTE |
+			-------------
+	*/
+	/**
+	 * @return	trimmed attribute value, or null if the power supply
+	 *		doesn't have the attribute
+	 */
+	private static String readAttribute(Path supplyPath, String name) {
+		try {
+			return new String(
+			    Files.readAllBytes(supplyPath.resolve(name)),
+			    StandardCharsets.UTF_8
+			).trim();
+		} catch (IOException exception) {
+			/*
+			The attribute is missing, or the supply was removed in
+			the meantime.
+			*/
+			return null;
+		}
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private PowerSupply() {}
+}
@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.platform;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * This class reads process information from the Linux proc file system, which
+ * allows the application to observe other processes, such as the compositor,
+ * that the Java management interfaces don't expose.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.32.0
+ * @since 0.18.0
+ */
+public class ProcFileSystem {
+	/*
+		************
+		*** ROOT ***
+		************
+	*/
+	public static final Path ROOT_PATH = Paths.get("/proc");
+
+	/*
+			-------------
+			| AVAILABLE |
+			-------------
+	*/
+	/**
+	 * @return	true if the proc file system is available
+	 */
+	public static boolean isAvailable() {
+		return Files.isDirectory(ROOT_PATH.resolve("self"));
+	}
+
+
+	/*
+		*****************
+		*** PROCESSES ***
+		*****************
+	*/
+	/*
+			--------
+			| FIND |
+			--------
+	*/
+	/**
+	 * @param commandNames	command names to look for, in order of
+	 *			preference
+	 *
+	 * @return		identifier of a running process with the first
+	 *			command name found, or -1 if there is none
+	 *
+	 * @throws IOException		Failed to list processes.
+	 */
+	public static long findProcessId(Collection<String> commandNames)
+	    throws
+	    IOException
+	{
+		long[] processIds = new long[commandNames.size()];
+		Arrays.fill(processIds, -1);
+
+		/*
+		Read the command name of every process.
+		*/
+		try (DirectoryStream<Path> processPaths =
+		    Files.newDirectoryStream(ROOT_PATH, "[0-9]*")) {
+			for (Path processPath : processPaths) {
+				String commandName;
+				try {
+					commandName = new String(
+					    Files.readAllBytes(
+					    processPath.resolve("comm")),
+					    StandardCharsets.UTF_8
+					).trim();
+				} catch (IOException exception) {
+					/*
+					The process has exited in the meantime.
+					*/
+					continue;
+				}
+
+				int index = 0;
+				for (String name : commandNames) {
+					if (name.equals(commandName) && processIds[index] < 0) {
+						processIds[index] = Long.parseLong(
+						    processPath.getFileName().toString()
+						);
+					}
+					index++;
+				}
+			}
+		}
+
+		/*
+		Return the most preferred process found.
+		*/
+		for (long processId : processIds) {
+			if (processId >= 0) {
+				return processId;
+			}
+		}
+
+		return -1;
+	}
+
+	/*
+			------------
+			| CPU TIME |
+			------------
+
+	The user and system times are the 14th and 15th fields of the process
+	status, and are measured in clock ticks. The kernel exports them at 100
+	ticks per second on all mainstream architectures.
+	*/
+	public static final long CLOCK_TICKS_PER_SECOND = 100;
+
+	/**
+	 * @param processId	process identifier
+	 *
+	 * @return		total CPU time consumed by the process, in
+	 *			nanoseconds
+	 *
+	 * @throws IOException		Failed to read the process status.
+	 */
+	public static long readCpuTimeNanoseconds(long processId)
+	    throws
+	    IOException
+	{
+		String status = new String(
+		    Files.readAllBytes(
+		    ROOT_PATH.resolve(Long.toString(processId)).resolve("stat")),
+		    StandardCharsets.UTF_8
+		);
+
+		/*
+		Skip the command name, which is enclosed in parentheses and may
+		contain spaces. The remaining fields start with the third field.
+		*/
+		String[] fields = status.substring(
+		    status.lastIndexOf(')') + 2
+		).split(" ");
+		long clockTicks =
+		    Long.parseLong(fields[14 - 3]) +
+		    Long.parseLong(fields[15 - 3]);
+
+		return clockTicks * (1_000_000_000L / CLOCK_TICKS_PER_SECOND);
+	}
+
+	/*
+			---------------------
+			| RESIDENT SET SIZE |
+			---------------------
+
+	The resident set size is given in kilobytes by the VmRSS line of the
+	human readable process status, which unlike the memory statistics
+	doesn't depend on the page size.
+	*/
+	private static final String RESIDENT_SET_SIZE_PREFIX = "VmRSS:";
+
+	/**
+	 * @param processId	process identifier
+	 *
+	 * @return		resident set size of the process, in bytes, or
+	 *			-1 if the process status doesn't include it
+	 *
+	 * @throws IOException		Failed to read the process status.
+	 */
+	public static long readResidentSetSizeBytes(long processId)
+	    throws
+	    IOException
+	{
+		for (String line : Files.readAllLines(
+		    ROOT_PATH.resolve(Long.toString(processId)).resolve("status"),
+		    StandardCharsets.UTF_8
+		)) {
+			if (line.startsWith(RESIDENT_SET_SIZE_PREFIX)) {
+				String[] fields = line.substring(
+				    RESIDENT_SET_SIZE_PREFIX.length()
+				).trim().split("\\s+");
+				return Long.parseLong(fields[0]) * 1024;
+			}
+		}
+
+		return -1;
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private ProcFileSystem() {}
+}
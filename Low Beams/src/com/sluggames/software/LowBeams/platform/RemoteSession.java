@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.platform;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class detects whether the X display is shown remotely, such as through
+ * VNC, X2Go, xrdp or X11 forwarding, in which case every repainted pixel is
+ * sent over the network. Remote sessions are recognized by the environment
+ * variables their servers set, by a display on another host, and by the vendor
+ * of the X server.
+ *
+ * The vendor query blocks until the xdpyinfo process exits, so it should not
+ * be called from the JavaFX application thread.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.38.0
+ */
+public class RemoteSession {
+	/*
+		*******************
+		*** ENVIRONMENT ***
+		*******************
+
+	X2Go, xrdp and the VNC desktop scripts each set one of these variables
+	in the sessions they start.
+	*/
+	private static final List<String> ENVIRONMENT_VARIABLE_NAMES = Arrays.asList(
+	    "X2GO_SESSION",
+	    "XRDP_SESSION",
+	    "XRDP_SOCKET_PATH",
+	    "VNCDESKTOP"
+	);
+
+	/*
+	On Linux, a display name with a host part, as in "localhost:10.0",
+	refers to a display reached over the network, such as one forwarded
+	through SSH. The "unix" host part refers to a local socket, as does a
+	host part which is a path, as set by XQuartz. Elsewhere, the X server
+	usually runs locally beside the native desktop, as VcXsrv does with
+	"localhost:0.0", so the host part is ignored.
+	*/
+	private static final String LOCAL_DISPLAY_HOST = "unix";
+
+	private static final String LOCAL_DISPLAY_PATH_PREFIX = "/";
+
+	/*
+			----------
+			| DETECT |
+			----------
+	*/
+	/**
+	 * @param environment	environment variables of the process
+	 *
+	 * @return		description of the evidence of a remote session
+	 *			found in the environment, or null if there is
+	 *			none
+	 */
+	public static String detectFromEnvironment(Map<String, String> environment) {
+		/*
+		Validate arguments.
+		*/
+		if (environment == null) {
+			throw new NullPointerException(
+			    "environment == null"
+			);
+		}
+
+		for (String name : ENVIRONMENT_VARIABLE_NAMES) {
+			if (environment.containsKey(name)) {
+				return "environment variable " + name;
+			}
+		}
+
+		String display = environment.get(
+		    X11.DISPLAY_ENVIRONMENT_VARIABLE_NAME
+		);
+		if (
+		    System.getProperty("os.name", "").startsWith("Linux") &&
+		    display != null &&
+		    display.indexOf(':') > 0
+		) {
+			String host = display.substring(0, display.indexOf(':'));
+			if (
+			    !host.equals(LOCAL_DISPLAY_HOST) &&
+			    !host.startsWith(LOCAL_DISPLAY_PATH_PREFIX)
+			) {
+				return "display " + display + " on host " + host;
+			}
+		}
+
+		return null;
+	}
+
+
+	/*
+		**************
+		*** VENDOR ***
+		**************
+
+	VNC servers, xrdp and NoMachine announce themselves in the vendor string
+	of their X servers.
+	*/
+	public static final String COMMAND_NAME = "xdpyinfo";
+
+	private static final String VENDOR_PREFIX = "vendor string:";
+
+	private static final List<String> REMOTE_VENDOR_KEYWORDS = Arrays.asList(
+	    "vnc",
+	    "xrdp",
+	    "nomachine",
+	    "x2go",
+	    "at&t laboratories cambridge"
+	);
+
+	/*
+			---------
+			| QUERY |
+			---------
+	*/
+	/**
+	 * @return	vendor string of the X server, or null if xdpyinfo
+	 *		didn't print it
+	 *
+	 * @throws IOException		Failed to run xdpyinfo.
+	 */
+	public static String queryVendor()
+	    throws
+	    IOException
+	{
+		for (String line : CommandLine.run(COMMAND_NAME)) {
+			if (line.startsWith(VENDOR_PREFIX)) {
+				return line.substring(VENDOR_PREFIX.length()).trim();
+			}
+		}
+
+		return null;
+	}
+
+	/*
+			----------
+			| DETECT |
+			----------
+	*/
+	/**
+	 * @param vendor	vendor string of the X server
+	 *
+	 * @return		true if the vendor string belongs to a remote
+	 *			desktop server
+	 */
+	public static boolean isRemoteVendor(String vendor) {
+		/*
+		Validate arguments.
+		*/
+		if (vendor == null) {
+			throw new NullPointerException(
+			    "vendor == null"
+			);
+		}
+
+		String lowerCaseVendor = vendor.toLowerCase(Locale.ROOT);
+		for (String keyword : REMOTE_VENDOR_KEYWORDS) {
+			if (lowerCaseVendor.contains(keyword)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private RemoteSession() {}
+}
@@ -0,0 +1,253 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.platform;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+import javafx.stage.Screen;
+import javafx.stage.Window;
+
+/**
+ * This class exposes the output and render scales of screens and windows,
+ * which were only added to the public JavaFX API in JavaFX 9. The application
+ * is built against JavaFX 8, so they are accessed reflectively, and report a
+ * scale of one, or no support, on older runtimes.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.19.0
+ */
+public class WindowScale {
+	/*
+		********************
+		*** OUTPUT SCALE ***
+		********************
+	*/
+	public static final double DEFAULT_OUTPUT_SCALE = 1;
+
+	/*
+	The getters are looked up once, as method handles, which are invoked
+	with their exact type, so that the output scales can be read on every
+	tracking tick without looking up methods or boxing the results.
+	*/
+	private static final MethodHandle GET_OUTPUT_SCALE_X_METHOD_HANDLE =
+	    findOutputScaleGetter("getOutputScaleX");
+	private static final MethodHandle GET_OUTPUT_SCALE_Y_METHOD_HANDLE =
+	    findOutputScaleGetter("getOutputScaleY");
+
+	private static MethodHandle findOutputScaleGetter(String methodName) {
+		try {
+			return MethodHandles.publicLookup().findVirtual(
+			    Screen.class,
+			    methodName,
+			    MethodType.methodType(double.class)
+			);
+		} catch (ReflectiveOperationException exception) {
+			return null;
+		}
+	}
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @param screen	screen
+	 *
+	 * @return		horizontal scale from scene coordinates to
+	 *			device pixels on the screen
+	 */
+	public static double getOutputScaleX(Screen screen) {
+		return invokeScaleGetter(GET_OUTPUT_SCALE_X_METHOD_HANDLE, screen);
+	}
+
+	/**
+	 * @param screen	screen
+	 *
+	 * @return		vertical scale from scene coordinates to device
+	 *			pixels on the screen
+	 */
+	public static double getOutputScaleY(Screen screen) {
+		return invokeScaleGetter(GET_OUTPUT_SCALE_Y_METHOD_HANDLE, screen);
+	}
+
+	private static double invokeScaleGetter(
+	    MethodHandle methodHandle,
+	    Screen screen
+	) {
+		if (methodHandle == null) {
+			return DEFAULT_OUTPUT_SCALE;
+		}
+
+		try {
+			return (double) methodHandle.invokeExact(screen);
+		} catch (Error error) {
+			throw error;
+		} catch (Throwable throwable) {
+			return DEFAULT_OUTPUT_SCALE;
+		}
+	}
+
+
+	/*
+		*********************
+		*** DEVICE PIXELS ***
+		*********************
+
+	Positions reported by the window system, such as the cursor position
+	polled through AWT, are in device pixels, whereas screen bounds are in
+	scene coordinates, which differ on scaled outputs.
+
+	Positions are written into a caller supplied array, at the x and y
+	indices, so that they can be converted on every tracking tick without
+	allocating.
+	*/
+	public static final int X = 0;
+	public static final int Y = 1;
+
+	public static final int COORDINATE_COUNT = 2;
+
+	/*
+			-----------
+			| CONVERT |
+			-----------
+	*/
+	/**
+	 * This method converts a position to scene coordinates, scaled by the
+	 * output scale of the screen containing it, or unscaled if no screen
+	 * contains it.
+	 *
+	 *
+	 * @param deviceX		horizontal position in device pixels
+	 * @param deviceY		vertical position in device pixels
+	 * @param sceneCoordinates	array to write the position in scene
+	 *				coordinates to
+	 */
+	public static void toSceneCoordinates(
+	    double deviceX,
+	    double deviceY,
+	    double[] sceneCoordinates
+	) {
+		List<Screen> screens = Screen.getScreens();
+		for (int index = 0; index < screens.size(); index++) {
+			Screen screen = screens.get(index);
+			double x = deviceX / getOutputScaleX(screen);
+			double y = deviceY / getOutputScaleY(screen);
+			if (screen.getBounds().contains(x, y)) {
+				sceneCoordinates[X] = x;
+				sceneCoordinates[Y] = y;
+				return;
+			}
+		}
+
+		sceneCoordinates[X] = deviceX;
+		sceneCoordinates[Y] = deviceY;
+	}
+
+
+	/*
+		********************
+		*** RENDER SCALE ***
+		********************
+	*/
+	/*
+			-------------
+			| SUPPORTED |
+			-------------
+	*/
+	private static final Method SET_RENDER_SCALE_X_METHOD =
+	    findRenderScaleSetter("setRenderScaleX");
+	private static final Method SET_RENDER_SCALE_Y_METHOD =
+	    findRenderScaleSetter("setRenderScaleY");
+
+	private static Method findRenderScaleSetter(String methodName) {
+		try {
+			return Window.class.getMethod(methodName, double.class);
+		} catch (NoSuchMethodException exception) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return	true if the render scale of windows can be set
+	 */
+	public static boolean isRenderScaleSupported() {
+		return
+		    SET_RENDER_SCALE_X_METHOD != null &&
+		    SET_RENDER_SCALE_Y_METHOD != null;
+	}
+
+	/*
+			-------
+			| SET |
+			-------
+	*/
+	/**
+	 * This method sets the scale at which the scene of the window is
+	 * rendered. The rendered surface is scaled to the output scale of the
+	 * window when it is displayed, so a lower render scale trades detail
+	 * for fill rate and memory.
+	 *
+	 *
+	 * @param window	window
+	 * @param renderScaleX	horizontal render scale
+	 * @param renderScaleY	vertical render scale
+	 *
+	 * @return		true if the render scale was set
+	 */
+	public static boolean setRenderScale(
+	    Window window,
+	    double renderScaleX,
+	    double renderScaleY
+	) {
+		if (!isRenderScaleSupported()) {
+			return false;
+		}
+
+		try {
+			SET_RENDER_SCALE_X_METHOD.invoke(window, renderScaleX);
+			SET_RENDER_SCALE_Y_METHOD.invoke(window, renderScaleY);
+			return true;
+		} catch (ReflectiveOperationException exception) {
+			return false;
+		}
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private WindowScale() {}
+}
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.platform;
+
+/**
+ * This class contains checks common to the features which are specific to the
+ * X Window System. JavaFX does not expose any of these features, so they are
+ * implemented separately, and each of them must fall back to the portable
+ * behavior of the application whenever the checks fail.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.16.0
+ * @since 0.16.0
+ */
+public class X11 {
+	/*
+		***************
+		*** DISPLAY ***
+		***************
+	*/
+	/*
+			--------------------
+			| ENVIRONMENT NAME |
+			--------------------
+	*/
+	public static final String DISPLAY_ENVIRONMENT_VARIABLE_NAME = "DISPLAY";
+
+	/*
+			-------------
+			| AVAILABLE |
+			-------------
+	*/
+	/**
+	 * On Linux, the JavaFX platform always renders through an X server,
+	 * either directly or through XWayland, so an X display is available
+	 * whenever the display environment variable is set.
+	 *
+	 *
+	 * @return	true if running on Linux with an X display
+	 */
+	public static boolean isDisplayAvailable() {
+		return
+		    System.getProperty("os.name", "").startsWith("Linux") &&
+		    System.getenv(DISPLAY_ENVIRONMENT_VARIABLE_NAME) != null;
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private X11() {}
+}
\ No newline at end of file
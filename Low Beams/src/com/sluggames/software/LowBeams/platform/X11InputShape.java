@@ -0,0 +1,542 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.platform;
+
+import com.sluggames.software.LowBeams.ApplicationLog;
+import java.lang.reflect.Method;
+import java.util.logging.Level;
+import javafx.stage.Window;
+
+/**
+ * This class sets the input shape of JavaFX windows through the X11 Shape
+ * extension. A window with an empty input shape never receives pointer events,
+ * so every click passes through to the windows underneath natively, which makes
+ * the cursor window unnecessary.
+ *
+ * The Shape extension is called through JNA, which is a library of the project,
+ * and is copied into the lib directory of the distribution. JNA is accessed
+ * reflectively nonetheless, so that input shapes are only
+ * {@link #isSupported() supported} if the JNA library is present on the runtime
+ * class path, and the application still runs without it. The native window handle of a JavaFX window is likewise
+ * obtained reflectively from the JavaFX implementation classes, which works
+ * with the GTK glass implementation used on Linux. Any failure along the way is
+ * logged once, and disables support for the remainder of the session, so
+ * callers can always fall back to the cursor window.
+ *
+ * All methods of this class must be called from the JavaFX application thread.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.16.0
+ */
+public class X11InputShape {
+	/*
+		*****************
+		*** CONSTANTS ***
+		*****************
+
+	These values are defined by the X11 Shape extension headers.
+	*/
+	public static final int SHAPE_SET = 0;
+	public static final int SHAPE_INPUT = 2;
+	public static final int UNSORTED = 0;
+	public static final long NONE = 0;
+
+
+	/*
+		***********
+		*** JNA ***
+		***********
+	*/
+	/*
+			-----------
+			| CLASSES |
+			-----------
+	*/
+	public static final String JNA_NATIVE_LIBRARY_CLASS_NAME =
+	    "com.sun.jna.NativeLibrary";
+	public static final String JNA_FUNCTION_CLASS_NAME =
+	    "com.sun.jna.Function";
+	public static final String JNA_NATIVE_LONG_CLASS_NAME =
+	    "com.sun.jna.NativeLong";
+	public static final String JNA_POINTER_CLASS_NAME =
+	    "com.sun.jna.Pointer";
+	public static final String JNA_INT_BY_REFERENCE_CLASS_NAME =
+	    "com.sun.jna.ptr.IntByReference";
+
+	/*
+			-------------
+			| LIBRARIES |
+			-------------
+	*/
+	public static final String X11_LIBRARY_NAME = "X11";
+	public static final String XEXT_LIBRARY_NAME = "Xext";
+
+	/*
+			----------
+			| INVOKE |
+			----------
+	*/
+	private static Object invokeFunction(
+	    String libraryName,
+	    String functionName,
+	    Class<?> returnType,
+	    Object... arguments
+	)
+	    throws
+	    ReflectiveOperationException
+	{
+		/*
+		Look up the native function through the JNA native library.
+		*/
+		Class<?> nativeLibraryClass = Class.forName(
+		    JNA_NATIVE_LIBRARY_CLASS_NAME
+		);
+		Object library = nativeLibraryClass.getMethod(
+		    "getInstance",
+		    String.class
+		).invoke(null, libraryName);
+		Object function = nativeLibraryClass.getMethod(
+		    "getFunction",
+		    String.class
+		).invoke(library, functionName);
+
+		/*
+		Invoke the native function.
+		*/
+		return Class.forName(JNA_FUNCTION_CLASS_NAME).getMethod(
+		    "invoke",
+		    Class.class,
+		    Object[].class
+		).invoke(function, returnType, arguments);
+	}
+
+	/*
+			---------------
+			| NATIVE LONG |
+			---------------
+
+	X11 resource identifiers are C unsigned longs, whose size depends on the
+	platform.
+	*/
+	private static Object newNativeLong(long value)
+	    throws
+	    ReflectiveOperationException
+	{
+		return Class.forName(JNA_NATIVE_LONG_CLASS_NAME).getConstructor(
+		    long.class
+		).newInstance(value);
+	}
+
+
+	/*
+		*****************
+		*** SUPPORTED ***
+		*****************
+
+	Support is determined on first use, and revoked after any failure.
+	*/
+	private static Boolean supported;
+
+	/**
+	 * @return	true if input shapes can be set on this platform
+	 */
+	public static boolean isSupported() {
+		if (supported == null) {
+			supported = X11.isDisplayAvailable();
+
+			/*
+			Check if the JNA library is present.
+			*/
+			if (supported) {
+				try {
+					Class.forName(JNA_NATIVE_LIBRARY_CLASS_NAME);
+				} catch (ClassNotFoundException exception) {
+					supported = false;
+				}
+			}
+		}
+
+		return supported;
+	}
+
+
+	/*
+		*********************
+		*** NATIVE WINDOW ***
+		*********************
+	*/
+	/**
+	 * @return		X11 window identifier of the given window
+	 *
+	 * @throws ReflectiveOperationException	The JavaFX implementation
+	 *						does not expose the
+	 *						native window handle as
+	 *						expected.
+	 */
+	private static long getNativeWindowHandle(Window window)
+	    throws
+	    ReflectiveOperationException
+	{
+		/*
+		Obtain the toolkit peer of the window, which is exposed directly
+		by JavaFX 8, and through a helper class by later versions.
+		*/
+		Object peer;
+		try {
+			peer = Window.class.getMethod("impl_getPeer").invoke(
+			    window
+			);
+		} catch (NoSuchMethodException exception) {
+			peer = Class.forName(
+			    "com.sun.javafx.stage.WindowHelper"
+			).getMethod(
+			    "getPeer",
+			    Window.class
+			).invoke(null, window);
+		}
+		if (peer == null) {
+			throw new IllegalStateException(
+			    "The window is not showing."
+			);
+		}
+
+		/*
+		Obtain the glass platform window from the peer, searching the
+		class hierarchy, as the accessor is not public.
+		*/
+		Method getPlatformWindowMethod = null;
+		for (
+		    Class<?> peerClass = peer.getClass();
+		    peerClass != null && getPlatformWindowMethod == null;
+		    peerClass = peerClass.getSuperclass()
+		) {
+			try {
+				getPlatformWindowMethod =
+				    peerClass.getDeclaredMethod(
+				    "getPlatformWindow"
+				);
+			} catch (NoSuchMethodException exception) {
+				getPlatformWindowMethod = null;
+			}
+		}
+		if (getPlatformWindowMethod == null) {
+			throw new NoSuchMethodException(
+			    "getPlatformWindow"
+			);
+		}
+		getPlatformWindowMethod.setAccessible(true);
+		Object platformWindow = getPlatformWindowMethod.invoke(peer);
+
+		/*
+		The GTK glass implementation returns the X11 window identifier
+		as the native window handle.
+		*/
+		return (Long) platformWindow.getClass().getMethod(
+		    "getNativeWindow"
+		).invoke(platformWindow);
+	}
+
+
+	/*
+		***************
+		*** DISPLAY ***
+		***************
+
+	A separate connection to the default display is used, as the one held
+	by the glass implementation is not accessible. It is opened on first use
+	and kept open for the remainder of the session, as opening a connection
+	costs a round trip to the X server. Requests are flushed explicitly
+	instead of by closing it.
+	*/
+	private static Object display;
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	private static Object getDisplay()
+	    throws
+	    ReflectiveOperationException
+	{
+		if (display == null) {
+			display = invokeFunction(
+			    X11_LIBRARY_NAME,
+			    "XOpenDisplay",
+			    Class.forName(JNA_POINTER_CLASS_NAME),
+			    new Object[] {null}
+			);
+			if (display == null) {
+				throw new IllegalStateException(
+				    "Failed to open X display."
+				);
+			}
+		}
+
+		return display;
+	}
+
+	/*
+			---------
+			| FLUSH |
+			---------
+	*/
+	private static void flush()
+	    throws
+	    ReflectiveOperationException
+	{
+		invokeFunction(
+		    X11_LIBRARY_NAME,
+		    "XFlush",
+		    Integer.class,
+		    getDisplay()
+		);
+	}
+
+
+	/*
+		*************
+		*** APPLY ***
+		*************
+	*/
+	/*
+			---------
+			| EMPTY |
+			---------
+	*/
+	/**
+	 * This method sets an empty input shape on the given window, so that
+	 * all pointer events pass through it. The window must be showing, and
+	 * the input shape must be set again whenever it is shown, as JavaFX
+	 * creates a new native window each time.
+	 *
+	 *
+	 * @param window	showing window
+	 *
+	 * @return		true if the input shape was set
+	 */
+	public static boolean setEmpty(Window window) {
+		return setInputShape(window, true);
+	}
+
+	/*
+			-----------
+			| DEFAULT |
+			-----------
+	*/
+	/**
+	 * This method restores the default input shape of the given window, so
+	 * that it receives pointer events again.
+	 *
+	 *
+	 * @param window	showing window
+	 *
+	 * @return		true if the input shape was restored
+	 */
+	public static boolean setDefault(Window window) {
+		return setInputShape(window, false);
+	}
+
+	/*
+			------------
+			| INTERNAL |
+			------------
+	*/
+	private static boolean setInputShape(
+	    Window window,
+	    boolean empty
+	) {
+		/*
+		Validate arguments.
+		*/
+		if (window == null) {
+			throw new NullPointerException(
+			    "window == null"
+			);
+		}
+
+		/*
+		Check if input shapes are supported.
+		*/
+		if (!isSupported()) {
+			return false;
+		}
+
+		try {
+			long nativeWindowHandle = getNativeWindowHandle(window);
+
+			if (empty) {
+				/*
+				Combine an empty list of rectangles into the
+				input shape.
+				*/
+				invokeFunction(
+				    XEXT_LIBRARY_NAME,
+				    "XShapeCombineRectangles",
+				    Void.class,
+				    getDisplay(),
+				    newNativeLong(nativeWindowHandle),
+				    SHAPE_INPUT,
+				    0,
+				    0,
+				    null,
+				    0,
+				    SHAPE_SET,
+				    UNSORTED
+				);
+			} else {
+				/*
+				Combining no mask into the input shape removes
+				it.
+				*/
+				invokeFunction(
+				    XEXT_LIBRARY_NAME,
+				    "XShapeCombineMask",
+				    Void.class,
+				    getDisplay(),
+				    newNativeLong(nativeWindowHandle),
+				    SHAPE_INPUT,
+				    0,
+				    0,
+				    newNativeLong(NONE),
+				    SHAPE_SET
+				);
+			}
+			flush();
+
+			return true;
+		} catch (ReflectiveOperationException | RuntimeException | LinkageError exception) {
+			fail(exception);
+
+			return false;
+		}
+	}
+
+	/*
+			-----------
+			| FAILURE |
+			-----------
+
+	Support is revoked for the remainder of the session, and the failure is
+	logged once.
+	*/
+	private static void fail(Throwable exception) {
+		supported = false;
+		ApplicationLog.log(
+		    Level.WARNING,
+		    X11InputShape.class,
+		    "Failed to access the X11 input shape, falling back " +
+		    "to the cursor window.",
+		    exception
+		);
+	}
+
+
+	/*
+		*************
+		*** QUERY ***
+		*************
+	*/
+	/**
+	 * This method counts the rectangles making up the input shape of the
+	 * given window, as reported by the X server, so that an input shape
+	 * which was set can be verified, such as under Xvfb.
+	 *
+	 *
+	 * @param window	showing window
+	 *
+	 * @return		number of rectangles in the input shape, which
+	 *			is zero if the input shape is empty, or -1 if
+	 *			input shapes are not supported
+	 */
+	public static int getInputShapeRectangleCount(Window window) {
+		/*
+		Validate arguments.
+		*/
+		if (window == null) {
+			throw new NullPointerException(
+			    "window == null"
+			);
+		}
+
+		/*
+		Check if input shapes are supported.
+		*/
+		if (!isSupported()) {
+			return -1;
+		}
+
+		try {
+			Class<?> intByReferenceClass = Class.forName(
+			    JNA_INT_BY_REFERENCE_CLASS_NAME
+			);
+			Object count = intByReferenceClass.getConstructor().newInstance();
+			Object ordering = intByReferenceClass.getConstructor().newInstance();
+
+			/*
+			Query the input shape, and free the rectangles returned.
+			*/
+			Object rectangles = invokeFunction(
+			    XEXT_LIBRARY_NAME,
+			    "XShapeGetRectangles",
+			    Class.forName(JNA_POINTER_CLASS_NAME),
+			    getDisplay(),
+			    newNativeLong(getNativeWindowHandle(window)),
+			    SHAPE_INPUT,
+			    count,
+			    ordering
+			);
+			if (rectangles != null) {
+				invokeFunction(
+				    X11_LIBRARY_NAME,
+				    "XFree",
+				    Integer.class,
+				    rectangles
+				);
+			}
+
+			return (Integer) intByReferenceClass.getMethod(
+			    "getValue"
+			).invoke(count);
+		} catch (ReflectiveOperationException | RuntimeException | LinkageError exception) {
+			fail(exception);
+
+			return -1;
+		}
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private X11InputShape() {}
+}
\ No newline at end of file
@@ -0,0 +1,381 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.platform;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class queries the extended window manager hints of the active window
+ * through the xprop command line utility, which lets the application find out
+ * whether another application has taken over a screen in full screen mode.
+ *
+ * The query methods of this class block until the xprop process exits, and the
+ * read methods of a {@link Spy spy} until the property changes, so they should
+ * not be called from the JavaFX application thread.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.38.0
+ * @since 0.37.0
+ */
+public class XProp {
+	/*
+		***************
+		*** COMMAND ***
+		***************
+	*/
+	public static final String COMMAND_NAME = "xprop";
+
+
+	/*
+		*********************
+		*** ACTIVE WINDOW ***
+		*********************
+
+	The window manager publishes the active window on the root window, as in
+	"_NET_ACTIVE_WINDOW(WINDOW): window id # 0x3a00007", where the identifier
+	is zero while no window is active.
+	*/
+	public static final long NO_WINDOW_ID = 0;
+
+	private static final String ACTIVE_WINDOW_PROPERTY_NAME =
+	    "_NET_ACTIVE_WINDOW";
+
+	private static final Pattern WINDOW_ID_PATTERN = Pattern.compile(
+	    "window id # 0x([0-9a-fA-F]+)"
+	);
+
+	/*
+			---------
+			| QUERY |
+			---------
+	*/
+	/**
+	 * @return	identifier of the active window, or
+	 *		{@link #NO_WINDOW_ID} if there is none, or the window
+	 *		manager doesn't publish it
+	 *
+	 * @throws IOException		Failed to run xprop.
+	 */
+	public static long queryActiveWindowId()
+	    throws
+	    IOException
+	{
+		for (String line : CommandLine.run(
+		    COMMAND_NAME,
+		    "-root",
+		    ACTIVE_WINDOW_PROPERTY_NAME
+		)) {
+			Matcher matcher = WINDOW_ID_PATTERN.matcher(line);
+			if (matcher.find()) {
+				return Long.parseLong(matcher.group(1), 16);
+			}
+		}
+
+		return NO_WINDOW_ID;
+	}
+
+	/*
+			-------
+			| SPY |
+			-------
+	*/
+	/**
+	 * @return	spy following the active window
+	 *
+	 * @throws IOException		Failed to start xprop.
+	 */
+	public static Spy spyActiveWindow()
+	    throws
+	    IOException
+	{
+		return new Spy("-root", ACTIVE_WINDOW_PROPERTY_NAME);
+	}
+
+	/**
+	 * This method blocks until the spy prints the active window, which it
+	 * does once when started, and again whenever another window becomes
+	 * active.
+	 *
+	 *
+	 * @param spy	spy following the active window
+	 *
+	 * @return	identifier of the active window, or
+	 *		{@link #NO_WINDOW_ID} if there is none, or the window
+	 *		manager doesn't publish it
+	 *
+	 * @throws IOException		xprop exited, or the spy was closed.
+	 */
+	public static long readActiveWindowId(Spy spy)
+	    throws
+	    IOException
+	{
+		String line = spy.readPropertyLine(ACTIVE_WINDOW_PROPERTY_NAME);
+		Matcher matcher = WINDOW_ID_PATTERN.matcher(line);
+		return matcher.find() ?
+		    Long.parseLong(matcher.group(1), 16) :
+		    NO_WINDOW_ID;
+	}
+
+
+	/*
+		********************
+		*** WINDOW STATE ***
+		********************
+	*/
+	/**
+	 * This class describes the state of a window.
+	 */
+	public static final class WindowState {
+		private final boolean fullscreen;
+		private final List<String> classNames;
+
+		private WindowState(boolean fullscreen, List<String> classNames) {
+			this.fullscreen = fullscreen;
+			this.classNames = Collections.unmodifiableList(classNames);
+		}
+
+		/**
+		 * @return	true if the window is in full screen mode
+		 */
+		public boolean isFullscreen() {
+			return fullscreen;
+		}
+
+		/**
+		 * @return	instance and class names of the window, which
+		 *		may be empty if the window doesn't set them
+		 */
+		public List<String> getClassNames() {
+			return classNames;
+		}
+	}
+
+	/*
+			---------
+			| QUERY |
+			---------
+
+	The state is printed as a list of atoms, as in "_NET_WM_STATE(ATOM) =
+	_NET_WM_STATE_FULLSCREEN", and the class as a list of strings, as in
+	"WM_CLASS(STRING) = "vlc", "vlc"". Missing properties are printed as
+	"not found" instead.
+	*/
+	private static final String STATE_PROPERTY_NAME = "_NET_WM_STATE";
+	private static final String FULLSCREEN_STATE = "_NET_WM_STATE_FULLSCREEN";
+	private static final String CLASS_PROPERTY_NAME = "WM_CLASS";
+
+	private static final Pattern STRING_PATTERN = Pattern.compile(
+	    "\"([^\"]*)\""
+	);
+
+	/**
+	 * @param windowId	window identifier
+	 *
+	 * @return		state of the window
+	 *
+	 * @throws IOException		Failed to run xprop, such as when the
+	 *				window has been destroyed in the meantime.
+	 */
+	public static WindowState queryWindowState(long windowId)
+	    throws
+	    IOException
+	{
+		boolean fullscreen = false;
+		ArrayList<String> classNames = new ArrayList<>();
+		for (String line : CommandLine.run(
+		    COMMAND_NAME,
+		    "-id",
+		    "0x" + Long.toHexString(windowId),
+		    STATE_PROPERTY_NAME,
+		    CLASS_PROPERTY_NAME
+		)) {
+			if (line.startsWith(STATE_PROPERTY_NAME + "(")) {
+				fullscreen = isFullscreenStateLine(line);
+			} else if (line.startsWith(CLASS_PROPERTY_NAME + "(")) {
+				Matcher matcher = STRING_PATTERN.matcher(line);
+				while (matcher.find()) {
+					classNames.add(matcher.group(1));
+				}
+			}
+		}
+
+		return new WindowState(fullscreen, classNames);
+	}
+
+	private static boolean isFullscreenStateLine(String line) {
+		if (!line.startsWith(STATE_PROPERTY_NAME + "(")) {
+			return false;
+		}
+
+		for (String atom : line.substring(
+		    line.indexOf('=') + 1
+		).split(",")) {
+			if (atom.trim().equals(FULLSCREEN_STATE)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/*
+			-------
+			| SPY |
+			-------
+	*/
+	/**
+	 * @param windowId	window identifier
+	 *
+	 * @return		spy following the full screen mode of the
+	 *			window
+	 *
+	 * @throws IOException		Failed to start xprop.
+	 */
+	public static Spy spyWindowFullscreen(long windowId)
+	    throws
+	    IOException
+	{
+		return new Spy(
+		    "-id",
+		    "0x" + Long.toHexString(windowId),
+		    STATE_PROPERTY_NAME
+		);
+	}
+
+	/**
+	 * This method blocks until the spy prints the state of the window,
+	 * which it does once when started, and again whenever the state
+	 * changes.
+	 *
+	 *
+	 * @param spy	spy following the full screen mode of a window
+	 *
+	 * @return	true if the window is in full screen mode
+	 *
+	 * @throws IOException		xprop exited, such as when the window
+	 *				has been destroyed, or the spy was
+	 *				closed.
+	 */
+	public static boolean readFullscreen(Spy spy)
+	    throws
+	    IOException
+	{
+		return isFullscreenStateLine(
+		    spy.readPropertyLine(STATE_PROPERTY_NAME)
+		);
+	}
+
+
+	/*
+		***********
+		*** SPY ***
+		***********
+	*/
+	/**
+	 * This class keeps an xprop process running in spy mode, in which it
+	 * prints a property once, and again whenever it changes, so that the
+	 * property can be followed without polling. The process keeps running
+	 * until the spy is closed, or the window it follows is destroyed.
+	 */
+	public static final class Spy implements Closeable {
+		private final Process process;
+		private final BufferedReader reader;
+
+		private Spy(String... arguments) throws IOException {
+			String[] command = new String[arguments.length + 2];
+			command[0] = COMMAND_NAME;
+			command[1] = "-spy";
+			System.arraycopy(arguments, 0, command, 2, arguments.length);
+
+			process = CommandLine.start(command);
+			reader = new BufferedReader(new InputStreamReader(
+			    process.getInputStream(),
+			    StandardCharsets.UTF_8
+			));
+		}
+
+		/*
+			...........
+			... READ ...
+			...........
+
+		Lines printed for other reasons, such as errors, are skipped.
+		*/
+		private String readPropertyLine(String propertyName)
+		    throws
+		    IOException
+		{
+			for (
+			    String line = reader.readLine();
+			    line != null;
+			    line = reader.readLine()
+			) {
+				if (line.startsWith(propertyName)) {
+					return line;
+				}
+			}
+
+			throw new IOException(
+			    COMMAND_NAME + " stopped spying on " + propertyName +
+			    "."
+			);
+		}
+
+		/*
+			............
+			... CLOSE ...
+			............
+		*/
+		/**
+		 * This method stops the xprop process, which makes any
+		 * blocked read fail. It may be called from any thread.
+		 */
+		@Override
+		public void close() {
+			process.destroy();
+		}
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private XProp() {}
+}
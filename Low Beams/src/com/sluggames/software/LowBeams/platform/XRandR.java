@@ -0,0 +1,243 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.platform;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javafx.geometry.Rectangle2D;
+
+/**
+ * This class controls the brightness of X11 outputs through the xrandr command
+ * line utility, which is installed alongside virtually every X server. Setting
+ * the brightness of an output scales its gamma ramp in the display hardware,
+ * so dimming this way costs nothing per frame.
+ *
+ * All methods of this class block until the xrandr process exits, so they
+ * should not be called from the JavaFX application thread.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.35.0
+ * @since 0.17.0
+ */
+public class XRandR {
+	/*
+		***************
+		*** COMMAND ***
+		***************
+	*/
+	public static final String COMMAND_NAME = "xrandr";
+
+	public static final long COMMAND_TIMEOUT_MILLISECONDS = 2000;
+
+	/*
+			-------
+			| RUN |
+			-------
+	*/
+	/**
+	 * @param arguments	command arguments
+	 *
+	 * @return		lines printed by the command
+	 *
+	 * @throws IOException		The command could not be run, or did not
+	 *				exit successfully in time.
+	 */
+	private static List<String> run(String... arguments)
+	    throws
+	    IOException
+	{
+		String[] command = new String[arguments.length + 1];
+		command[0] = COMMAND_NAME;
+		System.arraycopy(arguments, 0, command, 1, arguments.length);
+
+		return CommandLine.run(COMMAND_TIMEOUT_MILLISECONDS, command);
+	}
+
+
+	/*
+		***************
+		*** OUTPUTS ***
+		***************
+	*/
+	/**
+	 * This class describes a connected and active X11 output.
+	 */
+	public static final class Output {
+		private final String name;
+		private final Rectangle2D bounds;
+
+		private Output(String name, Rectangle2D bounds) {
+			this.name = name;
+			this.bounds = bounds;
+		}
+
+		/**
+		 * @return	output name, such as "HDMI-1"
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return	output bounds in the X screen, in pixels
+		 */
+		public Rectangle2D getBounds() {
+			return bounds;
+		}
+	}
+
+	/*
+			---------
+			| QUERY |
+			---------
+
+	Connected outputs which are currently active are listed along with their
+	geometry, such as "HDMI-1 connected primary 1920x1080+0+0 ...".
+	*/
+	private static final Pattern OUTPUT_PATTERN = Pattern.compile(
+	    "^(\\S+) connected (?:primary )?(\\d+)x(\\d+)\\+(\\d+)\\+(\\d+).*"
+	);
+
+	/**
+	 * @return		all connected and active outputs
+	 *
+	 * @throws IOException		Failed to query outputs.
+	 */
+	public static List<Output> queryOutputs()
+	    throws
+	    IOException
+	{
+		ArrayList<Output> outputs = new ArrayList<>();
+		for (String line : run("--query")) {
+			Matcher matcher = OUTPUT_PATTERN.matcher(line);
+			if (matcher.matches()) {
+				outputs.add(new Output(
+				    matcher.group(1),
+				    new Rectangle2D(
+				    Double.parseDouble(matcher.group(4)),
+				    Double.parseDouble(matcher.group(5)),
+				    Double.parseDouble(matcher.group(2)),
+				    Double.parseDouble(matcher.group(3))
+				)));
+			}
+		}
+
+		return Collections.unmodifiableList(outputs);
+	}
+
+
+	/*
+		******************
+		*** BRIGHTNESS ***
+		******************
+	*/
+	public static final double DEFAULT_BRIGHTNESS = 1;
+
+	/*
+			---------
+			| QUERY |
+			---------
+
+	The verbose query lists the properties of each output below its header
+	line, including a line such as "Brightness: 0.80".
+	*/
+	private static final Pattern BRIGHTNESS_PATTERN = Pattern.compile(
+	    "^\\s+Brightness:\\s+(\\S+)$"
+	);
+
+	/**
+	 * @param outputName	output name
+	 *
+	 * @return		current brightness of the output, or the default
+	 *			brightness if it is not reported
+	 *
+	 * @throws IOException		Failed to query brightness.
+	 */
+	public static double queryBrightness(String outputName)
+	    throws
+	    IOException
+	{
+		boolean inOutput = false;
+		for (String line : run("--verbose", "--query")) {
+			/*
+			Output header lines are the only ones which aren't
+			indented.
+			*/
+			if (!line.isEmpty() && !Character.isWhitespace(line.charAt(0))) {
+				inOutput = line.startsWith(outputName + " ");
+				continue;
+			}
+
+			if (inOutput) {
+				Matcher matcher = BRIGHTNESS_PATTERN.matcher(line);
+				if (matcher.matches()) {
+					return Double.parseDouble(matcher.group(1));
+				}
+			}
+		}
+
+		return DEFAULT_BRIGHTNESS;
+	}
+
+	/*
+			-------
+			| SET |
+			-------
+	*/
+	/**
+	 * @param outputName	output name
+	 * @param brightness	new brightness, where 1 is unchanged
+	 *
+	 * @throws IOException		Failed to set brightness.
+	 */
+	public static void setBrightness(String outputName, double brightness)
+	    throws
+	    IOException
+	{
+		run(
+		    "--output",
+		    outputName,
+		    "--brightness",
+		    String.format(Locale.ROOT, "%.3f", brightness)
+		);
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private XRandR() {}
+}
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.platform;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class queries the X11 display power management state through the xset
+ * command line utility, which is installed alongside virtually every X server.
+ *
+ * All methods of this class block until the xset process exits, so they should
+ * not be called from the JavaFX application thread.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.35.0
+ * @since 0.35.0
+ */
+public class XSet {
+	/*
+		***************
+		*** COMMAND ***
+		***************
+	*/
+	public static final String COMMAND_NAME = "xset";
+
+
+	/*
+		*********************
+		*** MONITOR STATE ***
+		*********************
+
+	The query prints the monitor state as "Monitor is On", "Off", "Standby"
+	or "Suspend" in its display power management section, which is only
+	present while display power management is enabled.
+	*/
+	private static final Pattern MONITOR_STATE_PATTERN = Pattern.compile(
+	    "^\\s*Monitor is (\\w+)"
+	);
+
+	private static final String MONITOR_ON_STATE = "On";
+
+	/*
+			---------
+			| QUERY |
+			---------
+	*/
+	/**
+	 * @return	true if display power management has put the monitors to
+	 *		sleep, in any of its power saving states
+	 *
+	 * @throws IOException		Failed to run xset.
+	 */
+	public static boolean queryMonitorAsleep()
+	    throws
+	    IOException
+	{
+		for (String line : CommandLine.run(COMMAND_NAME, "q")) {
+			Matcher matcher = MONITOR_STATE_PATTERN.matcher(line);
+			if (matcher.find()) {
+				return !matcher.group(1).equals(MONITOR_ON_STATE);
+			}
+		}
+
+		return false;
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private XSet() {}
+}
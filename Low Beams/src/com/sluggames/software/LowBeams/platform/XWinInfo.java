@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Slug Games
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.sluggames.software.LowBeams.platform;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javafx.geometry.Rectangle2D;
+
+/**
+ * This class queries the geometry of a window through the xwininfo command line
+ * utility, which is installed alongside xprop.
+ *
+ * All methods of this class block until the xwininfo process exits, so they
+ * should not be called from the JavaFX application thread.
+ *
+ *
+ * @author david.boeger@sluggames.com
+ *
+ * @version 0.37.0
+ * @since 0.37.0
+ */
+public class XWinInfo {
+	/*
+		***************
+		*** COMMAND ***
+		***************
+	*/
+	public static final String COMMAND_NAME = "xwininfo";
+
+
+	/*
+		**************
+		*** BOUNDS ***
+		**************
+
+	The geometry is printed as one "name: value" line per field, such as
+	"Absolute upper-left X:  0" and "Width: 1920", in device pixels.
+	*/
+	private static final Pattern FIELD_PATTERN = Pattern.compile(
+	    "^\\s*(Absolute upper-left X|Absolute upper-left Y|Width|Height):\\s*(-?\\d+)"
+	);
+
+	/*
+			---------
+			| QUERY |
+			---------
+	*/
+	/**
+	 * @param windowId	window identifier
+	 *
+	 * @return		bounds of the window relative to the root
+	 *			window, in device pixels
+	 *
+	 * @throws IOException		Failed to run xwininfo, or it didn't
+	 *				print the full geometry.
+	 */
+	public static Rectangle2D queryWindowBounds(long windowId)
+	    throws
+	    IOException
+	{
+		double minX = Double.NaN;
+		double minY = Double.NaN;
+		double width = Double.NaN;
+		double height = Double.NaN;
+		for (String line : CommandLine.run(
+		    COMMAND_NAME,
+		    "-id",
+		    "0x" + Long.toHexString(windowId)
+		)) {
+			Matcher matcher = FIELD_PATTERN.matcher(line);
+			if (!matcher.find()) {
+				continue;
+			}
+
+			double value = Double.parseDouble(matcher.group(2));
+			switch (matcher.group(1)) {
+				case "Absolute upper-left X":
+					minX = value;
+					break;
+				case "Absolute upper-left Y":
+					minY = value;
+					break;
+				case "Width":
+					width = value;
+					break;
+				default:
+					height = value;
+					break;
+			}
+		}
+
+		if (
+		    Double.isNaN(minX) ||
+		    Double.isNaN(minY) ||
+		    Double.isNaN(width) ||
+		    Double.isNaN(height)
+		) {
+			throw new IOException(
+			    COMMAND_NAME + " printed no geometry."
+			);
+		}
+
+		return new Rectangle2D(minX, minY, width, height);
+	}
+
+
+	/*
+		********************
+		*** CONSTRUCTION ***
+		********************
+
+	This class only contains static members, so it should never be
+	instantiated.
+	*/
+	private XWinInfo() {}
+}
@@ -23,18 +23,31 @@
  */
 package com.sluggames.software.LowBeams.resources.FXML.OverlayView;
 
+import com.sluggames.software.LowBeams.CursorTrace;
+import com.sluggames.software.LowBeams.CursorVelocityEstimator;
+import com.sluggames.software.LowBeams.CursorWindowGeometry;
+import com.sluggames.software.LowBeams.FrameBudgetGovernor;
+import com.sluggames.software.LowBeams.LatencyHistogram;
+import com.sluggames.software.LowBeams.OverlayProfile;
 import java.net.URL;
-import java.time.Duration;
-import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Locale;
 import javafx.animation.AnimationTimer;
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.BooleanBinding;
+import javafx.beans.binding.DoubleBinding;
+import javafx.beans.binding.ObjectBinding;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ObservableValue;
 import javafx.fxml.FXML;
+import javafx.scene.Group;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
 import javafx.scene.paint.Color;
@@ -49,7 +62,7 @@ import javafx.scene.shape.Rectangle;
  *
  * @author david.boeger@sluggames.com
  *
- * @version 0.12.0
+ * @version 0.38.0
  * @since 0.1.0
  */
 public class OverlayViewController {
@@ -143,11 +156,151 @@ public class OverlayViewController {
 		return colorProperty;
 	}
 
+	/*
+				\\\\\\\\\\
+				\ OPAQUE \
+				\\\\\\\\\\
+
+	When the overlay is opaque, the color is painted without its opacity,
+	which is expected to be applied once to the whole window instead, such
+	as through the stage opacity. This spares the compositor from blending
+	a semi-transparent full-screen surface pixel by pixel.
+	*/
+	public static final boolean DEFAULT_OPAQUE = false;
+
+	private final SimpleBooleanProperty opaqueProperty =
+	    new SimpleBooleanProperty(DEFAULT_OPAQUE);
+
+	/*
+					///////
+					/ GET /
+					///////
+	*/
+	public BooleanProperty opaqueProperty() {
+		return opaqueProperty;
+	}
+
+	/*
+				\\\\\\\\\\\\\\\\
+				\ MERGED COLOR \
+				\\\\\\\\\\\\\\\\
+
+	When other overlays are merged into this one, the merged color is the
+	composite of all their colors, and is displayed instead of the color.
+	It is null otherwise.
+	*/
+	private final SimpleObjectProperty<Color> mergedColorProperty =
+	    new SimpleObjectProperty<>();
+
+	/*
+					///////
+					/ GET /
+					///////
+	*/
+	public ObjectProperty<Color> mergedColorProperty() {
+		return mergedColorProperty;
+	}
+
+	/*
+				\\\\\\\\\\\\\\\\\
+				\ DISPLAY COLOR \
+				\\\\\\\\\\\\\\\\\
+	*/
+	private final ObjectBinding<Color> displayColorBinding =
+	    Bindings.createObjectBinding(() -> {
+		Color mergedColor = mergedColorProperty.get();
+
+		return mergedColor != null ? mergedColor : colorProperty.get();
+	    }, colorProperty, mergedColorProperty);
+
+	/*
+					///////
+					/ GET /
+					///////
+	*/
+	public ObjectBinding<Color> displayColorBinding() {
+		return displayColorBinding;
+	}
+
+	/*
+				\\\\\\\\\\\\\\
+				\ FILL COLOR \
+				\\\\\\\\\\\\\\
+
+	The fill color is the color which is actually painted, depending on
+	whether the overlay is opaque.
+	*/
+	private final ObjectBinding<Color> fillColorBinding =
+	    Bindings.createObjectBinding(() -> {
+		Color color = displayColorBinding.get();
+		if (opaqueProperty.get()) {
+			return Color.color(
+			    color.getRed(),
+			    color.getGreen(),
+			    color.getBlue()
+			);
+		}
+
+		return color;
+	    }, displayColorBinding, opaqueProperty);
+
 	/*
 			-----------------
 			| CURSOR WINDOW |
 			-----------------
 	*/
+	/*
+				\\\\\\\\\\\
+				\ ENABLED \
+				\\\\\\\\\\\
+
+	When the cursor window is disabled, such as when the overlay window is
+	input transparent and clicks already pass through it natively, the
+	overlay is rendered as a single static fill, and the cursor is not
+	tracked at all.
+	*/
+	public static final boolean DEFAULT_CURSOR_WINDOW_ENABLED = true;
+
+	private final SimpleBooleanProperty cursorWindowEnabledProperty =
+	    new SimpleBooleanProperty(DEFAULT_CURSOR_WINDOW_ENABLED);
+
+	/*
+					//////////////
+					/ INITIALIZE /
+					//////////////
+	*/
+	private void initializeCursorWindowEnabledProperty() {
+		/*
+		Add a change listener to the cursor window enabled property
+		which starts or stops tracking the cursor window accordingly.
+		*/
+		cursorWindowEnabledProperty.addListener((
+		    ObservableValue<? extends Boolean> cursorWindowEnabledObservableValue,
+		    Boolean cursorWindowEnabledOldValue,
+		    Boolean cursorWindowEnabledNewValue
+		) -> {
+			/*
+			Validate the new value.
+			*/
+			if (cursorWindowEnabledNewValue == null) {
+				throw new NullPointerException(
+				    "cursorWindowEnabledNewValue == null"
+				);
+			}
+
+			updateCursorWindowTrackingTimer();
+		});
+	}
+
+	/*
+					///////
+					/ GET /
+					///////
+	*/
+	public BooleanProperty cursorWindowEnabledProperty() {
+		return cursorWindowEnabledProperty;
+	}
+
 	/*
 				\\\\\\\\\\\\\\\\\\\\\\
 				\ TRACKING FREQUENCY \
@@ -160,6 +313,106 @@ public class OverlayViewController {
 	private final SimpleDoubleProperty cursorWindowTrackingFrequencyProperty =
 	    new SimpleDoubleProperty(DEFAULT_CURSOR_WINDOW_TRACKING_FREQUENCY);
 
+	private AnimationTimer cursorWindowTrackingTimer;
+	private boolean cursorWindowTrackingTimerStarted = false;
+
+	private static final long NO_PULSE_TIME = Long.MIN_VALUE;
+	private static final double NANOSECONDS_PER_SECOND = 1_000_000_000;
+
+	/*
+					///////////////////////
+					/ EFFECTIVE FREQUENCY /
+					///////////////////////
+
+	The cursor window tracking frequency chosen by the user is treated as a
+	maximum, unless tracking is velocity adaptive. The cursor window is
+	actually tracked at the effective frequency, which is lowered by the
+	frame budget governor whenever the JavaFX application thread is
+	overloaded, and raised again once it has recovered.
+
+	The effective frequency property is rounded to whole Hertz, and updated
+	at most a few times per second, as the governor and the cursor speed
+	change the frequency on almost every pulse while the cursor moves, and
+	each change would otherwise notify its listeners, such as the
+	preferences table. The frequency actually tracked at is not rounded.
+	*/
+	private final FrameBudgetGovernor frameBudgetGovernor =
+	    new FrameBudgetGovernor();
+
+	private final ReadOnlyDoubleWrapper effectiveCursorWindowTrackingFrequencyProperty =
+	    new ReadOnlyDoubleWrapper(DEFAULT_CURSOR_WINDOW_TRACKING_FREQUENCY);
+
+	public ReadOnlyDoubleProperty effectiveCursorWindowTrackingFrequencyProperty() {
+		return effectiveCursorWindowTrackingFrequencyProperty.getReadOnlyProperty();
+	}
+
+	private static final long EFFECTIVE_CURSOR_WINDOW_TRACKING_FREQUENCY_PUBLISH_INTERVAL =
+	    250_000_000;
+
+	private long effectiveCursorWindowTrackingFrequencyPublishTime =
+	    NO_PULSE_TIME;
+
+	/*
+					/////////////////////
+					/ VELOCITY ADAPTIVE /
+					/////////////////////
+
+	When the tracking frequency is velocity adaptive, it is derived from the
+	recent cursor speed, ranging from the minimum frequency while the cursor
+	is still or nudged, up to the maximum frequency of the profile during
+	fast flicks, in place of the frequency chosen by the user, which would
+	otherwise keep flicks from being tracked any faster than a fixed
+	frequency would. The frame budget governor still applies on top.
+	*/
+	public static final boolean DEFAULT_CURSOR_WINDOW_TRACKING_VELOCITY_ADAPTIVE = true;
+
+	private final SimpleBooleanProperty cursorWindowTrackingVelocityAdaptiveProperty =
+	    new SimpleBooleanProperty(DEFAULT_CURSOR_WINDOW_TRACKING_VELOCITY_ADAPTIVE);
+
+	private final CursorVelocityEstimator cursorVelocityEstimator =
+	    new CursorVelocityEstimator();
+
+	public BooleanProperty cursorWindowTrackingVelocityAdaptiveProperty() {
+		return cursorWindowTrackingVelocityAdaptiveProperty;
+	}
+
+	/*
+					///////////
+					/ PROFILE /
+					///////////
+
+	The overlay profile caps the effective frequency, and may stop the
+	cursor window tracking timer while the cursor is idle, in which case
+	the next mouse moved event starts it again. It may also widen the dead
+	zone, and force tiled mode.
+	*/
+	private OverlayProfile profile = OverlayProfile.FULL;
+	private boolean cursorIdle = false;
+	private long latestCursorMoveTime = NO_PULSE_TIME;
+
+	/**
+	 * This method must be called from the JavaFX application thread.
+	 *
+	 *
+	 * @param profile	overlay profile to track the cursor window under
+	 */
+	public void setProfile(OverlayProfile profile) {
+		/*
+		Validate arguments.
+		*/
+		if (profile == null) {
+			throw new NullPointerException(
+			    "profile == null"
+			);
+		}
+
+		this.profile = profile;
+		profileTiledProperty.set(profile.isTiled());
+		cursorIdle = false;
+		latestCursorMoveTime = NO_PULSE_TIME;
+		updateCursorWindowTrackingTimer();
+	}
+
 	/*
 					//////////////
 					/ INITIALIZE /
@@ -200,101 +453,306 @@ public class OverlayViewController {
 		});
 
 		/*
-		Start a new animation timer, which is responsible for updating
+		Create a new animation timer, which is responsible for updating
 		the tracked cursor coordinates according to the cursor window
-		tracking frequency.
+		tracking frequency. The timer is started separately, as this
+		method may be run off the JavaFX application thread while the
+		view is loading.
+		*/
+		cursorWindowTrackingTimer = new AnimationTimer() {
+			@Override
+			public void handle(long currentPulseTime) {
+				pulse(currentPulseTime);
+			}
+		};
+	}
+
+	/*
+					///////
+					/ GET /
+					///////
+	*/
+	public DoubleProperty cursorWindowTrackingFrequencyProperty() {
+		return cursorWindowTrackingFrequencyProperty;
+	}
+
+	/*
+					/////////
+					/ PULSE /
+					/////////
+
+	Times are kept as nanoseconds, so that the pulse doesn't allocate.
+	*/
+	private long accumulatedTime = 0;
+	private long previousPulseTime = NO_PULSE_TIME;
+
+	/**
+	 * This method advances the cursor window tracking by one pulse. It is
+	 * called by the cursor window tracking timer, and is exposed so that
+	 * the tracking loop can be driven by simulated pulses, such as by the
+	 * allocation budget check.
+	 *
+	 *
+	 * @param currentPulseTime	time of the pulse, in nanoseconds
+	 */
+	public void pulse(long currentPulseTime) {
+		/*
+		Accumulate the time elapsed between pulses.
+		*/
+		if (previousPulseTime != NO_PULSE_TIME) {
+			accumulatedTime +=
+			    currentPulseTime - previousPulseTime;
+		}
+		previousPulseTime = currentPulseTime;
+
+		/*
+		Update the effective cursor window tracking
+		frequency according to the cursor speed, if it
+		is velocity adaptive, and the frame budget,
+		never exceeding the maximum of the profile.
+
+		While tracking at a fixed frequency, the
+		frequency chosen by the user is the maximum. While
+		tracking is velocity adaptive, the user has left
+		the choice to the cursor speed, so fast flicks
+		may be tracked up to the maximum frequency, while
+		reading and nudging drop to the minimum. The
+		governor still lowers either when the frame
+		budget is exceeded.
+		*/
+		boolean velocityAdaptive =
+		    cursorWindowTrackingVelocityAdaptiveProperty.get();
+		double maximumCursorWindowTrackingFrequency = velocityAdaptive ?
+		    profile.getMaximumCursorWindowTrackingFrequency() :
+		    Math.min(
+		    cursorWindowTrackingFrequencyProperty.get(),
+		    profile.getMaximumCursorWindowTrackingFrequency()
+		);
+
+		frameBudgetGovernor.recordPulse(currentPulseTime);
+		double effectiveCursorWindowTrackingFrequency =
+		    frameBudgetGovernor.update(
+		    currentPulseTime,
+		    MINIMUM_CURSOR_WINDOW_TRACKING_FREQUENCY,
+		    maximumCursorWindowTrackingFrequency
+		);
+		if (velocityAdaptive) {
+			effectiveCursorWindowTrackingFrequency = Math.min(
+			    effectiveCursorWindowTrackingFrequency,
+			    cursorVelocityEstimator.getFrequency(
+			    currentPulseTime,
+			    MINIMUM_CURSOR_WINDOW_TRACKING_FREQUENCY,
+			    maximumCursorWindowTrackingFrequency
+			));
+		}
+		double roundedCursorWindowTrackingFrequency =
+		    Math.rint(effectiveCursorWindowTrackingFrequency);
+		if (
+		    roundedCursorWindowTrackingFrequency != effectiveCursorWindowTrackingFrequencyProperty.get() && (
+		    effectiveCursorWindowTrackingFrequencyPublishTime == NO_PULSE_TIME ||
+		    currentPulseTime - effectiveCursorWindowTrackingFrequencyPublishTime >=
+		    EFFECTIVE_CURSOR_WINDOW_TRACKING_FREQUENCY_PUBLISH_INTERVAL
+		)) {
+			effectiveCursorWindowTrackingFrequencyProperty.set(
+			    roundedCursorWindowTrackingFrequency
+			);
+			effectiveCursorWindowTrackingFrequencyPublishTime =
+			    currentPulseTime;
+		}
+
+		/*
+		Derive the cursor window tracking time step from
+		the effective cursor window tracking frequency.
+		*/
+		long cursorWindowTrackingTimeStep = (long) (
+		    NANOSECONDS_PER_SECOND /
+		    effectiveCursorWindowTrackingFrequency
+		);
+
+		/*
+		Check if the time accumulated exceeds the cursor
+		window tracking time step.
 		*/
-		new AnimationTimer() {
+		if (accumulatedTime >= cursorWindowTrackingTimeStep) {
 			/*
-			........................
-			... ACCUMULATED TIME ...
-			........................
+			If so, track the cursor window, and
+			record the work for the frame budget.
 			*/
-			private Duration accumulatedTime = Duration.ZERO;
+			long trackingStartTime = System.nanoTime();
+			trackCursorWindow(currentPulseTime);
+			frameBudgetGovernor.recordWork(
+			    System.nanoTime() - trackingStartTime
+			);
 
 			/*
-				...........................
-				... PREVIOUS PULSE TIME ...
-				...........................
+			Consume accumulated time in chunks equal
+			to the cursor window tracking time step,
+			until left with the remainder, which is
+			exact in integer arithmetic.
 			*/
-			private Instant previousPulseTime = Instant.now();
+			accumulatedTime %= cursorWindowTrackingTimeStep;
+		}
 
+		/*
+		Stop the cursor window tracking timer once the cursor has been
+		idle for the idle timeout of the profile, which is timed from
+		the first pulse if the cursor hasn't moved at all.
+		*/
+		long cursorIdleTimeout = profile.getCursorIdleTimeoutNanoseconds();
+		if (cursorIdleTimeout > 0) {
+			if (latestCursorMoveTime == NO_PULSE_TIME) {
+				latestCursorMoveTime = currentPulseTime;
+			}
+			if (currentPulseTime - latestCursorMoveTime >= cursorIdleTimeout) {
+				cursorIdle = true;
+				updateCursorWindowTrackingTimer();
+			}
+		}
+	}
 
-			/*
-			..............
-			... HANDLE ...
-			..............
-			*/
-			@Override
-			public void handle(long ignoredTime) {
-				/*
-				Calculdate the time elapsed between pulses.
-				*/
-				Instant currentPulseTime = Instant.now();
-				Duration elapsedTime = Duration.between(
-				    previousPulseTime,
-				    currentPulseTime
-				);
-				previousPulseTime = currentPulseTime;
+	/*
+					/////////
+					/ TRACK /
+					/////////
 
-				/*
-				Accumulate the elapsed time.
-				*/
-				accumulatedTime =
-				    accumulatedTime.plus(
-				    elapsedTime
-				);
+	Outside of the dead zone, the latest cursor coordinates are quantized to
+	the snap scale, which is the device pixel grid of the target screen
+	unless the render scale is reduced. Ticks whose quantized coordinates
+	haven't changed are skipped entirely, as they couldn't change a single
+	pixel.
+	*/
+	private long trackingTickCount = 0;
+	private long skippedTrackingTickCount = 0;
 
-				/*
-				Derive the cursor window tracking time step from
-				the cursor window tracking frequency.
-				*/
-				Duration cursorWindowTrackingTimeStep =
-				    Duration.ofSeconds(1).dividedBy(
-				    cursorWindowTrackingFrequencyProperty.getValue().longValue()
-				);
+	private void trackCursorWindow(long pulseTime) {
+		trackingTickCount++;
 
-				/*
-				Check if the time accumulated exceeds the cursor
-				window tracking time step.
-				*/
-				if (accumulatedTime.compareTo(cursorWindowTrackingTimeStep) >= 0) {
-					/*
-					If so, update the tracked cursor
-					coordinates.
-					*/
-					trackedCursorXProperty.set(latestCursorX);
-					trackedCursorYProperty.set(latestCursorY);
-
-					/*
-					Repeatedly consume accumulated time in
-					chunks equal to the cursor window
-					tracking time step, until left with the
-					remainder. This could technically be
-					achieved as a constant-time division
-					operation, but subtraction preserves the
-					precision of integer arithmetic, and is
-					effectively bounded above by the maximum
-					cursor window tracking frequency.
-					*/
-					while (accumulatedTime.compareTo(cursorWindowTrackingTimeStep) >= 0) {
-						accumulatedTime =
-						    accumulatedTime.minus(
-						    cursorWindowTrackingTimeStep
-						);
-					}
-				}
-			}
-		}.start();
+		/*
+		Skip the tick while the cursor is within the dead zone, unless
+		it has settled.
+		*/
+		boolean cursorSettled = isCursorSettled(pulseTime);
+		if (!cursorSettled && isCursorWithinDeadZone()) {
+			skippedTrackingTickCount++;
+			pendingCursorMoveTime = NO_PULSE_TIME;
+			return;
+		}
+
+		/*
+		Quantize the latest cursor coordinates.
+		*/
+		double trackedCursorX = getSnappedTrackedCursorCoordinate(
+		    latestCursorX,
+		    snappedCursorWindowWidthBinding.get()
+		);
+		double trackedCursorY = getSnappedTrackedCursorCoordinate(
+		    latestCursorY,
+		    snappedCursorWindowHeightBinding.get()
+		);
+
+		/*
+		Skip the tick if nothing has changed.
+		*/
+		if (
+		    trackedCursorX == trackedCursorXProperty.get() &&
+		    trackedCursorY == trackedCursorYProperty.get()
+		) {
+			skippedTrackingTickCount++;
+			pendingCursorMoveTime = NO_PULSE_TIME;
+			return;
+		}
+
+		/*
+		Otherwise, update the tracked cursor coordinates, and record the
+		update, along with the latency since the cursor first moved.
+		*/
+		trackedCursorXProperty.set(trackedCursorX);
+		trackedCursorYProperty.set(trackedCursorY);
+		recordTrackedCursorUpdate();
+		if (pendingCursorMoveTime != NO_PULSE_TIME) {
+			cursorLatencyHistogram.record(
+			    pulseTime - pendingCursorMoveTime
+			);
+			intervalCursorLatencyHistogram.record(
+			    pulseTime - pendingCursorMoveTime
+			);
+			pendingCursorMoveTime = NO_PULSE_TIME;
+		}
 	}
 
 	/*
-					///////
-					/ GET /
-					///////
+					///////////
+					/ LATENCY /
+					///////////
+
+	The cursor latency is the time from the first mouse moved event which
+	the cursor window doesn't reflect yet, to the pulse which applies the
+	corresponding tracked cursor update. Ticks which find that no update is
+	necessary, such as within the dead zone, discard the pending move.
+
+	Each latency is recorded twice: into a cumulative histogram, and into an
+	interval histogram which its reader resets whenever it wants to start a
+	new interval, such as after logging it.
 	*/
-	public DoubleProperty cursorWindowTrackingFrequencyProperty() {
-		return cursorWindowTrackingFrequencyProperty;
+	private final LatencyHistogram cursorLatencyHistogram =
+	    new LatencyHistogram();
+	private final LatencyHistogram intervalCursorLatencyHistogram =
+	    new LatencyHistogram();
+
+	private long pendingCursorMoveTime = NO_PULSE_TIME;
+
+	/**
+	 * @return	histogram of cursor latencies, in nanoseconds
+	 */
+	public LatencyHistogram getCursorLatencyHistogram() {
+		return cursorLatencyHistogram;
+	}
+
+	/**
+	 * @return	histogram of cursor latencies since it was last reset,
+	 *		in nanoseconds
+	 */
+	public LatencyHistogram getIntervalCursorLatencyHistogram() {
+		return intervalCursorLatencyHistogram;
+	}
+
+	/**
+	 * @return	total number of cursor window tracking ticks
+	 */
+	public long getTrackingTickCount() {
+		return trackingTickCount;
+	}
+
+	/**
+	 * @return	number of cursor window tracking ticks which were
+	 *		skipped, as the quantized cursor coordinates hadn't
+	 *		changed
+	 */
+	public long getSkippedTrackingTickCount() {
+		return skippedTrackingTickCount;
+	}
+
+	/*
+					//////////
+					/ UPDATE /
+					//////////
+
+	The cursor window tracking timer only runs once started, while the
+	cursor window is enabled, and while the cursor isn't idle.
+	*/
+	private void updateCursorWindowTrackingTimer() {
+		if (
+		    cursorWindowTrackingTimerStarted &&
+		    cursorWindowEnabledProperty.get() &&
+		    !cursorIdle
+		) {
+			cursorWindowTrackingTimer.start();
+		} else {
+			cursorWindowTrackingTimer.stop();
+			frameBudgetGovernor.reset();
+			cursorVelocityEstimator.reset();
+			previousPulseTime = NO_PULSE_TIME;
+		}
 	}
 
 	/*
@@ -427,67 +885,373 @@ public class OverlayViewController {
 		return cursorWindowHeightProperty;
 	}
 
-
-	/*
-		*************
-		*** FXML  ***
-		*************
-	*/
-	/*
-			------------
-			| FILE URL |
-			------------
-	*/
-	public static final URL FXML_FILE_URL =
-	    OverlayViewController.class.getResource(
-	    "OverlayView.fxml"
-	);
-
-	/*
-			--------------
-			| COMPONENTS |
-			--------------
-	*/
 	/*
 				\\\\\\\\\\\\\
-				\ GRID PANE \
+				\ DEAD ZONE \
 				\\\\\\\\\\\\\
+
+	The dead zone is a tolerance box around the tracked cursor coordinates,
+	extending the dead zone distance in each direction. Small movements of
+	the cursor within it, such as those caused by hand tremor or high-DPI
+	mice, don't move the cursor window at all. Once the cursor leaves the
+	box, the cursor window moves, and is centered on the cursor again.
+
+	The dead zone is released once the cursor has settled, so the tracked
+	coordinates always end up exact when the cursor stops moving.
 	*/
-	@FXML
-	private GridPane gridPane;
+	public static final double MINIMUM_CURSOR_WINDOW_DEAD_ZONE = 0;
+	public static final double MAXIMUM_CURSOR_WINDOW_DEAD_ZONE = 32;
+	public static final double DEFAULT_CURSOR_WINDOW_DEAD_ZONE = 4;
+
+	public static final long CURSOR_SETTLING_TIME_NANOSECONDS =
+	    250_000_000;
+
+	private final SimpleDoubleProperty cursorWindowDeadZoneProperty =
+	    new SimpleDoubleProperty(DEFAULT_CURSOR_WINDOW_DEAD_ZONE);
 
 	/*
 					//////////////
 					/ INITIALIZE /
 					//////////////
 	*/
-	private void initializeGridPane() {
-		/*
-		Set the grid lines visible property to match the default value.
-		*/
-		gridPane.setGridLinesVisible(
-		    DEFAULT_GRID_LINES_VISIBLE
-		);
-
+	private void initializeCursorWindowDeadZoneProperty() {
 		/*
-		Set a mouse event listener which tracks the latest cursor
-		coordinates any time the mouse cursor is moved.
+		Add a change listener to the cursor window dead zone property
+		which enforces the acceptable range.
 		*/
-		gridPane.setOnMouseMoved((
-		    MouseEvent mouseEvent
+		cursorWindowDeadZoneProperty.addListener((
+		    ObservableValue<? extends Number> cursorWindowDeadZoneObservableValue,
+		    Number cursorWindowDeadZoneOldValue,
+		    Number cursorWindowDeadZoneNewValue
 		) -> {
-			latestCursorX = mouseEvent.getSceneX();
-			latestCursorY = mouseEvent.getSceneY();
-		});
-	}
-
-	/*
-				\\\\\\\\\\\\\\
-				\ RECTANGLES \
-				\\\\\\\\\\\\\\
-	*/
-	@FXML
-	private Rectangle topLeftRectangle;
+			/*
+			Validate the new value.
+			*/
+			if (cursorWindowDeadZoneNewValue == null) {
+				throw new NullPointerException(
+				    "cursorWindowDeadZoneNewValue == null"
+				);
+			}
+			if (cursorWindowDeadZoneNewValue.doubleValue() < MINIMUM_CURSOR_WINDOW_DEAD_ZONE) {
+				throw new IllegalArgumentException(
+				    "cursorWindowDeadZoneNewValue.doubleValue() (" + cursorWindowDeadZoneNewValue.doubleValue() + ")" +
+				    " < " +
+				    "MINIMUM_CURSOR_WINDOW_DEAD_ZONE (" + MINIMUM_CURSOR_WINDOW_DEAD_ZONE + ")"
+				);
+			}
+			if (cursorWindowDeadZoneNewValue.doubleValue() > MAXIMUM_CURSOR_WINDOW_DEAD_ZONE) {
+				throw new IllegalArgumentException(
+				    "cursorWindowDeadZoneNewValue.doubleValue() (" + cursorWindowDeadZoneNewValue.doubleValue() + ")" +
+				    " > " +
+				    "MAXIMUM_CURSOR_WINDOW_DEAD_ZONE (" + MAXIMUM_CURSOR_WINDOW_DEAD_ZONE + ")"
+				);
+			}
+		});
+	}
+
+	/*
+					///////
+					/ GET /
+					///////
+	*/
+	public DoubleProperty cursorWindowDeadZoneProperty() {
+		return cursorWindowDeadZoneProperty;
+	}
+
+	/*
+					////////////
+					/ SETTLING /
+					////////////
+
+	The cursor is considered settled once its latest coordinates haven't
+	changed for the settling time.
+	*/
+	private double settlingCursorX = Double.NaN;
+	private double settlingCursorY = Double.NaN;
+	private long settlingStartTime = 0;
+
+	private boolean isCursorSettled(long pulseTime) {
+		if (latestCursorX != settlingCursorX || latestCursorY != settlingCursorY) {
+			settlingCursorX = latestCursorX;
+			settlingCursorY = latestCursorY;
+			settlingStartTime = pulseTime;
+		}
+
+		return pulseTime - settlingStartTime >= CURSOR_SETTLING_TIME_NANOSECONDS;
+	}
+
+	/*
+					/////////////
+					/ TOLERANCE /
+					/////////////
+	*/
+	private boolean isCursorWithinDeadZone() {
+		double deadZone = Math.max(
+		    cursorWindowDeadZoneProperty.get(),
+		    profile.getMinimumCursorWindowDeadZone()
+		);
+
+		return
+		    Math.abs(latestCursorX - trackedCursorXProperty.get()) <= deadZone &&
+		    Math.abs(latestCursorY - trackedCursorYProperty.get()) <= deadZone;
+	}
+
+
+	/*
+			--------------
+			| SNAP SCALE |
+			--------------
+
+	The edges of the cursor window are snapped to multiples of the inverse
+	snap scale, so that they fall on pixel boundaries of the surface the
+	overlay is rendered to. This keeps the edges crisp, even when that
+	surface has a lower resolution than the screen.
+	*/
+	public static final double DEFAULT_SNAP_SCALE = 1;
+
+	private final SimpleDoubleProperty snapScaleProperty =
+	    new SimpleDoubleProperty(DEFAULT_SNAP_SCALE);
+
+	/*
+				\\\\\\\\\\\\\\
+				\ INITIALIZE \
+				\\\\\\\\\\\\\\
+	*/
+	private void initializeSnapScaleProperty() {
+		/*
+		Add a change listener to the snap scale property which enforces
+		the acceptable range.
+		*/
+		snapScaleProperty.addListener((
+		    ObservableValue<? extends Number> snapScaleObservableValue,
+		    Number snapScaleOldValue,
+		    Number snapScaleNewValue
+		) -> {
+			/*
+			Validate the new value.
+			*/
+			if (snapScaleNewValue == null) {
+				throw new NullPointerException(
+				    "snapScaleNewValue == null"
+				);
+			}
+			if (!(snapScaleNewValue.doubleValue() > 0)) {
+				throw new IllegalArgumentException(
+				    "snapScaleNewValue.doubleValue() (" + snapScaleNewValue.doubleValue() + ")" +
+				    " <= 0"
+				);
+			}
+		});
+	}
+
+	/*
+				\\\\\\\
+				\ GET \
+				\\\\\\\
+	*/
+	public DoubleProperty snapScaleProperty() {
+		return snapScaleProperty;
+	}
+
+	/*
+				\\\\\\\\
+				\ SNAP \
+				\\\\\\\\
+	*/
+	/**
+	 * @param value		scene coordinate or length
+	 *
+	 * @return		value rounded to the nearest multiple of the
+	 *			inverse snap scale
+	 */
+	private double snap(double value) {
+		double snapScale = snapScaleProperty.get();
+
+		return Math.round(value * snapScale) / snapScale;
+	}
+
+	/*
+				\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\
+				\ SNAPPED CURSOR WINDOW LENGTHS \
+				\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\
+	*/
+	private final DoubleBinding snappedCursorWindowWidthBinding =
+	    Bindings.createDoubleBinding(() -> {
+		return snap(cursorWindowWidthProperty.get());
+	    }, cursorWindowWidthProperty, snapScaleProperty);
+
+	private final DoubleBinding snappedCursorWindowHeightBinding =
+	    Bindings.createDoubleBinding(() -> {
+		return snap(cursorWindowHeightProperty.get());
+	    }, cursorWindowHeightProperty, snapScaleProperty);
+
+
+	/*
+		*************
+		*** FXML  ***
+		*************
+	*/
+	/*
+			------------
+			| FILE URL |
+			------------
+	*/
+	public static final URL FXML_FILE_URL =
+	    OverlayViewController.class.getResource(
+	    "OverlayView.fxml"
+	);
+
+	/*
+			--------------
+			| COMPONENTS |
+			--------------
+	*/
+	/*
+				\\\\\\\\\\\\\
+				\ GRID PANE \
+				\\\\\\\\\\\\\
+	*/
+	@FXML
+	private GridPane gridPane;
+
+	/*
+					/////////
+					/ STYLE /
+					/////////
+	*/
+	public static final String TRANSPARENT_BACKGROUND_STYLE =
+	    "-fx-background-color: transparent;";
+
+	/**
+	 * @param color		background color
+	 *
+	 * @return		inline style which sets the background color
+	 */
+	private static String getBackgroundStyle(Color color) {
+		return String.format(
+		    Locale.ROOT,
+		    "-fx-background-color: rgba(%d, %d, %d, %f);",
+		    Math.round(color.getRed() * 255),
+		    Math.round(color.getGreen() * 255),
+		    Math.round(color.getBlue() * 255),
+		    color.getOpacity()
+		);
+	}
+
+	/*
+					//////////////
+					/ INITIALIZE /
+					//////////////
+	*/
+	private void initializeGridPane() {
+		/*
+		Set the grid lines visible property to match the default value.
+		*/
+		gridPane.setGridLinesVisible(
+		    DEFAULT_GRID_LINES_VISIBLE
+		);
+
+		/*
+		Bind the grid pane's style, so that it is filled with the color
+		while the cursor window is disabled, and transparent otherwise.
+		An inline style is used, as it would otherwise override the
+		background.
+		*/
+		gridPane.styleProperty().bind(
+		    Bindings.when(cursorWindowEnabledProperty).then(
+		    TRANSPARENT_BACKGROUND_STYLE
+		).otherwise(
+		    Bindings.createStringBinding(() -> {
+			return getBackgroundStyle(fillColorBinding.get());
+		    }, fillColorBinding)
+		));
+
+		/*
+		Bind the grid pane's mouse transparency, so that mouse events
+		are not even picked while the cursor window is disabled.
+		*/
+		gridPane.mouseTransparentProperty().bind(
+		    cursorWindowEnabledProperty.not()
+		);
+
+		/*
+		Set a mouse event listener which tracks the latest cursor
+		coordinates any time the mouse cursor is moved, feeds the
+		cursor velocity estimator, and records the cursor trace, if
+		requested.
+		*/
+		gridPane.setOnMouseMoved((
+		    MouseEvent mouseEvent
+		) -> {
+			moveCursor(
+			    System.nanoTime(),
+			    mouseEvent.getSceneX(),
+			    mouseEvent.getSceneY(),
+			    mouseEvent.getScreenX(),
+			    mouseEvent.getScreenY()
+			);
+		});
+	}
+
+	/*
+				\\\\\\\\\\\\\\\\
+				\ CURSOR MOVED \
+				\\\\\\\\\\\\\\\\
+	*/
+	private final CursorTrace cursorTrace = CursorTrace.getRecording();
+
+	/**
+	 * This method handles a move of the mouse cursor. It is called by the
+	 * mouse moved event handler, and is exposed so that cursor movement can
+	 * be replayed, such as by the allocation budget check.
+	 *
+	 *
+	 * @param cursorTime	time of the move, in nanoseconds
+	 * @param sceneX	scene x coordinate of the cursor
+	 * @param sceneY	scene y coordinate of the cursor
+	 * @param screenX	screen x coordinate of the cursor
+	 * @param screenY	screen y coordinate of the cursor
+	 */
+	public void moveCursor(
+	    long cursorTime,
+	    double sceneX,
+	    double sceneY,
+	    double screenX,
+	    double screenY
+	) {
+		latestCursorX = sceneX;
+		latestCursorY = sceneY;
+
+		/*
+		Start tracking the cursor window again if it was stopped while
+		the cursor was idle.
+		*/
+		latestCursorMoveTime = cursorTime;
+		if (cursorIdle) {
+			cursorIdle = false;
+			updateCursorWindowTrackingTimer();
+		}
+
+		if (pendingCursorMoveTime == NO_PULSE_TIME) {
+			pendingCursorMoveTime = cursorTime;
+		}
+		cursorVelocityEstimator.record(
+		    cursorTime,
+		    latestCursorX,
+		    latestCursorY
+		);
+		if (cursorTrace != null) {
+			cursorTrace.record(cursorTime, screenX, screenY);
+		}
+	}
+
+	/*
+				\\\\\\\\\\\\\\
+				\ RECTANGLES \
+				\\\\\\\\\\\\\\
+	*/
+	@FXML
+	private Rectangle topLeftRectangle;
 	@FXML
 	private Rectangle centerLeftRectangle;
 	@FXML
@@ -529,7 +1293,7 @@ public class OverlayViewController {
 		*/
 		columnWidthBinding.add(
 		    trackedCursorXProperty.subtract(
-		    cursorWindowWidthProperty.divide(2)
+		    snappedCursorWindowWidthBinding.divide(2)
 		));
 
 		/*
@@ -538,7 +1302,7 @@ public class OverlayViewController {
 				..............
 		*/
 		columnWidthBinding.add(
-		    cursorWindowWidthProperty
+		    snappedCursorWindowWidthBinding
 		);
 
 		/*
@@ -549,9 +1313,45 @@ public class OverlayViewController {
 		columnWidthBinding.add(
 		    gridPane.widthProperty().subtract(
 		    trackedCursorXProperty.add(
-		    cursorWindowWidthProperty.divide(2)
+		    snappedCursorWindowWidthBinding.divide(2)
 		)));
 
+		/*
+			.............
+			... MIN X ...
+			.............
+		*/
+		ArrayList<ObservableValue<? extends Number>> columnMinXBinding =
+		    new ArrayList<>();
+
+		/*
+				............
+				... LEFT ...
+				............
+		*/
+		columnMinXBinding.add(
+		    new SimpleDoubleProperty(0)
+		);
+
+		/*
+				..............
+				... CENTER ...
+				..............
+		*/
+		columnMinXBinding.add(
+		    columnWidthBinding.get(0)
+		);
+
+		/*
+				.............
+				... RIGHT ...
+				.............
+		*/
+		columnMinXBinding.add(
+		    trackedCursorXProperty.add(
+		    snappedCursorWindowWidthBinding.divide(2)
+		));
+
 		/*
 			..................
 			... ROW HEIGHT ...
@@ -567,7 +1367,7 @@ public class OverlayViewController {
 		*/
 		rowHeightBinding.add(
 		    trackedCursorYProperty.subtract(
-		    cursorWindowHeightProperty.divide(2)
+		    snappedCursorWindowHeightBinding.divide(2)
 		));
 
 		/*
@@ -576,7 +1376,7 @@ public class OverlayViewController {
 				..............
 		*/
 		rowHeightBinding.add(
-		    cursorWindowHeightProperty
+		    snappedCursorWindowHeightBinding
 		);
 
 		/*
@@ -587,9 +1387,45 @@ public class OverlayViewController {
 		rowHeightBinding.add(
 		    gridPane.heightProperty().subtract(
 		    trackedCursorYProperty.add(
-		    cursorWindowHeightProperty.divide(2)
+		    snappedCursorWindowHeightBinding.divide(2)
 		)));
 
+		/*
+			.............
+			... MIN Y ...
+			.............
+		*/
+		ArrayList<ObservableValue<? extends Number>> rowMinYBinding =
+		    new ArrayList<>();
+
+		/*
+				...........
+				... TOP ...
+				...........
+		*/
+		rowMinYBinding.add(
+		    new SimpleDoubleProperty(0)
+		);
+
+		/*
+				..............
+				... CENTER ...
+				..............
+		*/
+		rowMinYBinding.add(
+		    rowHeightBinding.get(0)
+		);
+
+		/*
+				..............
+				... BOTTOM ...
+				..............
+		*/
+		rowMinYBinding.add(
+		    trackedCursorYProperty.add(
+		    snappedCursorWindowHeightBinding.divide(2)
+		));
+
 		/*
 		Create a convenience array of rectangles, which can be
 		referenced by column and row, modeled after the grid pane.
@@ -613,19 +1449,53 @@ public class OverlayViewController {
 					continue;
 				}
 
+				/*
+				Bind the visible property of each rectangle, so
+				that it is only visible while the cursor window
+				is enabled, as the grid pane itself is filled
+				otherwise, and not tiled, as the tiles fill the
+				grid pane instead.
+				*/
+				rectangle[column][row].visibleProperty().bind(
+				    cursorWindowEnabledProperty.and(
+				    effectiveTiledBinding.not()
+				));
+
+				/*
+				Only let the grid pane manage the rectangle
+				while it is visible and the grid lines are
+				shown, as they are drawn from the layout of the
+				grid pane. Otherwise, the rectangle positions
+				itself, so that moving the cursor window doesn't
+				cause a layout pass, which allocates on every
+				tracking tick.
+				*/
+				rectangle[column][row].managedProperty().bind(
+				    rectangle[column][row].visibleProperty().and(
+				    gridPane.gridLinesVisibleProperty()
+				));
+
 				/*
 				Bind the fill property of each rectangle to the
-				color property.
+				fill color binding.
 				*/
 				rectangle[column][row].fillProperty().bind(
-				    colorProperty
+				    fillColorBinding
 				);
 
 				/*
-				Bind the dimensions of the rectangle, using the
-				corresponding column width and row height
-				bindings established earlier.
+				Bind the position and dimensions of the
+				rectangle, using the corresponding column and
+				row bindings established earlier. While the grid
+				pane manages the rectangle, its layout position
+				makes up for the position.
 				*/
+				rectangle[column][row].xProperty().bind(
+				    columnMinXBinding.get(column)
+				);
+				rectangle[column][row].yProperty().bind(
+				    rowMinYBinding.get(row)
+				);
 				rectangle[column][row].widthProperty().bind(
 				    columnWidthBinding.get(column)
 				);
@@ -637,6 +1507,500 @@ public class OverlayViewController {
 	}
 
 
+	/*
+		*************
+		*** TILES ***
+		*************
+
+	In tiled mode, the dimmed area is built from a static grid of fixed
+	tiles instead of the eight rectangles, which span the whole screen, and
+	are resized whenever the cursor window moves. Only the tiles overlapped
+	by the dirty box around the cursor window are hidden, and replaced by a
+	patch of eight small rectangles: four outer ones filling the hidden
+	tiles around the dirty box, and four inner ones filling the dirty box
+	around the cursor window.
+
+	The dirty box is the cursor window rounded out to a grid, and is kept
+	for as long as the cursor window stays inside it, so it bounds both the
+	old and the new cursor window. While it is kept, a move only resizes the
+	inner rectangles, so the area repainted is the dirty box, rather than
+	the patch or the screen. The outer rectangles, and the hidden tiles,
+	only change when the cursor window leaves the dirty box.
+
+	The tile size matches the maximum cursor window size, so the dirty box
+	always fits in three by three tiles. Larger tiles would need fewer
+	rectangles, but would damage more whenever the hidden tiles change.
+	*/
+	public static final double TILE_SIZE = MAXIMUM_CURSOR_WINDOW_WIDTH;
+
+	public static final double DIRTY_BOX_GRID_SIZE = 32;
+
+	public static final boolean DEFAULT_TILED = false;
+
+	private final SimpleBooleanProperty tiledProperty =
+	    new SimpleBooleanProperty(DEFAULT_TILED);
+
+	/*
+			-------------
+			| EFFECTIVE |
+			-------------
+
+	The overlay profile may force tiled mode, while the tiled property keeps
+	the choice of the user.
+	*/
+	private final SimpleBooleanProperty profileTiledProperty =
+	    new SimpleBooleanProperty(false);
+
+	private final BooleanBinding effectiveTiledBinding =
+	    tiledProperty.or(profileTiledProperty);
+
+	/*
+			--------------
+			| COMPONENTS |
+			--------------
+	*/
+	private final Group tileGroup = new Group();
+
+	private Rectangle[] tiles;
+	private int tileColumnCount;
+	private int tileRowCount;
+
+	private final Rectangle[] patchRectangles =
+	    new Rectangle[2 * CursorWindowGeometry.STRIP_COUNT];
+	private final double[] outerPatchStrips =
+	    CursorWindowGeometry.newStripArray();
+	private final double[] innerPatchStrips =
+	    CursorWindowGeometry.newStripArray();
+
+	/*
+	The patch spans the hidden tiles, from the minimum column and row to
+	the maximum column and row, exclusive. A negative minimum column means
+	there is no patch yet.
+	*/
+	private int patchMinColumn = -1;
+	private int patchMaxColumn = -1;
+	private int patchMinRow = -1;
+	private int patchMaxRow = -1;
+
+	private double dirtyBoxMinX;
+	private double dirtyBoxMinY;
+	private double dirtyBoxMaxX;
+	private double dirtyBoxMaxY;
+
+	/*
+			--------------
+			| INITIALIZE |
+			--------------
+	*/
+	private void initializeTiles() {
+		/*
+		Add the tile group to the grid pane without letting the grid
+		pane lay it out, and only show it in tiled mode.
+		*/
+		tileGroup.setManaged(false);
+		tileGroup.visibleProperty().bind(
+		    cursorWindowEnabledProperty.and(effectiveTiledBinding)
+		);
+		gridPane.getChildren().add(tileGroup);
+
+		/*
+		Create the patch rectangles.
+		*/
+		for (int strip = 0; strip < patchRectangles.length; strip++) {
+			patchRectangles[strip] = new Rectangle();
+			patchRectangles[strip].fillProperty().bind(
+			    fillColorBinding
+			);
+		}
+
+		/*
+		Rebuild the tiles whenever tiled mode is entered, whether chosen
+		by the user or forced by the profile, or the grid pane is
+		resized in tiled mode.
+		*/
+		tiledProperty.addListener((
+		    ObservableValue<? extends Boolean> tiledObservableValue,
+		    Boolean tiledOldValue,
+		    Boolean tiledNewValue
+		) -> {
+			/*
+			Validate the new value.
+			*/
+			if (tiledNewValue == null) {
+				throw new NullPointerException(
+				    "tiledNewValue == null"
+				);
+			}
+		});
+		effectiveTiledBinding.addListener((
+		    ObservableValue<? extends Boolean> effectiveTiledObservableValue,
+		    Boolean effectiveTiledOldValue,
+		    Boolean effectiveTiledNewValue
+		) -> {
+			rebuildTiles();
+		});
+		gridPane.widthProperty().addListener((
+		    ObservableValue<? extends Number> widthObservableValue,
+		    Number widthOldValue,
+		    Number widthNewValue
+		) -> {
+			rebuildTiles();
+		});
+		gridPane.heightProperty().addListener((
+		    ObservableValue<? extends Number> heightObservableValue,
+		    Number heightOldValue,
+		    Number heightNewValue
+		) -> {
+			rebuildTiles();
+		});
+
+		/*
+		Update the patch whenever the cursor window is resized.
+		*/
+		snappedCursorWindowWidthBinding.addListener((
+		    ObservableValue<? extends Number> widthObservableValue,
+		    Number widthOldValue,
+		    Number widthNewValue
+		) -> {
+			updatePatch();
+		});
+		snappedCursorWindowHeightBinding.addListener((
+		    ObservableValue<? extends Number> heightObservableValue,
+		    Number heightOldValue,
+		    Number heightNewValue
+		) -> {
+			updatePatch();
+		});
+	}
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	public BooleanProperty tiledProperty() {
+		return tiledProperty;
+	}
+
+	/*
+			-----------
+			| REBUILD |
+			-----------
+	*/
+	private void rebuildTiles() {
+		tileGroup.getChildren().clear();
+		tiles = null;
+		patchMinColumn = -1;
+
+		if (!effectiveTiledBinding.get()) {
+			return;
+		}
+
+		/*
+		Create a tile for each cell of the grid, clipping the tiles of
+		the last column and row to the grid pane.
+		*/
+		double width = gridPane.getWidth();
+		double height = gridPane.getHeight();
+		tileColumnCount = (int) Math.ceil(width / TILE_SIZE);
+		tileRowCount = (int) Math.ceil(height / TILE_SIZE);
+		tiles = new Rectangle[tileColumnCount * tileRowCount];
+		for (int row = 0; row < tileRowCount; row++) {
+			for (int column = 0; column < tileColumnCount; column++) {
+				double minX = column * TILE_SIZE;
+				double minY = row * TILE_SIZE;
+				Rectangle tile = new Rectangle(
+				    minX,
+				    minY,
+				    Math.min(TILE_SIZE, width - minX),
+				    Math.min(TILE_SIZE, height - minY)
+				);
+				tile.fillProperty().bind(fillColorBinding);
+				tiles[row * tileColumnCount + column] = tile;
+			}
+		}
+		tileGroup.getChildren().addAll(tiles);
+		tileGroup.getChildren().addAll(patchRectangles);
+
+		updatePatch();
+	}
+
+	/*
+			---------
+			| PATCH |
+			---------
+	*/
+	private void updatePatch() {
+		if (tiles == null) {
+			return;
+		}
+
+		/*
+		Determine the edges of the cursor window, widened by a pixel to
+		allow for snapping.
+		*/
+		double cursorX = trackedCursorXProperty.get();
+		double cursorY = trackedCursorYProperty.get();
+		double cursorWindowWidth = snappedCursorWindowWidthBinding.get();
+		double cursorWindowHeight = snappedCursorWindowHeightBinding.get();
+		double holeMinX = cursorX - cursorWindowWidth / 2 - 1;
+		double holeMinY = cursorY - cursorWindowHeight / 2 - 1;
+		double holeMaxX = cursorX + cursorWindowWidth / 2 + 1;
+		double holeMaxY = cursorY + cursorWindowHeight / 2 + 1;
+
+		/*
+		Keep the dirty box while the cursor window stays inside it, in
+		which case only the inner rectangles change, and the dirty box
+		is damaged.
+		*/
+		if (
+		    patchMinColumn >= 0 &&
+		    holeMinX >= dirtyBoxMinX &&
+		    holeMinY >= dirtyBoxMinY &&
+		    holeMaxX <= dirtyBoxMaxX &&
+		    holeMaxY <= dirtyBoxMaxY
+		) {
+			recordDamage(
+			    (dirtyBoxMaxX - dirtyBoxMinX) *
+			    (dirtyBoxMaxY - dirtyBoxMinY)
+			);
+			updateInnerPatch();
+			return;
+		}
+
+		/*
+		Otherwise, round the cursor window out to a new dirty box,
+		clamped to the grid pane, and find the tiles it overlaps.
+		*/
+		double width = gridPane.getWidth();
+		double height = gridPane.getHeight();
+		dirtyBoxMinX = roundOutToDirtyBoxGrid(holeMinX, false, width);
+		dirtyBoxMinY = roundOutToDirtyBoxGrid(holeMinY, false, height);
+		dirtyBoxMaxX = roundOutToDirtyBoxGrid(holeMaxX, true, width);
+		dirtyBoxMaxY = roundOutToDirtyBoxGrid(holeMaxY, true, height);
+		int minColumn = Math.min(
+		    (int) Math.floor(dirtyBoxMinX / TILE_SIZE),
+		    tileColumnCount - 1
+		);
+		int maxColumn = Math.max(
+		    minColumn + 1,
+		    Math.min(
+			(int) Math.ceil(dirtyBoxMaxX / TILE_SIZE),
+			tileColumnCount
+		    )
+		);
+		int minRow = Math.min(
+		    (int) Math.floor(dirtyBoxMinY / TILE_SIZE),
+		    tileRowCount - 1
+		);
+		int maxRow = Math.max(
+		    minRow + 1,
+		    Math.min(
+			(int) Math.ceil(dirtyBoxMaxY / TILE_SIZE),
+			tileRowCount
+		    )
+		);
+
+		/*
+		Swap the hidden tiles if the patch has moved, which damages the
+		old patch. The new patch is damaged either way, as the outer
+		rectangles are fitted around the new dirty box.
+		*/
+		if (
+		    minColumn != patchMinColumn ||
+		    maxColumn != patchMaxColumn ||
+		    minRow != patchMinRow ||
+		    maxRow != patchMaxRow
+		) {
+			if (patchMinColumn >= 0) {
+				setPatchTilesVisible(true);
+				recordDamage(getPatchArea());
+			}
+			patchMinColumn = minColumn;
+			patchMaxColumn = maxColumn;
+			patchMinRow = minRow;
+			patchMaxRow = maxRow;
+			setPatchTilesVisible(false);
+		}
+		recordDamage(getPatchArea());
+
+		/*
+		Fit the outer rectangles around the dirty box, and the inner
+		rectangles around the cursor window.
+		*/
+		double patchMinX = patchMinColumn * TILE_SIZE;
+		double patchMinY = patchMinRow * TILE_SIZE;
+		CursorWindowGeometry.computeStrips(
+		    patchMinX,
+		    patchMinY,
+		    getPatchMaxX() - patchMinX,
+		    getPatchMaxY() - patchMinY,
+		    (dirtyBoxMinX + dirtyBoxMaxX) / 2,
+		    (dirtyBoxMinY + dirtyBoxMaxY) / 2,
+		    dirtyBoxMaxX - dirtyBoxMinX,
+		    dirtyBoxMaxY - dirtyBoxMinY,
+		    snapScaleProperty.get(),
+		    outerPatchStrips
+		);
+		setPatchRectangles(outerPatchStrips, 0);
+
+		/*
+		Take the dirty box from the outer rectangles, so that the inner
+		rectangles meet them exactly, whatever the snapping.
+		*/
+		dirtyBoxMinX = getStripMaxX(outerPatchStrips, CursorWindowGeometry.LEFT_STRIP);
+		dirtyBoxMinY = getStripMaxY(outerPatchStrips, CursorWindowGeometry.TOP_STRIP);
+		dirtyBoxMaxX = CursorWindowGeometry.get(
+		    outerPatchStrips,
+		    CursorWindowGeometry.RIGHT_STRIP,
+		    CursorWindowGeometry.MIN_X
+		);
+		dirtyBoxMaxY = CursorWindowGeometry.get(
+		    outerPatchStrips,
+		    CursorWindowGeometry.BOTTOM_STRIP,
+		    CursorWindowGeometry.MIN_Y
+		);
+		updateInnerPatch();
+	}
+
+	private void updateInnerPatch() {
+		CursorWindowGeometry.computeStrips(
+		    dirtyBoxMinX,
+		    dirtyBoxMinY,
+		    dirtyBoxMaxX - dirtyBoxMinX,
+		    dirtyBoxMaxY - dirtyBoxMinY,
+		    trackedCursorXProperty.get(),
+		    trackedCursorYProperty.get(),
+		    snappedCursorWindowWidthBinding.get(),
+		    snappedCursorWindowHeightBinding.get(),
+		    snapScaleProperty.get(),
+		    innerPatchStrips
+		);
+		setPatchRectangles(
+		    innerPatchStrips,
+		    CursorWindowGeometry.STRIP_COUNT
+		);
+	}
+
+	private void setPatchRectangles(double[] strips, int offset) {
+		for (int strip = 0; strip < CursorWindowGeometry.STRIP_COUNT; strip++) {
+			Rectangle patchRectangle = patchRectangles[offset + strip];
+			patchRectangle.setX(CursorWindowGeometry.get(
+			    strips, strip, CursorWindowGeometry.MIN_X
+			));
+			patchRectangle.setY(CursorWindowGeometry.get(
+			    strips, strip, CursorWindowGeometry.MIN_Y
+			));
+			patchRectangle.setWidth(Math.max(0, CursorWindowGeometry.get(
+			    strips, strip, CursorWindowGeometry.WIDTH
+			)));
+			patchRectangle.setHeight(Math.max(0, CursorWindowGeometry.get(
+			    strips, strip, CursorWindowGeometry.HEIGHT
+			)));
+		}
+	}
+
+	private static double getStripMaxX(double[] strips, int strip) {
+		return
+		    CursorWindowGeometry.get(strips, strip, CursorWindowGeometry.MIN_X) +
+		    CursorWindowGeometry.get(strips, strip, CursorWindowGeometry.WIDTH);
+	}
+
+	private static double getStripMaxY(double[] strips, int strip) {
+		return
+		    CursorWindowGeometry.get(strips, strip, CursorWindowGeometry.MIN_Y) +
+		    CursorWindowGeometry.get(strips, strip, CursorWindowGeometry.HEIGHT);
+	}
+
+	private static double roundOutToDirtyBoxGrid(
+	    double value,
+	    boolean up,
+	    double limit
+	) {
+		double rounded = DIRTY_BOX_GRID_SIZE * (up ?
+		    Math.ceil(value / DIRTY_BOX_GRID_SIZE) :
+		    Math.floor(value / DIRTY_BOX_GRID_SIZE));
+		return Math.max(0, Math.min(limit, rounded));
+	}
+
+	private void setPatchTilesVisible(boolean visible) {
+		for (int row = patchMinRow; row < patchMaxRow; row++) {
+			for (int column = patchMinColumn; column < patchMaxColumn; column++) {
+				tiles[row * tileColumnCount + column].setVisible(visible);
+			}
+		}
+	}
+
+	private double getPatchMaxX() {
+		return Math.min(patchMaxColumn * TILE_SIZE, gridPane.getWidth());
+	}
+
+	private double getPatchMaxY() {
+		return Math.min(patchMaxRow * TILE_SIZE, gridPane.getHeight());
+	}
+
+	private double getPatchArea() {
+		return
+		    (getPatchMaxX() - patchMinColumn * TILE_SIZE) *
+		    (getPatchMaxY() - patchMinRow * TILE_SIZE);
+	}
+
+
+	/*
+		**************
+		*** DAMAGE ***
+		**************
+
+	The damage counters accumulate the modeled damage, which is the area of
+	the overlay, in scene pixels, that has to be repainted because the
+	cursor window moved. It is modeled from the bounds of the rectangles
+	resized, as the JavaFX renderer repaints the old and new bounds of each
+	changed node, rather than measured from the damage a remote desktop
+	server actually sees. Without tiles, moving the cursor window resizes
+	rectangles spanning the whole overlay, so the whole overlay is damaged.
+	*/
+	private long modeledDamagedPixelCount = 0;
+	private long damageUpdateCount = 0;
+
+	/*
+			----------
+			| RECORD |
+			----------
+	*/
+	private void recordDamage(double area) {
+		modeledDamagedPixelCount += Math.round(area);
+	}
+
+	private void recordTrackedCursorUpdate() {
+		damageUpdateCount++;
+		if (tiles != null) {
+			updatePatch();
+		} else {
+			recordDamage(gridPane.getWidth() * gridPane.getHeight());
+		}
+	}
+
+	/*
+			-------
+			| GET |
+			-------
+	*/
+	/**
+	 * @return	total modeled area damaged by cursor window updates, in
+	 *		scene pixels
+	 */
+	public long getModeledDamagedPixelCount() {
+		return modeledDamagedPixelCount;
+	}
+
+	/**
+	 * @return	total number of cursor window updates
+	 */
+	public long getDamageUpdateCount() {
+		return damageUpdateCount;
+	}
+
+
 	/*
 		**************************
 		*** CURSOR COORDINATES ***
@@ -696,6 +2060,43 @@ public class OverlayViewController {
 	private final SimpleDoubleProperty trackedCursorYProperty =
 	    new SimpleDoubleProperty();
 
+	/*
+				\\\\\\\
+				\ GET \
+				\\\\\\\
+	*/
+	/**
+	 * @return	tracked cursor x coordinate, in scene coordinates
+	 */
+	public double getTrackedCursorX() {
+		return trackedCursorXProperty.get();
+	}
+
+	/**
+	 * @return	tracked cursor y coordinate, in scene coordinates
+	 */
+	public double getTrackedCursorY() {
+		return trackedCursorYProperty.get();
+	}
+
+	/*
+				\\\\\\\\\\\\
+				\ SNAPPING \
+				\\\\\\\\\\\\
+
+	The tracked coordinates are chosen so that the leading edge of the
+	cursor window is snapped. As the cursor window length is snapped too,
+	the trailing edge is then snapped as well.
+	*/
+	private double getSnappedTrackedCursorCoordinate(
+	    double latestCursorCoordinate,
+	    double snappedCursorWindowLength
+	) {
+		return
+		    snap(latestCursorCoordinate - snappedCursorWindowLength / 2) +
+		    snappedCursorWindowLength / 2;
+	}
+
 
 	/*
 		******************
@@ -708,14 +2109,104 @@ public class OverlayViewController {
 		Initialize properties.
 		*/
 		initializeColorProperty();
+		initializeCursorWindowEnabledProperty();
 		initializeCursorWindowTrackingFrequencyProperty();
 		initializeCursorWindowWidthProperty();
 		initializeCursorWindowHeightProperty();
+		initializeCursorWindowDeadZoneProperty();
+		initializeSnapScaleProperty();
 
 		/*
 		Initialize FXML components.
 		*/
 		initializeGridPane();
 		initializeRectangles();
+		initializeTiles();
+	}
+
+
+	/*
+		*************
+		*** START ***
+		*************
+	*/
+	/**
+	 * This method starts tracking the cursor window. Unlike
+	 * {@link #initialize()}, which is run while loading the view and may
+	 * therefore be run from any thread, this method must be called from the
+	 * JavaFX application thread. The cursor window is not tracked while it
+	 * is disabled.
+	 */
+	public void start() {
+		cursorWindowTrackingTimerStarted = true;
+		cursorIdle = false;
+		latestCursorMoveTime = NO_PULSE_TIME;
+		updateCursorWindowTrackingTimer();
+	}
+
+	/*
+		************
+		*** STOP ***
+		************
+	*/
+	/**
+	 * This method stops tracking the cursor window until
+	 * {@link #start()} is called again. It must be called from the JavaFX
+	 * application thread.
+	 */
+	public void stop() {
+		cursorWindowTrackingTimerStarted = false;
+		updateCursorWindowTrackingTimer();
+	}
+
+
+	/*
+		*************
+		*** RESET ***
+		*************
+	*/
+	/**
+	 * This method resets the cursor window tracking to its initial state,
+	 * clearing the tracked cursor, the frame budget governor, the velocity
+	 * estimate and every statistic, so that a reused overlay view doesn't
+	 * carry them over from its previous use. It must be called from the
+	 * JavaFX application thread.
+	 */
+	public void resetTracking() {
+		/*
+		Reset the tracking state.
+		*/
+		frameBudgetGovernor.reset();
+		cursorVelocityEstimator.reset();
+		accumulatedTime = 0;
+		previousPulseTime = NO_PULSE_TIME;
+		pendingCursorMoveTime = NO_PULSE_TIME;
+		effectiveCursorWindowTrackingFrequencyPublishTime = NO_PULSE_TIME;
+		effectiveCursorWindowTrackingFrequencyProperty.set(
+		    DEFAULT_CURSOR_WINDOW_TRACKING_FREQUENCY
+		);
+
+		/*
+		Reset the cursor coordinates, and fit the patch to the reset
+		tracked cursor in tiled mode.
+		*/
+		latestCursorX = 0;
+		latestCursorY = 0;
+		settlingCursorX = Double.NaN;
+		settlingCursorY = Double.NaN;
+		settlingStartTime = 0;
+		trackedCursorXProperty.set(0);
+		trackedCursorYProperty.set(0);
+		updatePatch();
+
+		/*
+		Clear the statistics last, as fitting the patch records damage.
+		*/
+		cursorLatencyHistogram.reset();
+		intervalCursorLatencyHistogram.reset();
+		trackingTickCount = 0;
+		skippedTrackingTickCount = 0;
+		modeledDamagedPixelCount = 0;
+		damageUpdateCount = 0;
 	}
 }
\ No newline at end of file
@@ -23,7 +23,13 @@
  */
 package com.sluggames.software.LowBeams.resources.FXML.PreferencesView;
 
+import com.sluggames.software.LowBeams.DimmingBackend;
+import com.sluggames.software.LowBeams.OverlayDimmingBackend;
 import com.sluggames.software.LowBeams.OverlayViewManager;
+import com.sluggames.software.LowBeams.OverlayViewManagerPool;
+import com.sluggames.software.LowBeams.SpanningDimmingBackend;
+import com.sluggames.software.LowBeams.StripDimmingBackend;
+import com.sluggames.software.LowBeams.XRandRDimmingBackend;
 import com.sluggames.software.LowBeams.resources.FXML.OverlayView.OverlayViewController;
 import com.sluggames.software.LowBeams.utility.ColorToRGBALabelConverter;
 import com.sluggames.software.LowBeams.utility.DoubleToHertzFrequencyLabelConverter;
@@ -31,6 +37,7 @@ import com.sluggames.software.LowBeams.utility.DoubleToPercentageLabelConverter;
 import com.sluggames.software.LowBeams.utility.DoubleToPixelLabelConverter;
 import java.net.URL;
 import javafx.beans.value.ObservableValue;
+import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
@@ -39,6 +46,7 @@ import javafx.scene.control.Slider;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.CheckBoxTableCell;
+import javafx.scene.control.cell.ChoiceBoxTableCell;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.scene.paint.Color;
@@ -52,7 +60,7 @@ import javafx.stage.Screen;
  *
  * @author david.boeger@sluggames.com
  *
- * @version 0.12.0
+ * @version 0.38.0
  * @since 0.2.0
  */
 public class PreferencesViewController {
@@ -244,6 +252,196 @@ public class PreferencesViewController {
 		));
 	}
 
+	/*
+					/////////////////////
+					/ INPUT TRANSPARENT /
+					/////////////////////
+	*/
+	@FXML
+	private TableColumn<OverlayViewManager, Boolean> inputTransparentTableColumn;
+
+	/*
+						\\\\\\\\\\\\\\
+						\ INITIALIZE \
+						\\\\\\\\\\\\\\
+	*/
+	private void initializeInputTransparentTableColumn() {
+		/*
+		Set the column's cell value factory.
+		*/
+		inputTransparentTableColumn.setCellValueFactory(
+		    new PropertyValueFactory<>("inputTransparent")
+		);
+
+		/*
+		Set the column's cell factory.
+		*/
+		inputTransparentTableColumn.setCellFactory(
+		    CheckBoxTableCell.forTableColumn(
+		    inputTransparentTableColumn
+		));
+	}
+
+	/*
+					///////////////////
+					/ DIMMING BACKEND /
+					///////////////////
+	*/
+	@FXML
+	private TableColumn<OverlayViewManager, DimmingBackend> dimmingBackendTableColumn;
+
+	/*
+						\\\\\\\\\\\\\\
+						\ INITIALIZE \
+						\\\\\\\\\\\\\\
+	*/
+	private void initializeDimmingBackendTableColumn() {
+		/*
+		Set the column's cell value factory.
+		*/
+		dimmingBackendTableColumn.setCellValueFactory(
+		    new PropertyValueFactory<>("dimmingBackend")
+		);
+
+		/*
+		Set the column's cell factory, offering every dimming backend.
+		Unsupported backends fall back to the overlay automatically.
+		*/
+		dimmingBackendTableColumn.setCellFactory(
+		    ChoiceBoxTableCell.forTableColumn(
+		    OverlayDimmingBackend.INSTANCE,
+		    StripDimmingBackend.INSTANCE,
+		    SpanningDimmingBackend.INSTANCE,
+		    XRandRDimmingBackend.INSTANCE
+		));
+	}
+
+	/*
+					//////////////////
+					/ WINDOW OPACITY /
+					//////////////////
+	*/
+	@FXML
+	private TableColumn<OverlayViewManager, Boolean> windowOpacityTableColumn;
+
+	/*
+						\\\\\\\\\\\\\\
+						\ INITIALIZE \
+						\\\\\\\\\\\\\\
+	*/
+	private void initializeWindowOpacityTableColumn() {
+		/*
+		Set the column's cell value factory.
+		*/
+		windowOpacityTableColumn.setCellValueFactory(
+		    new PropertyValueFactory<>("windowOpacity")
+		);
+
+		/*
+		Set the column's cell factory.
+		*/
+		windowOpacityTableColumn.setCellFactory(
+		    CheckBoxTableCell.forTableColumn(
+		    windowOpacityTableColumn
+		));
+	}
+
+	/*
+					////////////////
+					/ RENDER SCALE /
+					////////////////
+	*/
+	@FXML
+	private TableColumn<OverlayViewManager, Double> renderScaleFactorTableColumn;
+
+	/*
+						\\\\\\\\\\\\\\
+						\ INITIALIZE \
+						\\\\\\\\\\\\\\
+	*/
+	private void initializeRenderScaleFactorTableColumn() {
+		/*
+		Set the column's cell value factory.
+		*/
+		renderScaleFactorTableColumn.setCellValueFactory(
+		    new PropertyValueFactory<>("renderScaleFactor")
+		);
+
+		/*
+		Set the column's cell factory, offering the predefined render
+		scale factors as percentages.
+		*/
+		renderScaleFactorTableColumn.setCellFactory(
+		    ChoiceBoxTableCell.forTableColumn(
+		    new DoubleToPercentageLabelConverter(),
+		    FXCollections.observableList(
+		    OverlayViewManager.RENDER_SCALE_FACTORS
+		)));
+	}
+
+	/*
+					/////////
+					/ TILED /
+					/////////
+	*/
+	@FXML
+	private TableColumn<OverlayViewManager, Boolean> tiledTableColumn;
+
+	/*
+						\\\\\\\\\\\\\\
+						\ INITIALIZE \
+						\\\\\\\\\\\\\\
+	*/
+	private void initializeTiledTableColumn() {
+		/*
+		Set the column's cell value factory.
+		*/
+		tiledTableColumn.setCellValueFactory(
+		    new PropertyValueFactory<>("tiled")
+		);
+
+		/*
+		Set the column's cell factory.
+		*/
+		tiledTableColumn.setCellFactory(
+		    CheckBoxTableCell.forTableColumn(
+		    tiledTableColumn
+		));
+	}
+
+	/*
+					//////////
+					/ MERGED /
+					//////////
+
+	The merged column is not editable, as merging is automatic, and only
+	shows which overlays are currently displayed by another overlay's stage.
+	*/
+	@FXML
+	private TableColumn<OverlayViewManager, Boolean> mergedTableColumn;
+
+	/*
+						\\\\\\\\\\\\\\
+						\ INITIALIZE \
+						\\\\\\\\\\\\\\
+	*/
+	private void initializeMergedTableColumn() {
+		/*
+		Set the column's cell value factory.
+		*/
+		mergedTableColumn.setCellValueFactory(
+		    new PropertyValueFactory<>("merged")
+		);
+
+		/*
+		Set the column's cell factory.
+		*/
+		mergedTableColumn.setCellFactory(
+		    CheckBoxTableCell.forTableColumn(
+		    mergedTableColumn
+		));
+	}
+
 	/*
 					/////////
 					/ COLOR /
@@ -301,6 +499,67 @@ public class PreferencesViewController {
 		);
 	}
 
+	/*
+						\\\\\\\\\\\\\\\\\\\\\
+						\ VELOCITY ADAPTIVE \
+						\\\\\\\\\\\\\\\\\\\\\
+	*/
+	@FXML
+	private TableColumn<OverlayViewManager, Boolean> cursorWindowTrackingVelocityAdaptiveTableColumn;
+
+	/*
+							//////////////
+							/ INITIALIZE /
+							//////////////
+	*/
+	private void initializeCursorWindowTrackingVelocityAdaptiveTableColumn() {
+		/*
+		Set the column's cell value factory.
+		*/
+		cursorWindowTrackingVelocityAdaptiveTableColumn.setCellValueFactory(
+		    new PropertyValueFactory<>("cursorWindowTrackingVelocityAdaptive")
+		);
+
+		/*
+		Set the column's cell factory.
+		*/
+		cursorWindowTrackingVelocityAdaptiveTableColumn.setCellFactory(
+		    CheckBoxTableCell.forTableColumn(
+		    cursorWindowTrackingVelocityAdaptiveTableColumn
+		));
+	}
+
+	/*
+						\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\
+						\ EFFECTIVE TRACKING FREQUENCY \
+						\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\\
+	*/
+	@FXML
+	private TableColumn<OverlayViewManager, Double> effectiveCursorWindowTrackingFrequencyTableColumn;
+
+	/*
+							//////////////
+							/ INITIALIZE /
+							//////////////
+	*/
+	private void initializeEffectiveCursorWindowTrackingFrequencyTableColumn() {
+		/*
+		Set the column's cell value factory.
+		*/
+		effectiveCursorWindowTrackingFrequencyTableColumn.setCellValueFactory(
+		    new PropertyValueFactory<>("effectiveCursorWindowTrackingFrequency")
+		);
+
+		/*
+		Set the column's cell factory, showing the frequency in whole
+		Hertz.
+		*/
+		effectiveCursorWindowTrackingFrequencyTableColumn.setCellFactory(
+		    TextFieldTableCell.forTableColumn(
+		    new DoubleToHertzFrequencyLabelConverter()
+		));
+	}
+
 	/*
 						\\\\\\\\\
 						\ WIDTH \
@@ -345,6 +604,28 @@ public class PreferencesViewController {
 		);
 	}
 
+	/*
+						\\\\\\\\\\\\\
+						\ DEAD ZONE \
+						\\\\\\\\\\\\\
+	*/
+	@FXML
+	private TableColumn<OverlayViewManager, Double> cursorWindowDeadZoneTableColumn;
+
+	/*
+							//////////////
+							/ INITIALIZE /
+							//////////////
+	*/
+	private void initializeCursorWindowDeadZoneTableColumn() {
+		/*
+		Set the column's cell value factory.
+		*/
+		cursorWindowDeadZoneTableColumn.setCellValueFactory(
+		    new PropertyValueFactory<>("cursorWindowDeadZone")
+		);
+	}
+
 	/*
 				\\\\\\\\\\\\\\\\\
 				\ TABLE BUTTONS \
@@ -372,10 +653,11 @@ public class PreferencesViewController {
 		    ActionEvent actionEvent
 		) -> {
 			/*
-			Add a new overlay view manager to the table view.
+			Add an overlay view manager from the pool to the table
+			view.
 			*/
 			overlayViewManagerTableView.getItems().add(
-			    new OverlayViewManager()
+			    OverlayViewManagerPool.acquire()
 			);
 		});
 	}
@@ -411,15 +693,23 @@ public class PreferencesViewController {
 				);
 			}
 			
-			contextOverlayViewManager.enabledProperty().set(false);
+			OverlayViewManager removedOverlayViewManager =
+			    contextOverlayViewManager;
+			removedOverlayViewManager.enabledProperty().set(false);
 
 			/*
 			Remove the current context overlay view manager. This
-			will automatically update the context.
+			will automatically update the context, which unbinds its
+			properties.
 			*/
 			overlayViewManagerTableView.getItems().remove(
-			    contextOverlayViewManager
+			    removedOverlayViewManager
 			);
+
+			/*
+			Return the removed overlay view manager to the pool.
+			*/
+			OverlayViewManagerPool.release(removedOverlayViewManager);
 		});
 	}
 
@@ -1204,6 +1494,115 @@ public class PreferencesViewController {
 		);
 	}
 
+	/*
+						\\\\\\\\\\\\\
+						\ DEAD ZONE \
+						\\\\\\\\\\\\\
+	*/
+	@FXML
+	private Slider cursorWindowDeadZoneSlider;
+
+	/*
+							/////////
+							/ LABEL /
+							/////////
+	*/
+	@FXML
+	private Label cursorWindowDeadZoneSliderLabel;
+
+	/*
+							//////////////
+							/ INITIALIZE /
+							//////////////
+	*/
+	public static final int CURSOR_WINDOW_DEAD_ZONE_SLIDER_MAJOR_TICK_COUNT = 5;
+	public static final int CURSOR_WINDOW_DEAD_ZONE_SLIDER_MINOR_TICK_COUNT = 7;
+
+	private void initializeCursorWindowDeadZoneSlider() {
+		/*
+		Associate with the corresponding label.
+		*/
+		cursorWindowDeadZoneSliderLabel.setLabelFor(
+		    cursorWindowDeadZoneSlider
+		);
+
+		/*
+		Set the range of the slider to match the acceptable range of
+		values.
+		*/
+		cursorWindowDeadZoneSlider.setMin(
+		    OverlayViewController.MINIMUM_CURSOR_WINDOW_DEAD_ZONE
+		);
+		cursorWindowDeadZoneSlider.setMax(
+		    OverlayViewController.MAXIMUM_CURSOR_WINDOW_DEAD_ZONE
+		);
+
+		/*
+		Set the slider's tick mark attributes.
+		*/
+		cursorWindowDeadZoneSlider.setMajorTickUnit(
+		    (cursorWindowDeadZoneSlider.getMax() -
+		    cursorWindowDeadZoneSlider.getMin()) /
+		    (CURSOR_WINDOW_DEAD_ZONE_SLIDER_MAJOR_TICK_COUNT - 1)
+		);
+		cursorWindowDeadZoneSlider.setMinorTickCount(
+		    CURSOR_WINDOW_DEAD_ZONE_SLIDER_MINOR_TICK_COUNT
+		);
+
+		/*
+		Set the slider's tick mark label attributes.
+		*/
+		cursorWindowDeadZoneSlider.setLabelFormatter(
+		    new DoubleToPixelLabelConverter()
+		);
+
+		/*
+		Add a change listener to the slider which restricts it to
+		integral values, for the same reasons as the cursor window
+		dimension sliders.
+		*/
+		cursorWindowDeadZoneSlider.valueProperty().addListener((
+		    ObservableValue<? extends Number> cursorWindowDeadZoneObservableValue,
+		    Number cursorWindowDeadZoneOldValue,
+		    Number cursorWindowDeadZoneNewValue
+		) -> {
+			/*
+			Validate the new value.
+			*/
+			if (cursorWindowDeadZoneNewValue == null) {
+				throw new NullPointerException(
+				    "cursorWindowDeadZoneNewValue == null"
+				);
+			}
+
+			/*
+			Set the slider value to the closest integer.
+			*/
+			cursorWindowDeadZoneSlider.setValue(
+			    cursorWindowDeadZoneNewValue.intValue()
+			);
+		});
+	}
+
+	/*
+							///////////
+							/ DISABLE /
+							///////////
+	*/
+	public static final double CURSOR_WINDOW_DEAD_ZONE_SLIDER_DISABLED_VALUE =
+	    OverlayViewController.MINIMUM_CURSOR_WINDOW_DEAD_ZONE;
+
+	private void disableCursorWindowDeadZoneSlider() {
+		/*
+		Disable the slider, and set the slider's value to the default
+		disabled value.
+		*/
+		cursorWindowDeadZoneSlider.setDisable(true);
+		cursorWindowDeadZoneSlider.setValue(
+		    CURSOR_WINDOW_DEAD_ZONE_SLIDER_DISABLED_VALUE
+		);
+	}
+
 
 	/*
 		******************
@@ -1219,10 +1618,19 @@ public class PreferencesViewController {
 		initializeTargetScreenTableColumn();
 		initializeEnabledTableColumn();
 		initializeGridLinesVisibleTableColumn();
+		initializeInputTransparentTableColumn();
+		initializeDimmingBackendTableColumn();
+		initializeWindowOpacityTableColumn();
+		initializeRenderScaleFactorTableColumn();
+		initializeTiledTableColumn();
+		initializeMergedTableColumn();
 		initializeColorTableColumn();
 		initializeCursorWindowTrackingFrequencyTableColumn();
+		initializeCursorWindowTrackingVelocityAdaptiveTableColumn();
+		initializeEffectiveCursorWindowTrackingFrequencyTableColumn();
 		initializeCursorWindowWidthTableColumn();
 		initializeCursorWindowHeightTableColumn();
+		initializeCursorWindowDeadZoneTableColumn();
 		initializeAddButton();
 		initializeRemoveButton();
 		initializeRedSlider();
@@ -1232,6 +1640,7 @@ public class PreferencesViewController {
 		initializeCursorWindowTrackingFrequencySlider();
 		initializeCursorWindowWidthSlider();
 		initializeCursorWindowHeightSlider();
+		initializeCursorWindowDeadZoneSlider();
 
 		/*
 		Set the default context.
@@ -1258,6 +1667,7 @@ public class PreferencesViewController {
 			manager's properties from the context controls as
 			necessary.
 			*/
+			contextOverlayViewManager.cursorWindowDeadZoneProperty().unbind();
 			contextOverlayViewManager.cursorWindowHeightProperty().unbind();
 			contextOverlayViewManager.cursorWindowWidthProperty().unbind();
 			contextOverlayViewManager.cursorWindowTrackingFrequencyProperty().unbind();
@@ -1278,6 +1688,7 @@ public class PreferencesViewController {
 			/*
 			If not, disable all context controls.
 			*/
+			disableCursorWindowDeadZoneSlider();
 			disableCursorWindowHeightSlider();
 			disableCursorWindowWidthSlider();
 			disableCursorWindowTrackingFrequencySlider();
@@ -1313,6 +1724,9 @@ public class PreferencesViewController {
 			cursorWindowHeightSlider.setValue(
 			    contextOverlayViewManager.cursorWindowHeightProperty().get()
 			);
+			cursorWindowDeadZoneSlider.setValue(
+			    contextOverlayViewManager.cursorWindowDeadZoneProperty().get()
+			);
 
 			/*
 			Bind the new context overlay view manager's properties
@@ -1327,6 +1741,9 @@ public class PreferencesViewController {
 			contextOverlayViewManager.cursorWindowHeightProperty().bind(
 			    cursorWindowHeightSlider.valueProperty()
 			);
+			contextOverlayViewManager.cursorWindowDeadZoneProperty().bind(
+			    cursorWindowDeadZoneSlider.valueProperty()
+			);
 
 			/*
 			Enable all context controls.
@@ -1339,6 +1756,44 @@ public class PreferencesViewController {
 			cursorWindowTrackingFrequencySlider.setDisable(false);
 			cursorWindowWidthSlider.setDisable(false);
 			cursorWindowHeightSlider.setDisable(false);
+			cursorWindowDeadZoneSlider.setDisable(false);
+		}
+	}
+
+
+	/*
+		***********************
+		*** TOGGLE OVERLAYS ***
+		***********************
+	*/
+	/**
+	 * This method disables every overlay if any of them are enabled, and
+	 * enables every overlay otherwise. If there are no overlays at all, a
+	 * new one is added first, so that toggling always has a visible effect.
+	 */
+	public void toggleOverlays() {
+		/*
+		Add a new overlay view manager if the table view is empty.
+		*/
+		if (overlayViewManagerTableView.getItems().isEmpty()) {
+			overlayViewManagerTableView.getItems().add(
+			    OverlayViewManagerPool.acquire()
+			);
+		}
+
+		/*
+		Check if any of the overlay view managers are enabled.
+		*/
+		boolean anyEnabled = false;
+		for (OverlayViewManager overlayViewManager : overlayViewManagerTableView.getItems()) {
+			anyEnabled |= overlayViewManager.enabledProperty().get();
+		}
+
+		/*
+		Set every overlay view manager to the opposite state.
+		*/
+		for (OverlayViewManager overlayViewManager : overlayViewManagerTableView.getItems()) {
+			overlayViewManager.enabledProperty().set(!anyEnabled);
 		}
 	}
 }
\ No newline at end of file